@@ -8,7 +8,7 @@ import java.util.LinkedHashMap;
 import java.util.Map;
 
 import com.mawujun.lang.Assert;
-import com.mawujun.map.CaseInsensitiveMap;
+import com.mawujun.map.NormalizedKeyMap;
 import com.mawujun.util.BooleanUtil;
 import com.mawujun.util.ClassUtil;
 import com.mawujun.util.ModifierUtil;
@@ -36,6 +36,10 @@ public class BeanDesc {
 	private Class<?> beanClass;
 	/** 属性Map */
 	private Map<String, PropDesc> propMap = new LinkedHashMap<>();
+	/** 忽略大小写的属性表，初始化后不变 */
+	private NormalizedKeyMap<PropDesc> ignoreCasePropMap;
+	/** 驼峰风格的属性表，初始化后不变 */
+	private NormalizedKeyMap<PropDesc> camelCasePropMap;
 
 	/**
 	 * 构造
@@ -67,13 +71,35 @@ public class BeanDesc {
 	}
 
 	/**
-	 * 获取字段名-字段属性Map
+	 * 获取字段名-字段属性Map<br>
+	 * 忽略大小写时返回初始化时创建的只读属性表，查找时不创建新的Key字符串
 	 * 
 	 * @param ignoreCase 是否忽略大小写，true为忽略，false不忽略
 	 * @return 字段名-字段属性Map
 	 */
 	public Map<String, PropDesc> getPropMap(boolean ignoreCase) {
-		return ignoreCase ? new CaseInsensitiveMap<>(1, this.propMap) : this.propMap;
+		return ignoreCase ? this.ignoreCasePropMap : this.propMap;
+	}
+
+	/**
+	 * 获取驼峰风格的只读属性表，get("user_name")与get("userName")获得的属性相同
+	 * 
+	 * @return 字段名-字段属性Map
+	 * @see NormalizedKeyMap
+	 */
+	public Map<String, PropDesc> getCamelCasePropMap() {
+		return this.camelCasePropMap;
+	}
+
+	/**
+	 * 获取属性，如果不存在返回null
+	 * 
+	 * @param fieldName 字段名
+	 * @param ignoreCase 是否忽略大小写
+	 * @return {@link PropDesc}
+	 */
+	public PropDesc getProp(CharSequence fieldName, boolean ignoreCase) {
+		return ignoreCase ? this.ignoreCasePropMap.get(fieldName) : this.propMap.get(fieldName.toString());
 	}
 
 	/**
@@ -142,6 +168,8 @@ public class BeanDesc {
 				this.propMap.put(field.getName(), createProp(field));
 			}
 		}
+		this.ignoreCasePropMap = new NormalizedKeyMap<>(this.propMap, true, false);
+		this.camelCasePropMap = new NormalizedKeyMap<>(this.propMap, false, true);
 		return this;
 	}
 
@@ -453,4 +481,4 @@ public class BeanDesc {
 		}
 		//------------------------------------------------------------------------------------ Private method end
 	}
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -9,6 +9,7 @@ import java.util.Map;
 
 import com.mawujun.collection.CollUtil;
 import com.mawujun.convert.Convert;
+import com.mawujun.map.ConcurrentLRUMap;
 import com.mawujun.map.MapUtil;
 import com.mawujun.text.StrBuilder;
 import com.mawujun.util.ArrayUtil;
@@ -41,8 +42,15 @@ public class BeanPath {
 	/** 表达式边界符号数组 */
 	private static final char[] expChars = { CharUtil.DOT, CharUtil.BRACKET_START, CharUtil.BRACKET_END };
 
+	/** 全局缓存的最大表达式个数 */
+	private static final int CACHE_SIZE = 4096;
+	/** 表达式缓存，超出容量时淘汰近似最久未使用的表达式 */
+	private static final Map<String, BeanPath> CACHE = new ConcurrentLRUMap<>(CACHE_SIZE);
+
 	private boolean isStartWith$ = false;
-	public List<String> patternParts;
+	public final List<String> patternParts;
+	/** 编译后的表达式 */
+	private final CompiledBeanPath compiled;
 
 	/**
 	 * 解析Bean路径表达式为Bean模式<br>
@@ -63,11 +71,32 @@ public class BeanPath {
 	 * ['person']['friends'][5]['name']
 	 * </pre>
 	 * 
+	 * 相同的表达式只解析一次，结果被全局缓存
+	 * 
 	 * @param expression 表达式
 	 * @return {@link BeanPath}
 	 */
 	public static BeanPath create(String expression) {
-		return new BeanPath(expression);
+		BeanPath beanPath = CACHE.get(expression);
+		if (null == beanPath) {
+			beanPath = new BeanPath(expression);
+			final BeanPath old = CACHE.putIfAbsent(expression, beanPath);
+			if (null != old) {
+				beanPath = old;
+			}
+		}
+		return beanPath;
+	}
+
+	/**
+	 * 编译Bean路径表达式，结果被全局缓存<br>
+	 * 编译后的表达式预先解析下标，Bean字段使用按类缓存的MethodHandle读写，适用于同一表达式反复求值的场景
+	 * 
+	 * @param expression 表达式
+	 * @return {@link CompiledBeanPath}
+	 */
+	public static CompiledBeanPath compile(String expression) {
+		return create(expression).compiled;
 	}
 
 	/**
@@ -76,7 +105,8 @@ public class BeanPath {
 	 * @param expression 表达式
 	 */
 	public BeanPath(String expression) {
-		init(expression);
+		this.patternParts = init(expression);
+		this.compiled = new CompiledBeanPath(this);
 	}
 
 	/**
@@ -86,7 +116,7 @@ public class BeanPath {
 	 * @return 值，如果对应值不存在，则返回null
 	 */
 	public Object get(Object bean) {
-		return get(this.patternParts, bean, false);
+		return this.compiled.get(bean);
 	}
 
 	/**
@@ -103,6 +133,45 @@ public class BeanPath {
 	 * @param value 值
 	 */
 	public void set(Object bean, Object value) {
+		this.compiled.set(bean, value);
+	}
+
+	/**
+	 * 获取表达式解析后的分段，不可修改
+	 * 
+	 * @return 表达式分段列表
+	 */
+	public List<String> getPatternParts() {
+		return this.patternParts;
+	}
+
+	/**
+	 * 获取编译后的表达式
+	 * 
+	 * @return {@link CompiledBeanPath}
+	 */
+	public CompiledBeanPath getCompiled() {
+		return this.compiled;
+	}
+
+	/**
+	 * 逐段解析求值，用于无法编译的表达式（切片、多值）
+	 * 
+	 * @param bean Bean对象或Map或List等
+	 * @param ignoreLast 是否忽略最后一个值
+	 * @return 值
+	 */
+	Object getByParts(Object bean, boolean ignoreLast) {
+		return get(this.patternParts, bean, ignoreLast);
+	}
+
+	/**
+	 * 逐段解析设置值，用于无法编译的表达式（切片、多值）
+	 * 
+	 * @param bean Bean、Map或List
+	 * @param value 值
+	 */
+	void setByParts(Object bean, Object value) {
 		set(bean, this.patternParts, value);
 	}
 	
@@ -130,6 +199,15 @@ public class BeanPath {
 		BeanUtil.setFieldValue(subBean, patternParts.get(patternParts.size() - 1), value);
 	}
 
+	/**
+	 * 表达式是否以$开头，$开头表示表达式第一段不会匹配Bean本身
+	 * 
+	 * @return 是否以$开头
+	 */
+	boolean isStartWith$() {
+		return this.isStartWith$;
+	}
+
 	// ------------------------------------------------------------------------------------------------------------------------------------- Private method start
 	/**
 	 * 获取Bean中对应表达式的值
@@ -215,8 +293,9 @@ public class BeanPath {
 	 * 初始化
 	 * 
 	 * @param expression 表达式
+	 * @return 不可变的表达式分段列表
 	 */
-	private void init(String expression) {
+	private List<String> init(String expression) {
 		List<String> localPatternParts = new ArrayList<>();
 		int length = expression.length();
 
@@ -274,7 +353,7 @@ public class BeanPath {
 		}
 
 		// 不可变List
-		this.patternParts = Collections.unmodifiableList(localPatternParts);
+		return Collections.unmodifiableList(localPatternParts);
 	}
 
 	/**
@@ -24,6 +24,7 @@ import com.mawujun.lang.Editor;
 import com.mawujun.lang.Filter;
 import com.mawujun.map.CaseInsensitiveMap;
 import com.mawujun.map.MapUtil;
+import com.mawujun.map.NormalizedKeyMap;
 import com.mawujun.util.ArrayUtil;
 import com.mawujun.util.ClassUtil;
 import com.mawujun.util.ReflectUtil;
@@ -425,7 +426,8 @@ public class BeanUtil {
 			return bean;
 		}
 		if (isToCamelCase) {
-			map = MapUtil.toCamelCaseMap(map);
+			// 包装为驼峰查找表，查找时不再逐个转换并复制Key
+			map = new NormalizedKeyMap<>(map, false, true);
 		}
 		return BeanCopier.create(map, bean, copyOptions).copy();
 	}
@@ -0,0 +1,334 @@
+package com.mawujun.bean;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.mawujun.collection.CollUtil;
+import com.mawujun.convert.Convert;
+import com.mawujun.exception.exceptions.UtilException;
+import com.mawujun.util.ArrayUtil;
+import com.mawujun.util.NumberUtil;
+import com.mawujun.util.ReflectUtil;
+import com.mawujun.util.StrUtil;
+
+/**
+ * 编译后的Bean路径表达式<br>
+ * 表达式只解析一次，每一段预先解析下标，Bean字段通过{@link MethodHandle}直接读写，并按运行时类缓存（多态内联缓存），
+ * 适用于同一表达式对大量对象反复求值的场景，例如排序、规则匹配等。
+ *
+ * <p>
+ * 求值语义与{@link BeanPath#get(Object)}、{@link BeanPath#set(Object, Object)}一致，
+ * 包含切片（[start:end:step]）或多值（[a,b]）的表达式按原有方式逐段解析求值。
+ * </p>
+ *
+ * @author mawujun
+ * @see BeanPath#compile(String)
+ */
+public class CompiledBeanPath {
+
+	private final BeanPath beanPath;
+	/** 编译后的表达式段，为null表示表达式无法编译，使用{@link BeanPath}逐段求值 */
+	private final Segment[] segments;
+
+	/**
+	 * 编译Bean路径表达式，结果被全局缓存
+	 *
+	 * @param expression 表达式，例如：person.friends[5].name
+	 * @return {@link CompiledBeanPath}
+	 * @see BeanPath#compile(String)
+	 */
+	public static CompiledBeanPath compile(String expression) {
+		return BeanPath.compile(expression);
+	}
+
+	/**
+	 * 构造
+	 *
+	 * @param beanPath 已解析的{@link BeanPath}
+	 */
+	CompiledBeanPath(BeanPath beanPath) {
+		this.beanPath = beanPath;
+		this.segments = compileSegments(beanPath.patternParts);
+	}
+
+	/**
+	 * 获取Bean中对应表达式的值
+	 *
+	 * @param bean Bean对象或Map或List等
+	 * @return 值，如果对应值不存在，则返回null
+	 */
+	public Object get(Object bean) {
+		if (null == segments) {
+			return beanPath.getByParts(bean, false);
+		}
+		return get(bean, segments.length);
+	}
+
+	/**
+	 * 设置表达式指定位置（或filed对应）的值<br>
+	 * 规则同{@link BeanPath#set(Object, Object)}
+	 *
+	 * @param bean Bean、Map或List
+	 * @param value 值
+	 */
+	public void set(Object bean, Object value) {
+		if (null == segments) {
+			beanPath.setByParts(bean, value);
+			return;
+		}
+		set(bean, segments.length, value);
+	}
+
+	/**
+	 * 获取原始的{@link BeanPath}
+	 *
+	 * @return {@link BeanPath}
+	 */
+	public BeanPath getBeanPath() {
+		return this.beanPath;
+	}
+
+	/**
+	 * 表达式是否可编译，不可编译的表达式（切片、多值）按原有方式求值
+	 *
+	 * @return 是否可编译
+	 */
+	public boolean isCompiled() {
+		return null != segments;
+	}
+
+	// ------------------------------------------------------------------------------------------------------------------------------------- Private method start
+	/**
+	 * 获取前length段表达式对应的值
+	 *
+	 * @param bean Bean
+	 * @param length 表达式段数
+	 * @return 值
+	 */
+	private Object get(Object bean, int length) {
+		Object subBean = bean;
+		boolean isFirst = true;
+		Segment segment;
+		for (int i = 0; i < length; i++) {
+			segment = segments[i];
+			subBean = segment.get(subBean);
+			if (null == subBean) {
+				// 支持表达式的第一个对象为Bean本身（若用户定义表达式$开头，则不做此操作）
+				if (isFirst && false == beanPath.isStartWith$() && BeanUtil.isMatchName(bean, segment.name, true)) {
+					subBean = bean;
+					isFirst = false;
+				} else {
+					return null;
+				}
+			}
+		}
+		return subBean;
+	}
+
+	/**
+	 * 设置前length段表达式对应的值，中间对象不存在时创建{@link HashMap}
+	 *
+	 * @param bean Bean
+	 * @param length 表达式段数
+	 * @param value 值
+	 */
+	private void set(Object bean, int length, Object value) {
+		Object subBean = get(bean, length - 1);
+		if (null == subBean) {
+			set(bean, length - 1, new HashMap<>());
+			// set中有可能做过转换，因此此处重新获取bean
+			subBean = get(bean, length - 1);
+		}
+		segments[length - 1].set(subBean, value);
+	}
+
+	/**
+	 * 编译表达式段，存在切片或多值表达式时返回null
+	 *
+	 * @param patternParts 表达式段
+	 * @return 编译后的表达式段
+	 */
+	private static Segment[] compileSegments(List<String> patternParts) {
+		final Segment[] segments = new Segment[patternParts.size()];
+		String part;
+		for (int i = 0; i < segments.length; i++) {
+			part = patternParts.get(i);
+			if (StrUtil.isBlank(part) || StrUtil.contains(part, ':') || StrUtil.contains(part, ',')) {
+				return null;
+			}
+			segments[i] = new Segment(part);
+		}
+		return segments;
+	}
+	// ------------------------------------------------------------------------------------------------------------------------------------- Private method end
+
+	/**
+	 * 表达式中的一段，可能是字段名、Map的key或下标
+	 *
+	 * @author mawujun
+	 */
+	private static final class Segment {
+		/** 内联缓存的最大类个数，超出后使用Map查找 */
+		private static final int INLINE_CACHE_SIZE = 4;
+
+		final String name;
+		/** 预先解析的下标，非数字时为null，使用时与原实现一样抛出{@link NumberFormatException} */
+		final Integer index;
+		/** 多态内联缓存：最近访问的Bean类及其字段读写器 */
+		private volatile FieldAccess[] inlineCache = new FieldAccess[0];
+		/** 类型过多时使用的缓存 */
+		private final Map<Class<?>, FieldAccess> megamorphicCache = new ConcurrentHashMap<>();
+
+		Segment(String name) {
+			this.name = name;
+			this.index = NumberUtil.isInteger(name) ? Integer.valueOf(name) : null;
+		}
+
+		Object get(Object bean) {
+			if (null == bean) {
+				return null;
+			}
+			if (bean instanceof Map) {
+				return ((Map<?, ?>) bean).get(name);
+			} else if (bean instanceof Collection) {
+				return CollUtil.get((Collection<?>) bean, index());
+			} else if (ArrayUtil.isArray(bean)) {
+				return ArrayUtil.get(bean, index());
+			}
+			return access(bean.getClass()).get(bean);
+		}
+
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		void set(Object bean, Object value) {
+			if (bean instanceof Map) {
+				((Map) bean).put(name, value);
+			} else if (bean instanceof List) {
+				CollUtil.setOrAppend((List) bean, null == index ? Convert.toInt(name) : index, value);
+			} else if (ArrayUtil.isArray(bean)) {
+				ArrayUtil.setOrAppend(bean, null == index ? Convert.toInt(name) : index, value);
+			} else {
+				access(bean.getClass()).set(bean, value);
+			}
+		}
+
+		private int index() {
+			return null == index ? Integer.parseInt(name) : index;
+		}
+
+		/**
+		 * 获取Bean类对应的字段读写器，先查找内联缓存
+		 *
+		 * @param beanClass Bean类
+		 * @return {@link FieldAccess}
+		 */
+		private FieldAccess access(Class<?> beanClass) {
+			final FieldAccess[] cache = this.inlineCache;
+			for (FieldAccess access : cache) {
+				if (access.beanClass == beanClass) {
+					return access;
+				}
+			}
+
+			FieldAccess access = megamorphicCache.get(beanClass);
+			if (null == access) {
+				access = new FieldAccess(beanClass, name);
+				megamorphicCache.put(beanClass, access);
+			}
+			if (cache.length < INLINE_CACHE_SIZE) {
+				final FieldAccess[] newCache = new FieldAccess[cache.length + 1];
+				System.arraycopy(cache, 0, newCache, 0, cache.length);
+				newCache[cache.length] = access;
+				this.inlineCache = newCache;
+			}
+			return access;
+		}
+	}
+
+	/**
+	 * 绑定到具体类的字段读写器
+	 *
+	 * @author mawujun
+	 */
+	private static final class FieldAccess {
+		private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+		private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+		final Class<?> beanClass;
+		private final String fieldName;
+		private final Field field;
+		private final MethodHandle getter;
+		/** 字段为final时为null，使用反射设置 */
+		private final MethodHandle setter;
+
+		FieldAccess(Class<?> beanClass, String fieldName) {
+			this.beanClass = beanClass;
+			this.fieldName = fieldName;
+			this.field = ReflectUtil.getField(beanClass, fieldName);
+			if (null == field) {
+				this.getter = null;
+				this.setter = null;
+			} else {
+				field.setAccessible(true);
+				final MethodHandles.Lookup lookup = MethodHandles.lookup();
+				try {
+					MethodHandle getter = lookup.unreflectGetter(field);
+					MethodHandle setter = Modifier.isFinal(field.getModifiers()) ? null : lookup.unreflectSetter(field);
+					if (Modifier.isStatic(field.getModifiers())) {
+						// 静态字段忽略传入的对象
+						getter = MethodHandles.dropArguments(getter, 0, Object.class);
+						if (null != setter) {
+							setter = MethodHandles.dropArguments(setter, 0, Object.class);
+						}
+					}
+					this.getter = getter.asType(GETTER_TYPE);
+					this.setter = null == setter ? null : setter.asType(SETTER_TYPE);
+				} catch (IllegalAccessException e) {
+					throw new UtilException(e, "IllegalAccess for {}.{}", beanClass, fieldName);
+				}
+			}
+		}
+
+		Object get(Object bean) {
+			if (null == getter) {
+				return null;
+			}
+			try {
+				return (Object) getter.invokeExact(bean);
+			} catch (RuntimeException | Error e) {
+				throw e;
+			} catch (Throwable e) {
+				throw new UtilException(e);
+			}
+		}
+
+		void set(Object bean, Object value) {
+			if (null == setter || (null == value && field.getType().isPrimitive())) {
+				// 字段不存在、final字段或基本类型设置null，保持原有反射行为
+				ReflectUtil.setFieldValue(bean, fieldName, value);
+				return;
+			}
+			if (null != value && false == field.getType().isAssignableFrom(value.getClass())) {
+				// 对于类型不同的字段，尝试转换，转换失败则使用原对象类型
+				final Object targetValue = Convert.convert(field.getType(), value);
+				if (null != targetValue) {
+					value = targetValue;
+				}
+			}
+			try {
+				setter.invokeExact(bean, value);
+			} catch (RuntimeException | Error e) {
+				throw e;
+			} catch (Throwable e) {
+				throw new UtilException(e);
+			}
+		}
+	}
+}
@@ -1,17 +1,30 @@
 package com.mawujun.bean;
 
 import java.io.Serializable;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 
 import com.mawujun.clone.CloneSupport;
+import com.mawujun.exception.exceptions.UtilException;
 import com.mawujun.lang.Assert;
 import com.mawujun.util.ClassUtil;
 import com.mawujun.util.ReflectUtil;
+import com.mawujun.util.StrUtil;
 
 /**
  * 动态Bean，通过反射对Bean的相关方法做操作<br>
- * 支持Map和普通Bean
+ * 支持Map和普通Bean<br>
+ * 普通Bean的Getter和Setter按类缓存，首次访问某个属性时生成直接调用的访问类（{@link LambdaMetafactory}），之后的读写不再经过反射
  * 
  * @author Looly
  * @since 3.0.7
@@ -73,15 +86,16 @@ public class DynaBean extends CloneSupport<DynaBean> implements Serializable{
 	 */
 	@SuppressWarnings("unchecked")
 	public <T> T get(String fieldName) throws BeanException{
-		if(Map.class.isAssignableFrom(beanClass)){
+		final Accessors accessors = Accessors.of(beanClass);
+		if(accessors.isMap){
 			return (T) ((Map<?, ?>)bean).get(fieldName);
 		}else{
+			final Function<Object, Object> getter = accessors.getter(fieldName);
+			if(null == getter){
+				throw new BeanException("No get method for {}", fieldName);
+			}
 			try {
-				final Method method = BeanUtil.getBeanDesc(beanClass).getGetter(fieldName);
-				if(null == method){
-					throw new BeanException("No get method for {}", fieldName);
-				}
-				return (T) method.invoke(this.bean);
+				return (T) getter.apply(this.bean);
 			} catch (Exception e) {
 				throw new BeanException(e);
 			}
@@ -112,16 +126,17 @@ public class DynaBean extends CloneSupport<DynaBean> implements Serializable{
 	 */
 	@SuppressWarnings({ "unchecked", "rawtypes" })
 	public void set(String fieldName, Object value) throws BeanException{
-		if(Map.class.isAssignableFrom(beanClass)){
+		final Accessors accessors = Accessors.of(beanClass);
+		if(accessors.isMap){
 			((Map)bean).put(fieldName, value);
 			return;
 		}else{
+			final BiConsumer<Object, Object> setter = accessors.setter(fieldName);
+			if(null == setter){
+				throw new BeanException("No set method for {}", fieldName);
+			}
 			try {
-				final Method setter = BeanUtil.getBeanDesc(beanClass).getSetter(fieldName);
-				if(null == setter){
-					throw new BeanException("No set method for {}", fieldName);
-				}
-				setter.invoke(this.bean, value);
+				setter.accept(this.bean, value);
 			} catch (Exception e) {
 				throw new BeanException(e);
 			}
@@ -135,7 +150,11 @@ public class DynaBean extends CloneSupport<DynaBean> implements Serializable{
 	 * @return 执行结果，可能为null
 	 */
 	public Object invoke(String methodName, Object... params){
-		return ReflectUtil.invoke(this.bean, methodName, params);
+		final Method method = Accessors.of(beanClass).method(methodName, params);
+		if (null == method) {
+			throw new UtilException(StrUtil.format("No such method: [{}]", methodName));
+		}
+		return ReflectUtil.invoke(this.bean, method, params);
 	}
 	
 	/**
@@ -192,4 +211,203 @@ public class DynaBean extends CloneSupport<DynaBean> implements Serializable{
 	public String toString() {
 		return this.bean.toString();
 	}
+
+	/**
+	 * 单个Bean类的属性访问器和方法缓存，按需生成
+	 * 
+	 * @author mawujun
+	 */
+	private static final class Accessors {
+		private static final ClassValue<Accessors> CACHE = new ClassValue<Accessors>() {
+			@Override
+			protected Accessors computeValue(Class<?> type) {
+				return new Accessors(type);
+			}
+		};
+		private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+		private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+		private final Class<?> beanClass;
+		/** 是否为Map，避免每次调用时判断接口实现（未实现时判断较慢） */
+		final boolean isMap;
+		private final Map<String, Function<Object, Object>> getters = new ConcurrentHashMap<>();
+		private final Map<String, BiConsumer<Object, Object>> setters = new ConcurrentHashMap<>();
+		private final Map<MethodKey, Method> methods = new ConcurrentHashMap<>();
+
+		static Accessors of(Class<?> beanClass) {
+			return CACHE.get(beanClass);
+		}
+
+		private Accessors(Class<?> beanClass) {
+			this.beanClass = beanClass;
+			this.isMap = Map.class.isAssignableFrom(beanClass);
+		}
+
+		/**
+		 * 获取属性的读取器
+		 * 
+		 * @param fieldName 属性名
+		 * @return 读取器，无Getter返回null
+		 */
+		Function<Object, Object> getter(String fieldName) {
+			Function<Object, Object> getter = getters.get(fieldName);
+			if (null == getter) {
+				final Method method = BeanUtil.getBeanDesc(beanClass).getGetter(fieldName);
+				if (null == method) {
+					return null;
+				}
+				getter = createGetter(method);
+				getters.put(fieldName, getter);
+			}
+			return getter;
+		}
+
+		/**
+		 * 获取属性的写入器
+		 * 
+		 * @param fieldName 属性名
+		 * @return 写入器，无Setter返回null
+		 */
+		BiConsumer<Object, Object> setter(String fieldName) {
+			BiConsumer<Object, Object> setter = setters.get(fieldName);
+			if (null == setter) {
+				final Method method = BeanUtil.getBeanDesc(beanClass).getSetter(fieldName);
+				if (null == method) {
+					return null;
+				}
+				setter = createSetter(method);
+				setters.put(fieldName, setter);
+			}
+			return setter;
+		}
+
+		/**
+		 * 按方法名和参数类型查找方法，查找结果缓存
+		 * 
+		 * @param methodName 方法名
+		 * @param params 参数
+		 * @return 方法，不存在返回null
+		 */
+		Method method(String methodName, Object[] params) {
+			if (StrUtil.isBlank(methodName)) {
+				return null;
+			}
+			final MethodKey key = new MethodKey(methodName, ClassUtil.getClasses(params));
+			Method method = methods.get(key);
+			if (null == method) {
+				method = ReflectUtil.getMethod(beanClass, methodName, key.paramTypes);
+				if (null != method) {
+					methods.put(key, method);
+				}
+			}
+			return method;
+		}
+
+		// ------------------------------------------------------------------------------------------------------------------------------------- Private method start
+		@SuppressWarnings("unchecked")
+		private static Function<Object, Object> createGetter(Method method) {
+			final MethodHandle handle = unreflect(method);
+			if (isGeneratable(method)) {
+				try {
+					final CallSite site = LambdaMetafactory.metafactory(MethodHandles.lookup(), "apply", MethodType.methodType(Function.class), //
+							GETTER_TYPE, handle, handle.type().wrap());
+					return (Function<Object, Object>) site.getTarget().invoke();
+				} catch (Throwable e) {
+					// 无法生成访问类时使用MethodHandle
+				}
+			}
+			final MethodHandle getter = handle.asType(GETTER_TYPE);
+			return bean -> {
+				try {
+					return (Object) getter.invokeExact(bean);
+				} catch (RuntimeException | Error e) {
+					throw e;
+				} catch (Throwable e) {
+					throw new UtilException(e);
+				}
+			};
+		}
+
+		@SuppressWarnings("unchecked")
+		private static BiConsumer<Object, Object> createSetter(Method method) {
+			final MethodHandle handle = unreflect(method);
+			if (isGeneratable(method)) {
+				try {
+					final CallSite site = LambdaMetafactory.metafactory(MethodHandles.lookup(), "accept", MethodType.methodType(BiConsumer.class), //
+							SETTER_TYPE, handle, handle.type().wrap().changeReturnType(void.class));
+					return (BiConsumer<Object, Object>) site.getTarget().invoke();
+				} catch (Throwable e) {
+					// 无法生成访问类时使用MethodHandle
+				}
+			}
+			// 链式Setter的返回值忽略
+			final MethodHandle setter = handle.asType(handle.type().changeReturnType(void.class)).asType(SETTER_TYPE);
+			return (bean, value) -> {
+				try {
+					setter.invokeExact(bean, value);
+				} catch (RuntimeException | Error e) {
+					throw e;
+				} catch (Throwable e) {
+					throw new UtilException(e);
+				}
+			};
+		}
+
+		private static MethodHandle unreflect(Method method) {
+			method.setAccessible(true);
+			try {
+				return MethodHandles.lookup().unreflect(method);
+			} catch (IllegalAccessException e) {
+				throw new BeanException(e, "IllegalAccess for {}", method);
+			}
+		}
+
+		/**
+		 * 生成的访问类定义在DynaBean的ClassLoader中，只有方法公开且可以从此ClassLoader加载其所在类时才能直接调用
+		 */
+		private static boolean isGeneratable(Method method) {
+			final Class<?> declaringClass = method.getDeclaringClass();
+			if (false == Modifier.isPublic(method.getModifiers()) || false == Modifier.isPublic(declaringClass.getModifiers())) {
+				return false;
+			}
+			try {
+				return declaringClass == Class.forName(declaringClass.getName(), false, DynaBean.class.getClassLoader());
+			} catch (ClassNotFoundException | LinkageError e) {
+				return false;
+			}
+		}
+		// ------------------------------------------------------------------------------------------------------------------------------------- Private method end
+	}
+
+	/**
+	 * 方法名和参数类型
+	 */
+	private static final class MethodKey {
+		final String name;
+		final Class<?>[] paramTypes;
+		private final int hash;
+
+		MethodKey(String name, Class<?>[] paramTypes) {
+			this.name = name;
+			this.paramTypes = paramTypes;
+			this.hash = 31 * name.hashCode() + Arrays.hashCode(paramTypes);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (false == obj instanceof MethodKey) {
+				return false;
+			}
+			final MethodKey other = (MethodKey) obj;
+			return name.equals(other.name) && Arrays.equals(paramTypes, other.paramTypes);
+		}
+	}
 }
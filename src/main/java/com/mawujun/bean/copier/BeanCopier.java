@@ -1,9 +1,7 @@
 package com.mawujun.bean.copier;
 
 import java.lang.reflect.Method;
-import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
-import java.lang.reflect.TypeVariable;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Map;
@@ -15,13 +13,10 @@ import com.mawujun.bean.copier.provider.MapValueProvider;
 import com.mawujun.collection.CollUtil;
 import com.mawujun.convert.Convert;
 import com.mawujun.exception.exceptions.UtilException;
-import com.mawujun.lang.ParameterizedTypeImpl;
 import com.mawujun.lang.copier.Copier;
 import com.mawujun.map.MapUtil;
-import com.mawujun.util.ArrayUtil;
 import com.mawujun.util.ObjectUtil;
 import com.mawujun.util.StrUtil;
-import com.mawujun.util.TypeUtil;
 
 /**
  * Bean拷贝
@@ -209,51 +204,18 @@ public class BeanCopier<T> implements Copier<T> {
 			}
 			actualEditable = copyOptions.editable;
 		}
-		final HashSet<String> ignoreSet = (null != copyOptions.ignoreProperties) ? CollUtil.newHashSet(copyOptions.ignoreProperties) : null;
-		final Map<String, String> fieldReverseMapping = copyOptions.getReversedMapping();
-
-		final Collection<PropDesc> props = BeanUtil.getBeanDesc(actualEditable).getProps();
-		String fieldName;
+		// 属性、Setter及泛型参数类型按目标类型和拷贝选项预先计算并缓存
+		final CopyPlan plan = CopyPlan.get(actualEditable, this.destType, copyOptions);
+		String providerKey;
 		Object value;
-		Method setterMethod;
-		Class<?> propClass;
-		for (PropDesc prop : props) {
-			// 获取值
-			fieldName = prop.getFieldName();
-			if (CollUtil.contains(ignoreSet, fieldName)) {
-				// 目标属性值被忽略或值提供者无此key时跳过
-				continue;
-			}
-			final String providerKey = mappingKey(fieldReverseMapping, fieldName);
+		for (CopyPlan.PropPlan prop : plan.props) {
+			providerKey = prop.providerKey;
 			if (false == valueProvider.containsKey(providerKey)) {
 				// 无对应值可提供
 				continue;
 			}
-			setterMethod = prop.getSetter();
-			if (null == setterMethod) {
-				// Setter方法不存在跳过
-				continue;
-			}
-
-			Type firstParamType = TypeUtil.getFirstParamType(setterMethod);
-			if (firstParamType instanceof ParameterizedType) {
-				// 参数为泛型参数类型，解析对应泛型类型为真实类型
-				ParameterizedType tmp = (ParameterizedType) firstParamType;
-				Type[] actualTypeArguments = tmp.getActualTypeArguments();
-				if (TypeUtil.hasTypeVeriable(actualTypeArguments)) {
-					// 泛型对象中含有未被转换的泛型变量
-					actualTypeArguments = TypeUtil.getActualTypes(this.destType, setterMethod.getDeclaringClass(), tmp.getActualTypeArguments());
-					if (ArrayUtil.isNotEmpty(actualTypeArguments)) {
-						// 替换泛型变量为实际类型
-						firstParamType = new ParameterizedTypeImpl(actualTypeArguments, tmp.getOwnerType(), tmp.getRawType());
-					}
-				}
-			} else if (firstParamType instanceof TypeVariable) {
-				// 参数为泛型，查找其真实类型（适用于泛型方法定义于泛型父类）
-				firstParamType = TypeUtil.getActualType(this.destType, setterMethod.getDeclaringClass(), (TypeVariable<?>) firstParamType);
-			}
 
-			value = valueProvider.value(providerKey, firstParamType);
+			value = valueProvider.value(providerKey, prop.paramType);
 			if (null == value && copyOptions.ignoreNullValue) {
 				continue;// 当允许跳过空时，跳过
 			}
@@ -263,21 +225,20 @@ public class BeanCopier<T> implements Copier<T> {
 
 			try {
 				// valueProvider在没有对值做转换且当类型不匹配的时候，执行默认转换
-				propClass = prop.getFieldClass();
-				if (false == propClass.isInstance(value)) {
-					value = Convert.convert(propClass, value);
+				if (false == prop.fieldClass.isInstance(value)) {
+					value = Convert.convert(prop.fieldClass, value);
 					if (null == value && copyOptions.ignoreNullValue) {
 						continue;// 当允许跳过空时，跳过
 					}
 				}
 
 				// 执行set方法注入值
-				setterMethod.invoke(bean, value);
+				prop.setter.invoke(bean, value);
 			} catch (Exception e) {
 				if (copyOptions.ignoreError) {
 					continue;// 忽略注入失败
 				} else {
-					throw new UtilException(e, "Inject [{}] error!", prop.getFieldName());
+					throw new UtilException(e, "Inject [{}] error!", prop.fieldName);
 				}
 			}
 		}
@@ -0,0 +1,203 @@
+package com.mawujun.bean.copier;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import com.mawujun.bean.BeanDesc.PropDesc;
+import com.mawujun.bean.BeanUtil;
+import com.mawujun.lang.ParameterizedTypeImpl;
+import com.mawujun.map.ConcurrentLRUMap;
+import com.mawujun.map.MapUtil;
+import com.mawujun.util.ArrayUtil;
+import com.mawujun.util.ObjectUtil;
+import com.mawujun.util.TypeUtil;
+
+/**
+ * 值提供者转Bean的拷贝计划<br>
+ * 对同一目标类、目标泛型类型及相同的忽略属性和字段映射，预先计算每个可写属性的Setter、值提供者中的Key及解析泛型后的参数类型，
+ * 拷贝时只需取值和注入。计划按近似最近最少使用（CLOCK）淘汰，最多缓存{@link #CACHE_CAPACITY}个，读取缓存无锁。
+ *
+ * @author mawujun
+ */
+final class CopyPlan {
+
+	/** 缓存的计划数 */
+	static final int CACHE_CAPACITY = 1024;
+	private static final Map<Key, CopyPlan> CACHE = new ConcurrentLRUMap<>(CACHE_CAPACITY);
+
+	/** 需要拷贝的属性 */
+	final PropPlan[] props;
+
+	private CopyPlan(PropPlan[] props) {
+		this.props = props;
+	}
+
+	/**
+	 * 获取拷贝计划，不存在则创建并缓存
+	 *
+	 * @param editable 实际拷贝的Bean类（目标类或限制类）
+	 * @param destType 目标的泛型类型
+	 * @param copyOptions 拷贝选项，只使用其中的忽略属性和字段映射
+	 * @return {@link CopyPlan}
+	 */
+	static CopyPlan get(Class<?> editable, Type destType, CopyOptions copyOptions) {
+		final Key key = new Key(editable, destType, copyOptions.ignoreProperties, copyOptions.fieldMapping);
+		CopyPlan plan = CACHE.get(key);
+		if (null == plan) {
+			plan = create(editable, destType, copyOptions);
+			CACHE.put(key.snapshot(), plan);
+		}
+		return plan;
+	}
+
+	/**
+	 * 清空缓存的拷贝计划
+	 */
+	static void clearCache() {
+		CACHE.clear();
+	}
+
+	/**
+	 * 当前缓存的拷贝计划数
+	 *
+	 * @return 计划数
+	 */
+	static int cacheSize() {
+		return CACHE.size();
+	}
+
+	// ------------------------------------------------------------------------------------------------------------------------------------- Private method start
+	private static CopyPlan create(Class<?> editable, Type destType, CopyOptions copyOptions) {
+		final Set<String> ignoreSet = (null != copyOptions.ignoreProperties) ? new HashSet<>(Arrays.asList(copyOptions.ignoreProperties)) : null;
+		final Map<String, String> fieldReverseMapping = copyOptions.getReversedMapping();
+
+		final List<PropPlan> props = new ArrayList<>();
+		String fieldName;
+		Method setterMethod;
+		for (PropDesc prop : BeanUtil.getBeanDesc(editable).getProps()) {
+			fieldName = prop.getFieldName();
+			if (null != ignoreSet && ignoreSet.contains(fieldName)) {
+				continue;
+			}
+			setterMethod = prop.getSetter();
+			if (null == setterMethod) {
+				continue;
+			}
+			props.add(new PropPlan(fieldName, mappingKey(fieldReverseMapping, fieldName), setterMethod, resolveParamType(destType, setterMethod), prop.getFieldClass()));
+		}
+		return new CopyPlan(props.toArray(new PropPlan[0]));
+	}
+
+	/**
+	 * Setter参数类型，泛型参数解析为目标泛型类型中的真实类型
+	 */
+	private static Type resolveParamType(Type destType, Method setterMethod) {
+		Type firstParamType = TypeUtil.getFirstParamType(setterMethod);
+		if (firstParamType instanceof ParameterizedType) {
+			// 参数为泛型参数类型，解析对应泛型类型为真实类型
+			ParameterizedType tmp = (ParameterizedType) firstParamType;
+			Type[] actualTypeArguments = tmp.getActualTypeArguments();
+			if (TypeUtil.hasTypeVeriable(actualTypeArguments)) {
+				// 泛型对象中含有未被转换的泛型变量
+				actualTypeArguments = TypeUtil.getActualTypes(destType, setterMethod.getDeclaringClass(), tmp.getActualTypeArguments());
+				if (ArrayUtil.isNotEmpty(actualTypeArguments)) {
+					// 替换泛型变量为实际类型
+					firstParamType = new ParameterizedTypeImpl(actualTypeArguments, tmp.getOwnerType(), tmp.getRawType());
+				}
+			}
+		} else if (firstParamType instanceof TypeVariable) {
+			// 参数为泛型，查找其真实类型（适用于泛型方法定义于泛型父类）
+			firstParamType = TypeUtil.getActualType(destType, setterMethod.getDeclaringClass(), (TypeVariable<?>) firstParamType);
+		}
+		return firstParamType;
+	}
+
+	private static String mappingKey(Map<String, String> mapping, String fieldName) {
+		if (MapUtil.isEmpty(mapping)) {
+			return fieldName;
+		}
+		return ObjectUtil.defaultIfNull(mapping.get(fieldName), fieldName);
+	}
+	// ------------------------------------------------------------------------------------------------------------------------------------- Private method end
+
+	/**
+	 * 单个属性的拷贝计划
+	 */
+	static final class PropPlan {
+		/** 字段名 */
+		final String fieldName;
+		/** 值提供者中的Key（字段映射后） */
+		final String providerKey;
+		final Method setter;
+		/** 解析泛型后的Setter参数类型 */
+		final Type paramType;
+		final Class<?> fieldClass;
+
+		PropPlan(String fieldName, String providerKey, Method setter, Type paramType, Class<?> fieldClass) {
+			this.fieldName = fieldName;
+			this.providerKey = providerKey;
+			this.setter = setter;
+			this.paramType = paramType;
+			this.fieldClass = fieldClass;
+		}
+	}
+
+	/**
+	 * 缓存Key，查找时直接引用拷贝选项中的数组和Map，放入缓存时复制一份，避免拷贝选项修改后影响已缓存的Key
+	 */
+	private static final class Key {
+		private final Class<?> editable;
+		private final Type destType;
+		private final String[] ignoreProperties;
+		private final Map<String, String> fieldMapping;
+		private final int hash;
+
+		Key(Class<?> editable, Type destType, String[] ignoreProperties, Map<String, String> fieldMapping) {
+			this.editable = editable;
+			this.destType = destType;
+			this.ignoreProperties = ArrayUtil.isEmpty(ignoreProperties) ? null : ignoreProperties;
+			this.fieldMapping = MapUtil.isEmpty(fieldMapping) ? null : fieldMapping;
+			int h = editable.hashCode();
+			h = 31 * h + Objects.hashCode(destType);
+			h = 31 * h + Arrays.hashCode(this.ignoreProperties);
+			this.hash = 31 * h + Objects.hashCode(this.fieldMapping);
+		}
+
+		Key snapshot() {
+			return new Key(editable, destType, //
+					(null == ignoreProperties) ? null : ignoreProperties.clone(), //
+					(null == fieldMapping) ? null : new HashMap<>(fieldMapping));
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (false == (obj instanceof Key)) {
+				return false;
+			}
+			final Key other = (Key) obj;
+			return hash == other.hash //
+					&& editable == other.editable //
+					&& Objects.equals(destType, other.destType) //
+					&& Arrays.equals(ignoreProperties, other.ignoreProperties) //
+					&& Objects.equals(fieldMapping, other.fieldMapping);
+		}
+	}
+}
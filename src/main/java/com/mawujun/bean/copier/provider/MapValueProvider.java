@@ -6,6 +6,7 @@ import java.util.Map;
 import com.mawujun.bean.copier.ValueProvider;
 import com.mawujun.convert.Convert;
 import com.mawujun.map.CaseInsensitiveMap;
+import com.mawujun.map.NormalizedKeyMap;
 import com.mawujun.util.StrUtil;
 
 /**
@@ -25,12 +26,29 @@ public class MapValueProvider implements ValueProvider<String> {
 	 * @param ignoreCase 是否忽略key的大小写
 	 */
 	public MapValueProvider(Map<?, ?> map, boolean ignoreCase) {
-		if(false == ignoreCase || map instanceof CaseInsensitiveMap) {
+		this(map, ignoreCase, false);
+	}
+
+	/**
+	 * 构造<br>
+	 * 需要忽略大小写或转驼峰时，使用{@link NormalizedKeyMap}包装原Map，查找时不再为每个Key创建新的字符串
+	 * 
+	 * @param map Map
+	 * @param ignoreCase 是否忽略key的大小写
+	 * @param isToCamelCase 是否将Map中的下划线风格key按驼峰风格匹配
+	 */
+	public MapValueProvider(Map<?, ?> map, boolean ignoreCase, boolean isToCamelCase) {
+		if(map instanceof NormalizedKeyMap) {
+			//已经是规范化查找表，合并规则
+			final NormalizedKeyMap<?> normalizedMap = (NormalizedKeyMap<?>) map;
+			ignoreCase = ignoreCase || normalizedMap.isIgnoreCase();
+			isToCamelCase = isToCamelCase || normalizedMap.isCamelCase();
+			this.map = (ignoreCase == normalizedMap.isIgnoreCase() && isToCamelCase == normalizedMap.isCamelCase()) ? map : new NormalizedKeyMap<>(map, ignoreCase, isToCamelCase);
+		}else if(isToCamelCase || (ignoreCase && false == (map instanceof CaseInsensitiveMap))) {
+			this.map = new NormalizedKeyMap<>(map, ignoreCase, isToCamelCase);
+		}else {
 			//不忽略大小写或者提供的Map本身为CaseInsensitiveMap则无需转换
 			this.map = map;
-		}else {
-			//转换为大小写不敏感的Map
-			this.map = new CaseInsensitiveMap<>(map);
 		}
 	}
 
@@ -1,8 +1,5 @@
 package com.mawujun.builder;
 
-import java.lang.reflect.AccessibleObject;
-import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
 import java.util.Collection;
 import java.util.Comparator;
 
@@ -232,57 +229,15 @@ public class CompareToBuilder implements Builder<Integer> {
         if (lhs == null || rhs == null) {
             throw new NullPointerException();
         }
-        Class<?> lhsClazz = lhs.getClass();
+        final Class<?> lhsClazz = lhs.getClass();
         if (!lhsClazz.isInstance(rhs)) {
             throw new ClassCastException();
         }
         final CompareToBuilder compareToBuilder = new CompareToBuilder();
-        reflectionAppend(lhs, rhs, lhsClazz, compareToBuilder, compareTransients, excludeFields);
-        while (lhsClazz.getSuperclass() != null && lhsClazz != reflectUpToClass) {
-            lhsClazz = lhsClazz.getSuperclass();
-            reflectionAppend(lhs, rhs, lhsClazz, compareToBuilder, compareTransients, excludeFields);
-        }
+        ReflectionPlan.of(lhsClazz, compareTransients, reflectUpToClass, excludeFields).appendCompareTo(lhs, rhs, compareToBuilder);
         return compareToBuilder.toComparison();
     }
 
-    /**
-     * <p>Appends to <code>builder</code> the comparison of <code>lhs</code>
-     * to <code>rhs</code> using the fields defined in <code>clazz</code>.</p>
-     * 
-     * @param lhs  left-hand object
-     * @param rhs  right-hand object
-     * @param clazz  <code>Class</code> that defines fields to be compared
-     * @param builder  <code>CompareToBuilder</code> to append to
-     * @param useTransients  whether to compare transient fields
-     * @param excludeFields  fields to exclude
-     */
-    private static void reflectionAppend(
-        final Object lhs,
-        final Object rhs,
-        final Class<?> clazz,
-        final CompareToBuilder builder,
-        final boolean useTransients,
-        final String[] excludeFields) {
-        
-        final Field[] fields = clazz.getDeclaredFields();
-        AccessibleObject.setAccessible(fields, true);
-        for (int i = 0; i < fields.length && builder.comparison == 0; i++) {
-            final Field f = fields[i];
-            if (false == ArrayUtil.contains(excludeFields, f.getName())
-                && (f.getName().indexOf('$') == -1)
-                && (useTransients || !Modifier.isTransient(f.getModifiers()))
-                && (!Modifier.isStatic(f.getModifiers()))) {
-                try {
-                    builder.append(f.get(lhs), f.get(rhs));
-                } catch (final IllegalAccessException e) {
-                    // This can't happen. Would get a Security exception instead.
-                    // Throw a runtime exception in case the impossible happens.
-                    throw new InternalError("Unexpected IllegalAccessException");
-                }
-            }
-        }
-    }
-
     //-----------------------------------------------------------------------
     /**
      * <p>Appends to the <code>builder</code> the <code>compareTo(Object)</code>
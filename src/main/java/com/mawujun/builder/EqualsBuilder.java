@@ -1,8 +1,5 @@
 package com.mawujun.builder;
 
-import java.lang.reflect.AccessibleObject;
-import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
@@ -138,7 +135,7 @@ public class EqualsBuilder implements Builder<Boolean> {
     static boolean isRegistered(final Object lhs, final Object rhs) {
         final Set<Pair<IDKey, IDKey>> registry = getRegistry();
         final Pair<IDKey, IDKey> pair = getRegisterPair(lhs, rhs);
-        final Pair<IDKey, IDKey> swappedPair = new Pair<IDKey, IDKey>(pair.getKey(), pair.getValue());
+        final Pair<IDKey, IDKey> swappedPair = new Pair<IDKey, IDKey>(pair.getValue(), pair.getKey());
 
         return registry != null
                 && (registry.contains(pair) || registry.contains(swappedPair));
@@ -342,74 +339,23 @@ public class EqualsBuilder implements Builder<Boolean> {
             return false;
         }
         final EqualsBuilder equalsBuilder = new EqualsBuilder();
-        try {
-            if (testClass.isArray()) {
-                equalsBuilder.append(lhs, rhs);
-            } else {
-                reflectionAppend(lhs, rhs, testClass, equalsBuilder, testTransients, excludeFields);
-                while (testClass.getSuperclass() != null && testClass != reflectUpToClass) {
-                    testClass = testClass.getSuperclass();
-                    reflectionAppend(lhs, rhs, testClass, equalsBuilder, testTransients, excludeFields);
-                }
+        if (testClass.isArray()) {
+            equalsBuilder.append(lhs, rhs);
+        } else {
+            final ReflectionPlan plan = ReflectionPlan.of(testClass, testTransients, reflectUpToClass, excludeFields);
+            if (lhsClass != rhsClass && false == plan.isApplicable(lhs, rhs)) {
+                // In this case, we tried to test a subclass vs. a superclass and
+                // the subclass has ivars or the ivars are transient and
+                // we are testing transients.
+                // If a subclass has ivars that we are trying to test them,
+                // we know that the objects are not equal.
+                return false;
             }
-        } catch (final IllegalArgumentException e) {
-            // In this case, we tried to test a subclass vs. a superclass and
-            // the subclass has ivars or the ivars are transient and
-            // we are testing transients.
-            // If a subclass has ivars that we are trying to test them, we get an
-            // exception and we know that the objects are not equal.
-            return false;
+            plan.appendEquals(lhs, rhs, equalsBuilder);
         }
         return equalsBuilder.isEquals();
     }
 
-    /**
-     * <p>Appends the fields and values defined by the given object of the
-     * given Class.</p>
-     *
-     * @param lhs  the left hand object
-     * @param rhs  the right hand object
-     * @param clazz  the class to append details of
-     * @param builder  the builder to append to
-     * @param useTransients  whether to test transient fields
-     * @param excludeFields  array of field names to exclude from testing
-     */
-    private static void reflectionAppend(
-        final Object lhs,
-        final Object rhs,
-        final Class<?> clazz,
-        final EqualsBuilder builder,
-        final boolean useTransients,
-        final String[] excludeFields) {
-
-        if (isRegistered(lhs, rhs)) {
-            return;
-        }
-
-        try {
-            register(lhs, rhs);
-            final Field[] fields = clazz.getDeclaredFields();
-            AccessibleObject.setAccessible(fields, true);
-            for (int i = 0; i < fields.length && builder.isEquals; i++) {
-                final Field f = fields[i];
-                if (false == ArrayUtil.contains(excludeFields, f.getName())
-                    && (f.getName().indexOf('$') == -1)
-                    && (useTransients || !Modifier.isTransient(f.getModifiers()))
-                    && (!Modifier.isStatic(f.getModifiers()))) {
-                    try {
-                        builder.append(f.get(lhs), f.get(rhs));
-                    } catch (final IllegalAccessException e) {
-                        //this can't happen. Would get a Security exception instead
-                        //throw a runtime exception in case the impossible happens.
-                        throw new InternalError("Unexpected IllegalAccessException");
-                    }
-                }
-            }
-        } finally {
-            unregister(lhs, rhs);
-        }
-    }
-
     //-------------------------------------------------------------------------
 
     /**
@@ -1,8 +1,5 @@
 package com.mawujun.builder;
 
-import java.lang.reflect.AccessibleObject;
-import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
@@ -143,56 +140,11 @@ public class HashCodeBuilder implements Builder<Integer> {
      * @return boolean <code>true</code> if the registry contains the given object.
      * @since 2.3
      */
-    private static boolean isRegistered(final Object value) {
+    static boolean isRegistered(final Object value) {
         final Set<IDKey> registry = getRegistry();
         return registry != null && registry.contains(new IDKey(value));
     }
 
-    /**
-     * <p>
-     * Appends the fields and values defined by the given object of the given <code>Class</code>.
-     * </p>
-     *
-     * @param object
-     *            the object to append details of
-     * @param clazz
-     *            the class to append details of
-     * @param builder
-     *            the builder to append to
-     * @param useTransients
-     *            whether to use transient fields
-     * @param excludeFields
-     *            Collection of String field names to exclude from use in calculation of hash code
-     */
-    private static void reflectionAppend(final Object object, final Class<?> clazz, final HashCodeBuilder builder, final boolean useTransients,
-            final String[] excludeFields) {
-        if (isRegistered(object)) {
-            return;
-        }
-        try {
-            register(object);
-            final Field[] fields = clazz.getDeclaredFields();
-            AccessibleObject.setAccessible(fields, true);
-            for (final Field field : fields) {
-                if (false == ArrayUtil.contains(excludeFields, field.getName())
-                    && (field.getName().indexOf('$') == -1)
-                    && (useTransients || !Modifier.isTransient(field.getModifiers()))
-                    && (!Modifier.isStatic(field.getModifiers()))) {
-                    try {
-                        final Object fieldValue = field.get(object);
-                        builder.append(fieldValue);
-                    } catch (final IllegalAccessException e) {
-                        // this can't happen. Would get a Security exception instead
-                        // throw a runtime exception in case the impossible happens.
-                        throw new InternalError("Unexpected IllegalAccessException");
-                    }
-                }
-            }
-        } finally {
-            unregister(object);
-        }
-    }
-
     /**
      * <p>
      * Uses reflection to build a valid hash code from the fields of {@code object}.
@@ -335,12 +287,7 @@ public class HashCodeBuilder implements Builder<Integer> {
             throw new IllegalArgumentException("The object to build a hash code for must not be null");
         }
         final HashCodeBuilder builder = new HashCodeBuilder(initialNonZeroOddNumber, multiplierNonZeroOddNumber);
-        Class<?> clazz = object.getClass();
-        reflectionAppend(object, clazz, builder, testTransients, excludeFields);
-        while (clazz.getSuperclass() != null && clazz != reflectUpToClass) {
-            clazz = clazz.getSuperclass();
-            reflectionAppend(object, clazz, builder, testTransients, excludeFields);
-        }
+        ReflectionPlan.of(object.getClass(), testTransients, reflectUpToClass, excludeFields).appendHashCode(object, builder);
         return builder.toHashCode();
     }
 
@@ -0,0 +1,492 @@
+package com.mawujun.builder;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.mawujun.exception.exceptions.UtilException;
+import com.mawujun.util.ArrayUtil;
+
+/**
+ * 反射比较计划<br>
+ * 将某个类参与 equals/hashCode/compareTo 的字段预先解析为{@link MethodHandle}，按 类 + 参数 缓存，
+ * 避免{@link EqualsBuilder#reflectionEquals(Object, Object, String...)}等方法每次调用都枚举字段、setAccessible以及访问IDKey注册表。
+ *
+ * <p>
+ * 基本类型字段和基本类型数组字段通过强类型的{@link MethodHandle}读取，不会装箱。<br>
+ * 计算结果与逐字段反射的实现保持一致（包括hashCode的值）。
+ * </p>
+ *
+ * <p>
+ * 循环引用检测：只有当反射比较嵌套超过{@link #REGISTRY_DEPTH}层时才启用原有的IDKey注册表，
+ * 普通的非递归调用不再产生任何注册开销。
+ * </p>
+ *
+ * @author mawujun
+ */
+final class ReflectionPlan {
+
+    /** 反射调用嵌套超过此深度时才启用循环引用注册表 */
+    static final int REGISTRY_DEPTH = 8;
+
+    private static final String[] EMPTY = new String[0];
+
+    private static final int BOOLEAN = 0;
+    private static final int BYTE = 1;
+    private static final int CHAR = 2;
+    private static final int SHORT = 3;
+    private static final int INT = 4;
+    private static final int LONG = 5;
+    private static final int FLOAT = 6;
+    private static final int DOUBLE = 7;
+    private static final int BOOLEAN_ARRAY = 8;
+    private static final int BYTE_ARRAY = 9;
+    private static final int CHAR_ARRAY = 10;
+    private static final int SHORT_ARRAY = 11;
+    private static final int INT_ARRAY = 12;
+    private static final int LONG_ARRAY = 13;
+    private static final int FLOAT_ARRAY = 14;
+    private static final int DOUBLE_ARRAY = 15;
+    private static final int OBJECT = 16;
+
+    /** 当前线程反射调用的嵌套深度 */
+    private static final ThreadLocal<int[]> DEPTH = new ThreadLocal<int[]>() {
+        @Override
+        protected int[] initialValue() {
+            return new int[1];
+        }
+    };
+
+    /** 按类缓存，类卸载时随之回收 */
+    private static final ClassValue<ConcurrentMap<PlanKey, ReflectionPlan>> PLANS = new ClassValue<ConcurrentMap<PlanKey, ReflectionPlan>>() {
+        @Override
+        protected ConcurrentMap<PlanKey, ReflectionPlan> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>(4);
+        }
+    };
+
+    /**
+     * 获取指定类的比较计划，不存在则创建并缓存
+     *
+     * @param clazz 类
+     * @param useTransients 是否包含transient字段
+     * @param reflectUpToClass 向上反射到的父类（包含），null表示到{@link Object}
+     * @param excludeFields 排除的字段名
+     * @return 比较计划
+     */
+    static ReflectionPlan of(final Class<?> clazz, final boolean useTransients, final Class<?> reflectUpToClass, final String[] excludeFields) {
+        final ConcurrentMap<PlanKey, ReflectionPlan> plans = PLANS.get(clazz);
+        final PlanKey key = new PlanKey(useTransients, reflectUpToClass, null == excludeFields ? EMPTY : excludeFields);
+        ReflectionPlan plan = plans.get(key);
+        if (null == plan) {
+            plan = new ReflectionPlan(clazz, useTransients, reflectUpToClass, key.excludeFields.clone());
+            final ReflectionPlan old = plans.putIfAbsent(new PlanKey(useTransients, reflectUpToClass, plan.excludeFields), plan);
+            if (null != old) {
+                plan = old;
+            }
+        }
+        return plan;
+    }
+
+    private final String[] excludeFields;
+    private final Accessor[] accessors;
+
+    private ReflectionPlan(final Class<?> clazz, final boolean useTransients, final Class<?> reflectUpToClass, final String[] excludeFields) {
+        this.excludeFields = excludeFields;
+        final List<Accessor> list = new ArrayList<>();
+        Class<?> current = clazz;
+        addFields(list, current, useTransients, excludeFields);
+        while (current.getSuperclass() != null && current != reflectUpToClass) {
+            current = current.getSuperclass();
+            addFields(list, current, useTransients, excludeFields);
+        }
+        this.accessors = list.toArray(new Accessor[list.size()]);
+    }
+
+    /**
+     * 检查两个对象是否都拥有计划中的所有字段<br>
+     * 子类与父类比较且子类有额外字段时返回false
+     *
+     * @param lhs 对象1
+     * @param rhs 对象2
+     * @return 是否都拥有所有字段
+     */
+    boolean isApplicable(final Object lhs, final Object rhs) {
+        for (Accessor accessor : accessors) {
+            if (false == accessor.declaringClass.isInstance(lhs) || false == accessor.declaringClass.isInstance(rhs)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 将两个对象所有字段的相等性比较追加到builder
+     *
+     * @param lhs 对象1
+     * @param rhs 对象2
+     * @param builder {@link EqualsBuilder}
+     */
+    void appendEquals(final Object lhs, final Object rhs, final EqualsBuilder builder) {
+        final int[] depth = DEPTH.get();
+        final boolean useRegistry = depth[0] >= REGISTRY_DEPTH;
+        if (useRegistry) {
+            if (EqualsBuilder.isRegistered(lhs, rhs)) {
+                return;
+            }
+            EqualsBuilder.register(lhs, rhs);
+        }
+        depth[0]++;
+        try {
+            for (int i = 0; i < accessors.length && builder.isEquals(); i++) {
+                accessors[i].appendEquals(lhs, rhs, builder);
+            }
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new UtilException(e);
+        } finally {
+            depth[0]--;
+            if (useRegistry) {
+                EqualsBuilder.unregister(lhs, rhs);
+            }
+        }
+    }
+
+    /**
+     * 将对象所有字段的hashCode追加到builder
+     *
+     * @param object 对象
+     * @param builder {@link HashCodeBuilder}
+     */
+    void appendHashCode(final Object object, final HashCodeBuilder builder) {
+        final int[] depth = DEPTH.get();
+        final boolean useRegistry = depth[0] >= REGISTRY_DEPTH;
+        if (useRegistry) {
+            if (HashCodeBuilder.isRegistered(object)) {
+                return;
+            }
+            HashCodeBuilder.register(object);
+        }
+        depth[0]++;
+        try {
+            for (Accessor accessor : accessors) {
+                accessor.appendHashCode(object, builder);
+            }
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new UtilException(e);
+        } finally {
+            depth[0]--;
+            if (useRegistry) {
+                HashCodeBuilder.unregister(object);
+            }
+        }
+    }
+
+    /**
+     * 将两个对象所有字段的比较结果追加到builder
+     *
+     * @param lhs 对象1
+     * @param rhs 对象2
+     * @param builder {@link CompareToBuilder}
+     */
+    void appendCompareTo(final Object lhs, final Object rhs, final CompareToBuilder builder) {
+        try {
+            for (int i = 0; i < accessors.length && builder.toComparison() == 0; i++) {
+                accessors[i].appendCompareTo(lhs, rhs, builder);
+            }
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new UtilException(e);
+        }
+    }
+
+    /**
+     * 解析类中声明的字段，规则与原反射实现一致：排除static字段、名称中含有$的字段、transient字段（可选）以及指定的排除字段
+     */
+    private static void addFields(final List<Accessor> list, final Class<?> clazz, final boolean useTransients, final String[] excludeFields) {
+        final MethodHandles.Lookup lookup = MethodHandles.lookup();
+        for (Field field : clazz.getDeclaredFields()) {
+            if (false == ArrayUtil.contains(excludeFields, field.getName())
+                && (field.getName().indexOf('$') == -1)
+                && (useTransients || !Modifier.isTransient(field.getModifiers()))
+                && (!Modifier.isStatic(field.getModifiers()))) {
+                field.setAccessible(true);
+                try {
+                    list.add(new Accessor(clazz, lookup.unreflectGetter(field), field.getType()));
+                } catch (IllegalAccessException e) {
+                    throw new UtilException(e, "Can not access field [{}] of {}", field.getName(), clazz.getName());
+                }
+            }
+        }
+    }
+
+    /**
+     * 字段读取器，按字段类型选择强类型的读取方式
+     */
+    private static final class Accessor {
+        final Class<?> declaringClass;
+        final MethodHandle getter;
+        final int kind;
+
+        Accessor(final Class<?> declaringClass, final MethodHandle getter, final Class<?> type) {
+            this.declaringClass = declaringClass;
+            this.kind = kindOf(type);
+            // 基本类型保留原类型，其它统一为Object，便于invokeExact
+            final Class<?> returnType = kind < BOOLEAN_ARRAY ? type : Object.class;
+            this.getter = getter.asType(MethodType.methodType(returnType, Object.class));
+        }
+
+        void appendEquals(final Object lhs, final Object rhs, final EqualsBuilder builder) throws Throwable {
+            switch (kind) {
+            case BOOLEAN:
+                builder.append((boolean) getter.invokeExact(lhs), (boolean) getter.invokeExact(rhs));
+                break;
+            case BYTE:
+                builder.append((byte) getter.invokeExact(lhs), (byte) getter.invokeExact(rhs));
+                break;
+            case CHAR:
+                builder.append((char) getter.invokeExact(lhs), (char) getter.invokeExact(rhs));
+                break;
+            case SHORT:
+                builder.append((short) getter.invokeExact(lhs), (short) getter.invokeExact(rhs));
+                break;
+            case INT:
+                builder.append((int) getter.invokeExact(lhs), (int) getter.invokeExact(rhs));
+                break;
+            case LONG:
+                builder.append((long) getter.invokeExact(lhs), (long) getter.invokeExact(rhs));
+                break;
+            case FLOAT:
+                builder.append((float) getter.invokeExact(lhs), (float) getter.invokeExact(rhs));
+                break;
+            case DOUBLE:
+                builder.append((double) getter.invokeExact(lhs), (double) getter.invokeExact(rhs));
+                break;
+            case BOOLEAN_ARRAY:
+                builder.append((boolean[]) (Object) getter.invokeExact(lhs), (boolean[]) (Object) getter.invokeExact(rhs));
+                break;
+            case BYTE_ARRAY:
+                builder.append((byte[]) (Object) getter.invokeExact(lhs), (byte[]) (Object) getter.invokeExact(rhs));
+                break;
+            case CHAR_ARRAY:
+                builder.append((char[]) (Object) getter.invokeExact(lhs), (char[]) (Object) getter.invokeExact(rhs));
+                break;
+            case SHORT_ARRAY:
+                builder.append((short[]) (Object) getter.invokeExact(lhs), (short[]) (Object) getter.invokeExact(rhs));
+                break;
+            case INT_ARRAY:
+                builder.append((int[]) (Object) getter.invokeExact(lhs), (int[]) (Object) getter.invokeExact(rhs));
+                break;
+            case LONG_ARRAY:
+                builder.append((long[]) (Object) getter.invokeExact(lhs), (long[]) (Object) getter.invokeExact(rhs));
+                break;
+            case FLOAT_ARRAY:
+                builder.append((float[]) (Object) getter.invokeExact(lhs), (float[]) (Object) getter.invokeExact(rhs));
+                break;
+            case DOUBLE_ARRAY:
+                builder.append((double[]) (Object) getter.invokeExact(lhs), (double[]) (Object) getter.invokeExact(rhs));
+                break;
+            default:
+                builder.append((Object) getter.invokeExact(lhs), (Object) getter.invokeExact(rhs));
+            }
+        }
+
+        void appendHashCode(final Object object, final HashCodeBuilder builder) throws Throwable {
+            // 基本类型使用包装类的hashCode算法，与装箱后的结果保持一致
+            switch (kind) {
+            case BOOLEAN:
+                builder.appendSuper(Boolean.hashCode((boolean) getter.invokeExact(object)));
+                break;
+            case BYTE:
+                builder.appendSuper(Byte.hashCode((byte) getter.invokeExact(object)));
+                break;
+            case CHAR:
+                builder.appendSuper(Character.hashCode((char) getter.invokeExact(object)));
+                break;
+            case SHORT:
+                builder.appendSuper(Short.hashCode((short) getter.invokeExact(object)));
+                break;
+            case INT:
+                builder.appendSuper(Integer.hashCode((int) getter.invokeExact(object)));
+                break;
+            case LONG:
+                builder.appendSuper(Long.hashCode((long) getter.invokeExact(object)));
+                break;
+            case FLOAT:
+                builder.appendSuper(Float.hashCode((float) getter.invokeExact(object)));
+                break;
+            case DOUBLE:
+                builder.appendSuper(Double.hashCode((double) getter.invokeExact(object)));
+                break;
+            case BOOLEAN_ARRAY:
+                builder.append((boolean[]) (Object) getter.invokeExact(object));
+                break;
+            case BYTE_ARRAY:
+                builder.append((byte[]) (Object) getter.invokeExact(object));
+                break;
+            case CHAR_ARRAY:
+                builder.append((char[]) (Object) getter.invokeExact(object));
+                break;
+            case SHORT_ARRAY:
+                builder.append((short[]) (Object) getter.invokeExact(object));
+                break;
+            case INT_ARRAY:
+                builder.append((int[]) (Object) getter.invokeExact(object));
+                break;
+            case LONG_ARRAY:
+                builder.append((long[]) (Object) getter.invokeExact(object));
+                break;
+            case FLOAT_ARRAY:
+                builder.append((float[]) (Object) getter.invokeExact(object));
+                break;
+            case DOUBLE_ARRAY:
+                builder.append((double[]) (Object) getter.invokeExact(object));
+                break;
+            default:
+                builder.append((Object) getter.invokeExact(object));
+            }
+        }
+
+        void appendCompareTo(final Object lhs, final Object rhs, final CompareToBuilder builder) throws Throwable {
+            // byte、char、short与包装类compareTo一致，返回差值
+            switch (kind) {
+            case BOOLEAN:
+                builder.append((boolean) getter.invokeExact(lhs), (boolean) getter.invokeExact(rhs));
+                break;
+            case BYTE:
+                builder.appendSuper(Byte.compare((byte) getter.invokeExact(lhs), (byte) getter.invokeExact(rhs)));
+                break;
+            case CHAR:
+                builder.appendSuper(Character.compare((char) getter.invokeExact(lhs), (char) getter.invokeExact(rhs)));
+                break;
+            case SHORT:
+                builder.appendSuper(Short.compare((short) getter.invokeExact(lhs), (short) getter.invokeExact(rhs)));
+                break;
+            case INT:
+                builder.append((int) getter.invokeExact(lhs), (int) getter.invokeExact(rhs));
+                break;
+            case LONG:
+                builder.append((long) getter.invokeExact(lhs), (long) getter.invokeExact(rhs));
+                break;
+            case FLOAT:
+                builder.append((float) getter.invokeExact(lhs), (float) getter.invokeExact(rhs));
+                break;
+            case DOUBLE:
+                builder.append((double) getter.invokeExact(lhs), (double) getter.invokeExact(rhs));
+                break;
+            case BOOLEAN_ARRAY:
+                builder.append((boolean[]) (Object) getter.invokeExact(lhs), (boolean[]) (Object) getter.invokeExact(rhs));
+                break;
+            case BYTE_ARRAY:
+                builder.append((byte[]) (Object) getter.invokeExact(lhs), (byte[]) (Object) getter.invokeExact(rhs));
+                break;
+            case CHAR_ARRAY:
+                builder.append((char[]) (Object) getter.invokeExact(lhs), (char[]) (Object) getter.invokeExact(rhs));
+                break;
+            case SHORT_ARRAY:
+                builder.append((short[]) (Object) getter.invokeExact(lhs), (short[]) (Object) getter.invokeExact(rhs));
+                break;
+            case INT_ARRAY:
+                builder.append((int[]) (Object) getter.invokeExact(lhs), (int[]) (Object) getter.invokeExact(rhs));
+                break;
+            case LONG_ARRAY:
+                builder.append((long[]) (Object) getter.invokeExact(lhs), (long[]) (Object) getter.invokeExact(rhs));
+                break;
+            case FLOAT_ARRAY:
+                builder.append((float[]) (Object) getter.invokeExact(lhs), (float[]) (Object) getter.invokeExact(rhs));
+                break;
+            case DOUBLE_ARRAY:
+                builder.append((double[]) (Object) getter.invokeExact(lhs), (double[]) (Object) getter.invokeExact(rhs));
+                break;
+            default:
+                builder.append((Object) getter.invokeExact(lhs), (Object) getter.invokeExact(rhs));
+            }
+        }
+
+        private static int kindOf(final Class<?> type) {
+            if (boolean.class == type) {
+                return BOOLEAN;
+            } else if (byte.class == type) {
+                return BYTE;
+            } else if (char.class == type) {
+                return CHAR;
+            } else if (short.class == type) {
+                return SHORT;
+            } else if (int.class == type) {
+                return INT;
+            } else if (long.class == type) {
+                return LONG;
+            } else if (float.class == type) {
+                return FLOAT;
+            } else if (double.class == type) {
+                return DOUBLE;
+            } else if (boolean[].class == type) {
+                return BOOLEAN_ARRAY;
+            } else if (byte[].class == type) {
+                return BYTE_ARRAY;
+            } else if (char[].class == type) {
+                return CHAR_ARRAY;
+            } else if (short[].class == type) {
+                return SHORT_ARRAY;
+            } else if (int[].class == type) {
+                return INT_ARRAY;
+            } else if (long[].class == type) {
+                return LONG_ARRAY;
+            } else if (float[].class == type) {
+                return FLOAT_ARRAY;
+            } else if (double[].class == type) {
+                return DOUBLE_ARRAY;
+            }
+            return OBJECT;
+        }
+    }
+
+    /**
+     * 缓存键：transient选项 + 反射截止类 + 排除字段
+     */
+    private static final class PlanKey {
+        final boolean useTransients;
+        final Class<?> reflectUpToClass;
+        final String[] excludeFields;
+        final int hash;
+
+        PlanKey(final boolean useTransients, final Class<?> reflectUpToClass, final String[] excludeFields) {
+            this.useTransients = useTransients;
+            this.reflectUpToClass = reflectUpToClass;
+            this.excludeFields = excludeFields;
+            int h = Arrays.hashCode(excludeFields);
+            h = 31 * h + (null == reflectUpToClass ? 0 : reflectUpToClass.hashCode());
+            this.hash = 31 * h + (useTransients ? 1 : 0);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (false == (obj instanceof PlanKey)) {
+                return false;
+            }
+            final PlanKey other = (PlanKey) obj;
+            return useTransients == other.useTransients
+                && reflectUpToClass == other.reflectUpToClass
+                && Arrays.equals(excludeFields, other.excludeFields);
+        }
+    }
+}
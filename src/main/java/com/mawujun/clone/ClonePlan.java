@@ -0,0 +1,700 @@
+package com.mawujun.clone;
+
+import java.io.Serializable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.PriorityBlockingQueue;
+
+import com.mawujun.util.ObjectUtil;
+import com.mawujun.util.ReflectUtil;
+
+/**
+ * 单个类的深度克隆计划<br>
+ * 按类缓存，类型判断和字段解析只做一次。普通对象的字段预先编译为{@link MethodHandle}，基本类型和不可变类型的字段直接复制，其它字段递归克隆。<br>
+ * JDK中的集合和Map不反射其内部字段（HashMap等按哈希值索引，键被克隆后原有的索引失效），而是创建同类的新对象并逐个加入克隆后的元素。
+ *
+ * @author mawujun
+ */
+final class ClonePlan {
+
+	private static final ClassValue<ClonePlan> PLANS = new ClassValue<ClonePlan>() {
+		@Override
+		protected ClonePlan computeValue(Class<?> type) {
+			return new ClonePlan(type);
+		}
+	};
+
+	private static final MethodType COPIER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+	private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+	/** {@link Arrays#asList(Object...)}返回的类 */
+	private static final Class<?> ARRAYS_LIST_TYPE = Arrays.asList().getClass();
+
+	/** 不可变，直接引用 */
+	private static final int IMMUTABLE = 0;
+	/** 基本类型数组 */
+	private static final int PRIMITIVE_ARRAY = 1;
+	/** 对象数组 */
+	private static final int OBJECT_ARRAY = 2;
+	/** {@link Date}及其子类，使用clone方法 */
+	private static final int DATE = 3;
+	/** 常用集合 */
+	private static final int COLLECTION = 4;
+	/** 常用Map */
+	private static final int MAP = 5;
+	/** 普通对象，复制字段 */
+	private static final int BEAN = 6;
+	/** 无法反射访问字段的类，使用序列化 */
+	private static final int SERIALIZE = 7;
+	/** 无法克隆 */
+	private static final int UNSUPPORTED = 8;
+	/** 其它集合或Map，通过构造创建同类对象后复制元素，非JDK子类的字段另外复制 */
+	private static final int REBUILD = 9;
+	/** Collections.unmodifiableXxx、emptyXxx、singletonXxx及List.of等不可修改集合，复制后重新包装为不可修改集合 */
+	private static final int UNMODIFIABLE = 10;
+	/** Collections.synchronizedXxx，复制后重新包装 */
+	private static final int SYNCHRONIZED = 11;
+	/** {@link Arrays#asList(Object...)} */
+	private static final int ARRAYS_LIST = 12;
+	/** {@link EnumSet} */
+	private static final int ENUM_SET = 13;
+	/** {@link EnumMap} */
+	private static final int ENUM_MAP = 14;
+
+	private final Class<?> type;
+	private final int kind;
+	/** 数组元素为不可变类型，复制数组即可 */
+	private final boolean immutableElements;
+	/** 创建对象的构造：BEAN不调用类自身的构造方法，REBUILD为无参构造 */
+	private final Constructor<?> constructor;
+	/** REBUILD中以比较器为参数的构造，不存在为null */
+	private final Constructor<?> comparatorConstructor;
+	/** 直接复制的字段，签名为(target, source)void */
+	private final MethodHandle[] copiers;
+	/** 需要递归克隆的字段的读取方法 */
+	private final MethodHandle[] getters;
+	/** 需要递归克隆的字段的写入方法 */
+	private final MethodHandle[] setters;
+	/** 无法克隆的原因 */
+	private final String unsupportedReason;
+
+	/**
+	 * 获取类型的克隆计划
+	 *
+	 * @param type 类型
+	 * @return {@link ClonePlan}
+	 */
+	static ClonePlan of(Class<?> type) {
+		return PLANS.get(type);
+	}
+
+	/**
+	 * 移除缓存的克隆计划，注册不可变类型后调用
+	 *
+	 * @param type 类型
+	 */
+	static void invalidate(Class<?> type) {
+		PLANS.remove(type);
+	}
+
+	private ClonePlan(Class<?> type) {
+		this.type = type;
+		Constructor<?> constructor = null;
+		Constructor<?> comparatorConstructor = null;
+		FieldHandles fields = null;
+		String unsupportedReason = null;
+		boolean immutableElements = false;
+		int kind;
+		if (DeepCloner.isBuiltinImmutable(type)) {
+			kind = IMMUTABLE;
+		} else if (type.isArray()) {
+			final Class<?> componentType = type.getComponentType();
+			if (componentType.isPrimitive()) {
+				kind = PRIMITIVE_ARRAY;
+			} else {
+				kind = OBJECT_ARRAY;
+				immutableElements = isFinalImmutable(componentType);
+			}
+		} else if (Date.class.isAssignableFrom(type)) {
+			kind = DATE;
+		} else if (isFastCollection(type)) {
+			kind = COLLECTION;
+		} else if (isFastMap(type)) {
+			kind = MAP;
+		} else if (Collection.class.isAssignableFrom(type) || Map.class.isAssignableFrom(type)) {
+			kind = containerKind(type);
+			try {
+				if (REBUILD == kind) {
+					constructor = findConstructor(type);
+					comparatorConstructor = findConstructor(type, Comparator.class);
+					if (false == isJdkClass(type)) {
+						fields = FieldHandles.of(type, false);
+					}
+				} else if (BEAN == kind) {
+					// 自定义集合，数据保存在自身字段中，跳过JDK抽象父类的字段
+					constructor = newConstructor(type);
+					fields = FieldHandles.of(type, false);
+				}
+			} catch (Exception e) {
+				kind = Serializable.class.isAssignableFrom(type) ? SERIALIZE : UNSUPPORTED;
+				unsupportedReason = e.toString();
+				constructor = null;
+				comparatorConstructor = null;
+				fields = null;
+			}
+			if (SERIALIZE == kind && false == Serializable.class.isAssignableFrom(type)) {
+				kind = UNSUPPORTED;
+				unsupportedReason = "no usable constructor and not Serializable";
+			}
+		} else {
+			kind = BEAN;
+			try {
+				constructor = newConstructor(type);
+				fields = FieldHandles.of(type, true);
+			} catch (Exception e) {
+				// JDK 9+中未开放的JDK内部类，或继承自这些类的类
+				if (Serializable.class.isAssignableFrom(type)) {
+					kind = SERIALIZE;
+				} else {
+					kind = UNSUPPORTED;
+					unsupportedReason = e.toString();
+				}
+				constructor = null;
+				fields = null;
+			}
+		}
+		this.kind = kind;
+		this.immutableElements = immutableElements;
+		this.constructor = constructor;
+		this.comparatorConstructor = comparatorConstructor;
+		this.copiers = (null != fields) ? fields.copiers : null;
+		this.getters = (null != fields) ? fields.getters : null;
+		this.setters = (null != fields) ? fields.setters : null;
+		this.unsupportedReason = unsupportedReason;
+	}
+
+	/**
+	 * 是否为不可变类型
+	 *
+	 * @return 是否为不可变类型
+	 */
+	boolean isImmutable() {
+		return IMMUTABLE == kind;
+	}
+
+	/**
+	 * 克隆对象，调用前已确认对象未被克隆过
+	 *
+	 * @param obj 原对象，类型为本计划的类型
+	 * @param cloner 克隆上下文
+	 * @return 克隆后的对象
+	 */
+	Object clone(Object obj, DeepCloner cloner) {
+		switch (kind) {
+		case PRIMITIVE_ARRAY:
+			return clonePrimitiveArray(obj, cloner);
+		case OBJECT_ARRAY:
+			return cloneObjectArray((Object[]) obj, cloner);
+		case DATE:
+			final Object date = ((Date) obj).clone();
+			cloner.register(obj, date);
+			return date;
+		case COLLECTION:
+			return cloneCollection(obj, cloner);
+		case MAP:
+			return cloneMap(obj, cloner);
+		case BEAN:
+			return cloneBean(obj, cloner);
+		case REBUILD:
+			return rebuild(obj, cloner);
+		case UNMODIFIABLE:
+		case SYNCHRONIZED:
+			return cloneWrapper(obj, cloner);
+		case ARRAYS_LIST:
+			final Object[] elements = ((List<?>) obj).toArray();
+			final List<Object> list = Arrays.asList(elements);
+			cloner.register(obj, list);
+			for (int i = 0; i < elements.length; i++) {
+				elements[i] = cloner.cloneValue(elements[i]);
+			}
+			return list;
+		case ENUM_SET:
+			// 元素为枚举，不可变
+			final Object enumSet = ((EnumSet<?>) obj).clone();
+			cloner.register(obj, enumSet);
+			return enumSet;
+		case ENUM_MAP:
+			return cloneEnumMap(obj, cloner);
+		case SERIALIZE:
+			return cloneBySerialize(obj, cloner);
+		case UNSUPPORTED:
+			throw new CloneRuntimeException("Can not deep clone [{}]: {}", type.getName(), unsupportedReason);
+		default:
+			return obj;
+		}
+	}
+
+	// ------------------------------------------------------------------------------------------------------------------------------------- Private method start
+	private Object clonePrimitiveArray(Object array, DeepCloner cloner) {
+		final int length = Array.getLength(array);
+		final Object copy = Array.newInstance(type.getComponentType(), length);
+		System.arraycopy(array, 0, copy, 0, length);
+		cloner.register(array, copy);
+		return copy;
+	}
+
+	private Object[] cloneObjectArray(Object[] array, DeepCloner cloner) {
+		final Object[] copy = array.clone();
+		cloner.register(array, copy);
+		if (false == immutableElements) {
+			for (int i = 0; i < copy.length; i++) {
+				copy[i] = cloner.cloneValue(copy[i]);
+			}
+		}
+		return copy;
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private Object cloneCollection(Object obj, DeepCloner cloner) {
+		final Collection<Object> source = (Collection<Object>) obj;
+		final Collection<Object> copy;
+		if (ArrayList.class == type) {
+			copy = new ArrayList<>(source.size());
+		} else if (LinkedList.class == type) {
+			copy = new LinkedList<>();
+		} else if (HashSet.class == type) {
+			copy = new HashSet<>(Math.max((int) (source.size() / .75f) + 1, 16));
+		} else if (LinkedHashSet.class == type) {
+			copy = new LinkedHashSet<>(Math.max((int) (source.size() / .75f) + 1, 16));
+		} else if (TreeSet.class == type) {
+			copy = new TreeSet<>(((TreeSet) source).comparator());
+		} else if (ArrayDeque.class == type) {
+			copy = new ArrayDeque<>(source.size());
+		} else {
+			// CopyOnWriteArrayList，逐个加入开销大，先复制到数组
+			final Object[] elements = source.toArray();
+			final CopyOnWriteArrayList<Object> list = new CopyOnWriteArrayList<>();
+			cloner.register(obj, list);
+			for (int i = 0; i < elements.length; i++) {
+				elements[i] = cloner.cloneValue(elements[i]);
+			}
+			list.addAll(Arrays.asList(elements));
+			return list;
+		}
+		cloner.register(obj, copy);
+		for (Object element : source) {
+			copy.add(cloner.cloneValue(element));
+		}
+		return copy;
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private Object cloneMap(Object obj, DeepCloner cloner) {
+		final Map<Object, Object> source = (Map<Object, Object>) obj;
+		final Map<Object, Object> copy;
+		if (HashMap.class == type) {
+			copy = new HashMap<>(Math.max((int) (source.size() / .75f) + 1, 16));
+		} else if (LinkedHashMap.class == type) {
+			copy = new LinkedHashMap<>(Math.max((int) (source.size() / .75f) + 1, 16));
+		} else if (TreeMap.class == type) {
+			copy = new TreeMap<>(((TreeMap) source).comparator());
+		} else {
+			copy = new ConcurrentHashMap<>(Math.max((int) (source.size() / .75f) + 1, 16));
+		}
+		cloner.register(obj, copy);
+		copyEntries(source, copy, cloner);
+		return copy;
+	}
+
+	private Object cloneBean(Object obj, DeepCloner cloner) {
+		final Object copy;
+		try {
+			copy = constructor.newInstance();
+		} catch (Exception e) {
+			throw new CloneRuntimeException(e, "Create instance of [{}] error", type.getName());
+		}
+		cloner.register(obj, copy);
+		copyFields(obj, copy, cloner);
+		return copy;
+	}
+
+	/**
+	 * 通过构造创建同类的集合或Map，复制自定义子类的字段后加入克隆后的元素
+	 */
+	@SuppressWarnings("unchecked")
+	private Object rebuild(Object obj, DeepCloner cloner) {
+		final Comparator<?> comparator = comparatorOf(obj);
+		if (null != comparator && null == comparatorConstructor) {
+			// 无法保留比较器
+			return cloneBySerialize(obj, cloner);
+		}
+		final Object copy;
+		try {
+			copy = (null != comparator) ? comparatorConstructor.newInstance(comparator) : constructor.newInstance();
+		} catch (Exception e) {
+			throw new CloneRuntimeException(e, "Create instance of [{}] error", type.getName());
+		}
+		cloner.register(obj, copy);
+		if (null != copiers) {
+			copyFields(obj, copy, cloner);
+		}
+		if (obj instanceof Map) {
+			copyEntries((Map<Object, Object>) obj, (Map<Object, Object>) copy, cloner);
+		} else {
+			final Collection<Object> collection = (Collection<Object>) copy;
+			for (Object element : (Collection<Object>) obj) {
+				collection.add(cloner.cloneValue(element));
+			}
+		}
+		return copy;
+	}
+
+	/**
+	 * 复制到同类的可修改集合后重新包装，包装对象先注册，循环引用指向包装对象
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private Object cloneWrapper(Object obj, DeepCloner cloner) {
+		final boolean unmodifiable = UNMODIFIABLE == kind;
+		if (obj instanceof Map) {
+			final Map<Object, Object> source = (Map<Object, Object>) obj;
+			final Map<Object, Object> copy;
+			final Map<Object, Object> wrapper;
+			if (obj instanceof SortedMap) {
+				final TreeMap<Object, Object> treeMap = new TreeMap<>(((SortedMap) obj).comparator());
+				copy = treeMap;
+				if (obj instanceof NavigableMap) {
+					wrapper = unmodifiable ? Collections.unmodifiableNavigableMap(treeMap) : Collections.synchronizedNavigableMap(treeMap);
+				} else {
+					wrapper = unmodifiable ? Collections.unmodifiableSortedMap(treeMap) : Collections.synchronizedSortedMap(treeMap);
+				}
+			} else {
+				copy = new LinkedHashMap<>(Math.max((int) (source.size() / .75f) + 1, 16));
+				wrapper = unmodifiable ? Collections.unmodifiableMap(copy) : Collections.synchronizedMap(copy);
+			}
+			cloner.register(obj, wrapper);
+			copyEntries(source, copy, cloner);
+			return wrapper;
+		}
+
+		final Collection<Object> source = (Collection<Object>) obj;
+		final Collection<Object> copy;
+		final Collection<Object> wrapper;
+		if (obj instanceof SortedSet) {
+			final TreeSet<Object> treeSet = new TreeSet<>(((SortedSet) obj).comparator());
+			copy = treeSet;
+			if (obj instanceof NavigableSet) {
+				wrapper = unmodifiable ? Collections.unmodifiableNavigableSet(treeSet) : Collections.synchronizedNavigableSet(treeSet);
+			} else {
+				wrapper = unmodifiable ? Collections.unmodifiableSortedSet(treeSet) : Collections.synchronizedSortedSet(treeSet);
+			}
+		} else if (obj instanceof Set) {
+			final Set<Object> set = new LinkedHashSet<>(Math.max((int) (source.size() / .75f) + 1, 16));
+			copy = set;
+			wrapper = unmodifiable ? Collections.unmodifiableSet(set) : Collections.synchronizedSet(set);
+		} else if (obj instanceof List) {
+			final List<Object> list = new ArrayList<>(source.size());
+			copy = list;
+			wrapper = unmodifiable ? Collections.unmodifiableList(list) : Collections.synchronizedList(list);
+		} else {
+			copy = new ArrayList<>(source.size());
+			wrapper = unmodifiable ? Collections.unmodifiableCollection(copy) : Collections.synchronizedCollection(copy);
+		}
+		cloner.register(obj, wrapper);
+		for (Object element : source) {
+			copy.add(cloner.cloneValue(element));
+		}
+		return wrapper;
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private Object cloneEnumMap(Object obj, DeepCloner cloner) {
+		// 键为枚举，不可变，复制后替换值
+		final EnumMap<?, Object> copy = new EnumMap((EnumMap) obj);
+		cloner.register(obj, copy);
+		for (Map.Entry<?, Object> entry : copy.entrySet()) {
+			entry.setValue(cloner.cloneValue(entry.getValue()));
+		}
+		return copy;
+	}
+
+	/**
+	 * 使用序列化克隆，其它方式均不可用时使用
+	 */
+	private Object cloneBySerialize(Object obj, DeepCloner cloner) {
+		if (false == obj instanceof Serializable) {
+			throw new CloneRuntimeException("Can not deep clone [{}]: not Serializable", type.getName());
+		}
+		final Object copy;
+		try {
+			copy = ObjectUtil.cloneByStream(obj);
+		} catch (RuntimeException e) {
+			throw new CloneRuntimeException(e, "Can not deep clone [{}] by serialization", type.getName());
+		}
+		cloner.register(obj, copy);
+		return copy;
+	}
+
+	private void copyFields(Object obj, Object copy, DeepCloner cloner) {
+		try {
+			for (MethodHandle copier : copiers) {
+				copier.invokeExact(copy, obj);
+			}
+			for (int i = 0; i < getters.length; i++) {
+				setters[i].invokeExact(copy, cloner.cloneValue((Object) getters[i].invokeExact(obj)));
+			}
+		} catch (RuntimeException | Error e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new CloneRuntimeException(e);
+		}
+	}
+
+	private static void copyEntries(Map<Object, Object> source, Map<Object, Object> copy, DeepCloner cloner) {
+		for (Map.Entry<Object, Object> entry : source.entrySet()) {
+			copy.put(cloner.cloneValue(entry.getKey()), cloner.cloneValue(entry.getValue()));
+		}
+	}
+
+	/**
+	 * 集合或Map的比较器，无比较器返回null
+	 */
+	private static Comparator<?> comparatorOf(Object obj) {
+		if (obj instanceof SortedSet) {
+			return ((SortedSet<?>) obj).comparator();
+		}
+		if (obj instanceof SortedMap) {
+			return ((SortedMap<?, ?>) obj).comparator();
+		}
+		if (obj instanceof PriorityQueue) {
+			return ((PriorityQueue<?>) obj).comparator();
+		}
+		if (obj instanceof PriorityBlockingQueue) {
+			return ((PriorityBlockingQueue<?>) obj).comparator();
+		}
+		return null;
+	}
+
+	/**
+	 * 非常用集合和Map的克隆方式
+	 */
+	private static int containerKind(Class<?> type) {
+		if (EnumSet.class.isAssignableFrom(type)) {
+			return ENUM_SET;
+		}
+		if (EnumMap.class == type) {
+			return ENUM_MAP;
+		}
+		if (ARRAYS_LIST_TYPE == type) {
+			return ARRAYS_LIST;
+		}
+		if (isJdkClass(type)) {
+			final String name = type.getName();
+			if (name.startsWith("java.util.Collections$Synchronized")) {
+				return SYNCHRONIZED;
+			}
+			if (name.startsWith("java.util.Collections$Unmodifiable") || name.startsWith("java.util.Collections$Empty") //
+					|| name.startsWith("java.util.Collections$Singleton") || name.startsWith("java.util.ImmutableCollections$")) {
+				return UNMODIFIABLE;
+			}
+			return (null != findConstructor(type)) ? REBUILD : SERIALIZE;
+		}
+		// 自定义集合：继承自JDK中的具体集合时数据保存在JDK父类中，通过构造重建；继承自抽象类时数据保存在自身字段中，复制字段
+		Class<?> jdkSuperClass = type.getSuperclass();
+		while (null != jdkSuperClass && false == isJdkClass(jdkSuperClass)) {
+			jdkSuperClass = jdkSuperClass.getSuperclass();
+		}
+		if (null == jdkSuperClass || Object.class == jdkSuperClass || Modifier.isAbstract(jdkSuperClass.getModifiers())) {
+			return BEAN;
+		}
+		return (null != findConstructor(type)) ? REBUILD : SERIALIZE;
+	}
+
+	/**
+	 * 查找可访问的构造，JDK中的类只使用public构造，不存在返回null
+	 */
+	private static Constructor<?> findConstructor(Class<?> type, Class<?>... parameterTypes) {
+		if (Modifier.isAbstract(type.getModifiers())) {
+			return null;
+		}
+		try {
+			if (isJdkClass(type)) {
+				return Modifier.isPublic(type.getModifiers()) ? type.getConstructor(parameterTypes) : null;
+			}
+			final Constructor<?> constructor = type.getDeclaredConstructor(parameterTypes);
+			constructor.setAccessible(true);
+			return constructor;
+		} catch (NoSuchMethodException | RuntimeException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * 是否为JDK中的类
+	 */
+	private static boolean isJdkClass(Class<?> type) {
+		final String name = type.getName();
+		return name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("jdk.") || name.startsWith("sun.") || name.startsWith("com.sun.");
+	}
+
+	/**
+	 * 字段或数组元素的声明类型为final的不可变类型时，值一定不可变，无需克隆
+	 */
+	private static boolean isFinalImmutable(Class<?> type) {
+		return type.isPrimitive() || (Modifier.isFinal(type.getModifiers()) && DeepCloner.isBuiltinImmutable(type)) || type.isEnum();
+	}
+
+	private static boolean isFastCollection(Class<?> type) {
+		return ArrayList.class == type || LinkedList.class == type || HashSet.class == type || LinkedHashSet.class == type //
+				|| TreeSet.class == type || ArrayDeque.class == type || CopyOnWriteArrayList.class == type;
+	}
+
+	private static boolean isFastMap(Class<?> type) {
+		return HashMap.class == type || LinkedHashMap.class == type || TreeMap.class == type || ConcurrentHashMap.class == type;
+	}
+
+	/**
+	 * 创建不调用类自身构造方法的构造（与反序列化相同），不支持时使用默认构造
+	 */
+	private static Constructor<?> newConstructor(Class<?> type) throws Exception {
+		if (Modifier.isAbstract(type.getModifiers()) || type.isInterface()) {
+			throw new CloneRuntimeException("Abstract type [{}] can not be instantiated", type.getName());
+		}
+		final Constructor<?> serializationConstructor = SerializationConstructors.newConstructor(type);
+		if (null != serializationConstructor) {
+			return serializationConstructor;
+		}
+		final Constructor<?> constructor = ReflectUtil.getConstructor(type);
+		if (null == constructor) {
+			throw new CloneRuntimeException("No default constructor for [{}]", type.getName());
+		}
+		constructor.setAccessible(true);
+		return constructor;
+	}
+	// ------------------------------------------------------------------------------------------------------------------------------------- Private method end
+
+	/**
+	 * 类中需要复制的字段
+	 *
+	 * @author mawujun
+	 */
+	private static final class FieldHandles {
+		final MethodHandle[] copiers;
+		final MethodHandle[] getters;
+		final MethodHandle[] setters;
+
+		/**
+		 * 解析类及其父类的非静态字段
+		 *
+		 * @param type 类
+		 * @param includeJdk 是否包括JDK中父类的字段，否则遇到JDK中的父类时停止
+		 * @return {@link FieldHandles}
+		 * @throws IllegalAccessException 字段无法访问
+		 */
+		static FieldHandles of(Class<?> type, boolean includeJdk) throws IllegalAccessException {
+			final List<MethodHandle> copierList = new ArrayList<>();
+			final List<MethodHandle> getterList = new ArrayList<>();
+			final List<MethodHandle> setterList = new ArrayList<>();
+			final MethodHandles.Lookup lookup = MethodHandles.lookup();
+			for (Class<?> current = type; null != current && Object.class != current; current = current.getSuperclass()) {
+				if (false == includeJdk && isJdkClass(current)) {
+					break;
+				}
+				for (Field field : current.getDeclaredFields()) {
+					if (Modifier.isStatic(field.getModifiers())) {
+						continue;
+					}
+					field.setAccessible(true);
+					final MethodHandle getter = lookup.unreflectGetter(field);
+					final MethodHandle setter = lookup.unreflectSetter(field);
+					if (isFinalImmutable(field.getType())) {
+						// setter(target, getter(source))
+						copierList.add(MethodHandles.collectArguments(setter, 1, getter).asType(COPIER_TYPE));
+					} else {
+						getterList.add(getter.asType(GETTER_TYPE));
+						setterList.add(setter.asType(COPIER_TYPE));
+					}
+				}
+			}
+			return new FieldHandles(copierList.toArray(new MethodHandle[0]), getterList.toArray(new MethodHandle[0]), setterList.toArray(new MethodHandle[0]));
+		}
+
+		private FieldHandles(MethodHandle[] copiers, MethodHandle[] getters, MethodHandle[] setters) {
+			this.copiers = copiers;
+			this.getters = getters;
+			this.setters = setters;
+		}
+	}
+
+	/**
+	 * 通过sun.reflect.ReflectionFactory创建跳过构造方法的构造，不可用时返回null
+	 *
+	 * @author mawujun
+	 */
+	private static final class SerializationConstructors {
+		private static final Object FACTORY;
+		private static final Method NEW_CONSTRUCTOR;
+		private static final Constructor<Object> OBJECT_CONSTRUCTOR;
+
+		static {
+			Object factory = null;
+			Method newConstructor = null;
+			Constructor<Object> objectConstructor = null;
+			try {
+				final Class<?> factoryClass = Class.forName("sun.reflect.ReflectionFactory");
+				factory = factoryClass.getMethod("getReflectionFactory").invoke(null);
+				newConstructor = factoryClass.getMethod("newConstructorForSerialization", Class.class, Constructor.class);
+				objectConstructor = Object.class.getDeclaredConstructor();
+			} catch (Exception | LinkageError e) {
+				factory = null;
+			}
+			FACTORY = factory;
+			NEW_CONSTRUCTOR = newConstructor;
+			OBJECT_CONSTRUCTOR = objectConstructor;
+		}
+
+		static Constructor<?> newConstructor(Class<?> type) {
+			if (null == FACTORY) {
+				return null;
+			}
+			try {
+				final Constructor<?> constructor = (Constructor<?>) NEW_CONSTRUCTOR.invoke(FACTORY, type, OBJECT_CONSTRUCTOR);
+				constructor.setAccessible(true);
+				return constructor;
+			} catch (Exception e) {
+				return null;
+			}
+		}
+	}
+}
@@ -0,0 +1,143 @@
+package com.mawujun.clone;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * 深度克隆，通过反射复制普通对象的所有字段，普通对象不要求实现{@link java.io.Serializable}或{@link Cloneable}<br>
+ * 相比序列化方式（{@link com.mawujun.util.ObjectUtil#cloneByStream(Object)}）：
+ * <ul>
+ * <li>每个类的字段只解析一次，字段通过{@link java.lang.invoke.MethodHandle}读写，基本类型字段不装箱</li>
+ * <li>String、包装类型、枚举、java.time等不可变对象不复制，直接引用</li>
+ * <li>数组和常用集合（ArrayList、HashMap等）直接创建并逐个复制元素</li>
+ * <li>其它JDK集合和Map（Hashtable、IdentityHashMap等）不反射内部字段，通过public无参构造（有比较器时使用比较器构造）创建同类对象后逐个加入克隆后的元素；
+ * 继承自这些集合的自定义类同样重建，并复制子类自身的字段</li>
+ * <li>Collections.unmodifiableXxx、synchronizedXxx、emptyXxx、singletonXxx、List.of等包装集合复制内容后重新包装，Arrays.asList的结果仍为Arrays.asList，EnumSet、EnumMap使用自身的复制方法</li>
+ * <li>同一个对象在克隆结果中只有一份，支持循环引用</li>
+ * </ul>
+ * 注意：
+ * <ul>
+ * <li>创建普通对象时不调用构造方法（与反序列化相同），transient字段同样被复制</li>
+ * <li>集合中的比较器（TreeMap、TreeSet）不复制；LinkedHashMap只保留插入顺序；包装集合重建后的内部集合为ArrayList、LinkedHashSet、LinkedHashMap或TreeSet、TreeMap</li>
+ * <li>以上方式均不可用的类（JDK 9+中无法反射访问的JDK内部类、没有可用构造的JDK集合等）使用序列化复制，此时对象及其引用的所有对象都必须实现Serializable，否则抛出{@link CloneRuntimeException}</li>
+ * </ul>
+ *
+ * <pre>
+ * Config copy = DeepCloner.deepClone(config);
+ * </pre>
+ *
+ * @author mawujun
+ */
+public class DeepCloner {
+
+	/** 不可变类型，克隆时直接引用 */
+	static final Set<Class<?>> IMMUTABLE_TYPES = ConcurrentHashMap.newKeySet();
+
+	static {
+		IMMUTABLE_TYPES.addAll(Arrays.asList(//
+				String.class, Boolean.class, Character.class, Byte.class, Short.class, Integer.class, Long.class, Float.class, Double.class, //
+				BigInteger.class, BigDecimal.class, Class.class, UUID.class, Locale.class, URI.class, Pattern.class));
+	}
+
+	/** 已克隆的对象，原对象为键，按引用比较 */
+	private Map<Object, Object> clones;
+
+	/**
+	 * 深度克隆
+	 *
+	 * @param <T> 对象类型
+	 * @param obj 被克隆的对象
+	 * @return 克隆后的对象，null返回null
+	 * @throws CloneRuntimeException 对象中包含无法克隆的类型
+	 */
+	public static <T> T deepClone(T obj) throws CloneRuntimeException {
+		return new DeepCloner().cloneValue(obj);
+	}
+
+	/**
+	 * 注册不可变类型，此类型的对象克隆时直接引用<br>
+	 * 只对类型本身有效，子类需单独注册
+	 *
+	 * @param types 不可变类型
+	 */
+	public static void registerImmutable(Class<?>... types) {
+		for (Class<?> type : types) {
+			IMMUTABLE_TYPES.add(type);
+			ClonePlan.invalidate(type);
+		}
+	}
+
+	/**
+	 * 判断对象的类型是否为不可变类型
+	 *
+	 * @param type 类型
+	 * @return 是否为不可变类型
+	 */
+	public static boolean isImmutable(Class<?> type) {
+		return ClonePlan.of(type).isImmutable();
+	}
+
+	private DeepCloner() {
+	}
+
+	/**
+	 * 克隆单个值，已克隆的对象直接返回其克隆结果
+	 *
+	 * @param <T> 对象类型
+	 * @param obj 被克隆的对象
+	 * @return 克隆后的对象
+	 */
+	@SuppressWarnings("unchecked")
+	<T> T cloneValue(T obj) {
+		if (null == obj) {
+			return null;
+		}
+		final ClonePlan plan = ClonePlan.of(obj.getClass());
+		if (plan.isImmutable()) {
+			return obj;
+		}
+		if (null == clones) {
+			clones = new IdentityHashMap<>();
+		} else {
+			final Object clone = clones.get(obj);
+			if (null != clone) {
+				return (T) clone;
+			}
+		}
+		return (T) plan.clone(obj, this);
+	}
+
+	/**
+	 * 记录对象的克隆结果，需在复制字段或元素之前调用，以便循环引用指向克隆结果
+	 *
+	 * @param obj 原对象
+	 * @param clone 克隆后的对象
+	 */
+	void register(Object obj, Object clone) {
+		clones.put(obj, clone);
+	}
+
+	/**
+	 * 判断类型是否为内置的不可变类型
+	 */
+	static boolean isBuiltinImmutable(Class<?> type) {
+		if (IMMUTABLE_TYPES.contains(type) || type.isEnum() || Enum.class.isAssignableFrom(type)) {
+			return true;
+		}
+		if (Charset.class.isAssignableFrom(type)) {
+			return true;
+		}
+		// java.time包下的类均为不可变
+		return type.getName().startsWith("java.time.");
+	}
+}
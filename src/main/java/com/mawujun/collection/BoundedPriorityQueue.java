@@ -61,7 +61,8 @@ public class BoundedPriorityQueue<E> extends PriorityQueue<E>{
 	public boolean offer(E e) {
 		if(size() >= capacity) {
 			E head = peek();
-			if (this.comparator().compare(e, head) <= 0){
+			// 直接使用原始比较器：不小于队列中最大的元素则直接丢弃
+			if (compareRaw(e, head) >= 0){
 				return true;
 			}
 			//当队列满时，就要淘汰顶端队列
@@ -70,6 +71,28 @@ public class BoundedPriorityQueue<E> extends PriorityQueue<E>{
 		return super.offer(e);
 	}
 	
+	/**
+	 * 获取容量
+	 * @return 容量
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+	
+	/**
+	 * 使用原始比较规则比较两个元素
+	 * @param o1 元素1
+	 * @param o2 元素2
+	 * @return 比较结果
+	 */
+	@SuppressWarnings("unchecked")
+	int compareRaw(E o1, E o2) {
+		if(null != comparator) {
+			return comparator.compare(o1, o2);
+		}
+		return ((Comparable<E>)o1).compareTo(o2);
+	}
+	
 	/**
 	 * 添加多个元素<br>
 	 * 参数为集合的情况请使用{@link PriorityQueue#addAll}
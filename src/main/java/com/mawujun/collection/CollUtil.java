@@ -19,24 +19,30 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.Stack;
 import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 import com.mawujun.bean.BeanUtil;
 import com.mawujun.comparator.PinyinComparator;
-import com.mawujun.comparator.PropertyComparator;
+import com.mawujun.comparator.PropertySorter;
 import com.mawujun.convert.Convert;
 import com.mawujun.convert.ConverterRegistry;
 import com.mawujun.exception.exceptions.UtilException;
 import com.mawujun.lang.Editor;
 import com.mawujun.lang.Filter;
 import com.mawujun.lang.Matcher;
+import com.mawujun.lang.Pair;
+import com.mawujun.lang.mutable.MutableInt;
 import com.mawujun.map.MapUtil;
 import com.mawujun.util.ArrayUtil;
 import com.mawujun.util.CharUtil;
@@ -60,6 +66,11 @@ import com.mawujun.util.TypeUtil;
  */
 public class CollUtil {
 
+	/** 并行集合运算的最小元素数，小于此值使用串行计算 */
+	private static final int PARALLEL_THRESHOLD = 1 << 13;
+	/** 并行计数时代替null元素的key */
+	private static final Object NULL_KEY = new Object();
+
 	/**
 	 * 两个集合的并集<br>
 	 * 针对一个集合中存在多个相同元素的情况，计算两个集合中此元素的个数，保留最多的个数<br>
@@ -78,14 +89,16 @@ public class CollUtil {
 		} else if (isEmpty(coll2)) {
 			list.addAll(coll1);
 		} else {
-			final Map<T, Integer> map1 = countMap(coll1);
-			final Map<T, Integer> map2 = countMap(coll2);
-			final Set<T> elts = newHashSet(coll2);
-			elts.addAll(coll1);
-			int m;
-			for (T t : elts) {
-				m = Math.max(Convert.toInt(map1.get(t), 0), Convert.toInt(map2.get(t), 0));
-				for (int i = 0; i < m; i++) {
+			// 集合1全部保留，集合2中超出集合1个数的部分追加
+			list.ensureCapacity(coll1.size() + coll2.size());
+			list.addAll(coll1);
+			final Map<T, MutableInt> counts = counterMap(coll1);
+			MutableInt count;
+			for (T t : coll2) {
+				count = counts.get(t);
+				if (null != count && count.intValue() > 0) {
+					count.decrement();
+				} else {
 					list.add(t);
 				}
 			}
@@ -128,13 +141,13 @@ public class CollUtil {
 	public static <T> Collection<T> intersection(Collection<T> coll1, Collection<T> coll2) {
 		final ArrayList<T> list = new ArrayList<>();
 		if (isNotEmpty(coll1) && isNotEmpty(coll2)) {
-			final Map<T, Integer> map1 = countMap(coll1);
-			final Map<T, Integer> map2 = countMap(coll2);
-			final Set<T> elts = newHashSet(coll2);
-			int m;
-			for (T t : elts) {
-				m = Math.min(Convert.toInt(map1.get(t), 0), Convert.toInt(map2.get(t), 0));
-				for (int i = 0; i < m; i++) {
+			// 集合1中的元素逐个抵消集合2中的计数，抵消成功的即为交集
+			final Map<T, MutableInt> counts = counterMap(coll2);
+			MutableInt count;
+			for (T t : coll1) {
+				count = counts.get(t);
+				if (null != count && count.intValue() > 0) {
+					count.decrement();
 					list.add(t);
 				}
 			}
@@ -191,20 +204,89 @@ public class CollUtil {
 		}
 
 		final ArrayList<T> result = new ArrayList<>();
-		final Map<T, Integer> map1 = countMap(coll1);
-		final Map<T, Integer> map2 = countMap(coll2);
-		final Set<T> elts = newHashSet(coll2);
-		elts.addAll(coll1);
+		// 集合1中的元素逐个抵消集合2中的计数，无法抵消的为集合1多出的部分，剩余计数为集合2多出的部分
+		final Map<T, MutableInt> counts = counterMap(coll2);
+		MutableInt count;
+		for (T t : coll1) {
+			count = counts.get(t);
+			if (null != count && count.intValue() > 0) {
+				count.decrement();
+			} else {
+				result.add(t);
+			}
+		}
 		int m;
-		for (T t : elts) {
-			m = Math.abs(Convert.toInt(map1.get(t), 0) - Convert.toInt(map2.get(t), 0));
+		for (Entry<T, MutableInt> entry : counts.entrySet()) {
+			m = entry.getValue().intValue();
 			for (int i = 0; i < m; i++) {
-				result.add(t);
+				result.add(entry.getKey());
 			}
 		}
 		return result;
 	}
 
+	/**
+	 * 两个集合的并集，并行计算，适用于大集合<br>
+	 * 结果与{@link #union(Collection, Collection)}包含相同的元素及个数，集合较小时直接使用串行计算
+	 * 
+	 * @param <T> 集合元素类型
+	 * @param coll1 集合1
+	 * @param coll2 集合2
+	 * @return 并集的集合，返回 {@link ArrayList}
+	 */
+	public static <T> Collection<T> unionParallel(Collection<T> coll1, Collection<T> coll2) {
+		if (isEmpty(coll1) || isEmpty(coll2) || coll1.size() + coll2.size() < PARALLEL_THRESHOLD) {
+			return union(coll1, coll2);
+		}
+		final ConcurrentHashMap<Object, AtomicInteger> counts = parallelCounterMap(coll1);
+		final ArrayList<T> list = new ArrayList<>(coll1.size() + coll2.size());
+		list.addAll(coll1);
+		list.addAll(coll2.parallelStream().filter(t -> false == decrementIfPositive(counts, t)).collect(Collectors.toList()));
+		return list;
+	}
+
+	/**
+	 * 两个集合的交集，并行计算，适用于大集合<br>
+	 * 结果与{@link #intersection(Collection, Collection)}一致，集合较小时直接使用串行计算
+	 * 
+	 * @param <T> 集合元素类型
+	 * @param coll1 集合1
+	 * @param coll2 集合2
+	 * @return 交集的集合，返回 {@link ArrayList}
+	 */
+	public static <T> Collection<T> intersectionParallel(Collection<T> coll1, Collection<T> coll2) {
+		if (isEmpty(coll1) || isEmpty(coll2) || coll1.size() + coll2.size() < PARALLEL_THRESHOLD) {
+			return intersection(coll1, coll2);
+		}
+		final ConcurrentHashMap<Object, AtomicInteger> counts = parallelCounterMap(coll2);
+		return coll1.parallelStream().filter(t -> decrementIfPositive(counts, t)).collect(Collectors.toCollection(ArrayList::new));
+	}
+
+	/**
+	 * 两个集合的差集，并行计算，适用于大集合<br>
+	 * 结果与{@link #disjunction(Collection, Collection)}包含相同的元素及个数，集合较小时直接使用串行计算
+	 * 
+	 * @param <T> 集合元素类型
+	 * @param coll1 集合1
+	 * @param coll2 集合2
+	 * @return 差集的集合，返回 {@link ArrayList}
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> Collection<T> disjunctionParallel(Collection<T> coll1, Collection<T> coll2) {
+		if (isEmpty(coll1) || isEmpty(coll2) || coll1.size() + coll2.size() < PARALLEL_THRESHOLD) {
+			return disjunction(coll1, coll2);
+		}
+		final ConcurrentHashMap<Object, AtomicInteger> counts = parallelCounterMap(coll2);
+		final ArrayList<T> result = coll1.parallelStream().filter(t -> false == decrementIfPositive(counts, t)).collect(Collectors.toCollection(ArrayList::new));
+		int m;
+		for (Entry<Object, AtomicInteger> entry : counts.entrySet()) {
+			m = entry.getValue().get();
+			for (int i = 0; i < m; i++) {
+				result.add((T) unmaskNull(entry.getKey()));
+			}
+		}
+		return result;
+	}
 	/**
 	 * 判断指定集合是否包含指定值，如果集合为空（null或者空），返回{@code false}，否则找到元素返回{@code true}
 	 * 
@@ -263,6 +345,87 @@ public class CollUtil {
 		return IterUtil.countMap(collection);
 	}
 
+	/**
+	 * 元素计数，计数保存在{@link Object2IntHashMap}的int[]中，计数过程中不装箱<br>
+	 * 与{@link #countMap(Iterable)}结果相同，适合元素很多的场景
+	 * 
+	 * @param <T> 集合元素类型
+	 * @param collection 集合
+	 * @return 元素与计数的{@link Object2IntHashMap}，不存在的元素计数为0
+	 */
+	public static <T> Object2IntHashMap<T> countIntMap(Iterable<T> collection) {
+		final Object2IntHashMap<T> counts = new Object2IntHashMap<>();
+		if (null != collection) {
+			for (T t : collection) {
+				counts.addTo(t, 1);
+			}
+		}
+		return counts;
+	}
+
+	/**
+	 * 元素计数，计数器为可变对象，计数过程中不产生装箱对象
+	 * 
+	 * @param <T> 集合元素类型
+	 * @param collection 集合
+	 * @return 元素与计数器的Map
+	 */
+	private static <T> Map<T, MutableInt> counterMap(Collection<T> collection) {
+		final Map<T, MutableInt> counts = new HashMap<>(Math.max((int) (collection.size() / .75f) + 1, 16));
+		MutableInt count;
+		for (T t : collection) {
+			count = counts.get(t);
+			if (null == count) {
+				counts.put(t, new MutableInt(1));
+			} else {
+				count.increment();
+			}
+		}
+		return counts;
+	}
+
+	/**
+	 * 并行元素计数，null元素使用{@link #NULL_KEY}代替
+	 * 
+	 * @param collection 集合
+	 * @return 元素与计数器的Map
+	 */
+	private static ConcurrentHashMap<Object, AtomicInteger> parallelCounterMap(Collection<?> collection) {
+		final ConcurrentHashMap<Object, AtomicInteger> counts = new ConcurrentHashMap<>(Math.max((int) (collection.size() / .75f) + 1, 16));
+		collection.parallelStream().forEach(t -> counts.computeIfAbsent(maskNull(t), k -> new AtomicInteger()).incrementAndGet());
+		return counts;
+	}
+
+	/**
+	 * 元素计数大于0时减一
+	 * 
+	 * @param counts 计数Map
+	 * @param t 元素
+	 * @return 是否减一成功
+	 */
+	private static boolean decrementIfPositive(ConcurrentHashMap<Object, AtomicInteger> counts, Object t) {
+		final AtomicInteger count = counts.get(maskNull(t));
+		if (null == count) {
+			return false;
+		}
+		int current;
+		do {
+			current = count.get();
+			if (current <= 0) {
+				return false;
+			}
+		} while (false == count.compareAndSet(current, current - 1));
+		return true;
+	}
+
+	private static Object maskNull(Object t) {
+		return null == t ? NULL_KEY : t;
+	}
+
+	private static Object unmaskNull(Object t) {
+		return NULL_KEY == t ? null : t;
+	}
+
 	/**
 	 * 以 conjunction 为分隔符将集合转换为字符串<br>
 	 * 如果集合元素为数组、{@link Iterable}或{@link Iterator}，则递归组合其为字符串
@@ -2029,15 +2192,120 @@ public class CollUtil {
 	 */
 	@SafeVarargs
 	public static <T> List<T> sortPageAll(int pageNo, int pageSize, Comparator<T> comparator, Collection<T>... colls) {
-		final List<T> list = new ArrayList<>(pageNo * pageSize);
+		if (null == comparator) {
+			final List<T> list = new ArrayList<>(pageNo * pageSize);
+			for (Collection<T> coll : colls) {
+				list.addAll(coll);
+			}
+			return page(pageNo, pageSize, list);
+		}
+
+		final int[] startEnd = PageUtil.transToStartEnd(pageNo, pageSize);
+		if (startEnd[1] <= 0) {
+			return new ArrayList<>(0);
+		}
+		// 只保留排序后的前end个元素，无需整体排序
+		// 比较相等的元素按其在所有集合中的位置排序，与稳定排序结果一致，保证各页之间不重复不遗漏
+		final BoundedPriorityQueue<Pair<Integer, T>> queue = new BoundedPriorityQueue<>(startEnd[1], (o1, o2) -> {
+			final int result = comparator.compare(o1.getValue(), o2.getValue());
+			return (0 != result) ? result : Integer.compare(o1.getKey(), o2.getKey());
+		});
+		int index = 0;
 		for (Collection<T> coll : colls) {
-			list.addAll(coll);
+			if (null != coll) {
+				for (T element : coll) {
+					queue.offer(new Pair<>(index++, element));
+				}
+			}
 		}
-		if (null != comparator) {
-			Collections.sort(list, comparator);
+		final List<Pair<Integer, T>> top = queue.toList();
+		if (startEnd[0] >= top.size()) {
+			return new ArrayList<>(0);
 		}
+		final List<T> result = new ArrayList<>(top.size() - startEnd[0]);
+		for (int i = startEnd[0]; i < top.size(); i++) {
+			result.add(top.get(i).getValue());
+		}
+		return result;
+	}
 
-		return page(pageNo, pageSize, list);
+	/**
+	 * 多个已排序集合的归并分页（k路归并）<br>
+	 * 每个集合必须已经按照给定比较器排好序，只归并到目标页为止，不会整体排序，
+	 * 复杂度为O((pageNo * pageSize) * log(k))，k为集合个数。比较相等的元素按照集合的先后顺序排列。
+	 * 
+	 * @param <T> 集合元素类型
+	 * @param pageNo 页码，从1开始计数，0和1效果相同
+	 * @param pageSize 每页的条目数
+	 * @param comparator 比较器，与各集合的排序规则一致
+	 * @param sortedColls 已排序的集合数组
+	 * @return 分页后的段落内容
+	 */
+	@SafeVarargs
+	public static <T> List<T> mergeSortedPage(int pageNo, int pageSize, final Comparator<? super T> comparator, Collection<T>... sortedColls) {
+		final int[] startEnd = PageUtil.transToStartEnd(pageNo, pageSize);
+		if (startEnd[1] <= startEnd[0] || ArrayUtil.isEmpty(sortedColls)) {
+			return new ArrayList<>(0);
+		}
+
+		// 每个集合一个游标，堆顶为当前最小的元素
+		final PriorityQueue<MergeCursor<T>> heap = new PriorityQueue<>(sortedColls.length, new Comparator<MergeCursor<T>>() {
+			@Override
+			public int compare(MergeCursor<T> o1, MergeCursor<T> o2) {
+				final int result = comparator.compare(o1.current, o2.current);
+				return 0 != result ? result : Integer.compare(o1.source, o2.source);
+			}
+		});
+		for (int i = 0; i < sortedColls.length; i++) {
+			if (isNotEmpty(sortedColls[i])) {
+				final MergeCursor<T> cursor = new MergeCursor<>(i, sortedColls[i].iterator());
+				cursor.next();
+				heap.add(cursor);
+			}
+		}
+
+		final List<T> result = new ArrayList<>(startEnd[1] - startEnd[0]);
+		MergeCursor<T> cursor;
+		for (int i = 0; i < startEnd[1] && false == heap.isEmpty(); i++) {
+			cursor = heap.poll();
+			if (i >= startEnd[0]) {
+				result.add(cursor.current);
+			}
+			if (cursor.next()) {
+				heap.add(cursor);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * k路归并中单个已排序集合的游标
+	 * 
+	 * @param <T> 元素类型
+	 */
+	private static class MergeCursor<T> {
+		/** 集合序号，用于相等元素保持集合的先后顺序 */
+		private final int source;
+		private final Iterator<T> iterator;
+		private T current;
+
+		MergeCursor(int source, Iterator<T> iterator) {
+			this.source = source;
+			this.iterator = iterator;
+		}
+
+		/**
+		 * 移动到下一个元素
+		 * 
+		 * @return 是否还有元素
+		 */
+		boolean next() {
+			if (iterator.hasNext()) {
+				current = iterator.next();
+				return true;
+			}
+			return false;
+		}
 	}
 
 	/**
@@ -2110,7 +2378,7 @@ public class CollUtil {
 	 * @since 4.0.6
 	 */
 	public static <T> List<T> sortByProperty(Collection<T> collection, String property) {
-		return sort(collection, new PropertyComparator<>(property));
+		return sortByProperty(new ArrayList<>(collection), property);
 	}
 
 	/**
@@ -2123,7 +2391,21 @@ public class CollUtil {
 	 * @since 4.0.6
 	 */
 	public static <T> List<T> sortByProperty(List<T> list, String property) {
-		return sort(list, new PropertyComparator<>(property));
+		return PropertySorter.<T>of(property).setCompareBeanOnTie(true).sort(list);
+	}
+
+	/**
+	 * 根据Bean的多个属性排序，排序会修改原List<br>
+	 * 属性表达式只编译一次，排序前一次性取出排序键，适合大量Bean的排序，数量较大时并行排序
+	 * 
+	 * @param <T> 元素类型
+	 * @param list List
+	 * @param properties 属性名或Bean路径表达式，依次作为第一、第二……排序键，均为正序
+	 * @return 原List
+	 * @see PropertySorter
+	 */
+	public static <T> List<T> sortByProperties(List<T> list, String... properties) {
+		return PropertySorter.<T>of(properties).sort(list);
 	}
 
 	/**
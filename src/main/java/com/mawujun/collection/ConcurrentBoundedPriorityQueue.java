@@ -0,0 +1,152 @@
+package com.mawujun.collection;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.mawujun.lang.Assert;
+
+/**
+ * 线程安全的有界优先队列<br>
+ * 与{@link BoundedPriorityQueue}相同，按照给定的排序规则保留最小的capacity个元素，可被多个线程同时加入元素。<br>
+ * 队列满后记录当前最大的元素，新元素不小于它时无需加锁直接丢弃，因此大量元素竞争少量名额时几乎没有锁竞争。
+ *
+ * @author mawujun
+ *
+ * @param <E> 成员类型
+ */
+public class ConcurrentBoundedPriorityQueue<E> {
+
+	private final int capacity;
+	private final BoundedPriorityQueue<E> queue;
+	private final ReentrantLock lock = new ReentrantLock();
+	/** 队列已满时队列中最大的元素，未满时为null */
+	private volatile E threshold;
+
+	/**
+	 * 构造，元素需实现{@link Comparable}
+	 *
+	 * @param capacity 容量
+	 */
+	public ConcurrentBoundedPriorityQueue(int capacity) {
+		this(capacity, null);
+	}
+
+	/**
+	 * 构造
+	 *
+	 * @param capacity 容量
+	 * @param comparator 比较器，null表示元素自身的比较规则
+	 */
+	public ConcurrentBoundedPriorityQueue(int capacity, Comparator<? super E> comparator) {
+		Assert.isTrue(capacity > 0, "Capacity must be greater than 0 but {}", capacity);
+		this.capacity = capacity;
+		this.queue = new BoundedPriorityQueue<>(capacity, comparator);
+	}
+
+	/**
+	 * 加入元素，队列满时淘汰最大的元素
+	 *
+	 * @param e 元素
+	 * @return 元素是否被保留在队列中
+	 */
+	public boolean offer(E e) {
+		final E current = this.threshold;
+		if (null != current && queue.compareRaw(e, current) >= 0) {
+			// 快速拒绝，无需加锁
+			return false;
+		}
+
+		lock.lock();
+		try {
+			if (queue.size() >= capacity && queue.compareRaw(e, queue.peek()) >= 0) {
+				return false;
+			}
+			queue.offer(e);
+			if (queue.size() >= capacity) {
+				this.threshold = queue.peek();
+			}
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * 加入多个元素
+	 *
+	 * @param elements 元素
+	 * @return this
+	 */
+	public ConcurrentBoundedPriorityQueue<E> addAll(Iterable<? extends E> elements) {
+		for (E e : elements) {
+			offer(e);
+		}
+		return this;
+	}
+
+	/**
+	 * 合并另一个队列中的元素
+	 *
+	 * @param other 另一个队列
+	 * @return this
+	 */
+	public ConcurrentBoundedPriorityQueue<E> merge(ConcurrentBoundedPriorityQueue<? extends E> other) {
+		return addAll(other.toList());
+	}
+
+	/**
+	 * 当前元素个数
+	 *
+	 * @return 元素个数
+	 */
+	public int size() {
+		lock.lock();
+		try {
+			return queue.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * 获取容量
+	 *
+	 * @return 容量
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * 清空队列
+	 */
+	public void clear() {
+		lock.lock();
+		try {
+			queue.clear();
+			this.threshold = null;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * 获取排序后的元素列表（快照）
+	 *
+	 * @return 排序后的列表
+	 */
+	public ArrayList<E> toList() {
+		lock.lock();
+		try {
+			return queue.toList();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return toList().toString();
+	}
+}
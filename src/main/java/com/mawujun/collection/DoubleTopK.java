@@ -0,0 +1,179 @@
+package com.mawujun.collection;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.mawujun.lang.Assert;
+
+/**
+ * 按double分值取前K个（分值最高）元素的容器<br>
+ * 分值存放在double[]中组成最小堆，堆顶为当前保留的最低分，新元素不高于最低分时直接丢弃，全程不装箱。<br>
+ * 非线程安全，多线程场景下每个线程使用自己的实例，最后通过{@link #merge(DoubleTopK)}合并。
+ *
+ * @author mawujun
+ *
+ * @param <E> 元素类型
+ */
+public class DoubleTopK<E> {
+
+	private final int capacity;
+	private final double[] scores;
+	private final Object[] items;
+	private int size;
+
+	/**
+	 * 构造
+	 *
+	 * @param capacity 保留的元素个数
+	 */
+	public DoubleTopK(int capacity) {
+		Assert.isTrue(capacity > 0, "Capacity must be greater than 0 but {}", capacity);
+		this.capacity = capacity;
+		this.scores = new double[capacity];
+		this.items = new Object[capacity];
+	}
+
+	/**
+	 * 加入元素
+	 *
+	 * @param score 分值
+	 * @param item 元素
+	 * @return 元素是否被保留
+	 */
+	public boolean offer(double score, E item) {
+		if (size < capacity) {
+			int i = size++;
+			// 上浮
+			while (i > 0) {
+				final int parent = (i - 1) >>> 1;
+				if (Double.compare(scores[parent], score) <= 0) {
+					break;
+				}
+				scores[i] = scores[parent];
+				items[i] = items[parent];
+				i = parent;
+			}
+			scores[i] = score;
+			items[i] = item;
+			return true;
+		}
+		if (Double.compare(score, scores[0]) <= 0) {
+			return false;
+		}
+		siftDown(score, item, size);
+		return true;
+	}
+
+	/**
+	 * 合并另一个容器中的元素
+	 *
+	 * @param other 另一个容器
+	 * @return this
+	 */
+	@SuppressWarnings("unchecked")
+	public DoubleTopK<E> merge(DoubleTopK<? extends E> other) {
+		for (int i = 0; i < other.size; i++) {
+			offer(other.scores[i], (E) other.items[i]);
+		}
+		return this;
+	}
+
+	/**
+	 * 当前保留的元素个数
+	 *
+	 * @return 元素个数
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * 是否已满
+	 *
+	 * @return 是否已满
+	 */
+	public boolean isFull() {
+		return size >= capacity;
+	}
+
+	/**
+	 * 当前保留的最低分，无元素时返回{@link Double#NEGATIVE_INFINITY}
+	 *
+	 * @return 最低分
+	 */
+	public double minScore() {
+		return size > 0 ? scores[0] : Double.NEGATIVE_INFINITY;
+	}
+
+	/**
+	 * 按分值从高到低返回元素
+	 *
+	 * @return 元素列表
+	 */
+	@SuppressWarnings("unchecked")
+	public List<E> toList() {
+		final Object[] sorted = new Object[size];
+		sortDesc(null, sorted);
+		final List<E> list = new ArrayList<>(size);
+		for (Object item : sorted) {
+			list.add((E) item);
+		}
+		return list;
+	}
+
+	/**
+	 * 按分值从高到低返回分值
+	 *
+	 * @return 分值数组
+	 */
+	public double[] scores() {
+		final double[] sorted = new double[size];
+		sortDesc(sorted, null);
+		return sorted;
+	}
+
+	/**
+	 * 在副本上堆排序，按分值从高到低输出
+	 */
+	private void sortDesc(double[] sortedScores, Object[] sortedItems) {
+		final DoubleTopK<Object> copy = new DoubleTopK<>(capacity);
+		System.arraycopy(this.scores, 0, copy.scores, 0, size);
+		System.arraycopy(this.items, 0, copy.items, 0, size);
+		copy.size = size;
+		// 每次取出最低分放在末尾
+		for (int i = size - 1; i >= 0; i--) {
+			if (null != sortedScores) {
+				sortedScores[i] = copy.scores[0];
+			}
+			if (null != sortedItems) {
+				sortedItems[i] = copy.items[0];
+			}
+			copy.size--;
+			if (copy.size > 0) {
+				copy.siftDown(copy.scores[copy.size], copy.items[copy.size], copy.size);
+			}
+			copy.items[copy.size] = null;
+		}
+	}
+
+	/**
+	 * 将元素放在堆顶并下沉
+	 */
+	private void siftDown(double score, Object item, int n) {
+		int i = 0;
+		int child;
+		while ((child = (i << 1) + 1) < n) {
+			if (child + 1 < n && Double.compare(scores[child + 1], scores[child]) < 0) {
+				child++;
+			}
+			if (Double.compare(score, scores[child]) <= 0) {
+				break;
+			}
+			scores[i] = scores[child];
+			items[i] = items[child];
+			i = child;
+		}
+		scores[i] = score;
+		items[i] = item;
+	}
+}
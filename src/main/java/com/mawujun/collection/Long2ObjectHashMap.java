@@ -0,0 +1,277 @@
+package com.mawujun.collection;
+
+import java.util.Arrays;
+import java.util.function.LongFunction;
+
+/**
+ * 键为long的Map，开放寻址（线性探测）实现，键直接存放在long[]中，不装箱<br>
+ * 0作为空位置标记，键0单独记录；删除时后移元素填补空位。支持null值，非线程安全。
+ *
+ * @author mawujun
+ * @param <V> 值类型
+ */
+public class Long2ObjectHashMap<V> {
+
+	private long[] keys;
+	private Object[] values;
+	private int mask;
+	/** 非0键的个数 */
+	private int size;
+	private int threshold;
+	private boolean containsZeroKey;
+	private V zeroValue;
+
+	/**
+	 * 构造
+	 */
+	public Long2ObjectHashMap() {
+		this(16);
+	}
+
+	/**
+	 * 构造
+	 *
+	 * @param expectedSize 预期的键值对数，放入不超过此数量的键值对不会扩容
+	 */
+	public Long2ObjectHashMap(int expectedSize) {
+		allocate(PrimitiveHash.capacityFor(expectedSize));
+	}
+
+	/**
+	 * 获取值
+	 *
+	 * @param key 键
+	 * @return 值，不存在返回null
+	 */
+	@SuppressWarnings("unchecked")
+	public V get(long key) {
+		if (0 == key) {
+			return zeroValue;
+		}
+		final int index = indexOf(key);
+		return (index < 0) ? null : (V) values[index];
+	}
+
+	public boolean containsKey(long key) {
+		return (0 == key) ? containsZeroKey : indexOf(key) >= 0;
+	}
+
+	/**
+	 * 放入键值对
+	 *
+	 * @param key 键
+	 * @param value 值
+	 * @return 原值，不存在返回null
+	 */
+	@SuppressWarnings("unchecked")
+	public V put(long key, V value) {
+		if (0 == key) {
+			final V old = zeroValue;
+			zeroValue = value;
+			containsZeroKey = true;
+			return old;
+		}
+		int i = PrimitiveHash.mix(key) & mask;
+		long existing;
+		while (0 != (existing = keys[i])) {
+			if (existing == key) {
+				final V old = (V) values[i];
+				values[i] = value;
+				return old;
+			}
+			i = (i + 1) & mask;
+		}
+		keys[i] = key;
+		values[i] = value;
+		if (++size > threshold) {
+			resize(keys.length * 2);
+		}
+		return null;
+	}
+
+	/**
+	 * 键不存在（或值为null）时使用函数创建值并放入
+	 *
+	 * @param key 键
+	 * @param mappingFunction 创建值的函数
+	 * @return 已有的值或新创建的值
+	 */
+	public V computeIfAbsent(long key, LongFunction<? extends V> mappingFunction) {
+		V value = get(key);
+		if (null == value) {
+			value = mappingFunction.apply(key);
+			if (null != value) {
+				put(key, value);
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * 移除键
+	 *
+	 * @param key 键
+	 * @return 移除的值，不存在返回null
+	 */
+	@SuppressWarnings("unchecked")
+	public V remove(long key) {
+		if (0 == key) {
+			final V old = zeroValue;
+			zeroValue = null;
+			containsZeroKey = false;
+			return old;
+		}
+		final int index = indexOf(key);
+		if (index < 0) {
+			return null;
+		}
+		final V old = (V) values[index];
+		shiftKeys(index);
+		size--;
+		return old;
+	}
+
+	public int size() {
+		return containsZeroKey ? size + 1 : size;
+	}
+
+	public boolean isEmpty() {
+		return 0 == size();
+	}
+
+	public void clear() {
+		Arrays.fill(keys, 0);
+		Arrays.fill(values, null);
+		size = 0;
+		containsZeroKey = false;
+		zeroValue = null;
+	}
+
+	/**
+	 * 所有键，顺序不固定
+	 *
+	 * @return 键数组
+	 */
+	public long[] keys() {
+		final long[] result = new long[size()];
+		int index = 0;
+		if (containsZeroKey) {
+			result[index++] = 0;
+		}
+		for (long key : keys) {
+			if (0 != key) {
+				result[index++] = key;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * 遍历键值对，顺序不固定
+	 *
+	 * @param action 操作
+	 */
+	@SuppressWarnings("unchecked")
+	public void forEach(EntryConsumer<? super V> action) {
+		if (containsZeroKey) {
+			action.accept(0, zeroValue);
+		}
+		for (int i = 0; i < keys.length; i++) {
+			if (0 != keys[i]) {
+				action.accept(keys[i], (V) values[i]);
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder builder = new StringBuilder().append('{');
+		forEach((key, value) -> {
+			if (builder.length() > 1) {
+				builder.append(", ");
+			}
+			builder.append(key).append('=').append(value);
+		});
+		return builder.append('}').toString();
+	}
+
+	// ------------------------------------------------------------------------------------------------------------------------------------- Private method start
+	private int indexOf(long key) {
+		int i = PrimitiveHash.mix(key) & mask;
+		long existing;
+		while (0 != (existing = keys[i])) {
+			if (existing == key) {
+				return i;
+			}
+			i = (i + 1) & mask;
+		}
+		return -1;
+	}
+
+	/**
+	 * 删除pos位置后，将之后探测链上的键前移
+	 */
+	private void shiftKeys(int pos) {
+		int last;
+		int slot;
+		long current;
+		while (true) {
+			pos = ((last = pos) + 1) & mask;
+			while (true) {
+				if (0 == (current = keys[pos])) {
+					keys[last] = 0;
+					values[last] = null;
+					return;
+				}
+				slot = PrimitiveHash.mix(current) & mask;
+				if (last <= pos ? (last >= slot || slot > pos) : (last >= slot && slot > pos)) {
+					break;
+				}
+				pos = (pos + 1) & mask;
+			}
+			keys[last] = current;
+			values[last] = values[pos];
+		}
+	}
+
+	private void resize(int capacity) {
+		final long[] oldKeys = this.keys;
+		final Object[] oldValues = this.values;
+		allocate(capacity);
+		int i;
+		for (int j = 0; j < oldKeys.length; j++) {
+			if (0 != oldKeys[j]) {
+				i = PrimitiveHash.mix(oldKeys[j]) & mask;
+				while (0 != keys[i]) {
+					i = (i + 1) & mask;
+				}
+				keys[i] = oldKeys[j];
+				values[i] = oldValues[j];
+			}
+		}
+	}
+
+	private void allocate(int capacity) {
+		this.keys = new long[capacity];
+		this.values = new Object[capacity];
+		this.mask = capacity - 1;
+		this.threshold = PrimitiveHash.threshold(capacity);
+	}
+	// ------------------------------------------------------------------------------------------------------------------------------------- Private method end
+
+	/**
+	 * 键值对遍历操作
+	 *
+	 * @param <V> 值类型
+	 */
+	@FunctionalInterface
+	public interface EntryConsumer<V> {
+		/**
+		 * 处理键值对
+		 *
+		 * @param key 键
+		 * @param value 值
+		 */
+		void accept(long key, V value);
+	}
+}
@@ -0,0 +1,263 @@
+package com.mawujun.collection;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
+
+import com.mawujun.lang.Assert;
+
+/**
+ * long列表，元素直接存放在long[]中，不装箱<br>
+ * 用于替代{@code List<Long>}保存大量数值，非线程安全。
+ *
+ * @author mawujun
+ */
+public class LongArrayList implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private static final long[] EMPTY = new long[0];
+
+	private long[] elements;
+	private int size;
+
+	/**
+	 * 创建列表
+	 *
+	 * @param values 初始元素
+	 * @return {@link LongArrayList}
+	 */
+	public static LongArrayList of(long... values) {
+		final LongArrayList list = new LongArrayList(values.length);
+		list.addAll(values);
+		return list;
+	}
+
+	/**
+	 * 构造
+	 */
+	public LongArrayList() {
+		this.elements = EMPTY;
+	}
+
+	/**
+	 * 构造
+	 *
+	 * @param initialCapacity 初始容量
+	 */
+	public LongArrayList(int initialCapacity) {
+		Assert.isTrue(initialCapacity >= 0, "Capacity must not be negative but {}", initialCapacity);
+		this.elements = (0 == initialCapacity) ? EMPTY : new long[initialCapacity];
+	}
+
+	/**
+	 * 加入元素
+	 *
+	 * @param value 值
+	 * @return this
+	 */
+	public LongArrayList add(long value) {
+		ensureCapacity(size + 1);
+		elements[size++] = value;
+		return this;
+	}
+
+	/**
+	 * 加入多个元素
+	 *
+	 * @param values 值
+	 * @return this
+	 */
+	public LongArrayList addAll(long... values) {
+		ensureCapacity(size + values.length);
+		System.arraycopy(values, 0, elements, size, values.length);
+		size += values.length;
+		return this;
+	}
+
+	/**
+	 * 加入另一个列表的所有元素
+	 *
+	 * @param other 列表
+	 * @return this
+	 */
+	public LongArrayList addAll(LongArrayList other) {
+		ensureCapacity(size + other.size);
+		System.arraycopy(other.elements, 0, elements, size, other.size);
+		size += other.size;
+		return this;
+	}
+
+	/**
+	 * 获取元素
+	 *
+	 * @param index 下标
+	 * @return 值
+	 */
+	public long get(int index) {
+		checkIndex(index);
+		return elements[index];
+	}
+
+	/**
+	 * 设置元素
+	 *
+	 * @param index 下标
+	 * @param value 值
+	 * @return 原值
+	 */
+	public long set(int index, long value) {
+		checkIndex(index);
+		final long old = elements[index];
+		elements[index] = value;
+		return old;
+	}
+
+	/**
+	 * 移除指定下标的元素
+	 *
+	 * @param index 下标
+	 * @return 移除的值
+	 */
+	public long removeAt(int index) {
+		checkIndex(index);
+		final long old = elements[index];
+		System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+		size--;
+		return old;
+	}
+
+	/**
+	 * 值第一次出现的下标
+	 *
+	 * @param value 值
+	 * @return 下标，不存在返回-1
+	 */
+	public int indexOf(long value) {
+		for (int i = 0; i < size; i++) {
+			if (elements[i] == value) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	public boolean contains(long value) {
+		return indexOf(value) >= 0;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return 0 == size;
+	}
+
+	public void clear() {
+		size = 0;
+	}
+
+	/**
+	 * 升序排序
+	 *
+	 * @return this
+	 */
+	public LongArrayList sort() {
+		Arrays.sort(elements, 0, size);
+		return this;
+	}
+
+	/**
+	 * 容量缩小为元素个数
+	 */
+	public void trimToSize() {
+		if (elements.length > size) {
+			elements = (0 == size) ? EMPTY : Arrays.copyOf(elements, size);
+		}
+	}
+
+	/**
+	 * 遍历元素
+	 *
+	 * @param action 操作
+	 */
+	public void forEach(LongConsumer action) {
+		for (int i = 0; i < size; i++) {
+			action.accept(elements[i]);
+		}
+	}
+
+	/**
+	 * 元素流
+	 *
+	 * @return {@link LongStream}
+	 */
+	public LongStream stream() {
+		return Arrays.stream(elements, 0, size);
+	}
+
+	/**
+	 * 复制为数组
+	 *
+	 * @return 数组
+	 */
+	public long[] toArray() {
+		return Arrays.copyOf(elements, size);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (false == (obj instanceof LongArrayList)) {
+			return false;
+		}
+		final LongArrayList other = (LongArrayList) obj;
+		if (size != other.size) {
+			return false;
+		}
+		for (int i = 0; i < size; i++) {
+			if (elements[i] != other.elements[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+		int h = 1;
+		for (int i = 0; i < size; i++) {
+			h = 31 * h + Long.hashCode(elements[i]);
+		}
+		return h;
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder builder = new StringBuilder().append('[');
+		for (int i = 0; i < size; i++) {
+			if (i > 0) {
+				builder.append(", ");
+			}
+			builder.append(elements[i]);
+		}
+		return builder.append(']').toString();
+	}
+
+	// ------------------------------------------------------------------------------------------------------------------------------------- Private method start
+	private void ensureCapacity(int minCapacity) {
+		if (minCapacity > elements.length) {
+			elements = Arrays.copyOf(elements, Math.max(minCapacity, Math.max(elements.length + (elements.length >> 1), 10)));
+		}
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+	}
+	// ------------------------------------------------------------------------------------------------------------------------------------- Private method end
+}
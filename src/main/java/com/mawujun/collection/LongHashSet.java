@@ -0,0 +1,227 @@
+package com.mawujun.collection;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * long集合，开放寻址（线性探测）实现，元素直接存放在long[]中，不装箱<br>
+ * 0作为空位置标记，元素0单独记录；删除时后移元素填补空位，不使用删除标记。非线程安全。
+ *
+ * @author mawujun
+ */
+public class LongHashSet implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private long[] table;
+	private int mask;
+	/** 非0元素个数 */
+	private int size;
+	private boolean containsZero;
+	private int threshold;
+
+	/**
+	 * 构造
+	 */
+	public LongHashSet() {
+		this(16);
+	}
+
+	/**
+	 * 构造
+	 *
+	 * @param expectedSize 预期的元素个数，加入不超过此数量的元素不会扩容
+	 */
+	public LongHashSet(int expectedSize) {
+		allocate(PrimitiveHash.capacityFor(expectedSize));
+	}
+
+	/**
+	 * 加入元素
+	 *
+	 * @param value 值
+	 * @return 是否为新加入的元素
+	 */
+	public boolean add(long value) {
+		if (0 == value) {
+			if (containsZero) {
+				return false;
+			}
+			containsZero = true;
+			return true;
+		}
+		int i = PrimitiveHash.mix(value) & mask;
+		long existing;
+		while (0 != (existing = table[i])) {
+			if (existing == value) {
+				return false;
+			}
+			i = (i + 1) & mask;
+		}
+		table[i] = value;
+		if (++size > threshold) {
+			resize(table.length * 2);
+		}
+		return true;
+	}
+
+	/**
+	 * 加入多个元素
+	 *
+	 * @param values 值
+	 * @return this
+	 */
+	public LongHashSet addAll(long... values) {
+		for (long value : values) {
+			add(value);
+		}
+		return this;
+	}
+
+	/**
+	 * 是否包含元素
+	 *
+	 * @param value 值
+	 * @return 是否包含
+	 */
+	public boolean contains(long value) {
+		if (0 == value) {
+			return containsZero;
+		}
+		int i = PrimitiveHash.mix(value) & mask;
+		long existing;
+		while (0 != (existing = table[i])) {
+			if (existing == value) {
+				return true;
+			}
+			i = (i + 1) & mask;
+		}
+		return false;
+	}
+
+	/**
+	 * 移除元素
+	 *
+	 * @param value 值
+	 * @return 是否存在并被移除
+	 */
+	public boolean remove(long value) {
+		if (0 == value) {
+			final boolean existed = containsZero;
+			containsZero = false;
+			return existed;
+		}
+		int i = PrimitiveHash.mix(value) & mask;
+		long existing;
+		while (0 != (existing = table[i])) {
+			if (existing == value) {
+				shiftKeys(i);
+				size--;
+				return true;
+			}
+			i = (i + 1) & mask;
+		}
+		return false;
+	}
+
+	public int size() {
+		return containsZero ? size + 1 : size;
+	}
+
+	public boolean isEmpty() {
+		return 0 == size();
+	}
+
+	public void clear() {
+		Arrays.fill(table, 0);
+		size = 0;
+		containsZero = false;
+	}
+
+	/**
+	 * 遍历元素，顺序不固定
+	 *
+	 * @param action 操作
+	 */
+	public void forEach(LongConsumer action) {
+		if (containsZero) {
+			action.accept(0);
+		}
+		for (long value : table) {
+			if (0 != value) {
+				action.accept(value);
+			}
+		}
+	}
+
+	/**
+	 * 复制为数组，顺序不固定
+	 *
+	 * @return 数组
+	 */
+	public long[] toArray() {
+		final long[] result = new long[size()];
+		int index = 0;
+		if (containsZero) {
+			result[index++] = 0;
+		}
+		for (long value : table) {
+			if (0 != value) {
+				result[index++] = value;
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		return Arrays.toString(toArray());
+	}
+
+	// ------------------------------------------------------------------------------------------------------------------------------------- Private method start
+	/**
+	 * 删除pos位置后，将之后探测链上的元素前移
+	 */
+	private void shiftKeys(int pos) {
+		int last;
+		int slot;
+		long current;
+		while (true) {
+			pos = ((last = pos) + 1) & mask;
+			while (true) {
+				if (0 == (current = table[pos])) {
+					table[last] = 0;
+					return;
+				}
+				slot = PrimitiveHash.mix(current) & mask;
+				if (last <= pos ? (last >= slot || slot > pos) : (last >= slot && slot > pos)) {
+					break;
+				}
+				pos = (pos + 1) & mask;
+			}
+			table[last] = current;
+		}
+	}
+
+	private void resize(int capacity) {
+		final long[] old = this.table;
+		allocate(capacity);
+		int i;
+		for (long value : old) {
+			if (0 != value) {
+				i = PrimitiveHash.mix(value) & mask;
+				while (0 != table[i]) {
+					i = (i + 1) & mask;
+				}
+				table[i] = value;
+			}
+		}
+	}
+
+	private void allocate(int capacity) {
+		this.table = new long[capacity];
+		this.mask = capacity - 1;
+		this.threshold = PrimitiveHash.threshold(capacity);
+	}
+	// ------------------------------------------------------------------------------------------------------------------------------------- Private method end
+}
@@ -0,0 +1,289 @@
+package com.mawujun.collection;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * 值为int的Map，开放寻址（线性探测）实现，值直接存放在int[]中，不装箱<br>
+ * 常用于计数，见{@link #addTo(Object, int)}。不存在的键返回{@link #getMissingValue()}（默认0）。支持null键，非线程安全。
+ *
+ * <pre>
+ * Object2IntHashMap&lt;String&gt; counts = new Object2IntHashMap&lt;&gt;();
+ * for (String word : words) {
+ * 	counts.addTo(word, 1);
+ * }
+ * </pre>
+ *
+ * @author mawujun
+ * @param <K> 键类型
+ */
+public class Object2IntHashMap<K> {
+
+	/** null键在表中的占位 */
+	private static final Object NULL_KEY = new Object();
+
+	private Object[] keys;
+	private int[] values;
+	private int mask;
+	private int size;
+	private int threshold;
+	/** 键不存在时返回的值 */
+	private final int missingValue;
+
+	/**
+	 * 构造
+	 */
+	public Object2IntHashMap() {
+		this(16, 0);
+	}
+
+	/**
+	 * 构造
+	 *
+	 * @param expectedSize 预期的键值对数，放入不超过此数量的键值对不会扩容
+	 * @param missingValue 键不存在时返回的值
+	 */
+	public Object2IntHashMap(int expectedSize, int missingValue) {
+		this.missingValue = missingValue;
+		allocate(PrimitiveHash.capacityFor(expectedSize));
+	}
+
+	/**
+	 * 键不存在时返回的值
+	 *
+	 * @return 键不存在时返回的值
+	 */
+	public int getMissingValue() {
+		return missingValue;
+	}
+
+	/**
+	 * 获取值
+	 *
+	 * @param key 键
+	 * @return 值，不存在返回{@link #getMissingValue()}
+	 */
+	public int getInt(Object key) {
+		final int index = indexOf(key);
+		return (index < 0) ? missingValue : values[index];
+	}
+
+	/**
+	 * 获取值
+	 *
+	 * @param key 键
+	 * @param defaultValue 不存在时返回的值
+	 * @return 值
+	 */
+	public int getOrDefault(Object key, int defaultValue) {
+		final int index = indexOf(key);
+		return (index < 0) ? defaultValue : values[index];
+	}
+
+	public boolean containsKey(Object key) {
+		return indexOf(key) >= 0;
+	}
+
+	/**
+	 * 放入键值对
+	 *
+	 * @param key 键
+	 * @param value 值
+	 * @return 原值，不存在返回{@link #getMissingValue()}
+	 */
+	public int put(K key, int value) {
+		final int index = insertIndex(key);
+		if (index >= 0) {
+			final int old = values[index];
+			values[index] = value;
+			return old;
+		}
+		values[-index - 1] = value;
+		afterInsert();
+		return missingValue;
+	}
+
+	/**
+	 * 值加上增量，键不存在时以{@link #getMissingValue()}为初始值
+	 *
+	 * @param key 键
+	 * @param increment 增量
+	 * @return 增加后的值
+	 */
+	public int addTo(K key, int increment) {
+		int index = insertIndex(key);
+		if (index >= 0) {
+			return values[index] += increment;
+		}
+		index = -index - 1;
+		final int value = missingValue + increment;
+		values[index] = value;
+		afterInsert();
+		return value;
+	}
+
+	/**
+	 * 移除键
+	 *
+	 * @param key 键
+	 * @return 移除的值，不存在返回{@link #getMissingValue()}
+	 */
+	public int removeInt(Object key) {
+		final int index = indexOf(key);
+		if (index < 0) {
+			return missingValue;
+		}
+		final int old = values[index];
+		shiftKeys(index);
+		size--;
+		return old;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return 0 == size;
+	}
+
+	public void clear() {
+		Arrays.fill(keys, null);
+		size = 0;
+	}
+
+	/**
+	 * 遍历键值对，顺序不固定
+	 *
+	 * @param action 操作
+	 */
+	@SuppressWarnings("unchecked")
+	public void forEach(ObjIntConsumer<? super K> action) {
+		final Object[] keys = this.keys;
+		for (int i = 0; i < keys.length; i++) {
+			if (null != keys[i]) {
+				action.accept((K) unmaskNull(keys[i]), values[i]);
+			}
+		}
+	}
+
+	/**
+	 * 转为{@link HashMap}，值装箱，用于与使用{@code Map<K, Integer>}的代码交互
+	 *
+	 * @return {@link HashMap}
+	 */
+	public Map<K, Integer> toMap() {
+		final Map<K, Integer> map = new HashMap<>((int) (size / 0.75f) + 1);
+		forEach(map::put);
+		return map;
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder builder = new StringBuilder().append('{');
+		forEach((key, value) -> {
+			if (builder.length() > 1) {
+				builder.append(", ");
+			}
+			builder.append(key).append('=').append(value);
+		});
+		return builder.append('}').toString();
+	}
+
+	// ------------------------------------------------------------------------------------------------------------------------------------- Private method start
+	private int indexOf(Object key) {
+		final Object k = maskNull(key);
+		int i = PrimitiveHash.mix(k.hashCode()) & mask;
+		Object existing;
+		while (null != (existing = keys[i])) {
+			if (existing == k || existing.equals(k)) {
+				return i;
+			}
+			i = (i + 1) & mask;
+		}
+		return -1;
+	}
+
+	/**
+	 * 键存在时返回其位置；不存在时在空位放入键，返回-(位置+1)
+	 */
+	private int insertIndex(Object key) {
+		final Object k = maskNull(key);
+		int i = PrimitiveHash.mix(k.hashCode()) & mask;
+		Object existing;
+		while (null != (existing = keys[i])) {
+			if (existing == k || existing.equals(k)) {
+				return i;
+			}
+			i = (i + 1) & mask;
+		}
+		keys[i] = k;
+		return -i - 1;
+	}
+
+	private void afterInsert() {
+		if (++size > threshold) {
+			resize(keys.length * 2);
+		}
+	}
+
+	/**
+	 * 删除pos位置后，将之后探测链上的键前移
+	 */
+	private void shiftKeys(int pos) {
+		int last;
+		int slot;
+		Object current;
+		while (true) {
+			pos = ((last = pos) + 1) & mask;
+			while (true) {
+				if (null == (current = keys[pos])) {
+					keys[last] = null;
+					return;
+				}
+				slot = PrimitiveHash.mix(current.hashCode()) & mask;
+				if (last <= pos ? (last >= slot || slot > pos) : (last >= slot && slot > pos)) {
+					break;
+				}
+				pos = (pos + 1) & mask;
+			}
+			keys[last] = current;
+			values[last] = values[pos];
+		}
+	}
+
+	private void resize(int capacity) {
+		final Object[] oldKeys = this.keys;
+		final int[] oldValues = this.values;
+		allocate(capacity);
+		int i;
+		for (int j = 0; j < oldKeys.length; j++) {
+			if (null != oldKeys[j]) {
+				i = PrimitiveHash.mix(oldKeys[j].hashCode()) & mask;
+				while (null != keys[i]) {
+					i = (i + 1) & mask;
+				}
+				keys[i] = oldKeys[j];
+				values[i] = oldValues[j];
+			}
+		}
+	}
+
+	private void allocate(int capacity) {
+		this.keys = new Object[capacity];
+		this.values = new int[capacity];
+		this.mask = capacity - 1;
+		this.threshold = PrimitiveHash.threshold(capacity);
+	}
+
+	private static Object maskNull(Object key) {
+		return (null == key) ? NULL_KEY : key;
+	}
+
+	private static Object unmaskNull(Object key) {
+		return (NULL_KEY == key) ? null : key;
+	}
+	// ------------------------------------------------------------------------------------------------------------------------------------- Private method end
+}
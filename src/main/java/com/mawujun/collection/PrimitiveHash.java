@@ -0,0 +1,67 @@
+package com.mawujun.collection;
+
+/**
+ * 基本类型开放寻址表共用的哈希及容量计算
+ *
+ * @author mawujun
+ */
+final class PrimitiveHash {
+
+	private static final int INT_PHI = 0x9E3779B9;
+	private static final long LONG_PHI = 0x9E3779B97F4A7C15L;
+	/** 最大容量 */
+	private static final int MAX_CAPACITY = 1 << 30;
+
+	private PrimitiveHash() {
+	}
+
+	/**
+	 * 打散long值，使线性探测时连续的值分布均匀
+	 *
+	 * @param value 值
+	 * @return 哈希值
+	 */
+	static int mix(long value) {
+		final long h = value * LONG_PHI;
+		return (int) (h ^ (h >>> 32) ^ (h >>> 16));
+	}
+
+	/**
+	 * 打散对象的哈希值
+	 *
+	 * @param hashCode 对象的hashCode
+	 * @return 哈希值
+	 */
+	static int mix(int hashCode) {
+		final int h = hashCode * INT_PHI;
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * 容纳指定数量的元素需要的容量（2的幂，负载因子0.75）
+	 *
+	 * @param expectedSize 预期的元素个数
+	 * @return 容量
+	 */
+	static int capacityFor(int expectedSize) {
+		final long min = Math.max((long) expectedSize + expectedSize / 3 + 1, 4);
+		if (min > MAX_CAPACITY) {
+			return MAX_CAPACITY;
+		}
+		int capacity = 4;
+		while (capacity < min) {
+			capacity <<= 1;
+		}
+		return capacity;
+	}
+
+	/**
+	 * 扩容阈值
+	 *
+	 * @param capacity 容量
+	 * @return 元素个数超过此值时扩容
+	 */
+	static int threshold(int capacity) {
+		return (capacity >= MAX_CAPACITY) ? capacity - 1 : capacity - (capacity >>> 2);
+	}
+}
@@ -0,0 +1,95 @@
+package com.mawujun.collection;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
+
+/**
+ * 取前K个元素（Top-K）的工具类<br>
+ * 提供用于Stream的{@link Collector}，并行流中每个分片使用独立的有界堆，最后合并，不需要同步。
+ *
+ * <pre>
+ * List&lt;User&gt; top10 = users.parallelStream().collect(TopKUtil.byLongScore(10, User::getScore));
+ * </pre>
+ *
+ * @author mawujun
+ * @see BoundedPriorityQueue
+ * @see LongTopK
+ * @see DoubleTopK
+ * @see ConcurrentBoundedPriorityQueue
+ */
+public class TopKUtil {
+
+	/**
+	 * 按照比较器取最小的k个元素，结果从小到大排列
+	 *
+	 * @param <T> 元素类型
+	 * @param k 元素个数
+	 * @param comparator 比较器
+	 * @return {@link Collector}
+	 */
+	public static <T> Collector<T, ?, List<T>> smallest(final int k, final Comparator<? super T> comparator) {
+		return Collector.of(//
+				() -> new BoundedPriorityQueue<T>(k, comparator), //
+				BoundedPriorityQueue::offer, //
+				(left, right) -> {
+					// 不使用addAll，避免BoundedPriorityQueue.iterator()排序
+					for (Object e : right.toArray()) {
+						@SuppressWarnings("unchecked")
+						final T t = (T) e;
+						left.offer(t);
+					}
+					return left;
+				}, //
+				queue -> queue.toList());
+	}
+
+	/**
+	 * 按照比较器取最大的k个元素，结果从大到小排列
+	 *
+	 * @param <T> 元素类型
+	 * @param k 元素个数
+	 * @param comparator 比较器
+	 * @return {@link Collector}
+	 */
+	public static <T> Collector<T, ?, List<T>> largest(final int k, final Comparator<? super T> comparator) {
+		return smallest(k, Collections.reverseOrder(comparator));
+	}
+
+	/**
+	 * 按long分值取分值最高的k个元素，结果按分值从高到低排列，分值计算不装箱
+	 *
+	 * @param <T> 元素类型
+	 * @param k 元素个数
+	 * @param scorer 分值计算函数
+	 * @return {@link Collector}
+	 */
+	public static <T> Collector<T, ?, List<T>> byLongScore(final int k, final ToLongFunction<? super T> scorer) {
+		return Collector.of(//
+				() -> new LongTopK<T>(k), //
+				(topK, t) -> topK.offer(scorer.applyAsLong(t), t), //
+				LongTopK::merge, //
+				LongTopK::toList, //
+				Collector.Characteristics.UNORDERED);
+	}
+
+	/**
+	 * 按double分值取分值最高的k个元素，结果按分值从高到低排列，分值计算不装箱
+	 *
+	 * @param <T> 元素类型
+	 * @param k 元素个数
+	 * @param scorer 分值计算函数
+	 * @return {@link Collector}
+	 */
+	public static <T> Collector<T, ?, List<T>> byDoubleScore(final int k, final ToDoubleFunction<? super T> scorer) {
+		return Collector.of(//
+				() -> new DoubleTopK<T>(k), //
+				(topK, t) -> topK.offer(scorer.applyAsDouble(t), t), //
+				DoubleTopK::merge, //
+				DoubleTopK::toList, //
+				Collector.Characteristics.UNORDERED);
+	}
+}
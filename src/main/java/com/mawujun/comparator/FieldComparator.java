@@ -1,12 +1,14 @@
 package com.mawujun.comparator;
 
 import java.io.Serializable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
 import java.util.Comparator;
 
 import com.mawujun.util.ClassUtil;
 import com.mawujun.util.ObjectUtil;
-import com.mawujun.util.ReflectUtil;
 import com.mawujun.util.StrUtil;
 
 /**
@@ -21,6 +23,8 @@ public class FieldComparator<T> implements Comparator<T>, Serializable {
 	private static final long serialVersionUID = 9157326766723846313L;
 
 	private final Field field;
+	/** 字段读取器，只解析一次 */
+	private transient MethodHandle getter;
 
 	/**
 	 * 构造
@@ -48,15 +52,32 @@ public class FieldComparator<T> implements Comparator<T>, Serializable {
 		Comparable<?> v1;
 		Comparable<?> v2;
 		try {
-			v1 = (Comparable<?>) ReflectUtil.getFieldValue(o1, this.field);
-			v2 = (Comparable<?>) ReflectUtil.getFieldValue(o2, this.field);
-		} catch (Exception e) {
+			final MethodHandle getter = getGetter();
+			v1 = (Comparable<?>) (Object) getter.invokeExact(o1);
+			v2 = (Comparable<?>) (Object) getter.invokeExact(o2);
+		} catch (Throwable e) {
 			throw new ComparatorException(e);
 		}
 
 		return compare(o1, o2, v1, v2);
 	}
 
+	/**
+	 * 获取字段读取器，反序列化后重新创建
+	 * 
+	 * @return 字段读取器
+	 * @throws IllegalAccessException 字段无法访问
+	 */
+	private MethodHandle getGetter() throws IllegalAccessException {
+		MethodHandle getter = this.getter;
+		if (null == getter) {
+			this.field.setAccessible(true);
+			getter = MethodHandles.lookup().unreflectGetter(this.field).asType(MethodType.methodType(Object.class, Object.class));
+			this.getter = getter;
+		}
+		return getter;
+	}
+
 	@SuppressWarnings({ "rawtypes", "unchecked" })
 	private int compare(T o1, T o2, Comparable fieldValue1, Comparable fieldValue2) {
 		int result = ObjectUtil.compare(fieldValue1, fieldValue2);
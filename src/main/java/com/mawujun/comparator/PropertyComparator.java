@@ -3,7 +3,7 @@ package com.mawujun.comparator;
 import java.io.Serializable;
 import java.util.Comparator;
 
-import com.mawujun.bean.BeanUtil;
+import com.mawujun.bean.CompiledBeanPath;
 import com.mawujun.util.ObjectUtil;
 
 /**
@@ -19,6 +19,8 @@ public class PropertyComparator<T> implements Comparator<T>, Serializable {
 	
 	private final String property;
 	private final boolean isNullGreater;
+	/** 编译后的属性表达式，只解析一次 */
+	private transient CompiledBeanPath compiledPath;
 	
 	/**
 	 * 构造
@@ -53,8 +55,9 @@ public class PropertyComparator<T> implements Comparator<T>, Serializable {
 		Comparable<?> v1;
 		Comparable<?> v2;
 		try {
-			v1 = (Comparable<?>) BeanUtil.getProperty(o1, property);
-			v2 = (Comparable<?>) BeanUtil.getProperty(o2, property);
+			final CompiledBeanPath path = getCompiledPath();
+			v1 = (Comparable<?>) path.get(o1);
+			v2 = (Comparable<?>) path.get(o2);
 		} catch (Exception e) {
 			throw new ComparatorException(e);
 		}
@@ -62,6 +65,20 @@ public class PropertyComparator<T> implements Comparator<T>, Serializable {
 		return compare(o1, o2, v1, v2);
 	}
 
+	/**
+	 * 获取编译后的属性表达式，反序列化后重新编译
+	 * 
+	 * @return {@link CompiledBeanPath}
+	 */
+	private CompiledBeanPath getCompiledPath() {
+		CompiledBeanPath path = this.compiledPath;
+		if (null == path) {
+			path = CompiledBeanPath.compile(this.property);
+			this.compiledPath = path;
+		}
+		return path;
+	}
+
 	@SuppressWarnings({ "rawtypes", "unchecked" })
 	private int compare(T o1, T o2, Comparable fieldValue1, Comparable fieldValue2) {
 		int result = ObjectUtil.compare(fieldValue1, fieldValue2, isNullGreater);
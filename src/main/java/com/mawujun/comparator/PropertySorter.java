@@ -0,0 +1,470 @@
+package com.mawujun.comparator;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.mawujun.bean.CompiledBeanPath;
+
+/**
+ * Bean属性排序器，支持多个属性（包括多层嵌套的Bean路径表达式，例如person.friends[0].name）组合排序<br>
+ * 属性表达式只编译一次，排序时先一次性取出每个元素的排序键（Schwartzian transform），
+ * 数字类型的键存放在long[]或double[]中，其它{@link Comparable}键存放在数组中，排序过程中不再读取Bean属性。
+ *
+ * <pre>
+ * PropertySorter.&lt;User&gt;create().asc("dept.name").desc("age").sort(users);
+ * </pre>
+ *
+ * <p>
+ * 排序为稳定排序，元素数量达到并行阈值时使用{@link ForkJoinPool#commonPool()}并行归并排序。
+ * </p>
+ *
+ * @author mawujun
+ *
+ * @param <T> 被排序的Bean类型
+ */
+public class PropertySorter<T> {
+
+	/** 默认并行排序阈值 */
+	public static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 13;
+	/** 小于此长度的区间使用插入排序 */
+	private static final int INSERTION_SORT_THRESHOLD = 32;
+
+	private final List<SortKey> keys = new ArrayList<>();
+	private boolean nullGreater = true;
+	private boolean compareBeanOnTie;
+	private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+
+	/**
+	 * 创建排序器
+	 *
+	 * @param <T> 被排序的Bean类型
+	 * @return {@link PropertySorter}
+	 */
+	public static <T> PropertySorter<T> create() {
+		return new PropertySorter<>();
+	}
+
+	/**
+	 * 创建排序器，所有属性按照正序排序
+	 *
+	 * @param <T> 被排序的Bean类型
+	 * @param properties 属性名或Bean路径表达式
+	 * @return {@link PropertySorter}
+	 */
+	public static <T> PropertySorter<T> of(String... properties) {
+		final PropertySorter<T> sorter = new PropertySorter<>();
+		for (String property : properties) {
+			sorter.asc(property);
+		}
+		return sorter;
+	}
+
+	/**
+	 * 添加正序排序属性
+	 *
+	 * @param property 属性名或Bean路径表达式
+	 * @return this
+	 */
+	public PropertySorter<T> asc(String property) {
+		keys.add(new SortKey(CompiledBeanPath.compile(property), false));
+		return this;
+	}
+
+	/**
+	 * 添加倒序排序属性
+	 *
+	 * @param property 属性名或Bean路径表达式
+	 * @return this
+	 */
+	public PropertySorter<T> desc(String property) {
+		keys.add(new SortKey(CompiledBeanPath.compile(property), true));
+		return this;
+	}
+
+	/**
+	 * 设置null值是否排在后（正序情况下），默认true
+	 *
+	 * @param nullGreater null值是否排在后
+	 * @return this
+	 */
+	public PropertySorter<T> setNullGreater(boolean nullGreater) {
+		this.nullGreater = nullGreater;
+		return this;
+	}
+
+	/**
+	 * 设置所有属性都相等时是否继续比较Bean本身（与{@link PropertyComparator}行为一致），默认false，即保持原有顺序
+	 *
+	 * @param compareBeanOnTie 属性相等时是否比较Bean本身
+	 * @return this
+	 */
+	public PropertySorter<T> setCompareBeanOnTie(boolean compareBeanOnTie) {
+		this.compareBeanOnTie = compareBeanOnTie;
+		return this;
+	}
+
+	/**
+	 * 设置并行排序阈值，元素数量大于等于此值时并行排序，小于等于0表示不并行
+	 *
+	 * @param parallelThreshold 并行排序阈值
+	 * @return this
+	 */
+	public PropertySorter<T> setParallelThreshold(int parallelThreshold) {
+		this.parallelThreshold = parallelThreshold;
+		return this;
+	}
+
+	/**
+	 * 转换为比较器链，用于TreeMap等需要{@link Comparator}的场景<br>
+	 * 每个属性对应链中的一个比较器，倒序属性在链中标记为反序
+	 *
+	 * @return {@link ComparatorChain}
+	 */
+	public ComparatorChain<T> toComparator() {
+		final ComparatorChain<T> chain = new ComparatorChain<>();
+		for (SortKey key : keys) {
+			chain.addComparator(new KeyComparator<T>(key.path, nullGreater), key.reverse);
+		}
+		if (compareBeanOnTie) {
+			chain.addComparator(new Comparator<T>() {
+				@Override
+				public int compare(T o1, T o2) {
+					return CompareUtil.compare(o1, o2, nullGreater);
+				}
+			});
+		}
+		return chain;
+	}
+
+	/**
+	 * 排序List，排序会修改原List
+	 *
+	 * @param list 被排序的List
+	 * @return 原List
+	 */
+	public List<T> sort(List<T> list) {
+		final int size = list.size();
+		if (size < 2 || keys.isEmpty()) {
+			return list;
+		}
+
+		final Object[] items = list.toArray();
+		final Column[] columns = new Column[keys.size()];
+		for (int i = 0; i < columns.length; i++) {
+			columns[i] = extract(keys.get(i), items);
+		}
+
+		final int[] index = new int[size];
+		for (int i = 0; i < size; i++) {
+			index[i] = i;
+		}
+		final IndexSorter sorter = new IndexSorter(columns, compareBeanOnTie ? items : null, nullGreater);
+		final int[] tmp = index.clone();
+		if (parallelThreshold > 0 && size >= parallelThreshold) {
+			ForkJoinPool.commonPool().invoke(new SortTask(sorter, tmp, index, 0, size, parallelThreshold));
+		} else {
+			sorter.mergeSort(tmp, index, 0, size);
+		}
+
+		@SuppressWarnings("unchecked")
+		final ListIterator<Object> iterator = (ListIterator<Object>) list.listIterator();
+		for (int i : index) {
+			iterator.next();
+			iterator.set(items[i]);
+		}
+		return list;
+	}
+
+	// ------------------------------------------------------------------------------------------------------------------------------------- Private method start
+	/**
+	 * 一次性取出所有元素的排序键
+	 *
+	 * @param key 排序属性
+	 * @param items 元素
+	 * @return 排序键列
+	 */
+	private Column extract(SortKey key, Object[] items) {
+		final Object[] values = new Object[items.length];
+		boolean allLong = true;
+		boolean allDouble = true;
+		Object value;
+		for (int i = 0; i < items.length; i++) {
+			value = key.path.get(items[i]);
+			values[i] = value;
+			if (null != value) {
+				allLong &= (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte);
+				allDouble &= (value instanceof Double || value instanceof Float);
+			}
+		}
+
+		if (allLong) {
+			final long[] longs = new long[values.length];
+			boolean[] nulls = null;
+			for (int i = 0; i < values.length; i++) {
+				if (null == values[i]) {
+					if (null == nulls) {
+						nulls = new boolean[values.length];
+					}
+					nulls[i] = true;
+				} else {
+					longs[i] = ((Number) values[i]).longValue();
+				}
+			}
+			return new LongColumn(longs, nulls, nullGreater, key.reverse);
+		} else if (allDouble) {
+			final double[] doubles = new double[values.length];
+			boolean[] nulls = null;
+			for (int i = 0; i < values.length; i++) {
+				if (null == values[i]) {
+					if (null == nulls) {
+						nulls = new boolean[values.length];
+					}
+					nulls[i] = true;
+				} else {
+					doubles[i] = ((Number) values[i]).doubleValue();
+				}
+			}
+			return new DoubleColumn(doubles, nulls, nullGreater, key.reverse);
+		}
+		for (int i = 0; i < values.length; i++) {
+			if (null != values[i] && false == values[i] instanceof Comparable) {
+				throw new ComparatorException("Value [{}] of property [{}] is not Comparable", values[i], key.path.getBeanPath().patternParts);
+			}
+		}
+		return new ObjectColumn(values, nullGreater, key.reverse);
+	}
+
+	/**
+	 * 排序属性
+	 */
+	private static final class SortKey {
+		final CompiledBeanPath path;
+		final boolean reverse;
+
+		SortKey(CompiledBeanPath path, boolean reverse) {
+			this.path = path;
+			this.reverse = reverse;
+		}
+	}
+
+	/**
+	 * 单个属性的比较器，不同于{@link PropertyComparator}，属性相等时返回0，以便组成比较器链
+	 */
+	private static final class KeyComparator<T> implements Comparator<T> {
+		private final CompiledBeanPath path;
+		private final boolean nullGreater;
+
+		KeyComparator(CompiledBeanPath path, boolean nullGreater) {
+			this.path = path;
+			this.nullGreater = nullGreater;
+		}
+
+		@SuppressWarnings({ "rawtypes", "unchecked" })
+		@Override
+		public int compare(T o1, T o2) {
+			if (o1 == o2) {
+				return 0;
+			}
+			final Comparable v1;
+			final Comparable v2;
+			try {
+				v1 = (Comparable) path.get(o1);
+				v2 = (Comparable) path.get(o2);
+			} catch (Exception e) {
+				throw new ComparatorException(e);
+			}
+			return CompareUtil.compare(v1, v2, nullGreater);
+		}
+	}
+
+	/**
+	 * 预先取出的一列排序键
+	 */
+	private abstract static class Column {
+		final boolean nullGreater;
+		final boolean reverse;
+
+		Column(boolean nullGreater, boolean reverse) {
+			this.nullGreater = nullGreater;
+			this.reverse = reverse;
+		}
+
+		/**
+		 * 比较第a个和第b个元素的键，已处理倒序
+		 */
+		final int compare(int a, int b) {
+			final int result = compareKey(a, b);
+			return reverse ? -result : result;
+		}
+
+		abstract int compareKey(int a, int b);
+
+		final int compareNull(boolean aNull, boolean bNull) {
+			if (aNull == bNull) {
+				return 0;
+			}
+			return aNull == nullGreater ? 1 : -1;
+		}
+	}
+
+	private static final class LongColumn extends Column {
+		private final long[] values;
+		private final boolean[] nulls;
+
+		LongColumn(long[] values, boolean[] nulls, boolean nullGreater, boolean reverse) {
+			super(nullGreater, reverse);
+			this.values = values;
+			this.nulls = nulls;
+		}
+
+		@Override
+		int compareKey(int a, int b) {
+			if (null != nulls && (nulls[a] || nulls[b])) {
+				return compareNull(nulls[a], nulls[b]);
+			}
+			return Long.compare(values[a], values[b]);
+		}
+	}
+
+	private static final class DoubleColumn extends Column {
+		private final double[] values;
+		private final boolean[] nulls;
+
+		DoubleColumn(double[] values, boolean[] nulls, boolean nullGreater, boolean reverse) {
+			super(nullGreater, reverse);
+			this.values = values;
+			this.nulls = nulls;
+		}
+
+		@Override
+		int compareKey(int a, int b) {
+			if (null != nulls && (nulls[a] || nulls[b])) {
+				return compareNull(nulls[a], nulls[b]);
+			}
+			return Double.compare(values[a], values[b]);
+		}
+	}
+
+	private static final class ObjectColumn extends Column {
+		private final Object[] values;
+
+		ObjectColumn(Object[] values, boolean nullGreater, boolean reverse) {
+			super(nullGreater, reverse);
+			this.values = values;
+		}
+
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		@Override
+		int compareKey(int a, int b) {
+			return CompareUtil.compare((Comparable) values[a], (Comparable) values[b], nullGreater);
+		}
+	}
+
+	/**
+	 * 基于下标的稳定归并排序
+	 */
+	private static final class IndexSorter {
+		private final Column[] columns;
+		/** 属性都相等时比较的Bean，为null表示不比较 */
+		private final Object[] items;
+		private final boolean nullGreater;
+
+		IndexSorter(Column[] columns, Object[] items, boolean nullGreater) {
+			this.columns = columns;
+			this.items = items;
+			this.nullGreater = nullGreater;
+		}
+
+		int compare(int a, int b) {
+			int result;
+			for (Column column : columns) {
+				result = column.compare(a, b);
+				if (0 != result) {
+					return result;
+				}
+			}
+			return null == items ? 0 : CompareUtil.compare(items[a], items[b], nullGreater);
+		}
+
+		/**
+		 * 将src中[from, to)排序后写入dest，调用前src与dest对应区间内容相同
+		 */
+		void mergeSort(int[] src, int[] dest, int from, int to) {
+			final int length = to - from;
+			if (length < INSERTION_SORT_THRESHOLD) {
+				insertionSort(dest, from, to);
+				return;
+			}
+			final int mid = (from + to) >>> 1;
+			mergeSort(dest, src, from, mid);
+			mergeSort(dest, src, mid, to);
+			merge(src, dest, from, mid, to);
+		}
+
+		void merge(int[] src, int[] dest, int from, int mid, int to) {
+			// 已经有序则直接复制
+			if (compare(src[mid - 1], src[mid]) <= 0) {
+				System.arraycopy(src, from, dest, from, to - from);
+				return;
+			}
+			for (int i = from, p = from, q = mid; i < to; i++) {
+				if (q >= to || (p < mid && compare(src[p], src[q]) <= 0)) {
+					dest[i] = src[p++];
+				} else {
+					dest[i] = src[q++];
+				}
+			}
+		}
+
+		private void insertionSort(int[] dest, int from, int to) {
+			for (int i = from + 1; i < to; i++) {
+				final int current = dest[i];
+				int j = i - 1;
+				while (j >= from && compare(dest[j], current) > 0) {
+					dest[j + 1] = dest[j];
+					j--;
+				}
+				dest[j + 1] = current;
+			}
+		}
+	}
+
+	/**
+	 * 并行归并排序任务
+	 */
+	private static final class SortTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final IndexSorter sorter;
+		private final int[] src;
+		private final int[] dest;
+		private final int from;
+		private final int to;
+		private final int threshold;
+
+		SortTask(IndexSorter sorter, int[] src, int[] dest, int from, int to, int threshold) {
+			this.sorter = sorter;
+			this.src = src;
+			this.dest = dest;
+			this.from = from;
+			this.to = to;
+			this.threshold = threshold;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= threshold) {
+				sorter.mergeSort(src, dest, from, to);
+				return;
+			}
+			final int mid = (from + to) >>> 1;
+			invokeAll(new SortTask(sorter, dest, src, from, mid, threshold), new SortTask(sorter, dest, src, mid, to, threshold));
+			sorter.merge(src, dest, from, mid, to);
+		}
+	}
+	// ------------------------------------------------------------------------------------------------------------------------------------- Private method end
+}
@@ -4,7 +4,12 @@ import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.security.KeyManagementException;
 import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
@@ -36,6 +41,7 @@ import org.apache.http.client.entity.UrlEncodedFormEntity;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.conn.ssl.TrustStrategy;
 import org.apache.http.entity.ContentType;
@@ -44,6 +50,7 @@ import org.apache.http.entity.mime.MultipartEntityBuilder;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.message.BasicNameValuePair;
 import org.apache.http.ssl.SSLContextBuilder;
 import org.apache.http.util.EntityUtils;
@@ -53,6 +60,7 @@ import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 
 import com.mawujun.exception.exceptions.BizException;
+import com.mawujun.io.IoUtil;
 import com.mawujun.util.StringUtil;
 import com.mawujun.util.XmlUtil;
 
@@ -60,11 +68,21 @@ public class HttpClientUtil {
 	private static Logger logger=LoggerFactory.getLogger(HttpClientUtil.class);
 	
 	private static final CloseableHttpClient httpClient;
+	/** 请求及连接池的统计指标 */
+	private static final HttpMetrics metrics = HttpMetrics.get(HttpClientUtil.class.getSimpleName());
     public static final String CHARSET = "UTF-8";
     // 采用静态代码块，初始化超时时间配置，再根据配置生成默认httpClient对象
     static {
         RequestConfig config = RequestConfig.custom().setConnectTimeout(60000).setSocketTimeout(15000).build();
-        httpClient = HttpClientBuilder.create().setDefaultRequestConfig(config).build();
+        httpClient = metrics.instrument(HttpClientBuilder.create().setDefaultRequestConfig(config), new PoolingHttpClientConnectionManager()).build();
+    }
+
+    /**
+     * 获取请求及连接池的统计指标
+     * @return HttpMetrics
+     */
+    public static HttpMetrics getMetrics() {
+        return metrics;
     }
 
     public static String doGet(String url, Map<String, Object> params) {
@@ -159,13 +177,18 @@ public class HttpClientUtil {
             }
         }
         HttpResponse resp = null;
+        long startNanos = System.nanoTime();
         try {
             resp = client.execute(httpPost);
+            metrics.recordResponse(startNanos, resp.getStatusLine().getStatusCode());
             if(resp.getStatusLine().getStatusCode() == 200) {
                 HttpEntity he = resp.getEntity();
                 respContent = EntityUtils.toString(he,CHARSET);
             }
         } catch (IOException e) {
+            if (resp == null) {
+                metrics.recordError(startNanos, e);
+            }
             logger.error("请求异常:"+url,e);
         }finally {
             try {
@@ -222,13 +245,18 @@ public class HttpClientUtil {
         httpPost.setEntity(entity);
 
         HttpResponse resp = null;
+        long startNanos = System.nanoTime();
         try {
             resp = client.execute(httpPost);
+            metrics.recordResponse(startNanos, resp.getStatusLine().getStatusCode());
             if(resp.getStatusLine().getStatusCode() == 200) {
                 HttpEntity he = resp.getEntity();
                 respContent = EntityUtils.toString(he,CHARSET);
             }
         } catch (IOException e) {
+            if (resp == null) {
+                metrics.recordError(startNanos, e);
+            }
             logger.error("请求异常:"+url,e);
         }finally {
             try {
@@ -294,13 +322,18 @@ public class HttpClientUtil {
         httpPost.setEntity(entity);
 
         HttpResponse resp = null;
+        long startNanos = System.nanoTime();
         try {
             resp = client.execute(httpPost);
+            metrics.recordResponse(startNanos, resp.getStatusLine().getStatusCode());
             if(resp.getStatusLine().getStatusCode() == 200) {
                 HttpEntity he = resp.getEntity();
                 respContent = EntityUtils.toString(he,CHARSET);
             }
         } catch (IOException e) {
+            if (resp == null) {
+                metrics.recordError(startNanos, e);
+            }
             logger.error("请求异常:"+url,e);
         }finally {
             try {
@@ -351,7 +384,7 @@ public class HttpClientUtil {
                 url += "?" + EntityUtils.toString(new UrlEncodedFormEntity(pairs, charset));
             }
             HttpGet httpGet = new HttpGet(url);
-            CloseableHttpResponse response = httpClient.execute(httpGet);
+            CloseableHttpResponse response = execute(httpClient, httpGet);
             int statusCode = response.getStatusLine().getStatusCode();
             if (statusCode != 200) {
                 httpGet.abort();
@@ -400,7 +433,7 @@ public class HttpClientUtil {
         }
         CloseableHttpResponse response = null;
         try {
-            response = httpClient.execute(httpPost);
+            response = execute(httpClient, httpPost);
             int statusCode = response.getStatusLine().getStatusCode();
             if (statusCode != 200) {
                 httpPost.abort();
@@ -448,7 +481,7 @@ public class HttpClientUtil {
 
             // https  注意这里获取https内容，使用了忽略证书的方式，当然还有其他的方式来获取https内容
             CloseableHttpClient httpsClient = HttpClientUtil.createSSLClientDefault();
-            CloseableHttpResponse response = httpsClient.execute(httpGet);
+            CloseableHttpResponse response = execute(httpsClient, httpGet);
             int statusCode = response.getStatusLine().getStatusCode();
             if (statusCode != 200) {
                 httpGet.abort();
@@ -468,6 +501,67 @@ public class HttpClientUtil {
         return null;
     }
 
+    /**
+     * 下载到文件，响应体以流的方式写入，不会读入内存，gzip/deflate压缩由HttpClient自动协商和解压
+     * @param url 地址
+     * @param target 目标文件，存在则覆盖
+     * @return 写入的字节数
+     * @throws IOException
+     */
+    public static long download(String url, Path target) throws IOException {
+        try (OutputStream out = Files.newOutputStream(target)) {
+            return download(url, out);
+        }
+    }
+
+    /**
+     * 下载到{@link WritableByteChannel}，本方法不会关闭通道
+     * @param url 地址
+     * @param channel 目标通道
+     * @return 写入的字节数
+     * @throws IOException
+     */
+    public static long download(String url, WritableByteChannel channel) throws IOException {
+        return download(url, Channels.newOutputStream(channel));
+    }
+
+    private static long download(String url, OutputStream out) throws IOException {
+        HttpGet httpGet = new HttpGet(url);
+        try (CloseableHttpResponse response = execute(httpClient, httpGet)) {
+            int statusCode = response.getStatusLine().getStatusCode();
+            if (statusCode != 200) {
+                httpGet.abort();
+                throw new IOException("HttpClient,error status code :" + statusCode);
+            }
+            HttpEntity entity = response.getEntity();
+            if (entity == null) {
+                return 0;
+            }
+            try (InputStream in = entity.getContent()) {
+                return IoUtil.copy(in, out, IoUtil.DEFAULT_LARGE_BUFFER_SIZE);
+            }
+        }
+    }
+
+    /**
+     * 执行请求并记录统计指标
+     * @param client 客户端
+     * @param request 请求
+     * @return 响应
+     * @throws IOException
+     */
+    private static CloseableHttpResponse execute(CloseableHttpClient client, HttpUriRequest request) throws IOException {
+        long startNanos = System.nanoTime();
+        try {
+            CloseableHttpResponse response = client.execute(request);
+            metrics.recordResponse(startNanos, response.getStatusLine().getStatusCode());
+            return response;
+        } catch (IOException | RuntimeException e) {
+            metrics.recordError(startNanos, e);
+            throw e;
+        }
+    }
+
     /**
      * 这里创建了忽略整数验证的CloseableHttpClient对象
      * @return
@@ -0,0 +1,595 @@
+package com.mawujun.http;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpException;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.HttpRequestRetryHandler;
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.DefaultHttpRequestRetryHandler;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.pool.ConnPoolControl;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpRequestExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.mawujun.lang.LatencyHistogram;
+import com.mawujun.util.StrUtil;
+
+/**
+ * Http请求及连接池的运行指标<br>
+ * 包括：
+ * <ul>
+ * <li>各连接池每个route的租用（leased）、空闲（available）、等待（pending）连接数</li>
+ * <li>建立连接、首字节（TTFB）、总耗时的直方图，单位微秒</li>
+ * <li>请求数、非200响应数、异常数、超时数、重试数</li>
+ * <li>连接泄露检测：租用后超过一定时间未归还的连接，通常是响应体未被读取或关闭</li>
+ * </ul>
+ * 指标按名称注册，可在代码中读取，也可通过{@link #toJson()}、{@link #dumpAll()}输出为JSON，用于调整defaultMaxPerRoute、maxTotal等参数。
+ *
+ * <pre>
+ * HttpMetrics metrics = HttpMetrics.get("order-service");
+ * CloseableHttpClient client = metrics.instrument(HttpClients.custom(), cm).build();
+ * ...
+ * String json = HttpMetrics.dumpAll();
+ * </pre>
+ *
+ * @author mawujun
+ */
+public class HttpMetrics {
+	private static final Logger logger = LoggerFactory.getLogger(HttpMetrics.class);
+
+	/** 所有已注册的指标 */
+	private static final Map<String, HttpMetrics> REGISTRY = new ConcurrentHashMap<>();
+
+	private final String name;
+	private final LatencyHistogram connectLatency = new LatencyHistogram();
+	private final LatencyHistogram ttfbLatency = new LatencyHistogram();
+	private final LatencyHistogram totalLatency = new LatencyHistogram();
+	private final LongAdder requests = new LongAdder();
+	private final LongAdder failures = new LongAdder();
+	private final LongAdder errors = new LongAdder();
+	private final LongAdder timeouts = new LongAdder();
+	private final LongAdder retries = new LongAdder();
+	private final LongAdder leaks = new LongAdder();
+
+	/** 注册的连接池 */
+	private final List<PoolView> pools = new CopyOnWriteArrayList<>();
+	/** 租用中的连接 */
+	private final Map<Object, ConnectionLease> leases = Collections.synchronizedMap(new IdentityHashMap<>());
+	/** 连接租用超过此时间视为泄露，毫秒 */
+	private volatile long leakThreshold = 60 * 1000;
+	/** 是否记录租用连接时的调用栈，便于定位泄露的代码，有一定性能损耗 */
+	private volatile boolean captureLeaseStack = false;
+
+	/**
+	 * 获取指定名称的指标，不存在则创建
+	 *
+	 * @param name 名称
+	 * @return {@link HttpMetrics}
+	 */
+	public static HttpMetrics get(String name) {
+		return REGISTRY.computeIfAbsent(name, HttpMetrics::new);
+	}
+
+	/**
+	 * 所有已注册的指标
+	 *
+	 * @return 名称和指标的Map
+	 */
+	public static Map<String, HttpMetrics> getAll() {
+		return Collections.unmodifiableMap(REGISTRY);
+	}
+
+	/**
+	 * 将所有已注册的指标输出为JSON
+	 *
+	 * @return JSON字符串
+	 */
+	public static String dumpAll() {
+		final StringBuilder builder = new StringBuilder("{");
+		boolean first = true;
+		for (Entry<String, HttpMetrics> entry : REGISTRY.entrySet()) {
+			if (false == first) {
+				builder.append(',');
+			}
+			first = false;
+			builder.append(quote(entry.getKey())).append(':').append(entry.getValue().toJson());
+		}
+		return builder.append('}').toString();
+	}
+
+	/**
+	 * 构造，一般通过{@link #get(String)}获取
+	 *
+	 * @param name 名称
+	 */
+	public HttpMetrics(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * 为{@link HttpClientBuilder}加入统计：连接管理器、请求执行器（首字节耗时）、重试处理器
+	 *
+	 * @param builder {@link HttpClientBuilder}
+	 * @param connectionManager 连接管理器，{@link PoolingHttpClientConnectionManager}会被注册以统计连接数
+	 * @return builder
+	 */
+	public HttpClientBuilder instrument(HttpClientBuilder builder, HttpClientConnectionManager connectionManager) {
+		if (connectionManager instanceof PoolingHttpClientConnectionManager) {
+			registerPool((PoolingHttpClientConnectionManager) connectionManager);
+		}
+		return builder.setConnectionManager(new InstrumentedConnectionManager(connectionManager, this))//
+				.setRequestExecutor(new TimedRequestExecutor(this))//
+				.setRetryHandler(new CountingRetryHandler(DefaultHttpRequestRetryHandler.INSTANCE, this));
+	}
+
+	/**
+	 * 注册连接池，用于统计每个route的连接数
+	 *
+	 * @param pool 连接池
+	 * @return this
+	 */
+	public HttpMetrics registerPool(PoolingHttpClientConnectionManager pool) {
+		return registerPool(pool, pool::getRoutes);
+	}
+
+	/**
+	 * 注册异步连接池，用于统计每个route的连接数
+	 *
+	 * @param pool 连接池
+	 * @return this
+	 */
+	public HttpMetrics registerPool(PoolingNHttpClientConnectionManager pool) {
+		return registerPool(pool, pool::getRoutes);
+	}
+
+	/**
+	 * 取消注册连接池，连接池关闭后调用
+	 *
+	 * @param pool 连接池
+	 * @return this
+	 */
+	public HttpMetrics unregisterPool(ConnPoolControl<HttpRoute> pool) {
+		pools.removeIf(view -> view.control == pool);
+		return this;
+	}
+
+	// ------------------------------------------------------------------------------------------------------------------------------------- record start
+	/**
+	 * 记录建立连接的耗时
+	 *
+	 * @param nanos 纳秒
+	 */
+	public void recordConnect(long nanos) {
+		connectLatency.recordNanos(nanos);
+	}
+
+	/**
+	 * 记录首字节耗时（从发送请求到收到响应头）
+	 *
+	 * @param nanos 纳秒
+	 */
+	public void recordTtfb(long nanos) {
+		ttfbLatency.recordNanos(nanos);
+	}
+
+	/**
+	 * 记录完成的请求
+	 *
+	 * @param startNanos 请求开始时的{@link System#nanoTime()}
+	 * @param statusCode 响应状态码，非200计为失败
+	 */
+	public void recordResponse(long startNanos, int statusCode) {
+		totalLatency.recordNanos(System.nanoTime() - startNanos);
+		requests.increment();
+		if (200 != statusCode) {
+			failures.increment();
+		}
+	}
+
+	/**
+	 * 记录发生异常的请求，超时类异常同时计入超时数
+	 *
+	 * @param startNanos 请求开始时的{@link System#nanoTime()}
+	 * @param e 异常
+	 */
+	public void recordError(long startNanos, Throwable e) {
+		totalLatency.recordNanos(System.nanoTime() - startNanos);
+		requests.increment();
+		errors.increment();
+		if (isTimeout(e)) {
+			timeouts.increment();
+		}
+	}
+
+	/**
+	 * 记录一次重试
+	 */
+	public void recordRetry() {
+		retries.increment();
+	}
+
+	/**
+	 * 记录连接被租用
+	 *
+	 * @param connection 连接
+	 * @param route route
+	 */
+	public void onLeased(Object connection, HttpRoute route) {
+		leases.put(connection, new ConnectionLease(route, captureLeaseStack ? new Throwable("Connection leased") : null));
+	}
+
+	/**
+	 * 记录连接被归还
+	 *
+	 * @param connection 连接
+	 */
+	public void onReleased(Object connection) {
+		leases.remove(connection);
+	}
+	// ------------------------------------------------------------------------------------------------------------------------------------- record end
+
+	/**
+	 * 获取疑似泄露的连接：租用超过{@link #setLeakThreshold(long)}毫秒仍未归还
+	 *
+	 * @return 疑似泄露的连接
+	 */
+	public List<ConnectionLease> getLeakSuspects() {
+		return getLeakSuspects(this.leakThreshold);
+	}
+
+	/**
+	 * 获取疑似泄露的连接：租用超过指定时间仍未归还
+	 *
+	 * @param leaseMillis 租用时间，毫秒
+	 * @return 疑似泄露的连接
+	 */
+	public List<ConnectionLease> getLeakSuspects(long leaseMillis) {
+		final long now = System.currentTimeMillis();
+		final List<ConnectionLease> suspects = new ArrayList<>();
+		synchronized (leases) {
+			for (ConnectionLease lease : leases.values()) {
+				if (now - lease.leasedAt >= leaseMillis) {
+					suspects.add(lease);
+				}
+			}
+		}
+		return suspects;
+	}
+
+	/**
+	 * 检查泄露的连接，新发现的泄露计入泄露数并打印警告日志，可定时调用
+	 *
+	 * @return 新发现的泄露连接数
+	 */
+	public int checkLeaks() {
+		int found = 0;
+		for (ConnectionLease lease : getLeakSuspects()) {
+			if (false == lease.reported) {
+				lease.reported = true;
+				found++;
+				leaks.increment();
+				logger.warn("[{}] Connection to {} leased {}ms ago by [{}] was not released, response entity may not be consumed or closed.", //
+						name, lease.route, lease.getLeaseMillis(), lease.threadName, lease.stack);
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * 每个route的连接数，多个连接池中相同route的连接数会被累加
+	 *
+	 * @return route和连接数的Map
+	 */
+	public Map<String, PoolStats> getRouteStats() {
+		final Map<String, int[]> counts = new LinkedHashMap<>();
+		for (PoolView pool : pools) {
+			for (HttpRoute route : pool.routes.get()) {
+				final PoolStats stats = pool.control.getStats(route);
+				final int[] count = counts.computeIfAbsent(route.getTargetHost().toURI(), key -> new int[4]);
+				count[0] += stats.getLeased();
+				count[1] += stats.getPending();
+				count[2] += stats.getAvailable();
+				count[3] += stats.getMax();
+			}
+		}
+		final Map<String, PoolStats> result = new LinkedHashMap<>(counts.size());
+		for (Entry<String, int[]> entry : counts.entrySet()) {
+			final int[] count = entry.getValue();
+			result.put(entry.getKey(), new PoolStats(count[0], count[1], count[2], count[3]));
+		}
+		return result;
+	}
+
+	/**
+	 * 所有连接池的总连接数
+	 *
+	 * @return 连接数
+	 */
+	public PoolStats getTotalStats() {
+		int leased = 0, pending = 0, available = 0, max = 0;
+		for (PoolView pool : pools) {
+			final PoolStats stats = pool.control.getTotalStats();
+			leased += stats.getLeased();
+			pending += stats.getPending();
+			available += stats.getAvailable();
+			max += stats.getMax();
+		}
+		return new PoolStats(leased, pending, available, max);
+	}
+
+	/**
+	 * 清空统计数据，不影响连接池及租用中的连接
+	 */
+	public void reset() {
+		connectLatency.reset();
+		ttfbLatency.reset();
+		totalLatency.reset();
+		requests.reset();
+		failures.reset();
+		errors.reset();
+		timeouts.reset();
+		retries.reset();
+		leaks.reset();
+	}
+
+	/**
+	 * 输出为JSON，耗时单位为微秒
+	 *
+	 * @return JSON字符串
+	 */
+	public String toJson() {
+		final StringBuilder builder = new StringBuilder();
+		builder.append("{\"name\":").append(quote(name))//
+				.append(",\"requests\":").append(getRequests())//
+				.append(",\"failures\":").append(getFailures())//
+				.append(",\"errors\":").append(getErrors())//
+				.append(",\"timeouts\":").append(getTimeouts())//
+				.append(",\"retries\":").append(getRetries())//
+				.append(",\"leaks\":").append(getLeaks())//
+				.append(",\"leakSuspects\":").append(getLeakSuspects().size())//
+				.append(",\"connect\":").append(connectLatency.toJson())//
+				.append(",\"ttfb\":").append(ttfbLatency.toJson())//
+				.append(",\"total\":").append(totalLatency.toJson())//
+				.append(",\"pool\":").append(toJson(getTotalStats()))//
+				.append(",\"routes\":{");
+		boolean first = true;
+		for (Entry<String, PoolStats> entry : getRouteStats().entrySet()) {
+			if (false == first) {
+				builder.append(',');
+			}
+			first = false;
+			builder.append(quote(entry.getKey())).append(':').append(toJson(entry.getValue()));
+		}
+		return builder.append("}}").toString();
+	}
+
+	@Override
+	public String toString() {
+		return toJson();
+	}
+
+	// ------------------------------------------------------------------------------------------------------------------------------------- Getters and Setters start
+	public String getName() {
+		return name;
+	}
+
+	public LatencyHistogram getConnectLatency() {
+		return connectLatency;
+	}
+
+	public LatencyHistogram getTtfbLatency() {
+		return ttfbLatency;
+	}
+
+	public LatencyHistogram getTotalLatency() {
+		return totalLatency;
+	}
+
+	public long getRequests() {
+		return requests.sum();
+	}
+
+	public long getFailures() {
+		return failures.sum();
+	}
+
+	public long getErrors() {
+		return errors.sum();
+	}
+
+	public long getTimeouts() {
+		return timeouts.sum();
+	}
+
+	public long getRetries() {
+		return retries.sum();
+	}
+
+	public long getLeaks() {
+		return leaks.sum();
+	}
+
+	public long getLeakThreshold() {
+		return leakThreshold;
+	}
+
+	/**
+	 * 设置连接租用超过多长时间视为泄露
+	 *
+	 * @param leakThreshold 毫秒
+	 * @return this
+	 */
+	public HttpMetrics setLeakThreshold(long leakThreshold) {
+		this.leakThreshold = leakThreshold;
+		return this;
+	}
+
+	/**
+	 * 设置是否记录租用连接时的调用栈
+	 *
+	 * @param captureLeaseStack 是否记录调用栈
+	 * @return this
+	 */
+	public HttpMetrics setCaptureLeaseStack(boolean captureLeaseStack) {
+		this.captureLeaseStack = captureLeaseStack;
+		return this;
+	}
+	// ------------------------------------------------------------------------------------------------------------------------------------- Getters and Setters end
+
+	// ------------------------------------------------------------------------------------------------------------------------------------- Private method start
+	private HttpMetrics registerPool(ConnPoolControl<HttpRoute> control, Supplier<Set<HttpRoute>> routes) {
+		for (PoolView pool : pools) {
+			if (pool.control == control) {
+				return this;
+			}
+		}
+		pools.add(new PoolView(control, routes));
+		return this;
+	}
+
+	/**
+	 * 是否为超时异常，包括连接超时、读取超时、从连接池获取连接超时
+	 */
+	private static boolean isTimeout(Throwable e) {
+		while (null != e) {
+			if (e instanceof InterruptedIOException) {
+				return true;
+			}
+			e = e.getCause();
+		}
+		return false;
+	}
+
+	private static String toJson(PoolStats stats) {
+		return StrUtil.format("{\"leased\":{},\"pending\":{},\"available\":{},\"max\":{}}", stats.getLeased(), stats.getPending(), stats.getAvailable(), stats.getMax());
+	}
+
+	private static String quote(String str) {
+		return '"' + str.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+	}
+	// ------------------------------------------------------------------------------------------------------------------------------------- Private method end
+
+	/**
+	 * 租用中的连接信息
+	 *
+	 * @author mawujun
+	 */
+	public static final class ConnectionLease {
+		private final HttpRoute route;
+		private final long leasedAt = System.currentTimeMillis();
+		private final String threadName = Thread.currentThread().getName();
+		private final Throwable stack;
+		private volatile boolean reported;
+
+		ConnectionLease(HttpRoute route, Throwable stack) {
+			this.route = route;
+			this.stack = stack;
+		}
+
+		public HttpRoute getRoute() {
+			return route;
+		}
+
+		public long getLeasedAt() {
+			return leasedAt;
+		}
+
+		/**
+		 * 已租用的时间，毫秒
+		 *
+		 * @return 毫秒
+		 */
+		public long getLeaseMillis() {
+			return System.currentTimeMillis() - leasedAt;
+		}
+
+		public String getThreadName() {
+			return threadName;
+		}
+
+		/**
+		 * 租用连接时的调用栈，未开启{@link HttpMetrics#setCaptureLeaseStack(boolean)}时为null
+		 *
+		 * @return 调用栈
+		 */
+		public Throwable getStack() {
+			return stack;
+		}
+	}
+
+	/**
+	 * 连接池及其route列表
+	 */
+	private static final class PoolView {
+		final ConnPoolControl<HttpRoute> control;
+		final Supplier<Set<HttpRoute>> routes;
+
+		PoolView(ConnPoolControl<HttpRoute> control, Supplier<Set<HttpRoute>> routes) {
+			this.control = control;
+			this.routes = routes;
+		}
+	}
+
+	/**
+	 * 记录首字节耗时的请求执行器，{@link HttpRequestExecutor#execute(HttpRequest, HttpClientConnection, HttpContext)}在收到响应头后即返回
+	 */
+	private static final class TimedRequestExecutor extends HttpRequestExecutor {
+		private final HttpMetrics metrics;
+
+		TimedRequestExecutor(HttpMetrics metrics) {
+			this.metrics = metrics;
+		}
+
+		@Override
+		public HttpResponse execute(HttpRequest request, HttpClientConnection conn, HttpContext context) throws IOException, HttpException {
+			final long start = System.nanoTime();
+			final HttpResponse response = super.execute(request, conn, context);
+			metrics.recordTtfb(System.nanoTime() - start);
+			return response;
+		}
+	}
+
+	/**
+	 * 记录重试次数的重试处理器
+	 */
+	private static final class CountingRetryHandler implements HttpRequestRetryHandler {
+		private final HttpRequestRetryHandler delegate;
+		private final HttpMetrics metrics;
+
+		CountingRetryHandler(HttpRequestRetryHandler delegate, HttpMetrics metrics) {
+			this.delegate = delegate;
+			this.metrics = metrics;
+		}
+
+		@Override
+		public boolean retryRequest(IOException exception, int executionCount, HttpContext context) {
+			final boolean retry = delegate.retryRequest(exception, executionCount, context);
+			if (retry) {
+				metrics.recordRetry();
+			}
+			return retry;
+		}
+	}
+}
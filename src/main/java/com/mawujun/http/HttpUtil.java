@@ -1,11 +1,12 @@
 package com.mawujun.http;
 
 import java.io.BufferedReader;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
 import java.io.UnsupportedEncodingException;
 import java.net.HttpURLConnection;
 import java.net.InetAddress;
@@ -14,11 +15,28 @@ import java.net.Socket;
 import java.net.URL;
 import java.net.URLConnection;
 import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
 
 import com.mawujun.exception.exceptions.BizException;
+import com.mawujun.io.BufferPool;
+import com.mawujun.io.ChunkedByteBuffer;
+import com.mawujun.io.IoUtil;
+import com.mawujun.thread.ThreadUtil;
 
 import java.util.Set;
 import java.util.Vector;
@@ -31,6 +49,13 @@ import java.util.Vector;
 public class HttpUtil {
 
 	private static String defaultContentEncoding="UTF-8";
+	private static final String ACCEPT_ENCODING = "Accept-Encoding";
+	/** 读取响应时使用的缓存大小 */
+	private static final int READ_BUFFER_SIZE = 32 * 1024;
+	/** 分段下载时每段的最小大小 */
+	private static final long MIN_CHUNK_SIZE = 1024 * 1024;
+	/** 请求的统计指标 */
+	private static final HttpMetrics metrics = HttpMetrics.get(HttpUtil.class.getSimpleName());
 
 	public HttpUtil() {
 		//this.defaultContentEncoding = Charset.defaultCharset().name();
@@ -162,30 +187,46 @@ public class HttpUtil {
 				urlConnection.addRequestProperty(key, propertys.get(key));
 			}
 
-		if (method.equalsIgnoreCase("POST") && parameters != null) {
-			StringBuffer param = new StringBuffer();
-			for (String key : parameters.keySet()) {
-				param.append("&");
-				param.append(key).append("=").append(parameters.get(key));
+		if (null == urlConnection.getRequestProperty(ACCEPT_ENCODING)) {
+			urlConnection.setRequestProperty(ACCEPT_ENCODING, "gzip, deflate");
+		}
+
+		final long startNanos = System.nanoTime();
+		try {
+			urlConnection.connect();
+			metrics.recordConnect(System.nanoTime() - startNanos);
+			if (method.equalsIgnoreCase("POST") && parameters != null) {
+				StringBuffer param = new StringBuffer();
+				for (String key : parameters.keySet()) {
+					param.append("&");
+					param.append(key).append("=").append(parameters.get(key));
+				}
+				urlConnection.getOutputStream().write(param.toString().getBytes());
+				urlConnection.getOutputStream().flush();
+				urlConnection.getOutputStream().close();
 			}
-			urlConnection.getOutputStream().write(param.toString().getBytes());
-			urlConnection.getOutputStream().flush();
-			urlConnection.getOutputStream().close();
+			final HttpRespons httpRespons = makeContent(urlString, urlConnection, startNanos);
+			metrics.recordResponse(startNanos, httpRespons.code);
+			return httpRespons;
+		} catch (IOException | RuntimeException e) {
+			metrics.recordError(startNanos, e);
+			throw e;
 		}
-		return makeContent(urlString, urlConnection);
 	}
 
 	/**
 	 * 得到响应对象
 	 * 
 	 * @param urlConnection
+	 * @param startNanos 请求开始时间，用于统计首字节耗时
 	 * @return 响应对象
 	 * @throws IOException
 	 */
-	private static HttpRespons makeContent(String urlString, HttpURLConnection urlConnection) throws IOException  {
+	private static HttpRespons makeContent(String urlString, HttpURLConnection urlConnection, long startNanos) throws IOException  {
 		HttpRespons httpResponser = new HttpRespons();
 		try {
-			InputStream in = urlConnection.getInputStream();
+			InputStream in = decode(urlConnection, urlConnection.getInputStream());
+			metrics.recordTtfb(System.nanoTime() - startNanos);
 			BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(in));
 			httpResponser.contentCollection = new Vector<String>();
 			StringBuffer temp = new StringBuffer();
@@ -197,7 +238,7 @@ public class HttpUtil {
 			}
 			bufferedReader.close();
 			String ecod = urlConnection.getContentEncoding();
-			if (ecod == null)
+			if (ecod == null || isCompression(ecod))
 				ecod = defaultContentEncoding;
 			httpResponser.urlString = urlString;
 			httpResponser.defaultPort = urlConnection.getURL().getDefaultPort();
@@ -224,6 +265,14 @@ public class HttpUtil {
 		}
 	}
 
+	/**
+	 * 获取请求的统计指标
+	 * @return HttpMetrics
+	 */
+	public static HttpMetrics getMetrics() {
+		return metrics;
+	}
+
 	/**
 	 * 默认的响应字符集
 	 */
@@ -431,15 +480,12 @@ public class HttpUtil {
 	 * @throws Exception
 	 */
 	public static byte[] read2Byte(InputStream inStream) throws Exception {
-		ByteArrayOutputStream outSteam = new ByteArrayOutputStream();
-		byte[] buffer = new byte[1024];
-		int len = 0;
-		while ((len = inStream.read(buffer)) != -1) {
-			outSteam.write(buffer, 0, len);
+		try (ChunkedByteBuffer buffer = new ChunkedByteBuffer()) {
+			buffer.readFrom(inStream);
+			return buffer.toByteArray();
+		} finally {
+			inStream.close();
 		}
-		outSteam.close();
-		inStream.close();
-		return outSteam.toByteArray();
 	}
 
 	/**
@@ -450,15 +496,145 @@ public class HttpUtil {
 	 * @throws Exception
 	 */
 	public static String read2String(InputStream inStream) throws Exception {
-		ByteArrayOutputStream outSteam = new ByteArrayOutputStream();
-		byte[] buffer = new byte[1024];
-		int len = 0;
-		while ((len = inStream.read(buffer)) != -1) {
-			outSteam.write(buffer, 0, len);
+		return new String(read2Byte(inStream), "UTF-8");
+	}
+
+	/**
+	 * 以流的方式获取响应体，适用于大文件，不会将响应体读入内存<br>
+	 * 自动协商gzip/deflate压缩，返回的流已解压；响应状态码非2xx时抛出异常。调用方需关闭返回的流
+	 * 
+	 * @param url 地址
+	 * @param headers 请求头，可以为null
+	 * @return 响应体的输入流
+	 * @throws IOException
+	 */
+	public static InputStream getStream(String url, Map<String, String> headers) throws IOException {
+		final HttpURLConnection conn = open(url, "GET", headers);
+		if (null == conn.getRequestProperty(ACCEPT_ENCODING)) {
+			conn.setRequestProperty(ACCEPT_ENCODING, "gzip, deflate");
 		}
-		outSteam.close();
-		inStream.close();
-		return new String(outSteam.toByteArray(), "UTF-8");
+		checkStatus(conn);
+		return decode(conn, conn.getInputStream());
+	}
+
+	/**
+	 * 下载到文件，响应体以流的方式写入，不会读入内存
+	 * 
+	 * @param url 地址
+	 * @param target 目标文件，存在则覆盖
+	 * @return 写入的字节数
+	 * @throws IOException
+	 */
+	public static long download(String url, Path target) throws IOException {
+		return download(url, null, target);
+	}
+
+	/**
+	 * 下载到文件，响应体以流的方式写入，不会读入内存
+	 * 
+	 * @param url 地址
+	 * @param headers 请求头，可以为null
+	 * @param target 目标文件，存在则覆盖
+	 * @return 写入的字节数
+	 * @throws IOException
+	 */
+	public static long download(String url, Map<String, String> headers, Path target) throws IOException {
+		try (InputStream in = getStream(url, headers); OutputStream out = Files.newOutputStream(target)) {
+			return copy(in, out);
+		}
+	}
+
+	/**
+	 * 下载到{@link WritableByteChannel}，本方法不会关闭通道
+	 * 
+	 * @param url 地址
+	 * @param headers 请求头，可以为null
+	 * @param channel 目标通道
+	 * @return 写入的字节数
+	 * @throws IOException
+	 */
+	public static long download(String url, Map<String, String> headers, WritableByteChannel channel) throws IOException {
+		try (InputStream in = getStream(url, headers)) {
+			return copy(in, Channels.newOutputStream(channel));
+		}
+	}
+
+	/**
+	 * 多线程分段下载到文件<br>
+	 * 先通过HEAD请求获取文件大小，服务端支持Range请求时预分配文件，每段使用一个Range请求并行写入文件对应位置；
+	 * 不支持Range或大小未知时退化为单线程下载
+	 * 
+	 * @param url 地址
+	 * @param target 目标文件，存在则覆盖
+	 * @param threads 线程数
+	 * @return 文件大小
+	 * @throws IOException
+	 */
+	public static long downloadParallel(String url, Path target, int threads) throws IOException {
+		return downloadParallel(url, null, target, threads, 0);
+	}
+
+	/**
+	 * 多线程分段下载到文件<br>
+	 * 先通过HEAD请求获取文件大小，服务端支持Range请求时预分配文件，每段使用一个Range请求并行写入文件对应位置；
+	 * 不支持Range或大小未知时退化为单线程下载
+	 * 
+	 * @param url 地址
+	 * @param headers 请求头，可以为null
+	 * @param target 目标文件，存在则覆盖
+	 * @param threads 线程数
+	 * @param chunkSize 每段大小，小于等于0表示自动计算（每个线程约4段，每段不小于1MB）
+	 * @return 文件大小
+	 * @throws IOException
+	 */
+	public static long downloadParallel(String url, Map<String, String> headers, Path target, int threads, long chunkSize) throws IOException {
+		final HttpURLConnection head = open(url, "HEAD", headers);
+		head.setRequestProperty(ACCEPT_ENCODING, "identity");
+		final long length;
+		final boolean acceptRanges;
+		try {
+			checkStatus(head);
+			length = head.getContentLengthLong();
+			acceptRanges = "bytes".equalsIgnoreCase(head.getHeaderField("Accept-Ranges"));
+		} finally {
+			head.disconnect();
+		}
+		if (chunkSize <= 0) {
+			chunkSize = Math.max(MIN_CHUNK_SIZE, length / (Math.max(threads, 1) * 4L) + 1);
+		}
+		if (threads <= 1 || false == acceptRanges || length <= chunkSize) {
+			return download(url, headers, target);
+		}
+
+		try (RandomAccessFile file = new RandomAccessFile(target.toFile(), "rw")) {
+			// 预分配文件
+			file.setLength(length);
+			final FileChannel channel = file.getChannel();
+			final ExecutorService executor = ThreadUtil.newExecutor(threads);
+			try {
+				final List<Future<?>> futures = new ArrayList<>();
+				for (long start = 0; start < length; start += chunkSize) {
+					final long rangeStart = start;
+					final long rangeEnd = Math.min(start + chunkSize, length) - 1;
+					futures.add(executor.submit(() -> {
+						downloadRange(url, headers, channel, rangeStart, rangeEnd);
+						return null;
+					}));
+				}
+				for (Future<?> future : futures) {
+					future.get();
+				}
+			} catch (ExecutionException e) {
+				final Throwable cause = e.getCause();
+				throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Download interrupted: " + url);
+			} finally {
+				executor.shutdownNow();
+			}
+		}
+		return length;
 	}
 
 	/**
@@ -489,6 +665,96 @@ public class HttpUtil {
 		return null;
 	}
 
+	/**
+	 * 下载一段数据写入文件的对应位置
+	 */
+	private static void downloadRange(String url, Map<String, String> headers, FileChannel channel, long start, long end) throws IOException {
+		final HttpURLConnection conn = open(url, "GET", headers);
+		conn.setRequestProperty(ACCEPT_ENCODING, "identity");
+		conn.setRequestProperty("Range", "bytes=" + start + "-" + end);
+		if (HttpURLConnection.HTTP_PARTIAL != conn.getResponseCode()) {
+			conn.disconnect();
+			throw new IOException("Range request is not supported, response code: " + conn.getResponseCode());
+		}
+		final byte[] buffer = BufferPool.getDefault().acquire(READ_BUFFER_SIZE);
+		long position = start;
+		try (InputStream in = conn.getInputStream()) {
+			ByteBuffer byteBuffer;
+			for (int readSize; (readSize = in.read(buffer)) != -1;) {
+				byteBuffer = ByteBuffer.wrap(buffer, 0, readSize);
+				while (byteBuffer.hasRemaining()) {
+					position += channel.write(byteBuffer, position);
+				}
+			}
+		} finally {
+			BufferPool.getDefault().release(buffer);
+		}
+		if (position != end + 1) {
+			throw new IOException("Incomplete range bytes=" + start + "-" + end + ", received " + (position - start));
+		}
+	}
+
+	/**
+	 * 打开连接
+	 */
+	private static HttpURLConnection open(String url, String method, Map<String, String> headers) throws IOException {
+		final HttpURLConnection conn = (HttpURLConnection) new URL(url).openConnection();
+		conn.setRequestMethod(method);
+		conn.setUseCaches(false);
+		if (headers != null) {
+			for (Entry<String, String> entry : headers.entrySet()) {
+				conn.setRequestProperty(entry.getKey(), entry.getValue());
+			}
+		}
+		return conn;
+	}
+
+	/**
+	 * 检查响应状态码，非2xx时抛出异常
+	 */
+	private static void checkStatus(HttpURLConnection conn) throws IOException {
+		final int code = conn.getResponseCode();
+		if (code / 100 != 2) {
+			final InputStream error = conn.getErrorStream();
+			if (null != error) {
+				error.close();
+			}
+			throw new IOException("Server returned HTTP response code: " + code + " for URL: " + conn.getURL());
+		}
+	}
+
+	/**
+	 * 根据Content-Encoding解压响应体
+	 */
+	private static InputStream decode(HttpURLConnection conn, InputStream in) throws IOException {
+		final String encoding = conn.getContentEncoding();
+		if ("gzip".equalsIgnoreCase(encoding) || "x-gzip".equalsIgnoreCase(encoding)) {
+			return new GZIPInputStream(in, READ_BUFFER_SIZE);
+		} else if ("deflate".equalsIgnoreCase(encoding)) {
+			return new InflaterInputStream(in);
+		}
+		return in;
+	}
+
+	/**
+	 * Content-Encoding是否为压缩方式（而非字符集）
+	 */
+	private static boolean isCompression(String encoding) {
+		return "gzip".equalsIgnoreCase(encoding) || "x-gzip".equalsIgnoreCase(encoding) || "deflate".equalsIgnoreCase(encoding) || "identity".equalsIgnoreCase(encoding);
+	}
+
+	/**
+	 * 使用缓存池中的缓存拷贝流
+	 */
+	private static long copy(InputStream in, OutputStream out) {
+		final byte[] buffer = BufferPool.getDefault().acquire(READ_BUFFER_SIZE);
+		try {
+			return IoUtil.copy(in, out, buffer, null);
+		} finally {
+			BufferPool.getDefault().release(buffer);
+		}
+	}
+
 //	// 测试函数
 //	public static void main(String args[]) throws Exception {
 //		Map<String, String> params = new HashMap<String, String>();
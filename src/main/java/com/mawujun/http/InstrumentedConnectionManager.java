@@ -0,0 +1,85 @@
+package com.mawujun.http;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.protocol.HttpContext;
+
+/**
+ * 记录连接租用、归还及建立连接耗时的连接管理器，其余操作交给被包装的连接管理器
+ *
+ * @author mawujun
+ * @see HttpMetrics#instrument(org.apache.http.impl.client.HttpClientBuilder, HttpClientConnectionManager)
+ */
+class InstrumentedConnectionManager implements HttpClientConnectionManager {
+
+	private final HttpClientConnectionManager delegate;
+	private final HttpMetrics metrics;
+
+	InstrumentedConnectionManager(HttpClientConnectionManager delegate, HttpMetrics metrics) {
+		this.delegate = delegate;
+		this.metrics = metrics;
+	}
+
+	@Override
+	public ConnectionRequest requestConnection(final HttpRoute route, Object state) {
+		final ConnectionRequest request = delegate.requestConnection(route, state);
+		return new ConnectionRequest() {
+			@Override
+			public boolean cancel() {
+				return request.cancel();
+			}
+
+			@Override
+			public HttpClientConnection get(long timeout, TimeUnit tunit) throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+				final HttpClientConnection conn = request.get(timeout, tunit);
+				metrics.onLeased(conn, route);
+				return conn;
+			}
+		};
+	}
+
+	@Override
+	public void releaseConnection(HttpClientConnection conn, Object newState, long validDuration, TimeUnit timeUnit) {
+		metrics.onReleased(conn);
+		delegate.releaseConnection(conn, newState, validDuration, timeUnit);
+	}
+
+	@Override
+	public void connect(HttpClientConnection conn, HttpRoute route, int connectTimeout, HttpContext context) throws IOException {
+		final long start = System.nanoTime();
+		delegate.connect(conn, route, connectTimeout, context);
+		metrics.recordConnect(System.nanoTime() - start);
+	}
+
+	@Override
+	public void upgrade(HttpClientConnection conn, HttpRoute route, HttpContext context) throws IOException {
+		delegate.upgrade(conn, route, context);
+	}
+
+	@Override
+	public void routeComplete(HttpClientConnection conn, HttpRoute route, HttpContext context) throws IOException {
+		delegate.routeComplete(conn, route, context);
+	}
+
+	@Override
+	public void closeIdleConnections(long idletime, TimeUnit tunit) {
+		delegate.closeIdleConnections(idletime, tunit);
+	}
+
+	@Override
+	public void closeExpiredConnections() {
+		delegate.closeExpiredConnections();
+	}
+
+	@Override
+	public void shutdown() {
+		delegate.shutdown();
+	}
+}
@@ -0,0 +1,430 @@
+package com.mawujun.io;
+
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.mawujun.lang.Assert;
+
+/**
+ * 按大小分级的缓存池，复用I/O过程中临时使用的byte[]和直接内存{@link ByteBuffer}，减少GC压力<br>
+ * 缓存大小按2的幂分级，从{@value #MIN_SIZE}字节到{@link #getMaxPooledSize()}，申请时向上取整到所在级别，超过最大级别的直接分配且不回收。
+ * <ul>
+ * <li>byte[]：每个线程有少量小缓存的本地缓存，命中时无任何同步；本地缓存满时归还到各级别共享的无锁队列</li>
+ * <li>直接内存ByteBuffer：分配和释放代价高，只使用共享队列复用</li>
+ * </ul>
+ * 只回收长度恰好为级别大小（不超过最大级别）的缓存，其它长度的直接丢弃。
+ * 每个级别共享队列中保留的缓存数有上限，且池中（含所有线程的本地缓存）保留的缓存总字节数不超过{@link #getMaxCachedBytes()}，
+ * 超出的缓存交给GC回收，因此池占用的内存有界。已结束线程的本地缓存在总量达到上限时被清理并释放其额度。
+ *
+ * <pre>
+ * byte[] buffer = BufferPool.getDefault().acquire(8192);
+ * try {
+ *     ...
+ * } finally {
+ *     BufferPool.getDefault().release(buffer);
+ * }
+ * </pre>
+ *
+ * 归还后不可再使用此缓存，同一缓存不可重复归还。
+ *
+ * @author mawujun
+ * @see ChunkedByteBuffer
+ */
+public class BufferPool {
+
+	/** 最小级别 */
+	public static final int MIN_SIZE = 512;
+	private static final int MIN_SHIFT = 9;
+	/** 默认的最大级别：1MB */
+	public static final int DEFAULT_MAX_POOLED_SIZE = 1024 * 1024;
+	/** 默认的缓存总字节数上限：64MB */
+	public static final long DEFAULT_MAX_CACHED_BYTES = 64L * 1024 * 1024;
+	/** 每个级别共享队列占用内存的上限 */
+	private static final int MAX_BYTES_PER_CLASS = 4 * 1024 * 1024;
+	/** 每个级别共享队列的缓存数上限 */
+	private static final int MAX_BUFFERS_PER_CLASS = 256;
+	/** 线程本地缓存的最大级别：16KB */
+	private static final int THREAD_CACHE_MAX_SIZE = 16 * 1024;
+	/** 线程本地缓存每个级别的缓存数 */
+	private static final int THREAD_CACHE_SIZE = 4;
+	/** 清理已结束线程本地缓存的最小间隔 */
+	private static final long PURGE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+	private static final BufferPool DEFAULT = new BufferPool(DEFAULT_MAX_POOLED_SIZE);
+
+	private final int maxPooledSize;
+	private final SizeClass<byte[]>[] heapClasses;
+	private final SizeClass<ByteBuffer>[] directClasses;
+	private final int threadCacheClasses;
+	private final ThreadLocal<ThreadCache> threadCache;
+	/** 所有线程的本地缓存，用于清理已结束线程的缓存 */
+	private final Set<ThreadCache> threadCaches = ConcurrentHashMap.newKeySet();
+
+	private final long maxCachedBytes;
+	/** 池中保留的缓存总字节数，含所有线程的本地缓存 */
+	private final LongAdder cachedBytes = new LongAdder();
+	private final AtomicLong nextPurgeNanos = new AtomicLong(System.nanoTime());
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	/**
+	 * 获取默认的缓存池，最大级别为{@link #DEFAULT_MAX_POOLED_SIZE}
+	 *
+	 * @return {@link BufferPool}
+	 */
+	public static BufferPool getDefault() {
+		return DEFAULT;
+	}
+
+	/**
+	 * 构造，缓存总字节数上限为{@link #DEFAULT_MAX_CACHED_BYTES}
+	 *
+	 * @param maxPooledSize 最大级别，会向上取整为2的幂，超过此大小的缓存不复用
+	 */
+	public BufferPool(int maxPooledSize) {
+		this(maxPooledSize, DEFAULT_MAX_CACHED_BYTES);
+	}
+
+	/**
+	 * 构造
+	 *
+	 * @param maxPooledSize 最大级别，会向上取整为2的幂，超过此大小的缓存不复用
+	 * @param maxCachedBytes 池中（含所有线程的本地缓存）保留的缓存总字节数上限，包括byte[]和直接内存
+	 */
+	@SuppressWarnings("unchecked")
+	public BufferPool(int maxPooledSize, long maxCachedBytes) {
+		Assert.isTrue(maxPooledSize >= MIN_SIZE && maxPooledSize <= (1 << 30), "Max pooled size must between {} and {}", MIN_SIZE, 1 << 30);
+		Assert.isTrue(maxCachedBytes >= 0, "Max cached bytes must be >= 0");
+		this.maxCachedBytes = maxCachedBytes;
+		final int classCount = classIndex(maxPooledSize) + 1;
+		this.maxPooledSize = classSize(classCount - 1);
+		this.heapClasses = new SizeClass[classCount];
+		this.directClasses = new SizeClass[classCount];
+		for (int i = 0; i < classCount; i++) {
+			final int capacity = Math.max(2, Math.min(MAX_BUFFERS_PER_CLASS, MAX_BYTES_PER_CLASS / classSize(i)));
+			heapClasses[i] = new SizeClass<>(capacity);
+			directClasses[i] = new SizeClass<>(capacity);
+		}
+		this.threadCacheClasses = Math.min(classCount, classIndex(THREAD_CACHE_MAX_SIZE) + 1);
+		this.threadCache = ThreadLocal.withInitial(() -> {
+			final ThreadCache cache = new ThreadCache(threadCacheClasses);
+			threadCaches.add(cache);
+			return cache;
+		});
+	}
+
+	/**
+	 * 申请byte[]，长度为不小于size的级别大小（超过最大级别时为size）
+	 *
+	 * @param size 最小长度
+	 * @return byte[]，内容未清空
+	 */
+	public byte[] acquire(int size) {
+		Assert.isTrue(size >= 0, "Size must be >= 0");
+		if (size > maxPooledSize) {
+			misses.increment();
+			return new byte[size];
+		}
+		final int index = classIndex(size);
+		byte[] buffer = null;
+		if (index < threadCacheClasses) {
+			buffer = threadCache.get().poll(index);
+		}
+		if (null == buffer) {
+			buffer = heapClasses[index].poll();
+		}
+		if (null == buffer) {
+			misses.increment();
+			return new byte[classSize(index)];
+		}
+		hits.increment();
+		cachedBytes.add(-buffer.length);
+		return buffer;
+	}
+
+	/**
+	 * 归还byte[]，长度不是级别大小的缓存（如超过最大级别或非本池分配的）或池中缓存总量已达上限时直接丢弃
+	 *
+	 * @param buffer 缓存，可以为null
+	 */
+	public void release(byte[] buffer) {
+		if (null == buffer) {
+			return;
+		}
+		final int index = indexOfExactSize(buffer.length);
+		if (index < 0 || false == reserve(buffer.length)) {
+			return;
+		}
+		if (index < threadCacheClasses && threadCache.get().offer(index, buffer)) {
+			return;
+		}
+		if (false == heapClasses[index].offer(buffer)) {
+			cachedBytes.add(-buffer.length);
+		}
+	}
+
+	/**
+	 * 申请直接内存{@link ByteBuffer}，容量为不小于size的级别大小（超过最大级别时为size）
+	 *
+	 * @param size 最小容量
+	 * @return 已clear的{@link ByteBuffer}，limit为容量
+	 */
+	public ByteBuffer acquireDirect(int size) {
+		Assert.isTrue(size >= 0, "Size must be >= 0");
+		if (size > maxPooledSize) {
+			misses.increment();
+			return ByteBuffer.allocateDirect(size);
+		}
+		final int index = classIndex(size);
+		final ByteBuffer buffer = directClasses[index].poll();
+		if (null == buffer) {
+			misses.increment();
+			return ByteBuffer.allocateDirect(classSize(index));
+		}
+		hits.increment();
+		cachedBytes.add(-buffer.capacity());
+		buffer.clear();
+		return buffer;
+	}
+
+	/**
+	 * 归还直接内存{@link ByteBuffer}，非直接内存、只读、容量不是级别大小或池中缓存总量已达上限时直接丢弃
+	 *
+	 * @param buffer 缓存，可以为null
+	 */
+	public void releaseDirect(ByteBuffer buffer) {
+		if (null == buffer || false == buffer.isDirect() || buffer.isReadOnly()) {
+			return;
+		}
+		final int index = indexOfExactSize(buffer.capacity());
+		if (index >= 0 && reserve(buffer.capacity()) && false == directClasses[index].offer(buffer)) {
+			cachedBytes.add(-buffer.capacity());
+		}
+	}
+
+	/**
+	 * 最大级别，超过此大小的缓存不复用
+	 *
+	 * @return 最大级别
+	 */
+	public int getMaxPooledSize() {
+		return maxPooledSize;
+	}
+
+	/**
+	 * 池中（含所有线程的本地缓存）保留的缓存总字节数上限
+	 *
+	 * @return 缓存总字节数上限
+	 */
+	public long getMaxCachedBytes() {
+		return maxCachedBytes;
+	}
+
+	/**
+	 * 池中（含所有线程的本地缓存）当前保留的缓存总字节数
+	 *
+	 * @return 缓存总字节数
+	 */
+	public long getCachedBytes() {
+		return cachedBytes.sum();
+	}
+
+	/**
+	 * 从池中取到缓存的次数（含线程本地缓存）
+	 *
+	 * @return 命中次数
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * 新分配缓存的次数
+	 *
+	 * @return 未命中次数
+	 */
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	/**
+	 * 清空共享队列中的缓存及当前线程的本地缓存，其它线程的本地缓存不受影响
+	 */
+	public void clear() {
+		for (int i = 0; i < heapClasses.length; i++) {
+			cachedBytes.add(-(long) classSize(i) * (heapClasses[i].clear() + directClasses[i].clear()));
+		}
+		final ThreadCache cache = threadCache.get();
+		threadCaches.remove(cache);
+		cachedBytes.add(-cache.bytes);
+		threadCache.remove();
+	}
+
+	// ------------------------------------------------------------------------------------------------------------------------------------- Private method start
+	/**
+	 * 为归还的缓存占用额度，总量超过上限时先清理已结束线程的本地缓存再重试一次
+	 *
+	 * @param bytes 缓存大小
+	 * @return 是否占用成功，失败时缓存应丢弃
+	 */
+	private boolean reserve(int bytes) {
+		cachedBytes.add(bytes);
+		if (cachedBytes.sum() <= maxCachedBytes) {
+			return true;
+		}
+		if (purgeDeadThreadCaches() && cachedBytes.sum() <= maxCachedBytes) {
+			return true;
+		}
+		cachedBytes.add(-bytes);
+		return false;
+	}
+
+	/**
+	 * 清理已结束线程的本地缓存，释放其占用的额度，两次清理至少间隔{@link #PURGE_INTERVAL_NANOS}
+	 *
+	 * @return 是否释放了额度
+	 */
+	private boolean purgeDeadThreadCaches() {
+		final long now = System.nanoTime();
+		final long next = nextPurgeNanos.get();
+		if (now - next < 0 || false == nextPurgeNanos.compareAndSet(next, now + PURGE_INTERVAL_NANOS)) {
+			return false;
+		}
+		boolean purged = false;
+		for (ThreadCache cache : threadCaches) {
+			// 线程结束后其本地缓存不再变化，且只有移除成功的线程释放额度
+			if (cache.isOwnerDead() && threadCaches.remove(cache)) {
+				cachedBytes.add(-cache.bytes);
+				purged |= cache.bytes > 0;
+			}
+		}
+		return purged;
+	}
+
+	/**
+	 * 不小于size的最小级别序号
+	 */
+	private static int classIndex(int size) {
+		if (size <= MIN_SIZE) {
+			return 0;
+		}
+		return 32 - Integer.numberOfLeadingZeros(size - 1) - MIN_SHIFT;
+	}
+
+	private static int classSize(int index) {
+		return MIN_SIZE << index;
+	}
+
+	/**
+	 * 长度恰好为级别大小时返回其序号，否则返回-1
+	 */
+	private int indexOfExactSize(int length) {
+		if (length < MIN_SIZE || length > maxPooledSize || 0 != (length & (length - 1))) {
+			return -1;
+		}
+		return classIndex(length);
+	}
+	// ------------------------------------------------------------------------------------------------------------------------------------- Private method end
+
+	/**
+	 * 一个线程的本地缓存，只由所属线程读写
+	 */
+	private static final class ThreadCache {
+		private final WeakReference<Thread> owner = new WeakReference<>(Thread.currentThread());
+		private final byte[][][] buffers;
+		/** 本地缓存的总字节数 */
+		private long bytes;
+
+		ThreadCache(int classCount) {
+			this.buffers = new byte[classCount][][];
+		}
+
+		byte[] poll(int index) {
+			final byte[][] cache = buffers[index];
+			if (null != cache) {
+				for (int i = cache.length - 1; i >= 0; i--) {
+					if (null != cache[i]) {
+						final byte[] buffer = cache[i];
+						cache[i] = null;
+						bytes -= buffer.length;
+						return buffer;
+					}
+				}
+			}
+			return null;
+		}
+
+		boolean offer(int index, byte[] buffer) {
+			byte[][] cache = buffers[index];
+			if (null == cache) {
+				cache = buffers[index] = new byte[THREAD_CACHE_SIZE][];
+			}
+			for (int i = 0; i < cache.length; i++) {
+				if (null == cache[i]) {
+					cache[i] = buffer;
+					bytes += buffer.length;
+					return true;
+				}
+			}
+			return false;
+		}
+
+		boolean isOwnerDead() {
+			final Thread thread = owner.get();
+			return null == thread || false == thread.isAlive();
+		}
+	}
+
+	/**
+	 * 一个级别的共享队列，缓存数有上限
+	 *
+	 * @param <T> 缓存类型
+	 */
+	private static final class SizeClass<T> {
+		private final Queue<T> queue = new ConcurrentLinkedQueue<>();
+		private final AtomicInteger size = new AtomicInteger();
+		private final int capacity;
+
+		SizeClass(int capacity) {
+			this.capacity = capacity;
+		}
+
+		T poll() {
+			final T buffer = queue.poll();
+			if (null != buffer) {
+				size.decrementAndGet();
+			}
+			return buffer;
+		}
+
+		boolean offer(T buffer) {
+			if (size.incrementAndGet() > capacity) {
+				size.decrementAndGet();
+				return false;
+			}
+			return queue.offer(buffer);
+		}
+
+		/**
+		 * 清空队列
+		 *
+		 * @return 丢弃的缓存数
+		 */
+		int clear() {
+			int count = 0;
+			while (null != poll()) {
+				count++;
+			}
+			return count;
+		}
+	}
+}
@@ -0,0 +1,70 @@
+package com.mawujun.io;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * 读取{@link ByteBuffer}剩余部分的{@link InputStream}，不拷贝数据<br>
+ * 读取会移动buffer的position，需要保留原buffer时传入{@link ByteBuffer#duplicate()}
+ *
+ * @author mawujun
+ */
+public class ByteBufferInputStream extends InputStream {
+
+	private final ByteBuffer buffer;
+	private int mark = -1;
+
+	/**
+	 * 构造
+	 *
+	 * @param buffer {@link ByteBuffer}，读模式
+	 */
+	public ByteBufferInputStream(ByteBuffer buffer) {
+		this.buffer = buffer;
+	}
+
+	@Override
+	public int read() {
+		return buffer.hasRemaining() ? (buffer.get() & 0xFF) : -1;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) {
+		if (len == 0) {
+			return 0;
+		}
+		if (false == buffer.hasRemaining()) {
+			return -1;
+		}
+		len = Math.min(len, buffer.remaining());
+		buffer.get(b, off, len);
+		return len;
+	}
+
+	@Override
+	public long skip(long n) {
+		final int skipped = (int) Math.max(0, Math.min(n, buffer.remaining()));
+		buffer.position(buffer.position() + skipped);
+		return skipped;
+	}
+
+	@Override
+	public int available() {
+		return buffer.remaining();
+	}
+
+	@Override
+	public boolean markSupported() {
+		return true;
+	}
+
+	@Override
+	public synchronized void mark(int readlimit) {
+		this.mark = buffer.position();
+	}
+
+	@Override
+	public synchronized void reset() {
+		buffer.position(mark < 0 ? 0 : mark);
+	}
+}
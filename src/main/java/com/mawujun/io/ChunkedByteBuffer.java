@@ -0,0 +1,427 @@
+package com.mawujun.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.mawujun.util.CharsetUtil;
+
+/**
+ * 从{@link BufferPool}申请分块（chunk）的字节缓冲，使用引用计数管理，计数归零时将分块归还缓存池<br>
+ * 与{@link FastByteBuffer}相比：
+ * <ul>
+ * <li>分块来自缓存池并在释放后复用，读取大量临时数据时几乎不产生垃圾</li>
+ * <li>可直接从流或通道读入分块，不经过中间缓存</li>
+ * <li>可通过{@link #nioBuffers()}将内容以{@link ByteBuffer}数组暴露，用于聚集写（gathering write），无需拷贝</li>
+ * </ul>
+ *
+ * <pre>
+ * try (ChunkedByteBuffer buffer = new ChunkedByteBuffer()) {
+ *     buffer.readFrom(in);
+ *     buffer.writeTo(socketChannel);
+ * }
+ * </pre>
+ *
+ * 分块大小从初始大小开始每次翻倍，直到缓存池的最大级别。创建时引用计数为1，{@link #retain()}加一，{@link #release()}或{@link #close()}减一，
+ * 释放后不可再访问。此类不是线程安全的，引用计数本身是线程安全的，可在线程间传递所有权。
+ *
+ * @author mawujun
+ */
+public class ChunkedByteBuffer implements Closeable {
+
+	/** 默认的初始分块大小 */
+	public static final int DEFAULT_CHUNK_SIZE = 8 * 1024;
+
+	private final BufferPool pool;
+	private final AtomicInteger refCnt = new AtomicInteger(1);
+	/** 分块 */
+	private byte[][] chunks = new byte[8][];
+	/** 分块数 */
+	private int chunkCount;
+	/** 最后一个分块已使用的字节数 */
+	private int offset;
+	/** 总字节数 */
+	private int size;
+	/** 下一个分块的大小 */
+	private int nextChunkSize;
+
+	/**
+	 * 构造，使用默认缓存池及初始分块大小
+	 */
+	public ChunkedByteBuffer() {
+		this(BufferPool.getDefault(), DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * 构造
+	 *
+	 * @param pool 缓存池
+	 * @param chunkSize 初始分块大小，一般为预估的数据大小
+	 */
+	public ChunkedByteBuffer(BufferPool pool, int chunkSize) {
+		this.pool = pool;
+		this.nextChunkSize = Math.min(Math.max(chunkSize, BufferPool.MIN_SIZE), pool.getMaxPooledSize());
+	}
+
+	// ------------------------------------------------------------------------------------------------------------------------------------- write start
+	/**
+	 * 写入一个字节
+	 *
+	 * @param b 字节
+	 * @return this
+	 */
+	public ChunkedByteBuffer append(byte b) {
+		ensureWritable()[offset++] = b;
+		size++;
+		return this;
+	}
+
+	/**
+	 * 写入数据
+	 *
+	 * @param array 数据
+	 * @return this
+	 */
+	public ChunkedByteBuffer append(byte[] array) {
+		return append(array, 0, array.length);
+	}
+
+	/**
+	 * 写入数据
+	 *
+	 * @param array 数据
+	 * @param off 偏移量
+	 * @param len 字节数
+	 * @return this
+	 */
+	public ChunkedByteBuffer append(byte[] array, int off, int len) {
+		if (off < 0 || len < 0 || off + len > array.length) {
+			throw new IndexOutOfBoundsException();
+		}
+		while (len > 0) {
+			final byte[] chunk = ensureWritable();
+			final int part = Math.min(len, chunk.length - offset);
+			System.arraycopy(array, off, chunk, offset, part);
+			offset += part;
+			size += part;
+			off += part;
+			len -= part;
+		}
+		return this;
+	}
+
+	/**
+	 * 写入{@link ByteBuffer}中剩余的数据
+	 *
+	 * @param buffer {@link ByteBuffer}
+	 * @return this
+	 */
+	public ChunkedByteBuffer append(ByteBuffer buffer) {
+		while (buffer.hasRemaining()) {
+			final byte[] chunk = ensureWritable();
+			final int part = Math.min(buffer.remaining(), chunk.length - offset);
+			buffer.get(chunk, offset, part);
+			offset += part;
+			size += part;
+		}
+		return this;
+	}
+
+	/**
+	 * 从流中读取全部数据，直接读入分块，不关闭流
+	 *
+	 * @param in 输入流
+	 * @return 读取的字节数
+	 * @throws IORuntimeException IO异常
+	 */
+	public long readFrom(InputStream in) throws IORuntimeException {
+		long total = 0;
+		try {
+			while (true) {
+				final byte[] chunk = ensureWritable();
+				final int read = in.read(chunk, offset, chunk.length - offset);
+				if (read < 0) {
+					return total;
+				}
+				offset += read;
+				size += read;
+				total += read;
+			}
+		} catch (IOException e) {
+			throw new IORuntimeException(e);
+		}
+	}
+
+	/**
+	 * 从通道中读取全部数据，直接读入分块，不关闭通道
+	 *
+	 * @param channel 通道
+	 * @return 读取的字节数
+	 * @throws IORuntimeException IO异常
+	 */
+	public long readFrom(ReadableByteChannel channel) throws IORuntimeException {
+		long total = 0;
+		try {
+			while (true) {
+				final byte[] chunk = ensureWritable();
+				final int read = channel.read(ByteBuffer.wrap(chunk, offset, chunk.length - offset));
+				if (read < 0) {
+					return total;
+				}
+				offset += read;
+				size += read;
+				total += read;
+			}
+		} catch (IOException e) {
+			throw new IORuntimeException(e);
+		}
+	}
+
+	/**
+	 * 获取写入此缓冲的{@link OutputStream}，{@link OutputStream#close()}不会释放缓冲
+	 *
+	 * @return {@link OutputStream}
+	 */
+	public OutputStream asOutputStream() {
+		return new OutputStream() {
+			@Override
+			public void write(int b) {
+				append((byte) b);
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) {
+				append(b, off, len);
+			}
+		};
+	}
+	// ------------------------------------------------------------------------------------------------------------------------------------- write end
+
+	// ------------------------------------------------------------------------------------------------------------------------------------- read start
+	/**
+	 * 总字节数
+	 *
+	 * @return 字节数
+	 */
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return 0 == size;
+	}
+
+	/**
+	 * 获取指定位置的字节
+	 *
+	 * @param index 位置
+	 * @return 字节
+	 */
+	public byte get(int index) {
+		ensureAccessible();
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException();
+		}
+		for (int i = 0;; i++) {
+			if (index < chunks[i].length) {
+				return chunks[i][index];
+			}
+			index -= chunks[i].length;
+		}
+	}
+
+	/**
+	 * 以{@link ByteBuffer}数组暴露内容，每个分块一个，不拷贝数据<br>
+	 * 返回的{@link ByteBuffer}与此缓冲共享数据，只在此缓冲释放前有效
+	 *
+	 * @return {@link ByteBuffer}数组
+	 */
+	public ByteBuffer[] nioBuffers() {
+		ensureAccessible();
+		final ByteBuffer[] buffers = new ByteBuffer[chunkCount];
+		for (int i = 0; i < chunkCount; i++) {
+			buffers[i] = ByteBuffer.wrap(chunks[i], 0, chunkLength(i));
+		}
+		return buffers;
+	}
+
+	/**
+	 * 拷贝为byte数组
+	 *
+	 * @return byte数组
+	 */
+	public byte[] toByteArray() {
+		ensureAccessible();
+		final byte[] array = new byte[size];
+		int pos = 0;
+		int len;
+		for (int i = 0; i < chunkCount; i++) {
+			len = chunkLength(i);
+			System.arraycopy(chunks[i], 0, array, pos, len);
+			pos += len;
+		}
+		return array;
+	}
+
+	/**
+	 * 写出全部内容到流，不关闭流
+	 *
+	 * @param out 输出流
+	 * @throws IORuntimeException IO异常
+	 */
+	public void writeTo(OutputStream out) throws IORuntimeException {
+		ensureAccessible();
+		try {
+			for (int i = 0; i < chunkCount; i++) {
+				out.write(chunks[i], 0, chunkLength(i));
+			}
+		} catch (IOException e) {
+			throw new IORuntimeException(e);
+		}
+	}
+
+	/**
+	 * 使用聚集写将全部内容写出到通道，不关闭通道
+	 *
+	 * @param channel 通道
+	 * @return 写出的字节数
+	 * @throws IORuntimeException IO异常
+	 */
+	public long writeTo(GatheringByteChannel channel) throws IORuntimeException {
+		final ByteBuffer[] buffers = nioBuffers();
+		long written = 0;
+		try {
+			while (written < size) {
+				written += channel.write(buffers);
+			}
+		} catch (IOException e) {
+			throw new IORuntimeException(e);
+		}
+		return written;
+	}
+
+	/**
+	 * 按UTF-8转为字符串
+	 *
+	 * @return 字符串
+	 */
+	@Override
+	public String toString() {
+		return toString(CharsetUtil.CHARSET_UTF_8);
+	}
+
+	/**
+	 * 转为字符串
+	 *
+	 * @param charset 编码
+	 * @return 字符串
+	 */
+	public String toString(Charset charset) {
+		return new String(toByteArray(), charset);
+	}
+	// ------------------------------------------------------------------------------------------------------------------------------------- read end
+
+	// ------------------------------------------------------------------------------------------------------------------------------------- reference count start
+	/**
+	 * 当前引用计数
+	 *
+	 * @return 引用计数，0表示已释放
+	 */
+	public int refCnt() {
+		return refCnt.get();
+	}
+
+	/**
+	 * 引用计数加一
+	 *
+	 * @return this
+	 * @throws IllegalStateException 已释放
+	 */
+	public ChunkedByteBuffer retain() {
+		int current;
+		do {
+			current = refCnt.get();
+			if (current <= 0) {
+				throw new IllegalStateException("Buffer has been released");
+			}
+		} while (false == refCnt.compareAndSet(current, current + 1));
+		return this;
+	}
+
+	/**
+	 * 引用计数减一，归零时将分块归还缓存池
+	 *
+	 * @return 是否已归零并释放
+	 * @throws IllegalStateException 已释放
+	 */
+	public boolean release() {
+		final int current = refCnt.decrementAndGet();
+		if (current > 0) {
+			return false;
+		}
+		if (current < 0) {
+			refCnt.incrementAndGet();
+			throw new IllegalStateException("Buffer has been released");
+		}
+		for (int i = 0; i < chunkCount; i++) {
+			pool.release(chunks[i]);
+			chunks[i] = null;
+		}
+		chunkCount = 0;
+		offset = 0;
+		size = 0;
+		return true;
+	}
+
+	/**
+	 * 等同于{@link #release()}，已释放时无效果，便于try-with-resources
+	 */
+	@Override
+	public void close() {
+		if (refCnt.get() > 0) {
+			release();
+		}
+	}
+	// ------------------------------------------------------------------------------------------------------------------------------------- reference count end
+
+	// ------------------------------------------------------------------------------------------------------------------------------------- Private method start
+	/**
+	 * 返回有剩余空间的最后一个分块，已满时申请新分块
+	 */
+	private byte[] ensureWritable() {
+		ensureAccessible();
+		if (chunkCount > 0) {
+			final byte[] last = chunks[chunkCount - 1];
+			if (offset < last.length) {
+				return last;
+			}
+		}
+		if (chunkCount == chunks.length) {
+			final byte[][] newChunks = new byte[chunks.length << 1][];
+			System.arraycopy(chunks, 0, newChunks, 0, chunkCount);
+			chunks = newChunks;
+		}
+		final byte[] chunk = pool.acquire(nextChunkSize);
+		chunks[chunkCount++] = chunk;
+		offset = 0;
+		nextChunkSize = Math.min(nextChunkSize << 1, pool.getMaxPooledSize());
+		return chunk;
+	}
+
+	private int chunkLength(int index) {
+		return (index == chunkCount - 1) ? offset : chunks[index].length;
+	}
+
+	private void ensureAccessible() {
+		if (refCnt.get() <= 0) {
+			throw new IllegalStateException("Buffer has been released");
+		}
+	}
+	// ------------------------------------------------------------------------------------------------------------------------------------- Private method end
+}
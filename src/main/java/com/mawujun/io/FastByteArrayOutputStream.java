@@ -2,6 +2,7 @@ package com.mawujun.io;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 
 import com.mawujun.util.CharsetUtil;
@@ -67,6 +68,10 @@ public class FastByteArrayOutputStream extends OutputStream {
 	 */
 	public void writeTo(OutputStream out) throws IORuntimeException {
 		final int index = buffer.index();
+		if (index < 0) {
+			// 没有写入任何数据
+			return;
+		}
 		byte[] buf;
 		try {
 			for (int i = 0; i < index; i++) {
@@ -79,7 +84,14 @@ public class FastByteArrayOutputStream extends OutputStream {
 		}
 	}
 
-	
+	/**
+	 * 以{@link ByteBuffer}数组返回数据，不拷贝，可直接用于{@link java.nio.channels.GatheringByteChannel#write(ByteBuffer[])}
+	 * @return {@link ByteBuffer}数组
+	 */
+	public ByteBuffer[] toByteBuffers() {
+		return buffer.toByteBuffers();
+	}
+
 	/**
 	 * 转为Byte数组
 	 * @return Byte数组
@@ -111,4 +123,4 @@ public class FastByteArrayOutputStream extends OutputStream {
 		return new String(toByteArray(), charset);
 	}
 
-}
\ No newline at end of file
+}
\ No newline at end of file
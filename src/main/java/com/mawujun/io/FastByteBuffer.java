@@ -1,5 +1,7 @@
 package com.mawujun.io;
 
+import java.nio.ByteBuffer;
+
 /**
  * 代码移植自<a href="https://github.com/biezhi/blade">blade</a><br>
  * 快速缓冲，将数据存放在缓冲集中，取代以往的单一数组
@@ -224,6 +226,22 @@ public class FastByteBuffer {
 		return array;
 	}
 
+	/**
+	 * 以{@link ByteBuffer}数组返回快速缓冲中的数据，每个缓冲一个，不拷贝数据，可用于聚集写（gathering write）
+	 * 
+	 * @return {@link ByteBuffer}数组，与快速缓冲共享数据
+	 */
+	public ByteBuffer[] toByteBuffers() {
+		final ByteBuffer[] result = new ByteBuffer[currentBufferIndex + 1];
+		for (int i = 0; i < currentBufferIndex; i++) {
+			result[i] = ByteBuffer.wrap(buffers[i]);
+		}
+		if (currentBufferIndex >= 0) {
+			result[currentBufferIndex] = ByteBuffer.wrap(buffers[currentBufferIndex], 0, offset);
+		}
+		return result;
+	}
+
 	/**
 	 * 返回快速缓冲中的数据
 	 * 
@@ -282,4 +300,4 @@ public class FastByteBuffer {
 		}
 	}
 
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -30,13 +30,17 @@ import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.zip.CRC32;
 import java.util.zip.CheckedInputStream;
 import java.util.zip.Checksum;
 
 import com.mawujun.convert.Convert;
 import com.mawujun.exception.exceptions.UtilException;
+import com.mawujun.io.serialize.BinaryInput;
+import com.mawujun.io.serialize.BinaryOutput;
 import com.mawujun.lang.Assert;
 import com.mawujun.util.CharsetUtil;
 import com.mawujun.util.HexUtil;
@@ -164,7 +168,29 @@ public class IoUtil {
 			bufferSize = DEFAULT_BUFFER_SIZE;
 		}
 
-		byte[] buffer = new byte[bufferSize];
+		final byte[] buffer = BufferPool.getDefault().acquire(bufferSize);
+		try {
+			return copy(in, out, buffer, streamProgress);
+		} finally {
+			BufferPool.getDefault().release(buffer);
+		}
+	}
+
+	/**
+	 * 使用给定的缓存拷贝流，便于调用方复用缓存，本方法不会关闭流
+	 *
+	 * @param in 输入流
+	 * @param out 输出流
+	 * @param buffer 缓存
+	 * @param streamProgress 进度条
+	 * @return 传输的byte数
+	 * @throws IORuntimeException IO异常
+	 */
+	public static long copy(InputStream in, OutputStream out, byte[] buffer, StreamProgress streamProgress) throws IORuntimeException {
+		Assert.notNull(in, "InputStream is null !");
+		Assert.notNull(out, "OutputStream is null !");
+		Assert.isTrue(null != buffer && buffer.length > 0, "Buffer is empty !");
+
 		if (null != streamProgress) {
 			streamProgress.start();
 		}
@@ -265,7 +291,8 @@ public class IoUtil {
 		Assert.notNull(in, "InputStream is null !");
 		Assert.notNull(out, "OutputStream is null !");
 
-		ByteBuffer byteBuffer = ByteBuffer.allocate(bufferSize <= 0 ? DEFAULT_BUFFER_SIZE : bufferSize);
+		// 直接内存缓存在通道两端都是文件或Socket时可省去一次拷贝
+		final ByteBuffer byteBuffer = BufferPool.getDefault().acquireDirect(bufferSize <= 0 ? DEFAULT_BUFFER_SIZE : bufferSize);
 		long size = 0;
 		if (null != streamProgress) {
 			streamProgress.start();
@@ -273,7 +300,9 @@ public class IoUtil {
 		try {
 			while (in.read(byteBuffer) != EOF) {
 				byteBuffer.flip();// 写转读
-				size += out.write(byteBuffer);
+				while (byteBuffer.hasRemaining()) {
+					size += out.write(byteBuffer);
+				}
 				byteBuffer.clear();
 				if (null != streamProgress) {
 					streamProgress.progress(size);
@@ -281,6 +310,8 @@ public class IoUtil {
 			}
 		} catch (IOException e) {
 			throw new IORuntimeException(e);
+		} finally {
+			BufferPool.getDefault().releaseDirect(byteBuffer);
 		}
 		if (null != streamProgress) {
 			streamProgress.finish();
@@ -407,8 +438,9 @@ public class IoUtil {
 	 * @throws IORuntimeException IO异常
 	 */
 	public static String read(InputStream in, Charset charset) throws IORuntimeException {
-		FastByteArrayOutputStream out = read(in);
-		return null == charset ? out.toString() : out.toString(charset);
+		try (ChunkedByteBuffer buffer = readPooled(in)) {
+			return buffer.toString(null == charset ? Charset.defaultCharset() : charset);
+		}
 	}
 
 	/**
@@ -438,6 +470,26 @@ public class IoUtil {
 		return out;
 	}
 
+	/**
+	 * 从流中读取全部内容到缓存池分配的{@link ChunkedByteBuffer}中，读取完毕后并不关闭流<br>
+	 * 使用完毕后须调用{@link ChunkedByteBuffer#release()}归还缓存
+	 * 
+	 * @param in 输入流
+	 * @return {@link ChunkedByteBuffer}
+	 * @throws IORuntimeException IO异常
+	 */
+	public static ChunkedByteBuffer readPooled(InputStream in) throws IORuntimeException {
+		Assert.notNull(in, "InputStream is null !");
+		final ChunkedByteBuffer buffer = new ChunkedByteBuffer();
+		try {
+			buffer.readFrom(in);
+		} catch (RuntimeException e) {
+			buffer.release();
+			throw e;
+		}
+		return buffer;
+	}
+
 	/**
 	 * 从流中读取内容，读到输出流中
 	 * 
@@ -520,9 +572,9 @@ public class IoUtil {
 	 * @throws IORuntimeException IO异常
 	 */
 	public static byte[] readBytes(InputStream in) throws IORuntimeException {
-		final FastByteArrayOutputStream out = new FastByteArrayOutputStream();
-		copy(in, out);
-		return out.toByteArray();
+		try (ChunkedByteBuffer buffer = readPooled(in)) {
+			return buffer.toByteArray();
+		}
 	}
 
 	/**
@@ -618,6 +670,23 @@ public class IoUtil {
 		}
 	}
 
+	/**
+	 * 从流中读取{@link #writeBinaryObjects(OutputStream, boolean, Object...)}写出的所有对象，读取后不关闭流
+	 * 
+	 * @param in 输入流
+	 * @return 对象列表，null对象也包含在内
+	 * @throws IORuntimeException IO异常
+	 * @throws UtilException 数据格式错误或类不存在
+	 */
+	public static List<Object> readBinaryObjects(InputStream in) throws IORuntimeException, UtilException {
+		final BinaryInput input = new BinaryInput(in);
+		final List<Object> objects = new ArrayList<>();
+		while (input.hasMore()) {
+			objects.add(input.readObject());
+		}
+		return objects;
+	}
+
 	/**
 	 * 从流中读取内容，使用UTF-8编码
 	 * 
@@ -948,6 +1017,32 @@ public class IoUtil {
 		}
 	}
 
+	/**
+	 * 将多个对象以二进制序列化格式写到流中，对象不要求实现Serializable接口<br>
+	 * 多个对象共享字符串表和类描述，比{@link #writeObjects(OutputStream, boolean, Serializable...)}更紧凑，
+	 * 使用{@link #readBinaryObjects(InputStream)}读取
+	 * 
+	 * @param out 输出流
+	 * @param isCloseOut 写入完毕是否关闭输出流
+	 * @param contents 写入的内容
+	 * @throws IORuntimeException IO异常
+	 * @throws UtilException 对象中包含不支持的类型
+	 * @see BinaryOutput
+	 */
+	public static void writeBinaryObjects(OutputStream out, boolean isCloseOut, Object... contents) throws IORuntimeException, UtilException {
+		final BinaryOutput output = new BinaryOutput(out);
+		try {
+			for (Object content : contents) {
+				output.writeObject(content);
+			}
+			output.flush();
+		} finally {
+			if (isCloseOut) {
+				close(out);
+			}
+		}
+	}
+
 	/**
 	 * 从缓存中刷出数据
 	 * 
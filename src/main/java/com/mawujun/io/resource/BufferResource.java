@@ -0,0 +1,127 @@
+package com.mawujun.io.resource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+
+import com.mawujun.io.BufferUtil;
+import com.mawujun.io.ByteBufferInputStream;
+import com.mawujun.io.IORuntimeException;
+import com.mawujun.util.CharsetUtil;
+
+/**
+ * 基于{@link ByteBuffer}的资源，数据可以在堆外（直接内存或内存映射），读取时不拷贝到堆中<br>
+ * 注意：此对象中getUrl方法始终返回null
+ *
+ * @author mawujun
+ */
+public class BufferResource implements Resource {
+
+	/** 只读的数据，position为0 */
+	protected final ByteBuffer buffer;
+	protected final String name;
+
+	/**
+	 * 构造
+	 *
+	 * @param buffer 数据，使用其剩余部分
+	 */
+	public BufferResource(ByteBuffer buffer) {
+		this(buffer, null);
+	}
+
+	/**
+	 * 构造
+	 *
+	 * @param buffer 数据，使用其剩余部分
+	 * @param name 资源名称
+	 */
+	public BufferResource(ByteBuffer buffer, String name) {
+		this.buffer = buffer.slice().asReadOnlyBuffer();
+		this.name = name;
+	}
+
+	@Override
+	public String getName() {
+		return this.name;
+	}
+
+	@Override
+	public URL getUrl() {
+		return null;
+	}
+
+	@Override
+	public InputStream getStream() {
+		return new ByteBufferInputStream(getBuffer());
+	}
+
+	@Override
+	public BufferedReader getReader(Charset charset) {
+		return new BufferedReader(new InputStreamReader(getStream(), charset));
+	}
+
+	@Override
+	public String readStr(Charset charset) throws IORuntimeException {
+		return BufferUtil.readStr(getBuffer(), charset);
+	}
+
+	@Override
+	public String readUtf8Str() throws IORuntimeException {
+		return readStr(CharsetUtil.CHARSET_UTF_8);
+	}
+
+	@Override
+	public byte[] readBytes() throws IORuntimeException {
+		return BufferUtil.readBytes(getBuffer());
+	}
+
+	/**
+	 * 获取只读的数据视图，每次调用返回独立的position和limit，不拷贝数据
+	 *
+	 * @return 只读{@link ByteBuffer}
+	 */
+	public ByteBuffer getBuffer() {
+		return buffer.duplicate();
+	}
+
+	/**
+	 * 数据大小
+	 *
+	 * @return 字节数
+	 */
+	public long size() {
+		return buffer.capacity();
+	}
+
+	/**
+	 * 将全部数据写出到通道，不关闭通道
+	 *
+	 * @param channel 通道
+	 * @return 写出的字节数
+	 * @throws IORuntimeException IO异常
+	 */
+	@Override
+	public long writeTo(WritableByteChannel channel) throws IORuntimeException {
+		final ByteBuffer view = getBuffer();
+		long written = 0;
+		try {
+			while (view.hasRemaining()) {
+				written += channel.write(view);
+			}
+		} catch (IOException e) {
+			throw new IORuntimeException(e);
+		}
+		return written;
+	}
+
+	@Override
+	public String toString() {
+		return "BufferResource [name=" + name + ", size=" + size() + "]";
+	}
+}
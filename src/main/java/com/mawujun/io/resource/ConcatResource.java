@@ -0,0 +1,170 @@
+package com.mawujun.io.resource;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.SequenceInputStream;
+import java.net.URL;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.List;
+
+import com.mawujun.collection.CollUtil;
+import com.mawujun.io.IORuntimeException;
+import com.mawujun.io.IoUtil;
+import com.mawujun.util.CharsetUtil;
+
+/**
+ * 多个资源首尾相连组成的资源<br>
+ * 与{@link MultiResource}逐个访问资源不同，此资源将所有资源视为一个连续的数据：{@link #getStream()}按顺序依次打开每个资源的流，
+ * 读完一个关闭一个，不会预先把各部分读入内存，适合合并输出多个静态文件等场景。
+ *
+ * <pre>
+ * ConcatResource resource = new ConcatResource("bundle.js", new MappedFileResource(a), new FileResource(b));
+ * resource.writeTo(socketChannel);
+ * </pre>
+ *
+ * 注意：此对象中getUrl方法始终返回null
+ *
+ * @author mawujun
+ */
+public class ConcatResource implements Resource, Iterable<Resource> {
+
+	private final List<Resource> resources;
+	private final String name;
+
+	/**
+	 * 构造
+	 *
+	 * @param name 资源名称
+	 * @param resources 资源数组
+	 */
+	public ConcatResource(String name, Resource... resources) {
+		this(name, CollUtil.newArrayList(resources));
+	}
+
+	/**
+	 * 构造
+	 *
+	 * @param name 资源名称
+	 * @param resources 资源列表
+	 */
+	public ConcatResource(String name, Collection<Resource> resources) {
+		this.name = name;
+		this.resources = CollUtil.newArrayList(resources);
+	}
+
+	@Override
+	public String getName() {
+		return this.name;
+	}
+
+	@Override
+	public URL getUrl() {
+		return null;
+	}
+
+	/**
+	 * 获得按顺序读取所有资源的流，每个资源的流在读到该部分时才打开，读完即关闭
+	 *
+	 * @return {@link InputStream}
+	 */
+	@Override
+	public InputStream getStream() {
+		final Iterator<Resource> iterator = this.resources.iterator();
+		return new SequenceInputStream(new Enumeration<InputStream>() {
+			@Override
+			public boolean hasMoreElements() {
+				return iterator.hasNext();
+			}
+
+			@Override
+			public InputStream nextElement() {
+				return iterator.next().getStream();
+			}
+		});
+	}
+
+	@Override
+	public BufferedReader getReader(Charset charset) {
+		return new BufferedReader(new InputStreamReader(getStream(), charset));
+	}
+
+	@Override
+	public String readStr(Charset charset) throws IORuntimeException {
+		InputStream in = null;
+		try {
+			in = getStream();
+			return IoUtil.read(in, charset);
+		} finally {
+			IoUtil.close(in);
+		}
+	}
+
+	@Override
+	public String readUtf8Str() throws IORuntimeException {
+		return readStr(CharsetUtil.CHARSET_UTF_8);
+	}
+
+	@Override
+	public byte[] readBytes() throws IORuntimeException {
+		InputStream in = null;
+		try {
+			in = getStream();
+			return IoUtil.readBytes(in);
+		} finally {
+			IoUtil.close(in);
+		}
+	}
+
+	/**
+	 * 按顺序将所有资源写出到通道，不关闭通道<br>
+	 * 每个资源使用其{@link Resource#writeTo(WritableByteChannel)}：{@link BufferResource}直接写出其缓冲（{@link MappedFileResource}使用transferTo），
+	 * {@link FileResource}使用{@link java.nio.channels.FileChannel#transferTo(long, long, WritableByteChannel)}，其它资源通过流拷贝
+	 *
+	 * @param channel 通道
+	 * @return 写出的字节数
+	 * @throws IORuntimeException IO异常
+	 */
+	@Override
+	public long writeTo(WritableByteChannel channel) throws IORuntimeException {
+		long written = 0;
+		for (Resource resource : this.resources) {
+			written += resource.writeTo(channel);
+		}
+		return written;
+	}
+
+	/**
+	 * 增加资源
+	 *
+	 * @param resource 资源
+	 * @return this
+	 */
+	public ConcatResource add(Resource resource) {
+		this.resources.add(resource);
+		return this;
+	}
+
+	/**
+	 * 资源数
+	 *
+	 * @return 资源数
+	 */
+	public int size() {
+		return this.resources.size();
+	}
+
+	@Override
+	public Iterator<Resource> iterator() {
+		return this.resources.iterator();
+	}
+
+	@Override
+	public String toString() {
+		return "ConcatResource [name=" + name + ", resources=" + resources + "]";
+	}
+}
@@ -1,9 +1,14 @@
 package com.mawujun.io.resource;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
 import com.mawujun.io.FileUtil;
+import com.mawujun.io.IORuntimeException;
 import com.mawujun.util.StrUtil;
 import com.mawujun.util.URLUtil;
 
@@ -55,4 +60,26 @@ public class FileResource extends UrlResource {
 	}
 	// ----------------------------------------------------------------------- Constructor end
 
+	/**
+	 * 使用{@link FileChannel#transferTo(long, long, WritableByteChannel)}将文件写出到通道，不关闭通道<br>
+	 * 目标为Socket时可由内核直接发送（零拷贝），不映射文件，大小不受2GB限制
+	 * 
+	 * @param channel 通道
+	 * @return 写出的字节数
+	 * @throws IORuntimeException IO异常
+	 */
+	@Override
+	public long writeTo(WritableByteChannel channel) throws IORuntimeException {
+		try (FileChannel fileChannel = FileChannel.open(getFile().toPath(), StandardOpenOption.READ)) {
+			final long size = fileChannel.size();
+			long position = 0;
+			long transferred;
+			while (position < size && (transferred = fileChannel.transferTo(position, size - position, channel)) > 0) {
+				position += transferred;
+			}
+			return position;
+		} catch (IOException e) {
+			throw new IORuntimeException(e);
+		}
+	}
 }
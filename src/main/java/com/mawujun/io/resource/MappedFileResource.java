@@ -0,0 +1,133 @@
+package com.mawujun.io.resource;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import com.mawujun.io.FileUtil;
+import com.mawujun.io.IORuntimeException;
+import com.mawujun.util.URLUtil;
+
+/**
+ * 内存映射的文件资源<br>
+ * 创建时将文件以只读方式映射到内存，读取由操作系统按需分页加载，不占用堆内存；
+ * {@link #writeTo(WritableByteChannel)}使用{@link FileChannel#transferTo(long, long, WritableByteChannel)}，目标为Socket时可由内核直接发送（零拷贝）。
+ *
+ * <pre>
+ * MappedFileResource resource = new MappedFileResource(new File("static/app.js"));
+ * resource.writeTo(socketChannel);
+ * </pre>
+ *
+ * 映射的内容反映文件的当前内容，文件被截断后访问映射区会导致异常，因此只适合不会被原地修改的文件，大小不能超过2GB。
+ *
+ * @author mawujun
+ */
+public class MappedFileResource extends BufferResource {
+
+	private final File file;
+	private final long lastModified;
+
+	/**
+	 * 构造
+	 *
+	 * @param path 文件
+	 * @throws IORuntimeException 文件不存在或映射失败
+	 */
+	public MappedFileResource(Path path) throws IORuntimeException {
+		this(path.toFile());
+	}
+
+	/**
+	 * 构造
+	 *
+	 * @param file 文件
+	 * @throws IORuntimeException 文件不存在或映射失败
+	 */
+	public MappedFileResource(File file) throws IORuntimeException {
+		this(file, map(file));
+	}
+
+	private MappedFileResource(File file, MappedByteBuffer buffer) {
+		super(buffer, file.getName());
+		this.file = file;
+		this.lastModified = file.lastModified();
+	}
+
+	@Override
+	public URL getUrl() {
+		return URLUtil.getURL(this.file);
+	}
+
+	/**
+	 * 获得File
+	 *
+	 * @return {@link File}
+	 */
+	public File getFile() {
+		return this.file;
+	}
+
+	/**
+	 * 映射时文件的最后修改时间
+	 *
+	 * @return 最后修改时间
+	 */
+	public long getLastModified() {
+		return this.lastModified;
+	}
+
+	/**
+	 * 使用{@link FileChannel#transferTo(long, long, WritableByteChannel)}将文件写出到通道，不关闭通道
+	 *
+	 * @param channel 通道
+	 * @return 写出的字节数
+	 * @throws IORuntimeException IO异常
+	 */
+	@Override
+	public long writeTo(WritableByteChannel channel) throws IORuntimeException {
+		final long size = size();
+		long position = 0;
+		try (FileChannel fileChannel = FileChannel.open(this.file.toPath(), StandardOpenOption.READ)) {
+			while (position < size) {
+				final long transferred = fileChannel.transferTo(position, size - position, channel);
+				if (transferred <= 0) {
+					// 文件已被截断
+					break;
+				}
+				position += transferred;
+			}
+		} catch (IOException e) {
+			throw new IORuntimeException(e);
+		}
+		return position;
+	}
+
+	@Override
+	public String toString() {
+		return this.file.getAbsolutePath();
+	}
+
+	/**
+	 * 以只读方式映射整个文件，映射建立后即可关闭通道
+	 */
+	private static MappedByteBuffer map(File file) throws IORuntimeException {
+		if (false == FileUtil.isFile(file)) {
+			throw new NoResourceException("File [{}] not exist!", file);
+		}
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			final long size = channel.size();
+			if (size > Integer.MAX_VALUE) {
+				throw new IORuntimeException("File [{}] is too large to map: {}", file, size);
+			}
+			return channel.map(MapMode.READ_ONLY, 0, size);
+		} catch (IOException e) {
+			throw new IORuntimeException(e);
+		}
+	}
+}
@@ -4,9 +4,12 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
 
 import com.mawujun.io.IORuntimeException;
+import com.mawujun.io.IoUtil;
 
 /**
  * 资源接口定义<br>
@@ -70,4 +73,22 @@ public interface Resource {
 	 * @throws IORuntimeException 包装IOException
 	 */
 	byte[] readBytes() throws IORuntimeException;
+
+	/**
+	 * 将资源内容写出到通道，不关闭通道<br>
+	 * 默认通过流拷贝，文件和缓冲资源使用更高效的方式写出
+	 * 
+	 * @param channel 通道
+	 * @return 写出的字节数
+	 * @throws IORuntimeException IO异常
+	 */
+	default long writeTo(WritableByteChannel channel) throws IORuntimeException {
+		InputStream in = null;
+		try {
+			in = getStream();
+			return IoUtil.copy(Channels.newChannel(in), channel);
+		} finally {
+			IoUtil.close(in);
+		}
+	}
 }
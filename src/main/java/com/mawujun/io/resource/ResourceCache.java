@@ -0,0 +1,262 @@
+package com.mawujun.io.resource;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.mawujun.io.FileUtil;
+import com.mawujun.io.IORuntimeException;
+import com.mawujun.lang.Assert;
+
+/**
+ * 文件内容缓存，将常用的文件以只读的直接内存缓存，适合静态资源等频繁读取的小文件<br>
+ * <ul>
+ * <li>按总字节数限制大小，超出时淘汰最久未访问的文件</li>
+ * <li>访问时比较文件的最后修改时间和大小，文件变化后自动重新加载</li>
+ * <li>超过{@link #setMaxEntrySize(long)}的文件不缓存，返回{@link FileResource}，其{@link Resource#writeTo(java.nio.channels.WritableByteChannel)}使用transferTo，不映射也不读入内存</li>
+ * </ul>
+ *
+ * <pre>
+ * ResourceCache cache = new ResourceCache(64 * 1024 * 1024);
+ * cache.get(new File(root, path)).writeTo(socketChannel);
+ * </pre>
+ *
+ * 被淘汰的直接内存在GC回收缓冲对象时释放，因此实际占用的直接内存可能短暂超过上限。
+ *
+ * @author mawujun
+ */
+public class ResourceCache {
+
+	private final long maxBytes;
+	private volatile long maxEntrySize;
+	private volatile long checkInterval;
+
+	/** 按访问顺序排列，只在锁中访问 */
+	private final LinkedHashMap<String, CachedFile> files = new LinkedHashMap<>(16, 0.75f, true);
+	private long usedBytes;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	/**
+	 * 构造，单个文件的大小上限为总大小的1/8
+	 *
+	 * @param maxBytes 缓存的总字节数上限
+	 */
+	public ResourceCache(long maxBytes) {
+		Assert.isTrue(maxBytes > 0, "MaxBytes must be > 0");
+		this.maxBytes = maxBytes;
+		this.maxEntrySize = Math.max(1, Math.min(maxBytes / 8, Integer.MAX_VALUE));
+	}
+
+	/**
+	 * 设置单个文件的大小上限，超过的文件不缓存<br>
+	 * 单个缓冲不能超过2GB，大于{@link Integer#MAX_VALUE}的值按{@link Integer#MAX_VALUE}处理
+	 *
+	 * @param maxEntrySize 字节数
+	 * @return this
+	 */
+	public ResourceCache setMaxEntrySize(long maxEntrySize) {
+		Assert.isTrue(maxEntrySize > 0 && maxEntrySize <= maxBytes, "MaxEntrySize must between 1 and {}", maxBytes);
+		this.maxEntrySize = Math.min(maxEntrySize, Integer.MAX_VALUE);
+		return this;
+	}
+
+	/**
+	 * 设置检查文件是否变化的最小间隔，间隔内的访问直接返回缓存，减少访问文件系统的次数，默认0即每次访问都检查
+	 *
+	 * @param checkInterval 毫秒
+	 * @return this
+	 */
+	public ResourceCache setCheckInterval(long checkInterval) {
+		this.checkInterval = checkInterval;
+		return this;
+	}
+
+	/**
+	 * 获取文件资源
+	 *
+	 * @param path 文件
+	 * @return 缓存的{@link BufferResource}，大文件返回{@link FileResource}
+	 * @throws IORuntimeException 文件不存在或读取失败
+	 */
+	public Resource get(Path path) throws IORuntimeException {
+		return get(path.toFile());
+	}
+
+	/**
+	 * 获取文件资源，未缓存或文件已变化时读取文件
+	 *
+	 * @param file 文件
+	 * @return 缓存的{@link BufferResource}，大文件返回{@link FileResource}
+	 * @throws IORuntimeException 文件不存在或读取失败
+	 */
+	public Resource get(File file) throws IORuntimeException {
+		final String key = file.getAbsolutePath();
+		CachedFile cached;
+		synchronized (files) {
+			cached = files.get(key);
+		}
+		if (null != cached) {
+			final long now = System.currentTimeMillis();
+			if (now - cached.checkedAt < checkInterval || (file.lastModified() == cached.lastModified && file.length() == cached.resource.size())) {
+				cached.checkedAt = now;
+				hits.increment();
+				return cached.resource;
+			}
+			remove(key, cached);
+		}
+
+		misses.increment();
+		if (false == FileUtil.isFile(file)) {
+			throw new NoResourceException("File [{}] not exist!", file);
+		}
+		// 先取修改时间再读取，读取期间文件变化时下次访问会重新加载
+		final long lastModified = file.lastModified();
+		if (file.length() > maxEntrySize) {
+			// 大文件每次访问都映射会耗尽映射数和地址空间，直接由transferTo写出
+			return new FileResource(file);
+		}
+		cached = new CachedFile(new BufferResource(load(file), file.getName()), lastModified);
+		put(key, cached);
+		return cached.resource;
+	}
+
+	/**
+	 * 移除文件的缓存
+	 *
+	 * @param file 文件
+	 */
+	public void invalidate(File file) {
+		final String key = file.getAbsolutePath();
+		synchronized (files) {
+			final CachedFile removed = files.remove(key);
+			if (null != removed) {
+				usedBytes -= removed.resource.size();
+			}
+		}
+	}
+
+	/**
+	 * 清空缓存
+	 */
+	public void clear() {
+		synchronized (files) {
+			files.clear();
+			usedBytes = 0;
+		}
+	}
+
+	/**
+	 * 缓存的文件数
+	 *
+	 * @return 文件数
+	 */
+	public int size() {
+		synchronized (files) {
+			return files.size();
+		}
+	}
+
+	/**
+	 * 缓存占用的字节数
+	 *
+	 * @return 字节数
+	 */
+	public long getUsedBytes() {
+		synchronized (files) {
+			return usedBytes;
+		}
+	}
+
+	public long getMaxBytes() {
+		return maxBytes;
+	}
+
+	public long getHits() {
+		return hits.sum();
+	}
+
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	/**
+	 * 因超出大小上限被淘汰的文件数
+	 *
+	 * @return 淘汰数
+	 */
+	public long getEvictions() {
+		return evictions.sum();
+	}
+
+	// ------------------------------------------------------------------------------------------------------------------------------------- Private method start
+	private void put(String key, CachedFile cached) {
+		synchronized (files) {
+			final CachedFile old = files.put(key, cached);
+			if (null != old) {
+				usedBytes -= old.resource.size();
+			}
+			usedBytes += cached.resource.size();
+			final Iterator<Map.Entry<String, CachedFile>> iterator = files.entrySet().iterator();
+			while (usedBytes > maxBytes && iterator.hasNext()) {
+				final CachedFile eldest = iterator.next().getValue();
+				if (eldest == cached) {
+					continue;
+				}
+				iterator.remove();
+				usedBytes -= eldest.resource.size();
+				evictions.increment();
+			}
+		}
+	}
+
+	private void remove(String key, CachedFile cached) {
+		synchronized (files) {
+			if (files.get(key) == cached) {
+				files.remove(key);
+				usedBytes -= cached.resource.size();
+			}
+		}
+	}
+
+	/**
+	 * 将文件读入直接内存
+	 */
+	private static ByteBuffer load(File file) throws IORuntimeException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			final ByteBuffer buffer = ByteBuffer.allocateDirect((int) channel.size());
+			while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+				// 读满为止
+			}
+			buffer.flip();
+			return buffer;
+		} catch (IOException e) {
+			throw new IORuntimeException(e);
+		}
+	}
+	// ------------------------------------------------------------------------------------------------------------------------------------- Private method end
+
+	/**
+	 * 缓存的文件
+	 */
+	private static final class CachedFile {
+		private final BufferResource resource;
+		private final long lastModified;
+		private volatile long checkedAt;
+
+		CachedFile(BufferResource resource, long lastModified) {
+			this.resource = resource;
+			this.lastModified = lastModified;
+			this.checkedAt = System.currentTimeMillis();
+		}
+	}
+}
@@ -0,0 +1,184 @@
+package com.mawujun.io.serialize;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.mawujun.bean.BeanDesc.PropDesc;
+import com.mawujun.bean.BeanUtil;
+import com.mawujun.exception.exceptions.UtilException;
+import com.mawujun.util.ReflectUtil;
+
+/**
+ * Bean的序列化结构，按类缓存<br>
+ * 取{@link com.mawujun.bean.BeanDesc}中可读写的属性（有Getter或为public字段，且有Setter或为public非final字段），
+ * 按声明顺序排列，读写方法预先转换为{@link MethodHandle}。
+ *
+ * @author mawujun
+ */
+final class BeanSchema {
+
+	private static final ClassValue<BeanSchema> SCHEMAS = new ClassValue<BeanSchema>() {
+		@Override
+		protected BeanSchema computeValue(Class<?> type) {
+			return new BeanSchema(type);
+		}
+	};
+
+	private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+	private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+	final Class<?> beanClass;
+	/** 属性名，与{@link #getters}、{@link #setters}一一对应 */
+	final String[] names;
+	private final MethodHandle[] getters;
+	private final MethodHandle[] setters;
+	/** 属性是否为基本类型，基本类型不能设置null */
+	private final boolean[] primitives;
+	/** 类及父类中保存状态的字段（非static，且非transient或声明在JDK类中）是否都有对应的可读写属性 */
+	final boolean complete;
+
+	/**
+	 * 获取类的序列化结构
+	 *
+	 * @param beanClass Bean类
+	 * @return {@link BeanSchema}
+	 */
+	static BeanSchema of(Class<?> beanClass) {
+		return SCHEMAS.get(beanClass);
+	}
+
+	private BeanSchema(Class<?> beanClass) {
+		this.beanClass = beanClass;
+		final List<String> names = new ArrayList<>();
+		final List<MethodHandle> getters = new ArrayList<>();
+		final List<MethodHandle> setters = new ArrayList<>();
+		final List<Boolean> primitives = new ArrayList<>();
+		final MethodHandles.Lookup lookup = MethodHandles.lookup();
+		for (PropDesc prop : BeanUtil.getBeanDesc(beanClass).getProps()) {
+			final Field field = prop.getField();
+			final Method getter = prop.getGetter();
+			final Method setter = prop.getSetter();
+			final boolean publicField = null != field && Modifier.isPublic(field.getModifiers()) && false == Modifier.isStatic(field.getModifiers());
+			if ((null == getter && false == publicField) || (null == setter && (false == publicField || Modifier.isFinal(field.getModifiers())))) {
+				continue;
+			}
+			try {
+				final MethodHandle getterHandle = (null != getter) ? lookup.unreflect(getter) : lookup.unreflectGetter(field);
+				MethodHandle setterHandle = (null != setter) ? lookup.unreflect(setter) : lookup.unreflectSetter(field);
+				// 链式Setter的返回值忽略
+				setterHandle = setterHandle.asType(setterHandle.type().changeReturnType(void.class));
+				names.add(prop.getFieldName());
+				getters.add(getterHandle.asType(GETTER_TYPE));
+				setters.add(setterHandle.asType(SETTER_TYPE));
+				primitives.add(setterHandle.type().parameterType(1).isPrimitive());
+			} catch (IllegalAccessException e) {
+				throw new UtilException(e, "IllegalAccess for {}.{}", beanClass.getName(), prop.getFieldName());
+			}
+		}
+		this.names = names.toArray(new String[0]);
+		this.getters = getters.toArray(new MethodHandle[0]);
+		this.setters = setters.toArray(new MethodHandle[0]);
+		this.primitives = new boolean[primitives.size()];
+		for (int i = 0; i < this.primitives.length; i++) {
+			this.primitives[i] = primitives.get(i);
+		}
+		this.complete = isComplete(beanClass, names);
+	}
+
+	/**
+	 * 属性个数
+	 *
+	 * @return 属性个数
+	 */
+	int size() {
+		return names.length;
+	}
+
+	/**
+	 * 按名称查找属性下标
+	 *
+	 * @param name 属性名
+	 * @return 下标，不存在返回-1
+	 */
+	int indexOf(String name) {
+		for (int i = 0; i < names.length; i++) {
+			if (names[i].equals(name)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * 创建Bean
+	 *
+	 * @return Bean对象
+	 */
+	Object newInstance() {
+		final Object bean = ReflectUtil.newInstanceIfPossible(beanClass);
+		if (null == bean) {
+			throw new UtilException("Can not create instance of [{}], no usable constructor", beanClass.getName());
+		}
+		return bean;
+	}
+
+	/**
+	 * 读取属性值
+	 *
+	 * @param bean Bean对象
+	 * @param index 属性下标
+	 * @return 属性值
+	 */
+	Object get(Object bean, int index) {
+		try {
+			return (Object) getters[index].invokeExact(bean);
+		} catch (RuntimeException | Error e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new UtilException(e);
+		}
+	}
+
+	/**
+	 * 设置属性值
+	 *
+	 * @param bean Bean对象
+	 * @param index 属性下标
+	 * @param value 属性值，基本类型属性值为null时忽略
+	 */
+	void set(Object bean, int index, Object value) {
+		if (null == value && primitives[index]) {
+			return;
+		}
+		try {
+			setters[index].invokeExact(bean, value);
+		} catch (RuntimeException | Error e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new UtilException(e);
+		}
+	}
+
+	/**
+	 * 检查保存状态的字段是否都有对应的属性<br>
+	 * JDK类中的transient字段（如{@link java.util.Date}的时间）通常由自定义的序列化方法写出，同样视为状态
+	 */
+	private static boolean isComplete(Class<?> beanClass, List<String> names) {
+		for (Field field : ReflectUtil.getFields(beanClass)) {
+			final int modifiers = field.getModifiers();
+			if (Modifier.isStatic(modifiers) || (Modifier.isTransient(modifiers) && false == field.getDeclaringClass().getName().startsWith("java."))) {
+				continue;
+			}
+			if (false == names.contains(field.getName())) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
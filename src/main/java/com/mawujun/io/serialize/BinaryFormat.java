@@ -0,0 +1,175 @@
+package com.mawujun.io.serialize;
+
+import java.io.Serializable;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.concurrent.PriorityBlockingQueue;
+
+import com.mawujun.bean.BeanUtil;
+
+/**
+ * 二进制序列化格式定义<br>
+ * 流以{@link #MAGIC}和{@link #VERSION}开头，之后每个值以一个字节的标记开头：
+ * <ul>
+ * <li>整数（int、long、short、char）使用ZigZag + 变长编码，小数值只占1~2个字节</li>
+ * <li>字符串首次出现时写入UTF-8内容并编号，之后只写编号</li>
+ * <li>类描述（类名及Bean属性名）首次出现时写入并编号，之后只写编号</li>
+ * <li>Bean、集合、Map、数组首次出现时编号，再次出现时写入{@link #REF}和编号，支持循环引用</li>
+ * <li>Bean的属性值按类描述中的属性顺序写入，读取时按属性名对应，缺少或多余的属性被忽略</li>
+ * <li>有比较器的集合和Map在类描述后写出比较器，读取时通过比较器构造创建；没有此构造的使用Java序列化</li>
+ * </ul>
+ *
+ * @author mawujun
+ */
+final class BinaryFormat {
+
+	static final int MAGIC = 0xB5;
+	static final int VERSION = 1;
+
+	// ------------------------------------------------------------------------------------------------------------------------------------- 值标记
+	static final int NULL = 0;
+	static final int TRUE = 1;
+	static final int FALSE = 2;
+	static final int INT = 3;
+	static final int LONG = 4;
+	static final int SHORT = 5;
+	static final int BYTE = 6;
+	static final int CHAR = 7;
+	static final int FLOAT = 8;
+	static final int DOUBLE = 9;
+	static final int STRING = 10;
+	static final int BIG_INTEGER = 11;
+	static final int BIG_DECIMAL = 12;
+	static final int DATE = 13;
+	static final int ENUM = 14;
+	static final int BYTES = 15;
+	static final int INTS = 16;
+	static final int LONGS = 17;
+	static final int DOUBLES = 18;
+	static final int ARRAY = 19;
+	static final int COLLECTION = 20;
+	static final int MAP = 21;
+	static final int BEAN = 22;
+	static final int REF = 23;
+	/** 不支持的类型，使用Java序列化 */
+	static final int JAVA = 24;
+	/** JDK外的{@link java.util.Date}子类，写出类描述和时间 */
+	static final int DATE_CLASS = 25;
+	/** {@link java.util.EnumSet}，写出枚举类描述和元素名 */
+	static final int ENUM_SET = 26;
+	/** {@link java.util.EnumMap}，写出枚举类描述，键只写名称 */
+	static final int ENUM_MAP = 27;
+	/** 有比较器的集合（TreeSet、PriorityQueue等），在类描述后写出比较器 */
+	static final int SORTED_COLLECTION = 28;
+	/** 有比较器的Map（TreeMap等），在类描述后写出比较器 */
+	static final int SORTED_MAP = 29;
+
+	// ------------------------------------------------------------------------------------------------------------------------------------- 类的序列化方式
+	static final int KIND_COLLECTION = 1;
+	static final int KIND_MAP = 2;
+	static final int KIND_BEAN = 3;
+	static final int KIND_JAVA = 4;
+	static final int KIND_UNSUPPORTED = 5;
+	static final int KIND_ENUM_SET = 6;
+	static final int KIND_ENUM_MAP = 7;
+
+	/** 按类缓存序列化方式，只用于{@link #kindOf(Class)}未覆盖的对象（Bean、集合等） */
+	private static final ClassValue<Integer> KINDS = new ClassValue<Integer>() {
+		@Override
+		protected Integer computeValue(Class<?> type) {
+			// EnumSet和EnumMap没有无参构造，读取时无法按集合和Map创建
+			if (EnumSet.class.isAssignableFrom(type)) {
+				return KIND_ENUM_SET;
+			}
+			if (EnumMap.class.isAssignableFrom(type)) {
+				return KIND_ENUM_MAP;
+			}
+			if (Collection.class.isAssignableFrom(type)) {
+				return KIND_COLLECTION;
+			}
+			if (Map.class.isAssignableFrom(type)) {
+				return KIND_MAP;
+			}
+			// 有字段没有对应的可读写属性时，按Bean写出会丢失数据
+			if (false == Modifier.isAbstract(type.getModifiers()) && BeanUtil.isBean(type) && false == type.getName().startsWith("java.") //
+					&& BeanSchema.of(type).complete) {
+				return KIND_BEAN;
+			}
+			if (Serializable.class.isAssignableFrom(type)) {
+				return KIND_JAVA;
+			}
+			return KIND_UNSUPPORTED;
+		}
+	};
+
+	/** 集合和Map类以{@link Comparator}为参数的构造，不存在或无法访问为null */
+	private static final ClassValue<Constructor<?>> COMPARATOR_CONSTRUCTORS = new ClassValue<Constructor<?>>() {
+		@Override
+		protected Constructor<?> computeValue(Class<?> type) {
+			if (Modifier.isAbstract(type.getModifiers())) {
+				return null;
+			}
+			try {
+				final Constructor<?> constructor = type.getDeclaredConstructor(Comparator.class);
+				constructor.setAccessible(true);
+				return constructor;
+			} catch (NoSuchMethodException | RuntimeException e) {
+				// JDK内部类在JDK 9+中无法访问
+				return null;
+			}
+		}
+	};
+
+	private BinaryFormat() {
+	}
+
+	/**
+	 * 获取集合或Map的比较器，{@link SortedSet}、{@link SortedMap}、{@link PriorityQueue}和{@link PriorityBlockingQueue}以外或使用自然顺序时返回null
+	 *
+	 * @param value 集合或Map
+	 * @return 比较器
+	 */
+	static Comparator<?> comparatorOf(Object value) {
+		if (value instanceof SortedSet) {
+			return ((SortedSet<?>) value).comparator();
+		}
+		if (value instanceof SortedMap) {
+			return ((SortedMap<?, ?>) value).comparator();
+		}
+		if (value instanceof PriorityQueue) {
+			return ((PriorityQueue<?>) value).comparator();
+		}
+		if (value instanceof PriorityBlockingQueue) {
+			return ((PriorityBlockingQueue<?>) value).comparator();
+		}
+		return null;
+	}
+
+	/**
+	 * 获取以{@link Comparator}为参数的构造
+	 *
+	 * @param type 集合或Map类
+	 * @return 构造，不存在或无法访问返回null
+	 */
+	static Constructor<?> comparatorConstructor(Class<?> type) {
+		return COMPARATOR_CONSTRUCTORS.get(type);
+	}
+
+	/**
+	 * 获取对象类型的序列化方式
+	 *
+	 * @param type 类型
+	 * @return 序列化方式
+	 */
+	static int kindOf(Class<?> type) {
+		return KINDS.get(type);
+	}
+}
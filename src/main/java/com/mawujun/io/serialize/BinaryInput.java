@@ -0,0 +1,633 @@
+package com.mawujun.io.serialize;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import com.mawujun.exception.exceptions.UtilException;
+import com.mawujun.io.IORuntimeException;
+import com.mawujun.lang.Assert;
+import com.mawujun.util.ClassLoaderUtil;
+
+/**
+ * 二进制序列化输入，读取{@link BinaryOutput}写出的数据<br>
+ * Bean属性按名称对应，写出方有而本地类中没有的属性被忽略，因此Bean类增删属性后仍可读取旧数据。<br>
+ * 集合和Map优先使用其类的无参构造创建，无法创建时（如{@code Collections.unmodifiableList}）按接口使用
+ * TreeSet、LinkedHashSet、LinkedList、ArrayList、TreeMap或LinkedHashMap代替；有比较器的集合和Map通过其比较器构造创建。
+ *
+ * @author mawujun
+ */
+public class BinaryInput implements Closeable {
+
+	private static final int BUFFER_SIZE = 8192;
+
+	/** 集合和Map类的无参构造，不可用为null */
+	private static final ClassValue<Constructor<?>> CONSTRUCTORS = new ClassValue<Constructor<?>>() {
+		@Override
+		protected Constructor<?> computeValue(Class<?> type) {
+			try {
+				final Constructor<?> constructor = type.getDeclaredConstructor();
+				constructor.setAccessible(true);
+				return constructor;
+			} catch (NoSuchMethodException | RuntimeException e) {
+				// JDK内部类在JDK 9+中无法访问
+				return null;
+			}
+		}
+	};
+
+	private final InputStream in;
+	private final ByteBuffer source;
+	private byte[] buf;
+	private int pos;
+	private int limit;
+	private char[] chars = new char[64];
+
+	/** 已读取的字符串，下标即编号 */
+	private final List<String> strings = new ArrayList<>();
+	/** 已读取的类描述，下标即编号 */
+	private final List<ClassDesc> classes = new ArrayList<>();
+	/** 已读取的对象，下标即编号 */
+	private final List<Object> objects = new ArrayList<>();
+
+	/**
+	 * 构造，从流中读取
+	 *
+	 * @param in 输入流
+	 * @throws UtilException 数据不是二进制序列化格式
+	 */
+	public BinaryInput(InputStream in) throws UtilException {
+		this(Assert.notNull(in, "InputStream must be not null!"), null, new byte[BUFFER_SIZE], 0);
+	}
+
+	/**
+	 * 构造，从byte数组中读取，不拷贝数据
+	 *
+	 * @param bytes byte数组
+	 * @throws UtilException 数据不是二进制序列化格式
+	 */
+	public BinaryInput(byte[] bytes) throws UtilException {
+		this(null, null, Assert.notNull(bytes, "Bytes must be not null!"), bytes.length);
+	}
+
+	/**
+	 * 构造，从{@link ByteBuffer}剩余部分读取，每次{@link #readObject()}后buffer的position位于已读取数据之后
+	 *
+	 * @param source 源buffer，读模式
+	 * @throws UtilException 数据不是二进制序列化格式
+	 */
+	public BinaryInput(ByteBuffer source) throws UtilException {
+		this(null, Assert.notNull(source, "ByteBuffer must be not null!"), new byte[BUFFER_SIZE], 0);
+	}
+
+	private BinaryInput(InputStream in, ByteBuffer source, byte[] buf, int limit) {
+		this.in = in;
+		this.source = source;
+		this.buf = buf;
+		this.limit = limit;
+		if (readByte() != (byte) BinaryFormat.MAGIC) {
+			throw new UtilException("Input is not a binary serialized stream");
+		}
+		final int version = readByte();
+		if (version != BinaryFormat.VERSION) {
+			throw new UtilException("Unsupported binary serialization version: {}", version);
+		}
+		giveBack();
+	}
+
+	/**
+	 * 是否还有未读取的对象
+	 *
+	 * @return 是否还有未读取的对象
+	 * @throws IORuntimeException IO异常
+	 */
+	public boolean hasMore() throws IORuntimeException {
+		final boolean hasMore = pos < limit || fill() > 0;
+		giveBack();
+		return hasMore;
+	}
+
+	/**
+	 * 读取对象
+	 *
+	 * @param <T> 对象类型
+	 * @return 对象
+	 * @throws IORuntimeException IO异常或数据不完整
+	 * @throws UtilException 数据格式错误或类不存在
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T readObject() throws IORuntimeException, UtilException {
+		final Object value = readValue();
+		giveBack();
+		return (T) value;
+	}
+
+	@Override
+	public void close() throws IORuntimeException {
+		if (null != in) {
+			try {
+				in.close();
+			} catch (IOException e) {
+				throw new IORuntimeException(e);
+			}
+		}
+	}
+
+	// ------------------------------------------------------------------------------------------------------------------------------------- Private method start
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private Object readValue() {
+		final int tag = readByte();
+		switch (tag) {
+		case BinaryFormat.NULL:
+			return null;
+		case BinaryFormat.TRUE:
+			return Boolean.TRUE;
+		case BinaryFormat.FALSE:
+			return Boolean.FALSE;
+		case BinaryFormat.INT:
+			return unZigZag(readVarInt());
+		case BinaryFormat.LONG:
+			return unZigZag(readVarLong());
+		case BinaryFormat.SHORT:
+			return (short) unZigZag(readVarInt());
+		case BinaryFormat.BYTE:
+			return readByte();
+		case BinaryFormat.CHAR:
+			return (char) readVarInt();
+		case BinaryFormat.FLOAT:
+			return Float.intBitsToFloat(readFixedInt());
+		case BinaryFormat.DOUBLE:
+			return Double.longBitsToDouble(readFixedLong());
+		case BinaryFormat.STRING:
+			return readString();
+		case BinaryFormat.BIG_INTEGER:
+			return new BigInteger(readBytes());
+		case BinaryFormat.BIG_DECIMAL:
+			final int scale = unZigZag(readVarInt());
+			return new BigDecimal(new BigInteger(readBytes()), scale);
+		case BinaryFormat.DATE:
+			return new Date(unZigZag(readVarLong()));
+		case BinaryFormat.DATE_CLASS:
+			final Class<?> dateType = readClass().type;
+			final long time = unZigZag(readVarLong());
+			final Object date = newInstance(dateType);
+			if (false == date instanceof Date) {
+				throw new UtilException("Can not create instance of [{}], no usable constructor", dateType.getName());
+			}
+			((Date) date).setTime(time);
+			return date;
+		case BinaryFormat.ENUM:
+			final Class enumClass = readEnumClass();
+			return Enum.valueOf(enumClass, readString());
+		case BinaryFormat.ENUM_SET:
+			final Class elementType = readEnumClass();
+			final int setSize = readVarInt();
+			final EnumSet enumSet = (EnumSet) register(EnumSet.noneOf(elementType));
+			for (int i = 0; i < setSize; i++) {
+				enumSet.add(Enum.valueOf(elementType, readString()));
+			}
+			return enumSet;
+		case BinaryFormat.ENUM_MAP:
+			final Class keyType = readEnumClass();
+			final int enumMapSize = readVarInt();
+			final EnumMap enumMap = (EnumMap) register(new EnumMap(keyType));
+			for (int i = 0; i < enumMapSize; i++) {
+				final Enum key = Enum.valueOf(keyType, readString());
+				enumMap.put(key, readValue());
+			}
+			return enumMap;
+		case BinaryFormat.BYTES:
+			return register(readBytes());
+		case BinaryFormat.INTS:
+			final int[] ints = new int[readLength(1)];
+			for (int i = 0; i < ints.length; i++) {
+				ints[i] = unZigZag(readVarInt());
+			}
+			return register(ints);
+		case BinaryFormat.LONGS:
+			final long[] longs = new long[readLength(1)];
+			for (int i = 0; i < longs.length; i++) {
+				longs[i] = unZigZag(readVarLong());
+			}
+			return register(longs);
+		case BinaryFormat.DOUBLES:
+			final double[] doubles = new double[readLength(8)];
+			for (int i = 0; i < doubles.length; i++) {
+				doubles[i] = Double.longBitsToDouble(readFixedLong());
+			}
+			return register(doubles);
+		case BinaryFormat.ARRAY:
+			final Class<?> componentType = readClass().type;
+			if (componentType.isPrimitive()) {
+				throw new UtilException("Invalid array component type [{}] in binary serialized stream", componentType.getName());
+			}
+			final Object[] array = (Object[]) register(Array.newInstance(componentType, readLength(1)));
+			for (int i = 0; i < array.length; i++) {
+				array[i] = readValue();
+			}
+			return array;
+		case BinaryFormat.COLLECTION:
+		case BinaryFormat.SORTED_COLLECTION:
+			final Class<?> collectionType = readClass().type;
+			final Collection collection;
+			if (BinaryFormat.SORTED_COLLECTION == tag) {
+				collection = (Collection) readSorted(collectionType, Collection.class);
+			} else {
+				collection = (Collection) register(newCollection(collectionType));
+			}
+			final int size = readVarInt();
+			for (int i = 0; i < size; i++) {
+				collection.add(readValue());
+			}
+			return collection;
+		case BinaryFormat.MAP:
+		case BinaryFormat.SORTED_MAP:
+			final Class<?> mapType = readClass().type;
+			final Map map;
+			if (BinaryFormat.SORTED_MAP == tag) {
+				map = (Map) readSorted(mapType, Map.class);
+			} else {
+				map = (Map) register(newMap(mapType));
+			}
+			final int mapSize = readVarInt();
+			for (int i = 0; i < mapSize; i++) {
+				final Object key = readValue();
+				map.put(key, readValue());
+			}
+			return map;
+		case BinaryFormat.BEAN:
+			return readBean(readClass());
+		case BinaryFormat.REF:
+			final int ref = readVarInt();
+			if (ref < 0 || ref >= objects.size()) {
+				throw new UtilException("Invalid object reference [{}] in binary serialized stream", ref);
+			}
+			return objects.get(ref);
+		case BinaryFormat.JAVA:
+			return register(javaDeserialize(readBytes()));
+		default:
+			throw new UtilException("Unknown tag [{}] in binary serialized stream", tag);
+		}
+	}
+
+	private Object readBean(ClassDesc desc) {
+		final BeanSchema schema = BeanSchema.of(desc.type);
+		final int[] indexes = desc.indexes(schema);
+		final Object bean = register(schema.newInstance());
+		for (int index : indexes) {
+			final Object value = readValue();
+			if (index >= 0) {
+				schema.set(bean, index, value);
+			}
+		}
+		return bean;
+	}
+
+	/**
+	 * 读取类描述，首次出现时加载类
+	 */
+	private ClassDesc readClass() {
+		final int index = readVarInt();
+		if (index > 0) {
+			if (index > classes.size()) {
+				throw new UtilException("Invalid class reference [{}] in binary serialized stream", index);
+			}
+			return classes.get(index - 1);
+		}
+		final String name = readString();
+		final String[] props = new String[readLength(1)];
+		for (int i = 0; i < props.length; i++) {
+			props[i] = readString();
+		}
+		final ClassDesc desc = new ClassDesc(ClassLoaderUtil.loadClass(name), props);
+		classes.add(desc);
+		return desc;
+	}
+
+	private String readString() {
+		final int index = readVarInt();
+		if (index > 0) {
+			if (index > strings.size()) {
+				throw new UtilException("Invalid string reference [{}] in binary serialized stream", index);
+			}
+			return strings.get(index - 1);
+		}
+		final int length = readLength(1);
+		if (chars.length < length) {
+			chars = new char[Math.max(length, chars.length * 2)];
+		}
+		for (int i = 0; i < length; i++) {
+			final int b = readByte() & 0xFF;
+			if (b < 0x80) {
+				chars[i] = (char) b;
+			} else if (b < 0xE0) {
+				chars[i] = (char) (((b & 0x1F) << 6) | (readByte() & 0x3F));
+			} else {
+				chars[i] = (char) (((b & 0x0F) << 12) | ((readByte() & 0x3F) << 6) | (readByte() & 0x3F));
+			}
+		}
+		final String str = new String(chars, 0, length);
+		strings.add(str);
+		return str;
+	}
+
+	/**
+	 * 读取比较器并通过比较器构造创建集合或Map<br>
+	 * 写出方先为集合编号再写出比较器，因此先占用编号，创建后再填入
+	 */
+	private Object readSorted(Class<?> type, Class<?> expectedType) {
+		final int index = objects.size();
+		objects.add(null);
+		final Object comparator = readValue();
+		final Constructor<?> constructor = BinaryFormat.comparatorConstructor(type);
+		if (null == constructor || false == expectedType.isAssignableFrom(type) || false == comparator instanceof Comparator) {
+			throw new UtilException("Can not create [{}] with comparator [{}]", type.getName(), comparator);
+		}
+		final Object instance;
+		try {
+			instance = constructor.newInstance(comparator);
+		} catch (ReflectiveOperationException e) {
+			throw new UtilException(e, "Can not create instance of [{}]", type.getName());
+		}
+		objects.set(index, instance);
+		return instance;
+	}
+
+	/**
+	 * 读取枚举类描述
+	 */
+	private Class<?> readEnumClass() {
+		final Class<?> type = readClass().type;
+		if (false == type.isEnum()) {
+			throw new UtilException("[{}] in binary serialized stream is not an enum", type.getName());
+		}
+		return type;
+	}
+
+	private Object register(Object obj) {
+		objects.add(obj);
+		return obj;
+	}
+
+	private byte[] readBytes() {
+		final byte[] bytes = new byte[readLength(1)];
+		int off = 0;
+		while (off < bytes.length) {
+			if (pos == limit && fill() <= 0) {
+				throw new IORuntimeException("Unexpected end of binary serialized stream");
+			}
+			final int len = Math.min(bytes.length - off, limit - pos);
+			System.arraycopy(buf, pos, bytes, off, len);
+			pos += len;
+			off += len;
+		}
+		return bytes;
+	}
+
+	/**
+	 * 读取数组或字符串的长度，并检查剩余数据是否足够，避免损坏的数据导致分配过大的数组
+	 *
+	 * @param minBytesPerElement 每个元素至少占用的字节数
+	 * @return 长度
+	 */
+	private int readLength(int minBytesPerElement) {
+		final int length = readVarInt();
+		if (length < 0) {
+			throw new UtilException("Invalid length [{}] in binary serialized stream", length);
+		}
+		require((long) length * minBytesPerElement);
+		return length;
+	}
+
+	/**
+	 * 确认剩余数据不少于指定字节数<br>
+	 * byte数组和{@link ByteBuffer}直接比较剩余字节数；输入流按需扩大缓冲区并预先读取，缓冲区大小不超过实际读到的数据
+	 *
+	 * @param bytes 字节数
+	 */
+	private void require(long bytes) {
+		if (bytes <= limit - pos) {
+			return;
+		}
+		if (null == in) {
+			final long remaining = (limit - pos) + ((null != source) ? source.remaining() : 0);
+			if (bytes > remaining) {
+				throw new UtilException("Length {} exceeds the remaining {} bytes of binary serialized stream", bytes, remaining);
+			}
+			return;
+		}
+		if (bytes > Integer.MAX_VALUE - 8) {
+			throw new UtilException("Length {} is too large for binary serialized stream", bytes);
+		}
+		if (pos > 0) {
+			System.arraycopy(buf, pos, buf, 0, limit - pos);
+			limit -= pos;
+			pos = 0;
+		}
+		try {
+			while (limit < bytes) {
+				if (limit == buf.length) {
+					buf = Arrays.copyOf(buf, (int) Math.min(bytes, (long) buf.length * 2));
+				}
+				final int len = in.read(buf, limit, buf.length - limit);
+				if (len < 0) {
+					throw new IORuntimeException("Unexpected end of binary serialized stream");
+				}
+				limit += len;
+			}
+		} catch (IOException e) {
+			throw new IORuntimeException(e);
+		}
+	}
+
+	private byte readByte() {
+		if (pos == limit && fill() <= 0) {
+			throw new IORuntimeException("Unexpected end of binary serialized stream");
+		}
+		return buf[pos++];
+	}
+
+	private int readVarInt() {
+		int value = 0;
+		for (int shift = 0; shift < 32; shift += 7) {
+			final byte b = readByte();
+			value |= (b & 0x7F) << shift;
+			if (b >= 0) {
+				return value;
+			}
+		}
+		throw new UtilException("Malformed varint in binary serialized stream");
+	}
+
+	private long readVarLong() {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			final byte b = readByte();
+			value |= (long) (b & 0x7F) << shift;
+			if (b >= 0) {
+				return value;
+			}
+		}
+		throw new UtilException("Malformed varint in binary serialized stream");
+	}
+
+	private int readFixedInt() {
+		return ((readByte() & 0xFF) << 24) | ((readByte() & 0xFF) << 16) | ((readByte() & 0xFF) << 8) | (readByte() & 0xFF);
+	}
+
+	private long readFixedLong() {
+		return ((long) readFixedInt() << 32) | (readFixedInt() & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * 读取更多数据到缓冲区
+	 *
+	 * @return 读取的字节数，无数据返回-1
+	 */
+	private int fill() {
+		if (null != source) {
+			if (false == source.hasRemaining()) {
+				return -1;
+			}
+			final int len = Math.min(buf.length, source.remaining());
+			source.get(buf, 0, len);
+			pos = 0;
+			limit = len;
+			return len;
+		}
+		if (null == in) {
+			return -1;
+		}
+		try {
+			final int len = in.read(buf, 0, buf.length);
+			if (len > 0) {
+				pos = 0;
+				limit = len;
+			}
+			return len;
+		} catch (IOException e) {
+			throw new IORuntimeException(e);
+		}
+	}
+
+	/**
+	 * 将缓冲区中未读取的数据退回{@link ByteBuffer}，使其position位于已读取数据之后
+	 */
+	private void giveBack() {
+		if (null != source && pos < limit) {
+			source.position(source.position() - (limit - pos));
+			pos = limit = 0;
+		}
+	}
+
+	private static Collection<?> newCollection(Class<?> type) {
+		final Object collection = newInstance(type);
+		if (collection instanceof Collection) {
+			return (Collection<?>) collection;
+		}
+		if (SortedSet.class.isAssignableFrom(type)) {
+			return new TreeSet<>();
+		}
+		if (Set.class.isAssignableFrom(type)) {
+			return new LinkedHashSet<>();
+		}
+		if (Queue.class.isAssignableFrom(type)) {
+			return new LinkedList<>();
+		}
+		return new ArrayList<>();
+	}
+
+	private static Map<?, ?> newMap(Class<?> type) {
+		final Object map = newInstance(type);
+		if (map instanceof Map) {
+			return (Map<?, ?>) map;
+		}
+		if (SortedMap.class.isAssignableFrom(type)) {
+			return new TreeMap<>();
+		}
+		return new LinkedHashMap<>();
+	}
+
+	private static Object newInstance(Class<?> type) {
+		final Constructor<?> constructor = CONSTRUCTORS.get(type);
+		if (null == constructor) {
+			return null;
+		}
+		try {
+			return constructor.newInstance();
+		} catch (ReflectiveOperationException e) {
+			throw new UtilException(e, "Can not create instance of [{}]", type.getName());
+		}
+	}
+
+	private static Object javaDeserialize(byte[] bytes) {
+		try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+			return ois.readObject();
+		} catch (IOException e) {
+			throw new IORuntimeException(e);
+		} catch (ClassNotFoundException e) {
+			throw new UtilException(e);
+		}
+	}
+
+	private static int unZigZag(int value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	private static long unZigZag(long value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+	// ------------------------------------------------------------------------------------------------------------------------------------- Private method end
+
+	/**
+	 * 读取到的类描述
+	 */
+	private static final class ClassDesc {
+		final Class<?> type;
+		/** 写出方的Bean属性名 */
+		final String[] props;
+		/** 写出方属性对应本地{@link BeanSchema}的下标，本地不存在为-1 */
+		private int[] indexes;
+
+		ClassDesc(Class<?> type, String[] props) {
+			this.type = type;
+			this.props = props;
+		}
+
+		int[] indexes(BeanSchema schema) {
+			if (null == indexes) {
+				final int[] indexes = new int[props.length];
+				for (int i = 0; i < props.length; i++) {
+					indexes[i] = schema.indexOf(props[i]);
+				}
+				this.indexes = indexes;
+			}
+			return indexes;
+		}
+	}
+}
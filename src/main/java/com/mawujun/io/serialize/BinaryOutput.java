@@ -0,0 +1,497 @@
+package com.mawujun.io.serialize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import com.mawujun.exception.exceptions.UtilException;
+import com.mawujun.io.IORuntimeException;
+import com.mawujun.lang.Assert;
+
+/**
+ * 二进制序列化输出，格式见{@link BinaryFormat}<br>
+ * 同一个输出中多次调用{@link #writeObject(Object)}共享字符串表、类描述表和对象表，
+ * 已写出的对象再次写出时只写引用，读取时需使用同一个{@link BinaryInput}按顺序读取。
+ *
+ * <p>
+ * 支持的类型：
+ * <ul>
+ * <li>基本类型包装类、String、BigInteger、BigDecimal、Date及其子类（只保留时间）、枚举</li>
+ * <li>数组、{@link Collection}、{@link Map}、{@link EnumSet}、{@link EnumMap}</li>
+ * <li>Bean（有Setter方法的类），写出可读写的属性，不要求实现{@link java.io.Serializable}；有字段没有对应的可读写属性时按下一条处理</li>
+ * <li>其它实现了{@link java.io.Serializable}的类，使用Java序列化写出</li>
+ * </ul>
+ *
+ * @author mawujun
+ */
+public class BinaryOutput implements Closeable, Flushable {
+
+	private static final int BUFFER_SIZE = 8192;
+
+	private final OutputStream out;
+	private final ByteBuffer target;
+	private final byte[] buf = new byte[BUFFER_SIZE];
+	private int pos;
+
+	/** 已写出的字符串及其编号 */
+	private final Map<String, Integer> strings = new HashMap<>();
+	/** 已写出的类描述及其编号 */
+	private final Map<Class<?>, Integer> classes = new HashMap<>();
+	/** 已写出的对象及其编号，按引用比较 */
+	private final Map<Object, Integer> objects = new IdentityHashMap<>();
+
+	/**
+	 * 构造，输出到流
+	 *
+	 * @param out 输出流
+	 */
+	public BinaryOutput(OutputStream out) {
+		this(Assert.notNull(out, "OutputStream must be not null!"), null);
+	}
+
+	/**
+	 * 构造，输出到{@link ByteBuffer}，每次{@link #writeObject(Object)}后数据即写入buffer<br>
+	 * buffer剩余空间不足时抛出{@link java.nio.BufferOverflowException}
+	 *
+	 * @param target 目标buffer，写模式
+	 */
+	public BinaryOutput(ByteBuffer target) {
+		this(null, Assert.notNull(target, "ByteBuffer must be not null!"));
+	}
+
+	private BinaryOutput(OutputStream out, ByteBuffer target) {
+		this.out = out;
+		this.target = target;
+		buf[pos++] = (byte) BinaryFormat.MAGIC;
+		buf[pos++] = (byte) BinaryFormat.VERSION;
+	}
+
+	/**
+	 * 写出对象
+	 *
+	 * @param obj 对象，可以为null
+	 * @return this
+	 * @throws IORuntimeException IO异常
+	 * @throws UtilException 对象中包含不支持的类型
+	 */
+	public BinaryOutput writeObject(Object obj) throws IORuntimeException, UtilException {
+		writeValue(obj);
+		if (null != target) {
+			flushBuffer();
+		}
+		return this;
+	}
+
+	@Override
+	public void flush() throws IORuntimeException {
+		flushBuffer();
+		if (null != out) {
+			try {
+				out.flush();
+			} catch (IOException e) {
+				throw new IORuntimeException(e);
+			}
+		}
+	}
+
+	@Override
+	public void close() throws IORuntimeException {
+		flush();
+		if (null != out) {
+			try {
+				out.close();
+			} catch (IOException e) {
+				throw new IORuntimeException(e);
+			}
+		}
+	}
+
+	// ------------------------------------------------------------------------------------------------------------------------------------- Private method start
+	private void writeValue(Object value) {
+		if (null == value) {
+			writeByte(BinaryFormat.NULL);
+			return;
+		}
+		final Class<?> type = value.getClass();
+		if (type == String.class) {
+			writeByte(BinaryFormat.STRING);
+			writeString((String) value);
+		} else if (type == Integer.class) {
+			writeByte(BinaryFormat.INT);
+			writeVarInt(zigZag((Integer) value));
+		} else if (type == Long.class) {
+			writeByte(BinaryFormat.LONG);
+			writeVarLong(zigZag((Long) value));
+		} else if (type == Boolean.class) {
+			writeByte((Boolean) value ? BinaryFormat.TRUE : BinaryFormat.FALSE);
+		} else if (type == Double.class) {
+			writeByte(BinaryFormat.DOUBLE);
+			writeFixedLong(Double.doubleToRawLongBits((Double) value));
+		} else if (type == Float.class) {
+			writeByte(BinaryFormat.FLOAT);
+			writeFixedInt(Float.floatToRawIntBits((Float) value));
+		} else if (type == Short.class) {
+			writeByte(BinaryFormat.SHORT);
+			writeVarInt(zigZag((Short) value));
+		} else if (type == Byte.class) {
+			writeByte(BinaryFormat.BYTE);
+			writeByte((Byte) value);
+		} else if (type == Character.class) {
+			writeByte(BinaryFormat.CHAR);
+			writeVarInt((Character) value);
+		} else if (type == BigInteger.class) {
+			writeByte(BinaryFormat.BIG_INTEGER);
+			writeBytes(((BigInteger) value).toByteArray());
+		} else if (type == BigDecimal.class) {
+			writeByte(BinaryFormat.BIG_DECIMAL);
+			writeVarInt(zigZag(((BigDecimal) value).scale()));
+			writeBytes(((BigDecimal) value).unscaledValue().toByteArray());
+		} else if (type == Date.class) {
+			writeByte(BinaryFormat.DATE);
+			writeVarLong(zigZag(((Date) value).getTime()));
+		} else if (value instanceof Date && false == type.getName().startsWith("java.")) {
+			// 自定义的Date子类（如DateTime）只写出类和时间，java.sql中的子类使用Java序列化
+			writeByte(BinaryFormat.DATE_CLASS);
+			writeClass(type, null);
+			writeVarLong(zigZag(((Date) value).getTime()));
+		} else if (value instanceof Enum) {
+			writeByte(BinaryFormat.ENUM);
+			writeClass(((Enum<?>) value).getDeclaringClass(), null);
+			writeString(((Enum<?>) value).name());
+		} else {
+			writeObjectValue(value, type);
+		}
+	}
+
+	/**
+	 * 写出可被引用的对象：数组、集合、Map、Bean和Java序列化对象
+	 */
+	private void writeObjectValue(Object value, Class<?> type) {
+		final Integer ref = objects.get(value);
+		if (null != ref) {
+			writeByte(BinaryFormat.REF);
+			writeVarInt(ref);
+			return;
+		}
+		if (type.isArray()) {
+			writeArray(value, type);
+			return;
+		}
+		switch (BinaryFormat.kindOf(type)) {
+		case BinaryFormat.KIND_COLLECTION:
+			final Comparator<?> comparator = BinaryFormat.comparatorOf(value);
+			if (null != comparator && null == BinaryFormat.comparatorConstructor(type)) {
+				// 无法通过构造保留比较器
+				writeJava(value);
+				break;
+			}
+			objects.put(value, objects.size());
+			final Collection<?> collection = (Collection<?>) value;
+			writeByte((null != comparator) ? BinaryFormat.SORTED_COLLECTION : BinaryFormat.COLLECTION);
+			writeClass(type, null);
+			if (null != comparator) {
+				writeValue(comparator);
+			}
+			writeVarInt(collection.size());
+			for (Object element : collection) {
+				writeValue(element);
+			}
+			break;
+		case BinaryFormat.KIND_MAP:
+			final Comparator<?> mapComparator = BinaryFormat.comparatorOf(value);
+			if (null != mapComparator && null == BinaryFormat.comparatorConstructor(type)) {
+				writeJava(value);
+				break;
+			}
+			objects.put(value, objects.size());
+			final Map<?, ?> map = (Map<?, ?>) value;
+			writeByte((null != mapComparator) ? BinaryFormat.SORTED_MAP : BinaryFormat.MAP);
+			writeClass(type, null);
+			if (null != mapComparator) {
+				writeValue(mapComparator);
+			}
+			writeVarInt(map.size());
+			for (Map.Entry<?, ?> entry : map.entrySet()) {
+				writeValue(entry.getKey());
+				writeValue(entry.getValue());
+			}
+			break;
+		case BinaryFormat.KIND_ENUM_SET:
+			final Class<?> elementType = elementType((EnumSet<?>) value);
+			if (null == elementType) {
+				// 没有枚举值的枚举，无法确定类型
+				writeJava(value);
+				break;
+			}
+			objects.put(value, objects.size());
+			writeByte(BinaryFormat.ENUM_SET);
+			writeClass(elementType, null);
+			writeVarInt(((EnumSet<?>) value).size());
+			for (Enum<?> element : (EnumSet<?>) value) {
+				writeString(element.name());
+			}
+			break;
+		case BinaryFormat.KIND_ENUM_MAP:
+			final EnumMap<?, ?> enumMap = (EnumMap<?, ?>) value;
+			if (enumMap.isEmpty()) {
+				// 空EnumMap无法从键确定类型
+				writeJava(value);
+				break;
+			}
+			objects.put(value, objects.size());
+			writeByte(BinaryFormat.ENUM_MAP);
+			writeClass(enumMap.keySet().iterator().next().getDeclaringClass(), null);
+			writeVarInt(enumMap.size());
+			for (Map.Entry<? extends Enum<?>, ?> entry : enumMap.entrySet()) {
+				writeString(entry.getKey().name());
+				writeValue(entry.getValue());
+			}
+			break;
+		case BinaryFormat.KIND_BEAN:
+			objects.put(value, objects.size());
+			final BeanSchema schema = BeanSchema.of(type);
+			writeByte(BinaryFormat.BEAN);
+			writeClass(type, schema.names);
+			for (int i = 0; i < schema.size(); i++) {
+				writeValue(schema.get(value, i));
+			}
+			break;
+		case BinaryFormat.KIND_JAVA:
+			writeJava(value);
+			break;
+		default:
+			throw new UtilException("Type [{}] is neither a bean nor Serializable", type.getName());
+		}
+	}
+
+	private void writeArray(Object array, Class<?> type) {
+		final Class<?> componentType = type.getComponentType();
+		if (componentType.isPrimitive()) {
+			if (componentType == byte.class) {
+				objects.put(array, objects.size());
+				writeByte(BinaryFormat.BYTES);
+				writeBytes((byte[]) array);
+			} else if (componentType == int.class) {
+				objects.put(array, objects.size());
+				final int[] ints = (int[]) array;
+				writeByte(BinaryFormat.INTS);
+				writeVarInt(ints.length);
+				for (int i : ints) {
+					writeVarInt(zigZag(i));
+				}
+			} else if (componentType == long.class) {
+				objects.put(array, objects.size());
+				final long[] longs = (long[]) array;
+				writeByte(BinaryFormat.LONGS);
+				writeVarInt(longs.length);
+				for (long l : longs) {
+					writeVarLong(zigZag(l));
+				}
+			} else if (componentType == double.class) {
+				objects.put(array, objects.size());
+				final double[] doubles = (double[]) array;
+				writeByte(BinaryFormat.DOUBLES);
+				writeVarInt(doubles.length);
+				for (double d : doubles) {
+					writeFixedLong(Double.doubleToRawLongBits(d));
+				}
+			} else {
+				// 其它基本类型数组较少使用，使用Java序列化
+				writeJava(array);
+			}
+			return;
+		}
+		objects.put(array, objects.size());
+		final Object[] elements = (Object[]) array;
+		writeByte(BinaryFormat.ARRAY);
+		writeClass(componentType, null);
+		writeVarInt(elements.length);
+		for (Object element : elements) {
+			writeValue(element);
+		}
+	}
+
+	private void writeJava(Object value) {
+		objects.put(value, objects.size());
+		writeByte(BinaryFormat.JAVA);
+		writeBytes(javaSerialize(value));
+	}
+
+	/**
+	 * 写出类描述，已写出的类只写编号
+	 *
+	 * @param type 类
+	 * @param props Bean属性名，非Bean为null
+	 */
+	private void writeClass(Class<?> type, String[] props) {
+		final Integer index = classes.get(type);
+		if (null != index) {
+			writeVarInt(index + 1);
+			return;
+		}
+		classes.put(type, classes.size());
+		writeVarInt(0);
+		writeString(type.getName());
+		if (null == props) {
+			writeVarInt(0);
+		} else {
+			writeVarInt(props.length);
+			for (String prop : props) {
+				writeString(prop);
+			}
+		}
+	}
+
+	/**
+	 * 写出字符串，已写出的字符串只写编号，新字符串写出字符数和UTF-8编码内容
+	 */
+	private void writeString(String str) {
+		final Integer index = strings.get(str);
+		if (null != index) {
+			writeVarInt(index + 1);
+			return;
+		}
+		strings.put(str, strings.size());
+		writeVarInt(0);
+		final int length = str.length();
+		writeVarInt(length);
+		for (int i = 0; i < length; i++) {
+			if (buf.length - pos < 3) {
+				flushBuffer();
+			}
+			final char c = str.charAt(i);
+			if (c < 0x80) {
+				buf[pos++] = (byte) c;
+			} else if (c < 0x800) {
+				buf[pos++] = (byte) (0xC0 | (c >> 6));
+				buf[pos++] = (byte) (0x80 | (c & 0x3F));
+			} else {
+				// 代理字符单独编码，读取时按字符还原
+				buf[pos++] = (byte) (0xE0 | (c >> 12));
+				buf[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+				buf[pos++] = (byte) (0x80 | (c & 0x3F));
+			}
+		}
+	}
+
+	private void writeBytes(byte[] bytes) {
+		writeVarInt(bytes.length);
+		if (bytes.length <= buf.length - pos) {
+			System.arraycopy(bytes, 0, buf, pos, bytes.length);
+			pos += bytes.length;
+			return;
+		}
+		flushBuffer();
+		if (bytes.length <= buf.length) {
+			System.arraycopy(bytes, 0, buf, 0, bytes.length);
+			pos = bytes.length;
+		} else {
+			writeToSink(bytes, 0, bytes.length);
+		}
+	}
+
+	private void writeByte(int b) {
+		if (pos == buf.length) {
+			flushBuffer();
+		}
+		buf[pos++] = (byte) b;
+	}
+
+	private void writeVarInt(int value) {
+		if (buf.length - pos < 5) {
+			flushBuffer();
+		}
+		while ((value & ~0x7F) != 0) {
+			buf[pos++] = (byte) ((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		buf[pos++] = (byte) value;
+	}
+
+	private void writeVarLong(long value) {
+		if (buf.length - pos < 10) {
+			flushBuffer();
+		}
+		while ((value & ~0x7FL) != 0) {
+			buf[pos++] = (byte) ((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		buf[pos++] = (byte) value;
+	}
+
+	private void writeFixedInt(int value) {
+		if (buf.length - pos < 4) {
+			flushBuffer();
+		}
+		buf[pos++] = (byte) (value >>> 24);
+		buf[pos++] = (byte) (value >>> 16);
+		buf[pos++] = (byte) (value >>> 8);
+		buf[pos++] = (byte) value;
+	}
+
+	private void writeFixedLong(long value) {
+		writeFixedInt((int) (value >>> 32));
+		writeFixedInt((int) value);
+	}
+
+	private void flushBuffer() {
+		if (pos > 0) {
+			writeToSink(buf, 0, pos);
+			pos = 0;
+		}
+	}
+
+	private void writeToSink(byte[] bytes, int off, int len) {
+		if (null != target) {
+			target.put(bytes, off, len);
+			return;
+		}
+		try {
+			out.write(bytes, off, len);
+		} catch (IOException e) {
+			throw new IORuntimeException(e);
+		}
+	}
+
+	private static byte[] javaSerialize(Object value) {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+			oos.writeObject(value);
+		} catch (IOException e) {
+			throw new IORuntimeException(e);
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * EnumSet的枚举类，为空时从补集中取，枚举没有值时返回null
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static Class<?> elementType(EnumSet<?> set) {
+		final EnumSet<?> nonEmpty = set.isEmpty() ? EnumSet.complementOf((EnumSet) set) : set;
+		return nonEmpty.isEmpty() ? null : nonEmpty.iterator().next().getDeclaringClass();
+	}
+
+	private static int zigZag(int value) {
+		return (value << 1) ^ (value >> 31);
+	}
+
+	private static long zigZag(long value) {
+		return (value << 1) ^ (value >> 63);
+	}
+	// ------------------------------------------------------------------------------------------------------------------------------------- Private method end
+}
@@ -0,0 +1,106 @@
+package com.mawujun.io.serialize;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import com.mawujun.exception.exceptions.UtilException;
+import com.mawujun.io.FastByteArrayOutputStream;
+import com.mawujun.io.IORuntimeException;
+
+/**
+ * 二进制序列化工具，格式紧凑且不要求对象实现{@link java.io.Serializable}<br>
+ * 相比Java序列化：
+ * <ul>
+ * <li>整数使用变长编码，重复的字符串只写一次</li>
+ * <li>类描述只包含类名和属性名，每个类只写一次</li>
+ * <li>Bean通过Getter和Setter读写，按属性名对应，类增删属性后仍可读取旧数据</li>
+ * </ul>
+ * 多个对象写入同一个流时使用{@link BinaryOutput}和{@link BinaryInput}，可共享字符串表和类描述。
+ *
+ * <pre>
+ * byte[] bytes = BinarySerializer.serialize(user);
+ * User user = BinarySerializer.deserialize(bytes);
+ * </pre>
+ *
+ * @author mawujun
+ * @see BinaryOutput
+ * @see BinaryInput
+ */
+public class BinarySerializer {
+
+	/**
+	 * 序列化为byte数组
+	 *
+	 * @param obj 对象
+	 * @return byte数组
+	 * @throws UtilException 对象中包含不支持的类型
+	 */
+	public static byte[] serialize(Object obj) throws UtilException {
+		final FastByteArrayOutputStream out = new FastByteArrayOutputStream();
+		new BinaryOutput(out).writeObject(obj).flush();
+		return out.toByteArray();
+	}
+
+	/**
+	 * 序列化到流，写出后不关闭流
+	 *
+	 * @param obj 对象
+	 * @param out 输出流
+	 * @throws IORuntimeException IO异常
+	 * @throws UtilException 对象中包含不支持的类型
+	 */
+	public static void serialize(Object obj, OutputStream out) throws IORuntimeException, UtilException {
+		new BinaryOutput(out).writeObject(obj).flush();
+	}
+
+	/**
+	 * 序列化到{@link ByteBuffer}，写出后buffer的position位于数据之后
+	 *
+	 * @param obj 对象
+	 * @param buffer 目标buffer，写模式
+	 * @throws java.nio.BufferOverflowException buffer剩余空间不足
+	 * @throws UtilException 对象中包含不支持的类型
+	 */
+	public static void serialize(Object obj, ByteBuffer buffer) throws UtilException {
+		new BinaryOutput(buffer).writeObject(obj);
+	}
+
+	/**
+	 * 从byte数组反序列化
+	 *
+	 * @param <T> 对象类型
+	 * @param bytes byte数组
+	 * @return 对象
+	 * @throws UtilException 数据格式错误或类不存在
+	 */
+	public static <T> T deserialize(byte[] bytes) throws UtilException {
+		return new BinaryInput(bytes).readObject();
+	}
+
+	/**
+	 * 从流中反序列化，读取后不关闭流<br>
+	 * 读取时会预读数据，流中在对象之后的数据可能被读取
+	 *
+	 * @param <T> 对象类型
+	 * @param in 输入流
+	 * @return 对象
+	 * @throws IORuntimeException IO异常
+	 * @throws UtilException 数据格式错误或类不存在
+	 */
+	public static <T> T deserialize(InputStream in) throws IORuntimeException, UtilException {
+		return new BinaryInput(in).readObject();
+	}
+
+	/**
+	 * 从{@link ByteBuffer}反序列化，读取后buffer的position位于数据之后
+	 *
+	 * @param <T> 对象类型
+	 * @param buffer 源buffer，读模式
+	 * @return 对象
+	 * @throws UtilException 数据格式错误或类不存在
+	 */
+	public static <T> T deserialize(ByteBuffer buffer) throws UtilException {
+		return new BinaryInput(buffer).readObject();
+	}
+}
@@ -0,0 +1,7 @@
+/**
+ * 二进制序列化，基于Bean属性描述的紧凑格式，用于代替Java序列化，入口为BinarySerializer
+ * 
+ * @author mawujun
+ *
+ */
+package com.mawujun.io.serialize;
@@ -0,0 +1,306 @@
+package com.mawujun.lang;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.mawujun.io.IORuntimeException;
+import com.mawujun.util.StrUtil;
+
+/**
+ * class文件头信息：类名、父类、接口及类上运行时可见的注解<br>
+ * 直接解析class文件的常量池得到，不加载类，也不会触发类的链接和初始化，用于在扫描大量类时快速过滤。类名均为{@link Class#getName()}的格式，如a.b.Outer$Inner。
+ *
+ * @author mawujun
+ * @see ClassFileScanner
+ */
+public class ClassFileInfo {
+
+	private static final int MAGIC = 0xCAFEBABE;
+	private static final String RUNTIME_VISIBLE_ANNOTATIONS = "RuntimeVisibleAnnotations";
+	/** {@link Modifier}中没有的标识 */
+	private static final int ACC_ANNOTATION = 0x2000;
+	private static final int ACC_ENUM = 0x4000;
+
+	private final String className;
+	private final String superClassName;
+	private final List<String> interfaceNames;
+	private final List<String> annotationNames;
+	private final int accessFlags;
+
+	/**
+	 * 构造
+	 *
+	 * @param className 类名
+	 * @param superClassName 父类名，父类为java.lang.Object时为null
+	 * @param interfaceNames 直接实现的接口名
+	 * @param annotationNames 类上运行时可见的注解类名
+	 * @param accessFlags class文件中的访问标识
+	 */
+	public ClassFileInfo(String className, String superClassName, List<String> interfaceNames, List<String> annotationNames, int accessFlags) {
+		this.className = className;
+		this.superClassName = superClassName;
+		this.interfaceNames = Collections.unmodifiableList(interfaceNames);
+		this.annotationNames = Collections.unmodifiableList(annotationNames);
+		this.accessFlags = accessFlags;
+	}
+
+	/**
+	 * 解析class文件
+	 *
+	 * @param bytes class文件内容
+	 * @return {@link ClassFileInfo}
+	 * @throws IORuntimeException 不是合法的class文件
+	 */
+	public static ClassFileInfo parse(byte[] bytes) throws IORuntimeException {
+		return parse(new ByteArrayInputStream(bytes));
+	}
+
+	/**
+	 * 解析class文件，只读取到类的属性为止，不关闭流
+	 *
+	 * @param in class文件流
+	 * @return {@link ClassFileInfo}
+	 * @throws IORuntimeException 不是合法的class文件
+	 */
+	public static ClassFileInfo parse(InputStream in) throws IORuntimeException {
+		try {
+			return new Parser(new DataInputStream(in)).parse();
+		} catch (IOException e) {
+			throw new IORuntimeException(e);
+		}
+	}
+
+	public String getClassName() {
+		return className;
+	}
+
+	/**
+	 * 父类名
+	 *
+	 * @return 父类名，java.lang.Object时为null
+	 */
+	public String getSuperClassName() {
+		return superClassName;
+	}
+
+	public List<String> getInterfaceNames() {
+		return interfaceNames;
+	}
+
+	public List<String> getAnnotationNames() {
+		return annotationNames;
+	}
+
+	public int getAccessFlags() {
+		return accessFlags;
+	}
+
+	/**
+	 * 类上是否直接标注了指定注解（不含继承的注解）
+	 *
+	 * @param annotationName 注解类名
+	 * @return 是否标注
+	 */
+	public boolean hasAnnotation(String annotationName) {
+		return annotationNames.contains(annotationName);
+	}
+
+	public boolean isInterface() {
+		return 0 != (accessFlags & Modifier.INTERFACE);
+	}
+
+	public boolean isAbstract() {
+		return 0 != (accessFlags & Modifier.ABSTRACT);
+	}
+
+	public boolean isAnnotation() {
+		return 0 != (accessFlags & ACC_ANNOTATION);
+	}
+
+	public boolean isEnum() {
+		return 0 != (accessFlags & ACC_ENUM);
+	}
+
+	/**
+	 * 是否为可实例化的具体类
+	 *
+	 * @return 是否具体类
+	 */
+	public boolean isConcrete() {
+		return false == isInterface() && false == isAbstract();
+	}
+
+	@Override
+	public String toString() {
+		return StrUtil.format("ClassFileInfo [className={}, superClassName={}, interfaceNames={}, annotationNames={}]", className, superClassName, interfaceNames, annotationNames);
+	}
+
+	/**
+	 * class文件解析器，只保留常量池中的UTF8和Class项
+	 */
+	private static final class Parser {
+		private final DataInputStream in;
+		private String[] utf8;
+		private int[] classNameIndex;
+
+		Parser(DataInputStream in) {
+			this.in = in;
+		}
+
+		ClassFileInfo parse() throws IOException {
+			if (MAGIC != in.readInt()) {
+				throw new IOException("Not a class file");
+			}
+			skipFully(4);// minor_version, major_version
+			readConstantPool();
+
+			final int accessFlags = in.readUnsignedShort();
+			final String className = className(in.readUnsignedShort());
+			final int superIndex = in.readUnsignedShort();
+			final String superClassName = (0 == superIndex) ? null : className(superIndex);
+			final int interfaceCount = in.readUnsignedShort();
+			final List<String> interfaceNames = new ArrayList<>(interfaceCount);
+			for (int i = 0; i < interfaceCount; i++) {
+				interfaceNames.add(className(in.readUnsignedShort()));
+			}
+			skipMembers();// fields
+			skipMembers();// methods
+
+			List<String> annotationNames = Collections.emptyList();
+			final int attributeCount = in.readUnsignedShort();
+			for (int i = 0; i < attributeCount; i++) {
+				final String name = utf8[in.readUnsignedShort()];
+				final int length = in.readInt();
+				if (RUNTIME_VISIBLE_ANNOTATIONS.equals(name)) {
+					annotationNames = readAnnotationNames();
+				} else {
+					skipFully(length);
+				}
+			}
+			return new ClassFileInfo(className, "java.lang.Object".equals(superClassName) ? null : superClassName, interfaceNames, annotationNames, accessFlags);
+		}
+
+		private void readConstantPool() throws IOException {
+			final int count = in.readUnsignedShort();
+			utf8 = new String[count];
+			classNameIndex = new int[count];
+			for (int i = 1; i < count; i++) {
+				final int tag = in.readUnsignedByte();
+				switch (tag) {
+				case 1:// Utf8
+					utf8[i] = in.readUTF();
+					break;
+				case 7:// Class
+					classNameIndex[i] = in.readUnsignedShort();
+					break;
+				case 8:// String
+				case 16:// MethodType
+				case 19:// Module
+				case 20:// Package
+					skipFully(2);
+					break;
+				case 15:// MethodHandle
+					skipFully(3);
+					break;
+				case 3:// Integer
+				case 4:// Float
+				case 9:// Fieldref
+				case 10:// Methodref
+				case 11:// InterfaceMethodref
+				case 12:// NameAndType
+				case 17:// Dynamic
+				case 18:// InvokeDynamic
+					skipFully(4);
+					break;
+				case 5:// Long
+				case 6:// Double
+					skipFully(8);
+					// 占两个位置
+					i++;
+					break;
+				default:
+					throw new IOException("Unknown constant pool tag: " + tag);
+				}
+			}
+		}
+
+		private void skipMembers() throws IOException {
+			final int count = in.readUnsignedShort();
+			for (int i = 0; i < count; i++) {
+				skipFully(6);// access_flags, name_index, descriptor_index
+				final int attributeCount = in.readUnsignedShort();
+				for (int j = 0; j < attributeCount; j++) {
+					skipFully(2);
+					skipFully(in.readInt());
+				}
+			}
+		}
+
+		private List<String> readAnnotationNames() throws IOException {
+			final int count = in.readUnsignedShort();
+			final List<String> names = new ArrayList<>(count);
+			for (int i = 0; i < count; i++) {
+				names.add(descriptorToName(utf8[in.readUnsignedShort()]));
+				skipElementValuePairs();
+			}
+			return names;
+		}
+
+		private void skipElementValuePairs() throws IOException {
+			final int pairs = in.readUnsignedShort();
+			for (int i = 0; i < pairs; i++) {
+				skipFully(2);// element_name_index
+				skipElementValue();
+			}
+		}
+
+		private void skipElementValue() throws IOException {
+			final int tag = in.readUnsignedByte();
+			switch (tag) {
+			case 'e':
+				skipFully(4);
+				break;
+			case '@':
+				skipFully(2);
+				skipElementValuePairs();
+				break;
+			case '[':
+				final int count = in.readUnsignedShort();
+				for (int i = 0; i < count; i++) {
+					skipElementValue();
+				}
+				break;
+			default:
+				// 基本类型、String及Class
+				skipFully(2);
+			}
+		}
+
+		private void skipFully(int length) throws IOException {
+			while (length > 0) {
+				final int skipped = in.skipBytes(length);
+				if (skipped <= 0) {
+					throw new IOException("Unexpected end of class file");
+				}
+				length -= skipped;
+			}
+		}
+
+		private String className(int index) {
+			return utf8[classNameIndex[index]].replace('/', '.');
+		}
+
+		/**
+		 * Lcom/a/B; 转为 com.a.B
+		 */
+		private static String descriptorToName(String descriptor) {
+			return descriptor.substring(1, descriptor.length() - 1).replace('/', '.');
+		}
+	}
+}
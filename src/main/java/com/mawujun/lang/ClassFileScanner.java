@@ -0,0 +1,297 @@
+package com.mawujun.lang;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
+import java.net.URL;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+import com.mawujun.collection.EnumerationIter;
+import com.mawujun.exception.exceptions.UtilException;
+import com.mawujun.io.FileUtil;
+import com.mawujun.io.IORuntimeException;
+import com.mawujun.io.resource.ResourceUtil;
+import com.mawujun.thread.ParallelTasks;
+import com.mawujun.util.CharUtil;
+import com.mawujun.util.CharsetUtil;
+import com.mawujun.util.ClassUtil;
+import com.mawujun.util.HexUtil;
+import com.mawujun.util.StrUtil;
+import com.mawujun.util.URLUtil;
+
+/**
+ * 基于class文件头的类扫描器<br>
+ * 与{@link ClassScaner}加载每个类后再过滤不同，此扫描器只解析class文件的常量池（类名、父类、接口、注解），得到{@link ClassIndex}，
+ * 过滤后只加载匹配的类；每个目录或jar包作为一个任务并行读取。
+ *
+ * <pre>
+ * Set&lt;Class&lt;?&gt;&gt; services = ClassFileScanner.scanPackageByAnnotation("com.foo", Service.class);
+ *
+ * // 首次启动扫描并写出索引，之后classpath未变化时直接读取索引
+ * ClassIndex index = new ClassFileScanner("com.foo").setIndexFile(new File("work/class-index")).scan();
+ * </pre>
+ *
+ * 索引中记录了扫描范围的指纹（jar包的路径、大小和修改时间，目录中class文件的数量和最后修改时间），指纹不一致时重新扫描。
+ * 构建时生成的索引可放入classpath，使用{@link ClassIndex#read(InputStream)}读取。
+ *
+ * @author mawujun
+ */
+public class ClassFileScanner {
+
+	/** 包名 */
+	private final String packageName;
+	/** 包名，最后跟一个点，避免在检查前缀时的歧义 */
+	private final String packageNameWithDot;
+	/** 包路径，用于jar中对路径操作 */
+	private final String packagePath;
+	/** 并行读取使用的线程池，null表示使用全局线程池 */
+	private ExecutorService executor;
+	/** 索引文件 */
+	private File indexFile;
+
+	/**
+	 * 扫描指定包路径下所有包含指定注解的类，只加载匹配的类
+	 *
+	 * @param packageName 包路径
+	 * @param annotationClass 注解类
+	 * @return 类集合
+	 */
+	public static Set<Class<?>> scanPackageByAnnotation(String packageName, Class<? extends Annotation> annotationClass) {
+		return new ClassFileScanner(packageName).scan().loadAnnotatedWith(annotationClass);
+	}
+
+	/**
+	 * 扫描指定包路径下所有指定类或接口的子类或实现类，只加载匹配的类
+	 *
+	 * @param packageName 包路径
+	 * @param superClass 父类或接口
+	 * @return 类集合
+	 */
+	public static Set<Class<?>> scanPackageBySuper(String packageName, Class<?> superClass) {
+		return new ClassFileScanner(packageName).scan().loadSubTypesOf(superClass);
+	}
+
+	/**
+	 * 构造
+	 *
+	 * @param packageName 包名，所有包传入""或者null
+	 */
+	public ClassFileScanner(String packageName) {
+		packageName = StrUtil.nullToEmpty(packageName);
+		this.packageName = packageName;
+		this.packageNameWithDot = StrUtil.addSuffixIfNot(packageName, StrUtil.DOT);
+		this.packagePath = packageName.replace(CharUtil.DOT, CharUtil.SLASH);
+	}
+
+	/**
+	 * 设置并行读取使用的线程池，默认使用全局线程池
+	 *
+	 * @param executor 线程池
+	 * @return this
+	 */
+	public ClassFileScanner setExecutor(ExecutorService executor) {
+		this.executor = executor;
+		return this;
+	}
+
+	/**
+	 * 设置索引文件，文件存在且指纹一致时直接读取，否则扫描后写出
+	 *
+	 * @param indexFile 索引文件
+	 * @return this
+	 */
+	public ClassFileScanner setIndexFile(File indexFile) {
+		this.indexFile = indexFile;
+		return this;
+	}
+
+	/**
+	 * 扫描包路径下的class文件
+	 *
+	 * @return {@link ClassIndex}
+	 * @throws IORuntimeException 读取失败
+	 */
+	public ClassIndex scan() throws IORuntimeException {
+		List<File> roots = findRoots();
+		if (roots.isEmpty()) {
+			roots = findJavaClassPathRoots();
+		}
+
+		final String fingerprint = (null != indexFile) ? fingerprint(roots) : null;
+		if (null != indexFile && indexFile.isFile()) {
+			try {
+				final ClassIndex index = ClassIndex.read(indexFile);
+				if (fingerprint.equals(index.getFingerprint())) {
+					return index;
+				}
+			} catch (IORuntimeException e) {
+				// 索引损坏，重新扫描
+			}
+		}
+
+		final ClassIndex index = new ClassIndex(scanRoots(roots), fingerprint);
+		if (null != indexFile) {
+			index.write(indexFile);
+		}
+		return index;
+	}
+
+	// --------------------------------------------------------------------------------------------------- Private method start
+	/**
+	 * 包所在的目录和jar包
+	 */
+	private List<File> findRoots() {
+		final Set<File> roots = new LinkedHashSet<>();
+		for (URL url : ResourceUtil.getResourceIter(this.packagePath)) {
+			switch (url.getProtocol()) {
+			case "file":
+				roots.add(new File(URLUtil.decode(url.getFile(), CharsetUtil.UTF_8)));
+				break;
+			case "jar":
+				roots.add(new File(URLUtil.getJarFile(url).getName()));
+				break;
+			}
+		}
+		return new ArrayList<>(roots);
+	}
+
+	/**
+	 * java.class.path中的目录和jar包，用于包路径在classpath中没有目录项的情况
+	 */
+	private static List<File> findJavaClassPathRoots() {
+		final List<File> roots = new ArrayList<>();
+		for (String classPath : ClassUtil.getJavaClassPaths()) {
+			final File file = new File(URLUtil.decode(classPath, CharsetUtil.systemCharsetName()));
+			if (file.exists()) {
+				roots.add(file);
+			}
+		}
+		return roots;
+	}
+
+	/**
+	 * 并行扫描，每个目录或jar包一个任务，结果按roots顺序合并
+	 */
+	private List<ClassFileInfo> scanRoots(List<File> roots) throws IORuntimeException {
+		final ParallelTasks<List<ClassFileInfo>> tasks = (null != executor) ? ParallelTasks.create(executor) : ParallelTasks.create();
+		tasks.addAll(roots, root -> () -> scanRoot(root));
+		final List<List<ClassFileInfo>> results;
+		try {
+			results = tasks.invoke();
+		} catch (UtilException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof IORuntimeException) {
+				throw (IORuntimeException) cause;
+			} else if (cause instanceof IOException) {
+				throw new IORuntimeException(cause);
+			}
+			throw e;
+		}
+		final List<ClassFileInfo> infos = new ArrayList<>();
+		for (List<ClassFileInfo> result : results) {
+			infos.addAll(result);
+		}
+		return infos;
+	}
+
+	private List<ClassFileInfo> scanRoot(File root) throws IOException {
+		final List<ClassFileInfo> infos = new ArrayList<>();
+		if (root.isDirectory()) {
+			Files.walkFileTree(root.toPath(), new SimpleFileVisitor<Path>() {
+				@Override
+				public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+					final String name = file.getFileName().toString();
+					if (name.endsWith(FileUtil.CLASS_EXT)) {
+						try (InputStream in = Files.newInputStream(file)) {
+							addIfAccept(infos, in);
+						}
+					} else if (name.endsWith(FileUtil.JAR_FILE_EXT)) {
+						scanJar(file.toFile(), infos);
+					}
+					return FileVisitResult.CONTINUE;
+				}
+			});
+		} else if (root.getName().endsWith(FileUtil.JAR_FILE_EXT)) {
+			scanJar(root, infos);
+		}
+		return infos;
+	}
+
+	private void scanJar(File file, List<ClassFileInfo> infos) throws IOException {
+		try (JarFile jar = new JarFile(file)) {
+			String name;
+			for (JarEntry entry : new EnumerationIter<>(jar.entries())) {
+				name = StrUtil.removePrefix(entry.getName(), StrUtil.SLASH);
+				if (name.startsWith(this.packagePath) && name.endsWith(FileUtil.CLASS_EXT) && false == entry.isDirectory()) {
+					try (InputStream in = jar.getInputStream(entry)) {
+						addIfAccept(infos, in);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * 解析class文件，类在指定包中时加入结果，跳过module-info和package-info
+	 */
+	private void addIfAccept(List<ClassFileInfo> infos, InputStream in) {
+		final ClassFileInfo info = ClassFileInfo.parse(in);
+		final String className = info.getClassName();
+		if (className.endsWith("module-info") || className.endsWith("package-info")) {
+			return;
+		}
+		if (this.packageName.isEmpty() || className.equals(this.packageName) || className.startsWith(this.packageNameWithDot)) {
+			infos.add(info);
+		}
+	}
+
+	/**
+	 * 扫描范围的指纹，只读取文件属性，不读取内容
+	 */
+	private String fingerprint(List<File> roots) throws IORuntimeException {
+		final MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("MD5");
+		} catch (NoSuchAlgorithmException e) {
+			throw new UtilException(e);
+		}
+		final StringBuilder builder = new StringBuilder(this.packageName);
+		for (File root : roots) {
+			builder.append('\n').append(root.getAbsolutePath());
+			if (root.isDirectory()) {
+				final long[] stat = new long[2];
+				try {
+					Files.walkFileTree(root.toPath(), new SimpleFileVisitor<Path>() {
+						@Override
+						public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+							stat[0]++;
+							stat[1] = Math.max(stat[1], attrs.lastModifiedTime().toMillis());
+							return FileVisitResult.CONTINUE;
+						}
+					});
+				} catch (IOException e) {
+					throw new IORuntimeException(e);
+				}
+				builder.append(':').append(stat[0]).append(':').append(stat[1]);
+			} else {
+				builder.append(':').append(root.length()).append(':').append(root.lastModified());
+			}
+		}
+		return HexUtil.encodeHexStr(digest.digest(StrUtil.utf8Bytes(builder)));
+	}
+	// --------------------------------------------------------------------------------------------------- Private method end
+}
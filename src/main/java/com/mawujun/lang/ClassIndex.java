@@ -0,0 +1,389 @@
+package com.mawujun.lang;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.annotation.Annotation;
+import java.lang.annotation.Inherited;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import com.mawujun.collection.CollUtil;
+import com.mawujun.io.FileUtil;
+import com.mawujun.io.IORuntimeException;
+import com.mawujun.io.IoUtil;
+import com.mawujun.util.CharsetUtil;
+import com.mawujun.util.ClassUtil;
+import com.mawujun.util.StrUtil;
+
+/**
+ * 类索引，保存扫描得到的{@link ClassFileInfo}，按注解或父类查找时只比较类名，最后只加载匹配的类<br>
+ * 索引可以写出到文件，在构建时或首次启动时生成，之后通过{@link #read(File)}读取即可跳过扫描。
+ *
+ * <pre>
+ * ClassIndex index = new ClassFileScanner("com.foo").scan();
+ * Set&lt;Class&lt;?&gt;&gt; services = index.loadAnnotatedWith(Service.class);
+ * </pre>
+ *
+ * 父类或接口不在索引中时（如JDK或其它包中的类），加载该父类（不初始化）判断继承关系，被扫描的类本身只有匹配时才加载。
+ *
+ * @author mawujun
+ * @see ClassFileScanner
+ */
+public class ClassIndex {
+
+	private static final String HEADER = "# class index v1";
+	private static final String FINGERPRINT_PREFIX = "# fingerprint=";
+	private static final char FIELD_SEPARATOR = '|';
+	private static final char NAME_SEPARATOR = ',';
+
+	/** 按类名排序 */
+	private final Map<String, ClassFileInfo> classes = new TreeMap<>();
+	private final String fingerprint;
+
+	/**
+	 * 构造
+	 *
+	 * @param infos 类信息，类名重复时保留第一个
+	 */
+	public ClassIndex(Collection<ClassFileInfo> infos) {
+		this(infos, null);
+	}
+
+	/**
+	 * 构造
+	 *
+	 * @param infos 类信息，类名重复时保留第一个
+	 * @param fingerprint 扫描范围的指纹，用于判断索引是否过期，可以为null
+	 */
+	public ClassIndex(Collection<ClassFileInfo> infos, String fingerprint) {
+		for (ClassFileInfo info : infos) {
+			this.classes.putIfAbsent(info.getClassName(), info);
+		}
+		this.fingerprint = fingerprint;
+	}
+
+	/**
+	 * 获取类信息
+	 *
+	 * @param className 类名
+	 * @return {@link ClassFileInfo}，不存在返回null
+	 */
+	public ClassFileInfo get(String className) {
+		return classes.get(className);
+	}
+
+	/**
+	 * 所有类信息，按类名排序
+	 *
+	 * @return 类信息
+	 */
+	public Collection<ClassFileInfo> getAll() {
+		return Collections.unmodifiableCollection(classes.values());
+	}
+
+	public int size() {
+		return classes.size();
+	}
+
+	/**
+	 * 扫描范围的指纹
+	 *
+	 * @return 指纹，构建时生成的索引为null
+	 */
+	public String getFingerprint() {
+		return fingerprint;
+	}
+
+	// ------------------------------------------------------------------------------------------------------------------------------------- find start
+	/**
+	 * 查找满足条件的类
+	 *
+	 * @param filter 过滤器
+	 * @return 类信息
+	 */
+	public List<ClassFileInfo> find(Filter<ClassFileInfo> filter) {
+		final List<ClassFileInfo> result = new ArrayList<>();
+		for (ClassFileInfo info : classes.values()) {
+			if (filter.accept(info)) {
+				result.add(info);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * 查找标注了指定注解的类，注解标注了{@link Inherited}时包括父类标注了此注解的类，与{@link Class#isAnnotationPresent(Class)}一致
+	 *
+	 * @param annotationClass 注解类
+	 * @return 类信息
+	 */
+	public List<ClassFileInfo> findAnnotatedWith(Class<? extends Annotation> annotationClass) {
+		final String annotationName = annotationClass.getName();
+		final boolean inherited = annotationClass.isAnnotationPresent(Inherited.class);
+		final Map<String, Boolean> resolved = new HashMap<>();
+		return find(info -> isAnnotated(info, annotationClass, annotationName, inherited, resolved));
+	}
+
+	/**
+	 * 查找指定类或接口的子类或实现类，不含其本身
+	 *
+	 * @param superClass 父类或接口
+	 * @return 类信息
+	 */
+	public List<ClassFileInfo> findSubTypesOf(Class<?> superClass) {
+		final String superName = superClass.getName();
+		if (Object.class == superClass) {
+			return find(info -> false == superName.equals(info.getClassName()));
+		}
+		final Map<String, Boolean> resolved = new HashMap<>();
+		return find(info -> false == superName.equals(info.getClassName()) && isSubTypeOf(info.getClassName(), superClass, resolved));
+	}
+
+	/**
+	 * 加载标注了指定注解的类
+	 *
+	 * @param annotationClass 注解类
+	 * @return 类集合
+	 * @see #findAnnotatedWith(Class)
+	 */
+	public Set<Class<?>> loadAnnotatedWith(Class<? extends Annotation> annotationClass) {
+		return load(findAnnotatedWith(annotationClass), false);
+	}
+
+	/**
+	 * 加载指定类或接口的子类或实现类
+	 *
+	 * @param superClass 父类或接口
+	 * @return 类集合
+	 * @see #findSubTypesOf(Class)
+	 */
+	public Set<Class<?>> loadSubTypesOf(Class<?> superClass) {
+		return load(findSubTypesOf(superClass), false);
+	}
+
+	/**
+	 * 加载类，因依赖缺失或版本不兼容无法加载的类跳过
+	 *
+	 * @param infos 类信息
+	 * @param initialize 是否初始化类
+	 * @return 类集合
+	 */
+	public Set<Class<?>> load(Collection<ClassFileInfo> infos, boolean initialize) {
+		final Set<Class<?>> result = new LinkedHashSet<>(infos.size() * 4 / 3 + 1);
+		Class<?> clazz;
+		for (ClassFileInfo info : infos) {
+			clazz = loadClass(info.getClassName(), initialize);
+			if (null != clazz) {
+				result.add(clazz);
+			}
+		}
+		return Collections.unmodifiableSet(result);
+	}
+	// ------------------------------------------------------------------------------------------------------------------------------------- find end
+
+	// ------------------------------------------------------------------------------------------------------------------------------------- read and write start
+	/**
+	 * 写出索引到文件
+	 *
+	 * @param file 文件，不存在时创建
+	 * @throws IORuntimeException IO异常
+	 */
+	public void write(File file) throws IORuntimeException {
+		BufferedWriter writer = null;
+		try {
+			writer = FileUtil.getWriter(file, CharsetUtil.CHARSET_UTF_8, false);
+			write(writer);
+		} finally {
+			IoUtil.close(writer);
+		}
+	}
+
+	/**
+	 * 写出索引，每行一个类：类名|父类|接口|注解|访问标识，不关闭writer
+	 *
+	 * @param writer {@link Writer}
+	 * @throws IORuntimeException IO异常
+	 */
+	public void write(Writer writer) throws IORuntimeException {
+		final StringBuilder line = new StringBuilder();
+		try {
+			writer.write(HEADER);
+			writer.write('\n');
+			if (null != fingerprint) {
+				writer.write(FINGERPRINT_PREFIX);
+				writer.write(fingerprint);
+				writer.write('\n');
+			}
+			for (ClassFileInfo info : classes.values()) {
+				line.setLength(0);
+				line.append(info.getClassName()).append(FIELD_SEPARATOR)//
+						.append(StrUtil.nullToEmpty(info.getSuperClassName())).append(FIELD_SEPARATOR)//
+						.append(CollUtil.join(info.getInterfaceNames(), String.valueOf(NAME_SEPARATOR))).append(FIELD_SEPARATOR)//
+						.append(CollUtil.join(info.getAnnotationNames(), String.valueOf(NAME_SEPARATOR))).append(FIELD_SEPARATOR)//
+						.append(info.getAccessFlags()).append('\n');
+				writer.write(line.toString());
+			}
+			writer.flush();
+		} catch (IOException e) {
+			throw new IORuntimeException(e);
+		}
+	}
+
+	/**
+	 * 从文件读取索引
+	 *
+	 * @param file 文件
+	 * @return {@link ClassIndex}
+	 * @throws IORuntimeException IO异常或格式错误
+	 */
+	public static ClassIndex read(File file) throws IORuntimeException {
+		BufferedReader reader = null;
+		try {
+			reader = FileUtil.getReader(file, CharsetUtil.CHARSET_UTF_8);
+			return read(reader);
+		} finally {
+			IoUtil.close(reader);
+		}
+	}
+
+	/**
+	 * 读取索引，用于读取随构建打包在classpath中的索引，不关闭流
+	 *
+	 * @param in UTF-8编码的索引
+	 * @return {@link ClassIndex}
+	 * @throws IORuntimeException IO异常或格式错误
+	 */
+	public static ClassIndex read(InputStream in) throws IORuntimeException {
+		return read(IoUtil.getReader(in, CharsetUtil.CHARSET_UTF_8));
+	}
+
+	/**
+	 * 读取索引，不关闭reader
+	 *
+	 * @param reader {@link Reader}
+	 * @return {@link ClassIndex}
+	 * @throws IORuntimeException IO异常或格式错误
+	 */
+	public static ClassIndex read(Reader reader) throws IORuntimeException {
+		final BufferedReader bufferedReader = (reader instanceof BufferedReader) ? (BufferedReader) reader : new BufferedReader(reader);
+		final List<ClassFileInfo> infos = new ArrayList<>();
+		String fingerprint = null;
+		try {
+			String line = bufferedReader.readLine();
+			if (false == HEADER.equals(line)) {
+				throw new IORuntimeException("Not a class index: {}", line);
+			}
+			while (null != (line = bufferedReader.readLine())) {
+				if (line.startsWith(FINGERPRINT_PREFIX)) {
+					fingerprint = line.substring(FINGERPRINT_PREFIX.length());
+				} else if (StrUtil.isNotBlank(line) && false == line.startsWith("#")) {
+					infos.add(parseLine(line));
+				}
+			}
+		} catch (IOException e) {
+			throw new IORuntimeException(e);
+		}
+		return new ClassIndex(infos, fingerprint);
+	}
+	// ------------------------------------------------------------------------------------------------------------------------------------- read and write end
+
+	// ------------------------------------------------------------------------------------------------------------------------------------- Private method start
+	/**
+	 * 类或其父类是否标注了注解
+	 */
+	private boolean isAnnotated(ClassFileInfo info, Class<? extends Annotation> annotationClass, String annotationName, boolean inherited, Map<String, Boolean> resolved) {
+		if (info.hasAnnotation(annotationName)) {
+			return true;
+		}
+		if (false == inherited || info.isInterface() || null == info.getSuperClassName()) {
+			return false;
+		}
+		final String superName = info.getSuperClassName();
+		Boolean result = resolved.get(superName);
+		if (null == result) {
+			final ClassFileInfo superInfo = classes.get(superName);
+			if (null != superInfo) {
+				result = isAnnotated(superInfo, annotationClass, annotationName, true, resolved);
+			} else {
+				final Class<?> superClass = loadClass(superName, false);
+				result = null != superClass && superClass.isAnnotationPresent(annotationClass);
+			}
+			resolved.put(superName, result);
+		}
+		return result;
+	}
+
+	/**
+	 * 指定类是否为superClass或其子类，不在索引中的类通过加载判断
+	 */
+	private boolean isSubTypeOf(String className, Class<?> superClass, Map<String, Boolean> resolved) {
+		if (superClass.getName().equals(className)) {
+			return true;
+		}
+		Boolean result = resolved.get(className);
+		if (null != result) {
+			return result;
+		}
+		final ClassFileInfo info = classes.get(className);
+		if (null != info) {
+			result = false;
+			if (null != info.getSuperClassName()) {
+				result = isSubTypeOf(info.getSuperClassName(), superClass, resolved);
+			}
+			for (int i = 0; false == result && i < info.getInterfaceNames().size(); i++) {
+				result = isSubTypeOf(info.getInterfaceNames().get(i), superClass, resolved);
+			}
+		} else {
+			final Class<?> clazz = loadClass(className, false);
+			result = null != clazz && superClass.isAssignableFrom(clazz);
+		}
+		resolved.put(className, result);
+		return result;
+	}
+
+	private static ClassFileInfo parseLine(String line) {
+		final List<String> fields = StrUtil.split(line, FIELD_SEPARATOR, -1);
+		if (fields.size() != 5) {
+			throw new IORuntimeException("Invalid class index line: {}", line);
+		}
+		final int modifiers;
+		try {
+			modifiers = Integer.parseInt(fields.get(4));
+		} catch (NumberFormatException e) {
+			throw new IORuntimeException(e, "Invalid class index line: {}", line);
+		}
+		return new ClassFileInfo(fields.get(0), StrUtil.emptyToNull(fields.get(1)), splitNames(fields.get(2)), splitNames(fields.get(3)), modifiers);
+	}
+
+	private static List<String> splitNames(String names) {
+		if (names.isEmpty()) {
+			return Collections.emptyList();
+		}
+		return Arrays.asList(StrUtil.splitToArray(names, NAME_SEPARATOR));
+	}
+
+	/**
+	 * 加载类，因依赖缺失或版本不兼容无法加载时返回null
+	 */
+	private static Class<?> loadClass(String className, boolean initialize) {
+		try {
+			return Class.forName(className, initialize, ClassUtil.getClassLoader());
+		} catch (ClassNotFoundException | LinkageError e) {
+			return null;
+		}
+	}
+	// ------------------------------------------------------------------------------------------------------------------------------------- Private method end
+}
@@ -23,7 +23,8 @@ import com.mawujun.util.StrUtil;
 import com.mawujun.util.URLUtil;
 
 /**
- * 类扫描器
+ * 类扫描器<br>
+ * 此扫描器加载每个类后再过滤，扫描大量类时建议使用只解析class文件头的{@link ClassFileScanner}
  * 
  * @author looly
  * @since 4.1.5
@@ -49,35 +50,27 @@ public class ClassScaner {
 	private Set<Class<?>> classes = new HashSet<Class<?>>();
 	
 	/**
-	 * 扫描指定包路径下所有包含指定注解的类
+	 * 扫描指定包路径下所有包含指定注解的类<br>
+	 * 使用{@link ClassFileScanner}按class文件头过滤，只加载匹配的类
 	 * 
 	 * @param packageName 包路径
 	 * @param annotationClass 注解类
 	 * @return 类集合
 	 */
 	public static Set<Class<?>> scanPackageByAnnotation(String packageName, final Class<? extends Annotation> annotationClass) {
-		return scanPackage(packageName, new Filter<Class<?>>() {
-			@Override
-			public boolean accept(Class<?> clazz) {
-				return clazz.isAnnotationPresent(annotationClass);
-			}
-		});
+		return ClassFileScanner.scanPackageByAnnotation(packageName, annotationClass);
 	}
 
 	/**
-	 * 扫描指定包路径下所有指定类或接口的子类或实现类
+	 * 扫描指定包路径下所有指定类或接口的子类或实现类<br>
+	 * 使用{@link ClassFileScanner}按class文件头过滤，只加载匹配的类
 	 * 
 	 * @param packageName 包路径
 	 * @param superClass 父类或接口
 	 * @return 类集合
 	 */
 	public static Set<Class<?>> scanPackageBySuper(String packageName, final Class<?> superClass) {
-		return scanPackage(packageName, new Filter<Class<?>>() {
-			@Override
-			public boolean accept(Class<?> clazz) {
-				return superClass.isAssignableFrom(clazz) && !superClass.equals(clazz);
-			}
-		});
+		return ClassFileScanner.scanPackageBySuper(packageName, superClass);
 	}
 
 	/**
@@ -0,0 +1,234 @@
+package com.mawujun.lang;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.mawujun.util.StrUtil;
+
+/**
+ * 线程安全的耗时直方图，用于统计请求、任务等的耗时分布（百分位数）<br>
+ * 按HDR Histogram的方式分桶：每个2的幂区间再等分为32个子桶，因此任意数值的相对误差不超过1/32（约3%），
+ * 所需内存固定（约15KB），记录操作只有一次原子自增，不加锁、不分配对象。
+ *
+ * <pre>
+ * LatencyHistogram histogram = new LatencyHistogram();
+ * long start = System.nanoTime();
+ * ...
+ * histogram.recordNanos(System.nanoTime() - start);
+ * histogram.getPercentile(99); // 单位为微秒
+ * </pre>
+ *
+ * 记录的数值单位由使用者决定，{@link #recordNanos(long)}将纳秒转换为微秒记录。
+ *
+ * @author mawujun
+ */
+public class LatencyHistogram {
+
+	/** 小于此值的数值每个值一个桶 */
+	private static final int LINEAR_SIZE = 64;
+	/** 每个2的幂区间的子桶个数（以位数表示） */
+	private static final int SUB_BUCKET_BITS = 5;
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+	/** 桶个数，覆盖所有非负long */
+	private static final int BUCKET_COUNT = LINEAR_SIZE + (62 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder sum = new LongAdder();
+	private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+	private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+
+	/**
+	 * 记录一个数值，负数按0记录
+	 *
+	 * @param value 数值
+	 */
+	public void record(long value) {
+		if (value < 0) {
+			value = 0;
+		}
+		buckets.incrementAndGet(bucketIndex(value));
+		count.increment();
+		sum.add(value);
+		long current;
+		while (value > (current = max.get()) && false == max.compareAndSet(current, value)) {
+			// 重试
+		}
+		while (value < (current = min.get()) && false == min.compareAndSet(current, value)) {
+			// 重试
+		}
+	}
+
+	/**
+	 * 记录一个数值并修正协调遗漏（coordinated omission）<br>
+	 * 固定并发的压测中，一次慢请求会使其后本应发出的请求被推迟而未被记录，
+	 * 此方法在数值大于期望间隔时补记value - expectedInterval、value - 2 * expectedInterval……直到不大于期望间隔，与HdrHistogram的recordValueWithExpectedInterval一致
+	 *
+	 * @param value 数值
+	 * @param expectedInterval 期望的请求间隔，与数值单位相同，小于等于0时不修正
+	 */
+	public void record(long value, long expectedInterval) {
+		record(value);
+		if (expectedInterval <= 0) {
+			return;
+		}
+		for (long missing = value - expectedInterval; missing >= expectedInterval; missing -= expectedInterval) {
+			record(missing);
+		}
+	}
+
+	/**
+	 * 记录纳秒耗时，以微秒为单位记录
+	 *
+	 * @param nanos 纳秒耗时
+	 */
+	public void recordNanos(long nanos) {
+		record(nanos / 1000);
+	}
+
+	/**
+	 * 记录的数值个数
+	 *
+	 * @return 个数
+	 */
+	public long getCount() {
+		return count.sum();
+	}
+
+	/**
+	 * 平均值，无记录时返回0
+	 *
+	 * @return 平均值
+	 */
+	public double getMean() {
+		final long n = count.sum();
+		return 0 == n ? 0 : (double) sum.sum() / n;
+	}
+
+	/**
+	 * 最大值，无记录时返回0
+	 *
+	 * @return 最大值
+	 */
+	public long getMax() {
+		final long value = max.get();
+		return Long.MIN_VALUE == value ? 0 : value;
+	}
+
+	/**
+	 * 最小值，无记录时返回0
+	 *
+	 * @return 最小值
+	 */
+	public long getMin() {
+		final long value = min.get();
+		return Long.MAX_VALUE == value ? 0 : value;
+	}
+
+	/**
+	 * 获取百分位数，例如99表示99%的数值不大于返回值<br>
+	 * 返回值为所在桶的上界（不超过最大值），无记录时返回0
+	 *
+	 * @param percentile 百分位，0~100
+	 * @return 百分位数
+	 */
+	public long getPercentile(double percentile) {
+		Assert.isTrue(percentile >= 0 && percentile <= 100, "Percentile must be in [0, 100] but {}", percentile);
+		final long total = count.sum();
+		if (0 == total) {
+			return 0;
+		}
+		final long target = Math.max(1, (long) Math.ceil(total * percentile / 100));
+		long accumulated = 0;
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			accumulated += buckets.get(i);
+			if (accumulated >= target) {
+				return Math.min(bucketUpperBound(i), getMax());
+			}
+		}
+		return getMax();
+	}
+
+	/**
+	 * 将另一个直方图的数据合并到此直方图
+	 *
+	 * @param other 另一个直方图
+	 * @return this
+	 */
+	public LatencyHistogram merge(LatencyHistogram other) {
+		long value;
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			value = other.buckets.get(i);
+			if (value > 0) {
+				buckets.addAndGet(i, value);
+			}
+		}
+		count.add(other.count.sum());
+		sum.add(other.sum.sum());
+		if (other.getCount() > 0) {
+			max.accumulateAndGet(other.max.get(), Math::max);
+			min.accumulateAndGet(other.min.get(), Math::min);
+		}
+		return this;
+	}
+
+	/**
+	 * 清空记录
+	 */
+	public void reset() {
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			buckets.set(i, 0);
+		}
+		count.reset();
+		sum.reset();
+		max.set(Long.MIN_VALUE);
+		min.set(Long.MAX_VALUE);
+	}
+
+	/**
+	 * 转为JSON字符串，包括count、mean、min、p50、p90、p99、p999、max
+	 *
+	 * @return JSON字符串
+	 */
+	public String toJson() {
+		return StrUtil.format("{\"count\":{},\"mean\":{},\"min\":{},\"p50\":{},\"p90\":{},\"p99\":{},\"p999\":{},\"max\":{}}", //
+				getCount(), Math.round(getMean() * 100) / 100d, getMin(), getPercentile(50), getPercentile(90), getPercentile(99), getPercentile(99.9), getMax());
+	}
+
+	@Override
+	public String toString() {
+		return toJson();
+	}
+
+	/**
+	 * 数值所在桶的序号
+	 *
+	 * @param value 非负数值
+	 * @return 桶序号
+	 */
+	static int bucketIndex(long value) {
+		if (value < LINEAR_SIZE) {
+			return (int) value;
+		}
+		// 最高位以下保留SUB_BUCKET_BITS位
+		final int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+		final int sub = (int) (value >>> shift) - SUB_BUCKET_COUNT;
+		return LINEAR_SIZE + (shift - 1) * SUB_BUCKET_COUNT + sub;
+	}
+
+	/**
+	 * 桶中数值的上界
+	 *
+	 * @param index 桶序号
+	 * @return 上界
+	 */
+	static long bucketUpperBound(int index) {
+		if (index < LINEAR_SIZE) {
+			return index;
+		}
+		final int shift = (index - LINEAR_SIZE) / SUB_BUCKET_COUNT + 1;
+		final long top = (index - LINEAR_SIZE) % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+		return ((top + 1) << shift) - 1;
+	}
+}
@@ -1,6 +1,7 @@
 package com.mawujun.lang;
 
 import com.mawujun.clone.CloneSupport;
+import com.mawujun.util.ObjectUtil;
 
 /**
  * 键值对对象，只能在构造时传入键值
@@ -43,6 +44,23 @@ public class Pair<K, V> extends CloneSupport<Pair<K, V>> {
 		return this.value;
 	}
 
+	@Override
+	public int hashCode() {
+		return (null == key ? 0 : key.hashCode()) ^ (null == value ? 0 : value.hashCode());
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj instanceof Pair) {
+			final Pair<?, ?> pair = (Pair<?, ?>) obj;
+			return ObjectUtil.equal(this.key, pair.key) && ObjectUtil.equal(this.value, pair.value);
+		}
+		return false;
+	}
+
 	@Override
 	public String toString() {
 		return "Pair [key=" + key + ", value=" + value + "]";
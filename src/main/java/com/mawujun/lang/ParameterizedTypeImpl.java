@@ -2,6 +2,8 @@ package com.mawujun.lang;
 
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Objects;
 
 import com.mawujun.util.ArrayUtil;
 import com.mawujun.util.StrUtil;
@@ -46,6 +48,28 @@ public class ParameterizedTypeImpl implements ParameterizedType {
 		return rawType;
 	}
 
+	/**
+	 * 与JDK的实现一致，可与其他{@link ParameterizedType}实现比较
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (false == (obj instanceof ParameterizedType)) {
+			return false;
+		}
+		final ParameterizedType other = (ParameterizedType) obj;
+		return Objects.equals(rawType, other.getRawType()) //
+				&& Objects.equals(ownerType, other.getOwnerType()) //
+				&& Arrays.equals(actualTypeArguments, other.getActualTypeArguments());
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(actualTypeArguments) ^ Objects.hashCode(ownerType) ^ Objects.hashCode(rawType);
+	}
+
 	@Override
 	public String toString() {
 		final StringBuilder buf = new StringBuilder();
@@ -0,0 +1,406 @@
+package com.mawujun.map;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.mawujun.lang.Assert;
+
+/**
+ * 线程安全的有界Map，超出容量时按CLOCK（二次机会）算法淘汰近似最久未使用的键值对<br>
+ * 与使用{@link java.util.Collections#synchronizedMap(Map)}包装的{@link FixedLinkedHashMap}不同：
+ * <ul>
+ * <li>get无锁，只设置访问标记，不移动链表</li>
+ * <li>写入使用{@link ConcurrentHashMap}，只有超出容量时由一个线程加锁淘汰</li>
+ * <li>淘汰时按加入顺序检查，有访问标记的清除标记后放回队尾，无标记的被淘汰</li>
+ * </ul>
+ * 容量可以按键值对个数或按权重（{@link Weigher}）限制，淘汰时回调{@link EvictionListener}。不支持null键和null值。
+ *
+ * <pre>
+ * ConcurrentLRUMap&lt;String, byte[]&gt; cache = new ConcurrentLRUMap&lt;String, byte[]&gt;(64 * 1024 * 1024, (key, value) -&gt; value.length)
+ * 		.setEvictionListener((key, value) -&gt; Console.log("evict {}", key));
+ * </pre>
+ *
+ * @author mawujun
+ * @param <K> 键类型
+ * @param <V> 值类型
+ */
+public class ConcurrentLRUMap<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V> {
+
+	private final ConcurrentHashMap<K, Node<K, V>> map;
+	/** 新加入的节点，无锁写入，淘汰时移入CLOCK队列 */
+	private final ConcurrentLinkedQueue<Node<K, V>> writeBuffer = new ConcurrentLinkedQueue<>();
+	/** CLOCK队列，按加入顺序，包含已被移除的节点（淘汰时跳过），只在持有淘汰锁时访问 */
+	private final ArrayDeque<Node<K, V>> clock = new ArrayDeque<>();
+	/** 队列中已被移除的节点数，过多时清理 */
+	private final AtomicInteger deadNodes = new AtomicInteger();
+	private final ReentrantLock evictionLock = new ReentrantLock();
+
+	private final long maxWeight;
+	private final Weigher<? super K, ? super V> weigher;
+	private final AtomicLong weight = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+	private volatile EvictionListener<? super K, ? super V> listener;
+
+	/**
+	 * 构造，按键值对个数限制容量
+	 *
+	 * @param capacity 最大键值对个数
+	 */
+	public ConcurrentLRUMap(int capacity) {
+		this(capacity, (key, value) -> 1);
+	}
+
+	/**
+	 * 构造，按权重限制容量
+	 *
+	 * @param maxWeight 最大总权重
+	 * @param weigher 权重计算，每个键值对的权重在放入时计算一次
+	 */
+	public ConcurrentLRUMap(long maxWeight, Weigher<? super K, ? super V> weigher) {
+		Assert.isTrue(maxWeight > 0, "Max weight must be greater than 0 but {}", maxWeight);
+		this.maxWeight = maxWeight;
+		this.weigher = weigher;
+		this.map = new ConcurrentHashMap<>((int) Math.min(maxWeight, 1024));
+	}
+
+	/**
+	 * 设置淘汰监听，只在因超出容量被淘汰时回调，在执行淘汰的线程中同步调用
+	 *
+	 * @param listener 监听
+	 * @return this
+	 */
+	public ConcurrentLRUMap<K, V> setEvictionListener(EvictionListener<? super K, ? super V> listener) {
+		this.listener = listener;
+		return this;
+	}
+
+	/**
+	 * 最大总权重，按个数限制时为容量
+	 *
+	 * @return 最大总权重
+	 */
+	public long getMaxWeight() {
+		return maxWeight;
+	}
+
+	/**
+	 * 当前总权重，按个数限制时与{@link #size()}相同
+	 *
+	 * @return 当前总权重
+	 */
+	public long getWeight() {
+		return weight.get();
+	}
+
+	/**
+	 * 因超出容量被淘汰的次数
+	 *
+	 * @return 淘汰次数
+	 */
+	public long getEvictions() {
+		return evictions.get();
+	}
+
+	@Override
+	public int size() {
+		return map.size();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return map.isEmpty();
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return map.containsKey(key);
+	}
+
+	/**
+	 * 获取值，无锁，只标记为已访问
+	 */
+	@Override
+	public V get(Object key) {
+		final Node<K, V> node = map.get(key);
+		if (null == node) {
+			return null;
+		}
+		node.markAccessed();
+		return node.value;
+	}
+
+	@Override
+	public V put(K key, V value) {
+		final Node<K, V> node = newNode(key, value);
+		final Node<K, V> old = map.put(key, node);
+		if (null != old) {
+			unlink(old);
+		}
+		link(node);
+		return (null == old) ? null : old.value;
+	}
+
+	@Override
+	public V putIfAbsent(K key, V value) {
+		final Node<K, V> node = newNode(key, value);
+		final Node<K, V> existing = map.putIfAbsent(key, node);
+		if (null != existing) {
+			existing.markAccessed();
+			return existing.value;
+		}
+		link(node);
+		return null;
+	}
+
+	@Override
+	public V remove(Object key) {
+		final Node<K, V> node = map.remove(key);
+		if (null == node) {
+			return null;
+		}
+		unlink(node);
+		return node.value;
+	}
+
+	@Override
+	public boolean remove(Object key, Object value) {
+		final Node<K, V> node = map.get(key);
+		if (null != node && Objects.equals(node.value, value) && map.remove(key, node)) {
+			unlink(node);
+			return true;
+		}
+		return false;
+	}
+
+	@Override
+	public V replace(K key, V value) {
+		Node<K, V> node;
+		final Node<K, V> newNode = newNode(key, value);
+		while (null != (node = map.get(key))) {
+			if (map.replace(key, node, newNode)) {
+				unlink(node);
+				link(newNode);
+				return node.value;
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public boolean replace(K key, V oldValue, V newValue) {
+		Node<K, V> node;
+		final Node<K, V> newNode = newNode(key, newValue);
+		while (null != (node = map.get(key)) && Objects.equals(node.value, oldValue)) {
+			if (map.replace(key, node, newNode)) {
+				unlink(node);
+				link(newNode);
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public void clear() {
+		for (K key : map.keySet()) {
+			remove(key);
+		}
+	}
+
+	@Override
+	public Set<Entry<K, V>> entrySet() {
+		return new EntrySet();
+	}
+
+	// ------------------------------------------------------------------------------------------------------------------------------------- Private method start
+	private Node<K, V> newNode(K key, V value) {
+		Assert.notNull(value, "Value must not be null");
+		final int nodeWeight = weigher.weigh(key, value);
+		Assert.isTrue(nodeWeight >= 0, "Weight must not be negative but {}", nodeWeight);
+		return new Node<>(key, value, nodeWeight);
+	}
+
+	/**
+	 * 新节点加入写缓冲，超出容量时淘汰
+	 */
+	private void link(Node<K, V> node) {
+		writeBuffer.offer(node);
+		if (weight.addAndGet(node.weight) > maxWeight) {
+			evict();
+		}
+	}
+
+	/**
+	 * 节点已从Map中移除，队列中的节点在淘汰时跳过
+	 */
+	private void unlink(Node<K, V> node) {
+		node.dead = true;
+		weight.addAndGet(-node.weight);
+		if (deadNodes.incrementAndGet() > Math.max(map.size(), 16) && evictionLock.tryLock()) {
+			try {
+				// 频繁替换而没有淘汰时，清理队列中的无效节点
+				drainWriteBuffer();
+				clock.removeIf(n -> n.dead);
+				deadNodes.set(0);
+			} finally {
+				evictionLock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * CLOCK淘汰，有访问标记的节点清除标记后放回队尾
+	 */
+	private void evict() {
+		evictionLock.lock();
+		try {
+			drainWriteBuffer();
+			Node<K, V> node;
+			while (weight.get() > maxWeight && null != (node = clock.poll())) {
+				if (node.dead) {
+					deadNodes.decrementAndGet();
+					continue;
+				}
+				if (node.accessed) {
+					node.accessed = false;
+					clock.offer(node);
+					continue;
+				}
+				if (map.remove(node.key, node)) {
+					node.dead = true;
+					weight.addAndGet(-node.weight);
+					evictions.incrementAndGet();
+					final EvictionListener<? super K, ? super V> listener = this.listener;
+					if (null != listener) {
+						listener.onEviction(node.key, node.value);
+					}
+				}
+			}
+		} finally {
+			evictionLock.unlock();
+		}
+	}
+
+	/**
+	 * 写缓冲中的节点移入CLOCK队列，需持有淘汰锁
+	 */
+	private void drainWriteBuffer() {
+		Node<K, V> node;
+		while (null != (node = writeBuffer.poll())) {
+			clock.offer(node);
+		}
+	}
+	// ------------------------------------------------------------------------------------------------------------------------------------- Private method end
+
+	private final class EntrySet extends AbstractSet<Entry<K, V>> {
+		@Override
+		public Iterator<Entry<K, V>> iterator() {
+			final Iterator<Node<K, V>> iterator = map.values().iterator();
+			return new Iterator<Entry<K, V>>() {
+				private Node<K, V> last;
+
+				@Override
+				public boolean hasNext() {
+					return iterator.hasNext();
+				}
+
+				@Override
+				public Entry<K, V> next() {
+					last = iterator.next();
+					return new SimpleImmutableEntry<>(last.key, last.value);
+				}
+
+				@Override
+				public void remove() {
+					if (null == last) {
+						throw new IllegalStateException();
+					}
+					ConcurrentLRUMap.this.remove(last.key, last.value);
+					last = null;
+				}
+			};
+		}
+
+		@Override
+		public int size() {
+			return map.size();
+		}
+
+		@Override
+		public void clear() {
+			ConcurrentLRUMap.this.clear();
+		}
+	}
+
+	/**
+	 * 键值对节点，值不可变，替换值时创建新节点
+	 */
+	private static final class Node<K, V> {
+		final K key;
+		final V value;
+		final int weight;
+		/** 上次淘汰检查后是否被访问 */
+		volatile boolean accessed;
+		/** 是否已从Map中移除 */
+		volatile boolean dead;
+
+		Node(K key, V value, int weight) {
+			this.key = key;
+			this.value = value;
+			this.weight = weight;
+		}
+
+		void markAccessed() {
+			// 已标记时不再写，避免热点键的缓存行争用
+			if (false == accessed) {
+				accessed = true;
+			}
+		}
+	}
+
+	/**
+	 * 权重计算
+	 *
+	 * @param <K> 键类型
+	 * @param <V> 值类型
+	 */
+	@FunctionalInterface
+	public interface Weigher<K, V> {
+		/**
+		 * 计算键值对的权重
+		 *
+		 * @param key 键
+		 * @param value 值
+		 * @return 权重，不能为负数
+		 */
+		int weigh(K key, V value);
+	}
+
+	/**
+	 * 淘汰监听
+	 *
+	 * @param <K> 键类型
+	 * @param <V> 值类型
+	 */
+	@FunctionalInterface
+	public interface EvictionListener<K, V> {
+		/**
+		 * 键值对因超出容量被淘汰
+		 *
+		 * @param key 键
+		 * @param value 值
+		 */
+		void onEviction(K key, V value);
+	}
+}
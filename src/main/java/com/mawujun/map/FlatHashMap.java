@@ -0,0 +1,405 @@
+package com.mawujun.map;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * 开放寻址（线性探测）的HashMap<br>
+ * 键和值交替存放在同一个数组中，不为每个键值对创建节点对象，适合大量中小Map（如几十个键的行数据）。
+ * 与{@link java.util.HashMap}相比：
+ * <ul>
+ * <li>每个键值对只占两个数组槽位，无Node对象，内存占用约为HashMap的一半或更少</li>
+ * <li>遍历为数组顺序扫描，{@link #forEach(BiConsumer)}不创建Entry对象</li>
+ * <li>遍历顺序为哈希顺序，不保证插入顺序</li>
+ * <li>删除的位置使用标记占位，标记过多时在下次扩容时清理</li>
+ * </ul>
+ * 支持null键和null值，非线程安全。
+ *
+ * @author mawujun
+ * @param <K> 键类型
+ * @param <V> 值类型
+ */
+public class FlatHashMap<K, V> extends AbstractMap<K, V> implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	/** null键在表中的占位 */
+	private static final Object NULL_KEY = new Object();
+	/** 已删除位置的占位 */
+	private static final Object REMOVED = new Object();
+	/** 默认容量（键值对数） */
+	private static final int DEFAULT_EXPECTED_SIZE = 8;
+
+	/** 键值交替存放，2i为键，2i+1为值 */
+	private transient Object[] table;
+	/** 键值对数 */
+	private transient int size;
+	/** 已使用的位置数（含删除标记） */
+	private transient int used;
+	/** 扩容阈值（位置数） */
+	private transient int threshold;
+	private transient int modCount;
+
+	/**
+	 * 构造
+	 */
+	public FlatHashMap() {
+		this(DEFAULT_EXPECTED_SIZE);
+	}
+
+	/**
+	 * 构造
+	 *
+	 * @param expectedSize 预期的键值对数，放入不超过此数量的键值对不会扩容
+	 */
+	public FlatHashMap(int expectedSize) {
+		allocate(capacityFor(expectedSize));
+	}
+
+	/**
+	 * 构造
+	 *
+	 * @param map 初始键值对
+	 */
+	public FlatHashMap(Map<? extends K, ? extends V> map) {
+		this(map.size());
+		putAll(map);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return 0 == size;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public V get(Object key) {
+		final int index = indexOf(key);
+		return (index < 0) ? null : (V) table[index + 1];
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return indexOf(key) >= 0;
+	}
+
+	@Override
+	public boolean containsValue(Object value) {
+		final Object[] tab = this.table;
+		for (int i = 0; i < tab.length; i += 2) {
+			if (isKey(tab[i]) && Objects.equals(value, tab[i + 1])) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public V put(K key, V value) {
+		final Object k = maskNull(key);
+		final Object[] tab = this.table;
+		final int mask = tab.length - 2;
+		int i = slot(k, mask);
+		int removedIndex = -1;
+		Object existing;
+		while (null != (existing = tab[i])) {
+			if (REMOVED == existing) {
+				if (removedIndex < 0) {
+					removedIndex = i;
+				}
+			} else if (existing == k || existing.equals(k)) {
+				final V old = (V) tab[i + 1];
+				tab[i + 1] = value;
+				return old;
+			}
+			i = (i + 2) & mask;
+		}
+
+		if (removedIndex >= 0) {
+			// 复用删除的位置，已使用位置数不变
+			i = removedIndex;
+		} else {
+			used++;
+		}
+		tab[i] = k;
+		tab[i + 1] = value;
+		size++;
+		modCount++;
+		if (used > threshold) {
+			rehash();
+		}
+		return null;
+	}
+
+	@Override
+	public void putAll(Map<? extends K, ? extends V> m) {
+		final int capacity = capacityFor(size + m.size());
+		if (capacity > table.length / 2) {
+			resize(capacity);
+		}
+		for (Entry<? extends K, ? extends V> entry : m.entrySet()) {
+			put(entry.getKey(), entry.getValue());
+		}
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public V remove(Object key) {
+		final int index = indexOf(key);
+		if (index < 0) {
+			return null;
+		}
+		final V old = (V) table[index + 1];
+		removeAt(index);
+		return old;
+	}
+
+	@Override
+	public void clear() {
+		if (used > 0) {
+			Arrays.fill(table, null);
+			size = 0;
+			used = 0;
+			modCount++;
+		}
+	}
+
+	/**
+	 * 按数组顺序遍历，不创建Entry对象
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public void forEach(BiConsumer<? super K, ? super V> action) {
+		final Object[] tab = this.table;
+		final int expectedModCount = modCount;
+		for (int i = 0; i < tab.length; i += 2) {
+			if (isKey(tab[i])) {
+				action.accept((K) unmaskNull(tab[i]), (V) tab[i + 1]);
+			}
+		}
+		if (expectedModCount != modCount) {
+			throw new ConcurrentModificationException();
+		}
+	}
+
+	@Override
+	public Set<Entry<K, V>> entrySet() {
+		return new EntrySet();
+	}
+
+	// ------------------------------------------------------------------------------------------------------------------------------------- Private method start
+	/**
+	 * 键在表中的位置，不存在返回-1
+	 */
+	private int indexOf(Object key) {
+		final Object k = maskNull(key);
+		final Object[] tab = this.table;
+		final int mask = tab.length - 2;
+		int i = slot(k, mask);
+		Object existing;
+		while (null != (existing = tab[i])) {
+			if (existing == k || (REMOVED != existing && existing.equals(k))) {
+				return i;
+			}
+			i = (i + 2) & mask;
+		}
+		return -1;
+	}
+
+	private void removeAt(int index) {
+		table[index] = REMOVED;
+		table[index + 1] = null;
+		size--;
+		modCount++;
+	}
+
+	/**
+	 * 删除标记超过一半时原容量重建，否则扩容一倍
+	 */
+	private void rehash() {
+		final int pairs = table.length / 2;
+		resize((size > (used - size)) ? pairs * 2 : pairs);
+	}
+
+	private void resize(int newPairs) {
+		final Object[] old = this.table;
+		allocate(newPairs);
+		final Object[] tab = this.table;
+		final int mask = tab.length - 2;
+		int i;
+		for (int j = 0; j < old.length; j += 2) {
+			if (isKey(old[j])) {
+				i = slot(old[j], mask);
+				while (null != tab[i]) {
+					i = (i + 2) & mask;
+				}
+				tab[i] = old[j];
+				tab[i + 1] = old[j + 1];
+			}
+		}
+		this.used = this.size;
+		modCount++;
+	}
+
+	private void allocate(int pairs) {
+		this.table = new Object[pairs * 2];
+		this.used = 0;
+		// 负载因子0.75
+		this.threshold = pairs - (pairs >>> 2);
+	}
+
+	/**
+	 * 容纳指定数量的键值对需要的容量（2的幂）
+	 */
+	private static int capacityFor(int expectedSize) {
+		final int min = Math.max(expectedSize + (expectedSize / 3) + 1, 4);
+		int capacity = 4;
+		while (capacity < min) {
+			capacity <<= 1;
+		}
+		return capacity;
+	}
+
+	/**
+	 * 键的起始位置（偶数下标）
+	 */
+	private static int slot(Object k, int mask) {
+		int h = k.hashCode() * 0x9E3779B9;
+		h ^= (h >>> 16);
+		return (h << 1) & mask;
+	}
+
+	private static boolean isKey(Object o) {
+		return null != o && REMOVED != o;
+	}
+
+	private static Object maskNull(Object key) {
+		return (null == key) ? NULL_KEY : key;
+	}
+
+	private static Object unmaskNull(Object key) {
+		return (NULL_KEY == key) ? null : key;
+	}
+
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		out.defaultWriteObject();
+		out.writeInt(size);
+		final Object[] tab = this.table;
+		for (int i = 0; i < tab.length; i += 2) {
+			if (isKey(tab[i])) {
+				out.writeObject(unmaskNull(tab[i]));
+				out.writeObject(tab[i + 1]);
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		final int count = in.readInt();
+		allocate(capacityFor(count));
+		for (int i = 0; i < count; i++) {
+			put((K) in.readObject(), (V) in.readObject());
+		}
+	}
+	// ------------------------------------------------------------------------------------------------------------------------------------- Private method end
+
+	/**
+	 * 键值对集合，迭代器按数组顺序扫描
+	 */
+	private final class EntrySet extends AbstractSet<Entry<K, V>> {
+		@Override
+		public Iterator<Entry<K, V>> iterator() {
+			return new EntryIterator();
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+
+		@Override
+		public void clear() {
+			FlatHashMap.this.clear();
+		}
+	}
+
+	private final class EntryIterator implements Iterator<Entry<K, V>> {
+		private final Object[] tab = table;
+		/** 下一个待检查的位置 */
+		private int next;
+		/** 上一次返回的位置 */
+		private int last = -1;
+		private int expectedModCount = modCount;
+
+		@Override
+		public boolean hasNext() {
+			while (next < tab.length && false == isKey(tab[next])) {
+				next += 2;
+			}
+			return next < tab.length;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public Entry<K, V> next() {
+			if (expectedModCount != modCount) {
+				throw new ConcurrentModificationException();
+			}
+			if (false == hasNext()) {
+				throw new NoSuchElementException();
+			}
+			last = next;
+			next += 2;
+			return new MapEntry((K) unmaskNull(tab[last]), (V) tab[last + 1]);
+		}
+
+		@Override
+		public void remove() {
+			if (last < 0) {
+				throw new IllegalStateException();
+			}
+			if (expectedModCount != modCount) {
+				throw new ConcurrentModificationException();
+			}
+			// 标记删除，不移动其它元素，不影响后续遍历
+			removeAt(last);
+			last = -1;
+			expectedModCount = modCount;
+		}
+	}
+
+	/**
+	 * 键值对，setValue写回Map
+	 */
+	private final class MapEntry extends SimpleEntry<K, V> {
+		private static final long serialVersionUID = 1L;
+
+		MapEntry(K key, V value) {
+			super(key, value);
+		}
+
+		@Override
+		public V setValue(V value) {
+			super.setValue(value);
+			return put(getKey(), value);
+		}
+	}
+}
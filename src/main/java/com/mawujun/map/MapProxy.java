@@ -3,13 +3,15 @@ package com.mawujun.map;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
+import com.mawujun.convert.BasicType;
 import com.mawujun.convert.Convert;
 import com.mawujun.getter.OptNullBasicTypeFromObjectGetter;
-import com.mawujun.util.ArrayUtil;
 import com.mawujun.util.BooleanUtil;
 import com.mawujun.util.ClassLoaderUtil;
 import com.mawujun.util.StrUtil;
@@ -118,48 +120,28 @@ public class MapProxy extends OptNullBasicTypeFromObjectGetter<Object> implement
 
 	@Override
 	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-		final Class<?>[] parameterTypes = method.getParameterTypes();
-		if (ArrayUtil.isEmpty(parameterTypes)) {
-			final Class<?> returnType = method.getReturnType();
-			if (null != returnType && void.class != returnType) {
-				// 匹配Getter
-				final String methodName = method.getName();
-				String fieldName = null;
-				if (methodName.startsWith("get")) {
-					// 匹配getXXX
-					fieldName = StrUtil.removePreAndLowerFirst(methodName, 3);
-				} else if (BooleanUtil.isBoolean(returnType) && methodName.startsWith("is")) {
-					// 匹配isXXX
-					fieldName = StrUtil.removePreAndLowerFirst(methodName, 2);
-				}else if ("hashCode".equals(methodName)) {
-					return this.hashCode();
-				} else if ("toString".equals(methodName)) {
-					return this.toString();
-				}
-				
-				if (StrUtil.isNotBlank(fieldName)) {
-					if (false == this.containsKey(fieldName)) {
-						// 驼峰不存在转下划线尝试
-						fieldName = StrUtil.toUnderlineCase(fieldName);
-					}
-					return Convert.convert(method.getGenericReturnType(), this.get(fieldName));
-				}
-			}
-
-		} else if (1 == parameterTypes.length) {
-			// 匹配Setter
-			final String methodName = method.getName();
-			if (methodName.startsWith("set")) {
-				final String fieldName = StrUtil.removePreAndLowerFirst(methodName, 3);
-				if (StrUtil.isNotBlank(fieldName)) {
-					this.put(fieldName, args[0]);
-				}
-			} else if ("equals".equals(methodName)) {
-				return this.equals(args[0]);
+		final ProxyMethod proxyMethod = ProxyMethod.of(method);
+		switch (proxyMethod.kind) {
+		case ProxyMethod.GETTER:
+			Object value = this.get(proxyMethod.fieldName);
+			if (null == value && false == this.containsKey(proxyMethod.fieldName)) {
+				// 驼峰不存在转下划线尝试
+				value = this.get(proxyMethod.underlineFieldName);
 			}
+			return proxyMethod.convert(value);
+		case ProxyMethod.SETTER:
+			this.put(proxyMethod.fieldName, args[0]);
+			// 返回值为接口本身时支持链式调用
+			return proxyMethod.returnType.isInstance(proxy) ? proxy : null;
+		case ProxyMethod.HASH_CODE:
+			return this.hashCode();
+		case ProxyMethod.TO_STRING:
+			return this.toString();
+		case ProxyMethod.EQUALS:
+			return this.equals(args[0]);
+		default:
+			throw new UnsupportedOperationException(method.toGenericString());
 		}
-
-		throw new UnsupportedOperationException(method.toGenericString());
 	}
 	
 	/**
@@ -173,4 +155,105 @@ public class MapProxy extends OptNullBasicTypeFromObjectGetter<Object> implement
 	public <T> T toProxyBean(Class<T> interfaceClass) {
 		return (T) Proxy.newProxyInstance(ClassLoaderUtil.getClassLoader(), new Class<?>[]{interfaceClass}, this);
 	}
+
+	/**
+	 * 接口方法的解析结果，每个方法只解析一次，按声明方法的类缓存
+	 * 
+	 * @author mawujun
+	 */
+	private static final class ProxyMethod {
+		static final int UNSUPPORTED = 0;
+		static final int GETTER = 1;
+		static final int SETTER = 2;
+		static final int HASH_CODE = 3;
+		static final int TO_STRING = 4;
+		static final int EQUALS = 5;
+
+		private static final ClassValue<Map<Method, ProxyMethod>> CACHE = new ClassValue<Map<Method, ProxyMethod>>() {
+			@Override
+			protected Map<Method, ProxyMethod> computeValue(Class<?> type) {
+				return new ConcurrentHashMap<>();
+			}
+		};
+
+		final int kind;
+		final String fieldName;
+		/** 驼峰字段名对应的下划线字段名 */
+		final String underlineFieldName;
+		/** 返回值类型，基本类型为包装类型 */
+		final Class<?> returnType;
+		final Type genericReturnType;
+		/** 值类型与返回值类型相同时是否可以直接返回，不经过转换 */
+		private final boolean direct;
+
+		/**
+		 * 获取方法的解析结果
+		 * 
+		 * @param method 接口方法
+		 * @return {@link ProxyMethod}
+		 */
+		static ProxyMethod of(Method method) {
+			final Map<Method, ProxyMethod> methods = CACHE.get(method.getDeclaringClass());
+			ProxyMethod proxyMethod = methods.get(method);
+			if (null == proxyMethod) {
+				proxyMethod = new ProxyMethod(method);
+				methods.put(method, proxyMethod);
+			}
+			return proxyMethod;
+		}
+
+		private ProxyMethod(Method method) {
+			final String methodName = method.getName();
+			final Class<?> returnType = method.getReturnType();
+			final int parameterCount = method.getParameterTypes().length;
+			String fieldName = null;
+			int kind = UNSUPPORTED;
+			if (0 == parameterCount && void.class != returnType) {
+				if (methodName.startsWith("get")) {
+					// 匹配getXXX
+					fieldName = StrUtil.removePreAndLowerFirst(methodName, 3);
+					kind = GETTER;
+				} else if (BooleanUtil.isBoolean(returnType) && methodName.startsWith("is")) {
+					// 匹配isXXX
+					fieldName = StrUtil.removePreAndLowerFirst(methodName, 2);
+					kind = GETTER;
+				} else if ("hashCode".equals(methodName)) {
+					kind = HASH_CODE;
+				} else if ("toString".equals(methodName)) {
+					kind = TO_STRING;
+				}
+			} else if (1 == parameterCount) {
+				if (methodName.startsWith("set")) {
+					// 匹配Setter
+					fieldName = StrUtil.removePreAndLowerFirst(methodName, 3);
+					kind = SETTER;
+				} else if ("equals".equals(methodName)) {
+					kind = EQUALS;
+				}
+			}
+			if ((GETTER == kind || SETTER == kind) && StrUtil.isBlank(fieldName)) {
+				kind = UNSUPPORTED;
+			}
+
+			this.kind = kind;
+			this.fieldName = fieldName;
+			this.underlineFieldName = (GETTER == kind) ? StrUtil.toUnderlineCase(fieldName) : null;
+			this.returnType = BasicType.wrap(returnType);
+			this.genericReturnType = method.getGenericReturnType();
+			this.direct = Object.class == this.returnType || String.class == this.returnType || BasicType.wrapperPrimitiveMap.containsKey(this.returnType);
+		}
+
+		/**
+		 * 转换Getter的返回值
+		 * 
+		 * @param value 值
+		 * @return 转换后的值
+		 */
+		Object convert(Object value) {
+			if (direct && null != value && (Object.class == returnType || value.getClass() == returnType)) {
+				return value;
+			}
+			return Convert.convert(genericReturnType, value);
+		}
+	}
 }
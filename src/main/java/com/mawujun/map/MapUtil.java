@@ -107,6 +107,18 @@ public class MapUtil {
 		return newHashMap(DEFAULT_INITIAL_CAPACITY, isOrder);
 	}
 
+	/**
+	 * 新建一个开放寻址的{@link FlatHashMap}，无Entry节点对象，适合大量的中小Map
+	 * 
+	 * @param <K> Key类型
+	 * @param <V> Value类型
+	 * @param size 预期的键值对数，放入不超过此数量的键值对不会扩容
+	 * @return FlatHashMap对象
+	 */
+	public static <K, V> FlatHashMap<K, V> newFlatHashMap(int size) {
+		return new FlatHashMap<>(size);
+	}
+
 	/**
 	 * 新建TreeMap，Key有序的Map
 	 * 
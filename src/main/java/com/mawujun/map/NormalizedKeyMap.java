@@ -0,0 +1,280 @@
+package com.mawujun.map;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import com.mawujun.util.CharUtil;
+
+/**
+ * 只读的规范化Key查找表，用于按忽略大小写或驼峰风格查找字符串Key<br>
+ * 与{@link CaseInsensitiveMap}、{@link CamelCaseMap}在每次get时转换Key不同，此表在创建时规范化所有Key，
+ * 查找时对传入的{@link CharSequence}逐字符计算规范化后的哈希并比较，不创建新的字符串，适合创建一次、查找多次的场景（如每个类的属性表）。
+ * <ul>
+ * <li>忽略大小写：逐字符{@link Character#toLowerCase(char)}后比较</li>
+ * <li>驼峰：与{@link com.mawujun.util.StrUtil#toCamelCase(CharSequence)}一致，含下划线的Key去掉下划线，下划线后的字符大写，其余小写</li>
+ * </ul>
+ * 两种规则可同时使用（先转驼峰再忽略大小写）。规范化后相同的Key，后加入的覆盖先加入的；非字符串Key被忽略。
+ *
+ * @author mawujun
+ * @param <V> 值类型
+ */
+public class NormalizedKeyMap<V> extends AbstractMap<String, V> {
+
+	private final boolean ignoreCase;
+	private final boolean camelCase;
+
+	/** 原始Key，按加入顺序 */
+	private final String[] keys;
+	private final Object[] values;
+	private final int size;
+
+	/** 开放寻址表，存放keys中的下标+1，0表示空 */
+	private final int[] table;
+	private final int[] hashes;
+	/** 规范化后的Key，与keys下标对应 */
+	private final String[] normalizedKeys;
+	private final int mask;
+
+	/**
+	 * 构造
+	 *
+	 * @param map 原Map，只使用{@link CharSequence}类型的Key
+	 * @param ignoreCase 是否忽略大小写
+	 * @param camelCase 是否按驼峰风格匹配
+	 */
+	public NormalizedKeyMap(Map<?, ? extends V> map, boolean ignoreCase, boolean camelCase) {
+		this.ignoreCase = ignoreCase;
+		this.camelCase = camelCase;
+
+		int capacity = 4;
+		while (capacity < map.size() * 2) {
+			capacity <<= 1;
+		}
+		this.table = new int[capacity];
+		this.hashes = new int[map.size()];
+		this.keys = new String[map.size()];
+		this.values = new Object[map.size()];
+		this.normalizedKeys = new String[map.size()];
+		this.mask = capacity - 1;
+
+		int count = 0;
+		for (Map.Entry<?, ? extends V> entry : map.entrySet()) {
+			if (false == (entry.getKey() instanceof CharSequence)) {
+				continue;
+			}
+			final CharSequence key = (CharSequence) entry.getKey();
+			final int hash = hash(key);
+			final int index = indexOf(key, hash);
+			if (index >= 0) {
+				// 规范化后相同，覆盖
+				keys[index] = key.toString();
+				values[index] = entry.getValue();
+				continue;
+			}
+			keys[count] = key.toString();
+			values[count] = entry.getValue();
+			hashes[count] = hash;
+			normalizedKeys[count] = normalize(key);
+			int slot = spread(hash) & mask;
+			while (0 != table[slot]) {
+				slot = (slot + 1) & mask;
+			}
+			table[slot] = ++count;
+		}
+		this.size = count;
+	}
+
+	/**
+	 * 是否忽略大小写
+	 *
+	 * @return 是否忽略大小写
+	 */
+	public boolean isIgnoreCase() {
+		return ignoreCase;
+	}
+
+	/**
+	 * 是否按驼峰风格匹配
+	 *
+	 * @return 是否按驼峰风格匹配
+	 */
+	public boolean isCamelCase() {
+		return camelCase;
+	}
+
+	/**
+	 * 按规范化规则查找，不创建新的字符串
+	 *
+	 * @param key Key
+	 * @return 值，不存在或Key不是{@link CharSequence}时返回null
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public V get(Object key) {
+		if (false == (key instanceof CharSequence)) {
+			return null;
+		}
+		final CharSequence chars = (CharSequence) key;
+		final int index = indexOf(chars, hash(chars));
+		return (index < 0) ? null : (V) values[index];
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		if (false == (key instanceof CharSequence)) {
+			return false;
+		}
+		final CharSequence chars = (CharSequence) key;
+		return indexOf(chars, hash(chars)) >= 0;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * 按加入顺序遍历原始Key及值
+	 */
+	@Override
+	public Set<Entry<String, V>> entrySet() {
+		return new AbstractSet<Entry<String, V>>() {
+			@Override
+			public Iterator<Entry<String, V>> iterator() {
+				return new Iterator<Entry<String, V>>() {
+					private int index;
+
+					@Override
+					public boolean hasNext() {
+						return index < size;
+					}
+
+					@Override
+					@SuppressWarnings("unchecked")
+					public Entry<String, V> next() {
+						if (index >= size) {
+							throw new NoSuchElementException();
+						}
+						final int i = index++;
+						return new SimpleImmutableEntry<>(keys[i], (V) values[i]);
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+		};
+	}
+
+	// ------------------------------------------------------------------------------------------------------------------------------------- Private method start
+	private int indexOf(CharSequence key, int hash) {
+		int slot = spread(hash) & mask;
+		int entry;
+		while (0 != (entry = table[slot])) {
+			final int index = entry - 1;
+			if (hashes[index] == hash && matches(normalizedKeys[index], key)) {
+				return index;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	/**
+	 * 规范化后的哈希，与normalize(key).hashCode()相同
+	 */
+	private int hash(CharSequence key) {
+		final boolean toCamel = camelCase && containsUnderline(key);
+		boolean upper = false;
+		int h = 0;
+		char c;
+		for (int i = 0, len = key.length(); i < len; i++) {
+			c = key.charAt(i);
+			if (toCamel) {
+				if (c == CharUtil.UNDERLINE) {
+					upper = true;
+					continue;
+				}
+				c = upper ? Character.toUpperCase(c) : Character.toLowerCase(c);
+				upper = false;
+			}
+			if (ignoreCase) {
+				c = Character.toLowerCase(c);
+			}
+			h = 31 * h + c;
+		}
+		return h;
+	}
+
+	/**
+	 * key规范化后是否与normalized相同
+	 */
+	private boolean matches(String normalized, CharSequence key) {
+		final boolean toCamel = camelCase && containsUnderline(key);
+		final int normalizedLength = normalized.length();
+		boolean upper = false;
+		int j = 0;
+		char c;
+		for (int i = 0, len = key.length(); i < len; i++) {
+			c = key.charAt(i);
+			if (toCamel) {
+				if (c == CharUtil.UNDERLINE) {
+					upper = true;
+					continue;
+				}
+				c = upper ? Character.toUpperCase(c) : Character.toLowerCase(c);
+				upper = false;
+			}
+			if (ignoreCase) {
+				c = Character.toLowerCase(c);
+			}
+			if (j >= normalizedLength || normalized.charAt(j++) != c) {
+				return false;
+			}
+		}
+		return j == normalizedLength;
+	}
+
+	private String normalize(CharSequence key) {
+		final boolean toCamel = camelCase && containsUnderline(key);
+		final StringBuilder builder = new StringBuilder(key.length());
+		boolean upper = false;
+		char c;
+		for (int i = 0, len = key.length(); i < len; i++) {
+			c = key.charAt(i);
+			if (toCamel) {
+				if (c == CharUtil.UNDERLINE) {
+					upper = true;
+					continue;
+				}
+				c = upper ? Character.toUpperCase(c) : Character.toLowerCase(c);
+				upper = false;
+			}
+			if (ignoreCase) {
+				c = Character.toLowerCase(c);
+			}
+			builder.append(c);
+		}
+		return builder.toString();
+	}
+
+	private static boolean containsUnderline(CharSequence key) {
+		for (int i = 0, len = key.length(); i < len; i++) {
+			if (key.charAt(i) == CharUtil.UNDERLINE) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static int spread(int h) {
+		return h ^ (h >>> 16);
+	}
+	// ------------------------------------------------------------------------------------------------------------------------------------- Private method end
+}
@@ -0,0 +1,329 @@
+package com.mawujun.map;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import com.mawujun.lang.Assert;
+
+/**
+ * 共享行结构的Map，键及其下标由{@link RowSchema}保存，每行只保存一个值数组<br>
+ * 遍历顺序为行结构中键的顺序，之后是行结构外的键。行结构外的键放入额外的{@link FlatHashMap}中，只在需要时创建。
+ * 支持null值，非线程安全。
+ *
+ * @author mawujun
+ * @param <K> 键类型
+ * @param <V> 值类型
+ * @see RowSchema
+ */
+public class RowMap<K, V> extends AbstractMap<K, V> implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	/** 行结构中无值的键的占位 */
+	private static final Object ABSENT = new Object();
+
+	private final RowSchema<K> schema;
+	/** 值，与行结构的下标对应 */
+	private transient Object[] values;
+	/** 行结构中有值的键数 */
+	private transient int present;
+	/** 行结构外的键值对 */
+	private transient FlatHashMap<K, V> extra;
+	private transient int modCount;
+
+	/**
+	 * 构造空行
+	 *
+	 * @param schema 行结构
+	 */
+	public RowMap(RowSchema<K> schema) {
+		this.schema = schema;
+		this.values = new Object[schema.size()];
+		Arrays.fill(this.values, ABSENT);
+	}
+
+	/**
+	 * 构造，行结构中的所有键都有值
+	 *
+	 * @param schema 行结构
+	 * @param values 值数组，按下标顺序，直接使用不复制
+	 */
+	public RowMap(RowSchema<K> schema, Object[] values) {
+		Assert.isTrue(values.length == schema.size(), "Values length {} not match schema size {}", values.length, schema.size());
+		this.schema = schema;
+		this.values = values;
+		this.present = values.length;
+	}
+
+	/**
+	 * 获取行结构
+	 *
+	 * @return {@link RowSchema}
+	 */
+	public RowSchema<K> getSchema() {
+		return schema;
+	}
+
+	/**
+	 * 获取行结构中指定下标的值
+	 *
+	 * @param index 下标
+	 * @return 值，无值返回null
+	 */
+	@SuppressWarnings("unchecked")
+	public V getAt(int index) {
+		final Object value = values[index];
+		return (ABSENT == value) ? null : (V) value;
+	}
+
+	@Override
+	public int size() {
+		return present + ((null == extra) ? 0 : extra.size());
+	}
+
+	@Override
+	public V get(Object key) {
+		final int index = schema.indexOf(key);
+		if (index >= 0) {
+			return getAt(index);
+		}
+		return (null == extra) ? null : extra.get(key);
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		final int index = schema.indexOf(key);
+		if (index >= 0) {
+			return ABSENT != values[index];
+		}
+		return null != extra && extra.containsKey(key);
+	}
+
+	@Override
+	public boolean containsValue(Object value) {
+		for (Object v : values) {
+			if (ABSENT != v && Objects.equals(value, v)) {
+				return true;
+			}
+		}
+		return null != extra && extra.containsValue(value);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public V put(K key, V value) {
+		final int index = schema.indexOf(key);
+		if (index < 0) {
+			if (null == extra) {
+				extra = new FlatHashMap<>(4);
+			}
+			final int size = extra.size();
+			final V old = extra.put(key, value);
+			if (size != extra.size()) {
+				modCount++;
+			}
+			return old;
+		}
+		final Object old = values[index];
+		values[index] = value;
+		if (ABSENT == old) {
+			present++;
+			modCount++;
+			return null;
+		}
+		return (V) old;
+	}
+
+	@Override
+	public V remove(Object key) {
+		final int index = schema.indexOf(key);
+		if (index < 0) {
+			if (null == extra || false == extra.containsKey(key)) {
+				return null;
+			}
+			modCount++;
+			return extra.remove(key);
+		}
+		final V old = getAt(index);
+		if (ABSENT != values[index]) {
+			removeAt(index);
+		}
+		return old;
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(values, ABSENT);
+		present = 0;
+		extra = null;
+		modCount++;
+	}
+
+	/**
+	 * 按行结构顺序遍历，不创建Entry对象
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public void forEach(BiConsumer<? super K, ? super V> action) {
+		final int expectedModCount = modCount;
+		final Object[] values = this.values;
+		for (int i = 0; i < values.length; i++) {
+			if (ABSENT != values[i]) {
+				action.accept(schema.getKey(i), (V) values[i]);
+			}
+		}
+		if (null != extra) {
+			extra.forEach(action);
+		}
+		if (expectedModCount != modCount) {
+			throw new ConcurrentModificationException();
+		}
+	}
+
+	@Override
+	public Set<Entry<K, V>> entrySet() {
+		return new EntrySet();
+	}
+
+	// ------------------------------------------------------------------------------------------------------------------------------------- Private method start
+	private void removeAt(int index) {
+		values[index] = ABSENT;
+		present--;
+		modCount++;
+	}
+
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		out.defaultWriteObject();
+		for (Object value : values) {
+			final boolean isPresent = ABSENT != value;
+			out.writeBoolean(isPresent);
+			if (isPresent) {
+				out.writeObject(value);
+			}
+		}
+		out.writeObject(extra);
+	}
+
+	@SuppressWarnings("unchecked")
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		values = new Object[schema.size()];
+		for (int i = 0; i < values.length; i++) {
+			if (in.readBoolean()) {
+				values[i] = in.readObject();
+				present++;
+			} else {
+				values[i] = ABSENT;
+			}
+		}
+		extra = (FlatHashMap<K, V>) in.readObject();
+	}
+	// ------------------------------------------------------------------------------------------------------------------------------------- Private method end
+
+	private final class EntrySet extends AbstractSet<Entry<K, V>> {
+		@Override
+		public Iterator<Entry<K, V>> iterator() {
+			return new EntryIterator();
+		}
+
+		@Override
+		public int size() {
+			return RowMap.this.size();
+		}
+
+		@Override
+		public void clear() {
+			RowMap.this.clear();
+		}
+	}
+
+	/**
+	 * 先遍历行结构中的值，再遍历额外的键值对
+	 */
+	private final class EntryIterator implements Iterator<Entry<K, V>> {
+		private int next;
+		private int last = -1;
+		private Iterator<Entry<K, V>> extraIterator;
+		private int expectedModCount = modCount;
+
+		@Override
+		public boolean hasNext() {
+			while (next < values.length && ABSENT == values[next]) {
+				next++;
+			}
+			if (next < values.length) {
+				return true;
+			}
+			if (null == extraIterator) {
+				if (null == extra) {
+					return false;
+				}
+				extraIterator = extra.entrySet().iterator();
+			}
+			return extraIterator.hasNext();
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public Entry<K, V> next() {
+			if (expectedModCount != modCount) {
+				throw new ConcurrentModificationException();
+			}
+			if (false == hasNext()) {
+				throw new NoSuchElementException();
+			}
+			if (next < values.length) {
+				last = next++;
+				return new RowEntry(schema.getKey(last), (V) values[last]);
+			}
+			last = values.length;
+			return extraIterator.next();
+		}
+
+		@Override
+		public void remove() {
+			if (last < 0) {
+				throw new IllegalStateException();
+			}
+			if (expectedModCount != modCount) {
+				throw new ConcurrentModificationException();
+			}
+			if (last < values.length) {
+				removeAt(last);
+			} else {
+				extraIterator.remove();
+				modCount++;
+			}
+			last = -1;
+			expectedModCount = modCount;
+		}
+	}
+
+	/**
+	 * 行结构中的键值对，setValue写回行
+	 */
+	private final class RowEntry extends SimpleEntry<K, V> {
+		private static final long serialVersionUID = 1L;
+
+		RowEntry(K key, V value) {
+			super(key, value);
+		}
+
+		@Override
+		public V setValue(V value) {
+			super.setValue(value);
+			return put(getKey(), value);
+		}
+	}
+}
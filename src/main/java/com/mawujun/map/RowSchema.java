@@ -0,0 +1,154 @@
+package com.mawujun.map;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import com.mawujun.util.StrUtil;
+
+/**
+ * 行结构，即一组有序且不重复的键及其下标<br>
+ * 多个{@link RowMap}共享同一个行结构，每行只保存值数组，适合数据库查询结果、CSV等列相同的大量行数据。
+ * 行结构创建后不可变，键到下标的查找使用开放寻址表，线程安全。
+ *
+ * <pre>
+ * RowSchema&lt;String&gt; schema = RowSchema.of("id", "name", "age");
+ * RowMap&lt;String, Object&gt; row = schema.newRow(new Object[] { 1, "张三", 18 });
+ * row.get("name");// 张三
+ * </pre>
+ *
+ * @author mawujun
+ * @param <K> 键类型
+ */
+public class RowSchema<K> implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	/** 键，按下标顺序 */
+	private final Object[] keys;
+	/** 开放寻址表，存放下标+1，0表示空 */
+	private final int[] table;
+	private final int mask;
+
+	/**
+	 * 创建行结构
+	 *
+	 * @param <K> 键类型
+	 * @param keys 键
+	 * @return {@link RowSchema}
+	 * @throws IllegalArgumentException 键重复
+	 */
+	@SafeVarargs
+	public static <K> RowSchema<K> of(K... keys) {
+		return new RowSchema<>(Arrays.asList(keys));
+	}
+
+	/**
+	 * 构造
+	 *
+	 * @param keys 键，按下标顺序
+	 * @throws IllegalArgumentException 键重复
+	 */
+	public RowSchema(Collection<? extends K> keys) throws IllegalArgumentException {
+		this.keys = keys.toArray();
+		int capacity = 4;
+		while (capacity < this.keys.length * 2) {
+			capacity <<= 1;
+		}
+		this.table = new int[capacity];
+		this.mask = capacity - 1;
+
+		int slot;
+		for (int i = 0; i < this.keys.length; i++) {
+			if (indexOf(this.keys[i]) >= 0) {
+				throw new IllegalArgumentException(StrUtil.format("Duplicate key: {}", this.keys[i]));
+			}
+			slot = slot(this.keys[i]);
+			while (0 != table[slot]) {
+				slot = (slot + 1) & mask;
+			}
+			table[slot] = i + 1;
+		}
+	}
+
+	/**
+	 * 键的下标
+	 *
+	 * @param key 键
+	 * @return 下标，不存在返回-1
+	 */
+	public int indexOf(Object key) {
+		int slot = slot(key);
+		int entry;
+		while (0 != (entry = table[slot])) {
+			if (Objects.equals(keys[entry - 1], key)) {
+				return entry - 1;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	/**
+	 * 键的数量
+	 *
+	 * @return 键的数量
+	 */
+	public int size() {
+		return keys.length;
+	}
+
+	/**
+	 * 指定下标的键
+	 *
+	 * @param index 下标
+	 * @return 键
+	 */
+	@SuppressWarnings("unchecked")
+	public K getKey(int index) {
+		return (K) keys[index];
+	}
+
+	/**
+	 * 所有键，按下标顺序
+	 *
+	 * @return 只读的键列表
+	 */
+	@SuppressWarnings("unchecked")
+	public List<K> getKeys() {
+		return Collections.unmodifiableList(Arrays.asList((K[]) keys));
+	}
+
+	/**
+	 * 创建一个空行
+	 *
+	 * @param <V> 值类型
+	 * @return {@link RowMap}
+	 */
+	public <V> RowMap<K, V> newRow() {
+		return new RowMap<>(this);
+	}
+
+	/**
+	 * 创建一行，所有键都有值
+	 *
+	 * @param <V> 值类型
+	 * @param values 值数组，按下标顺序，直接使用不复制
+	 * @return {@link RowMap}
+	 */
+	public <V> RowMap<K, V> newRow(Object[] values) {
+		return new RowMap<>(this, values);
+	}
+
+	@Override
+	public String toString() {
+		return Arrays.toString(keys);
+	}
+
+	private int slot(Object key) {
+		final int h = (null == key) ? 0 : key.hashCode() * 0x9E3779B9;
+		return (h ^ (h >>> 16)) & mask;
+	}
+}
@@ -0,0 +1,104 @@
+package com.mawujun.map.multi;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.mawujun.map.MapWrapper;
+
+/**
+ * 线程安全的值作为集合的Map实现，与{@link CollectionValueMap}用法相同<br>
+ * 键使用{@link ConcurrentHashMap}保存，值集合为线程安全的集合，putValue时只在键不存在时创建集合（原子操作），之后直接向集合追加，不加Map级别的锁。
+ * 为保证并发追加的值不丢失，{@link #removeValue(Object, Object)}移除最后一个值后保留空集合，需要时使用{@link #remove(Object)}移除整个键。
+ *
+ * @author mawujun
+ *
+ * @param <K> 键类型
+ * @param <V> 值类型
+ */
+public abstract class ConcurrentCollectionValueMap<K, V> extends MapWrapper<K, Collection<V>> {
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * 构造
+	 */
+	public ConcurrentCollectionValueMap() {
+		this(DEFAULT_INITIAL_CAPACITY);
+	}
+
+	/**
+	 * 构造
+	 *
+	 * @param initialCapacity 初始大小
+	 */
+	public ConcurrentCollectionValueMap(int initialCapacity) {
+		super(new ConcurrentHashMap<>(initialCapacity));
+	}
+
+	/**
+	 * 放入Value<br>
+	 * 如果键对应值列表有值，加入，否则创建一个新列表后加入
+	 *
+	 * @param key 键
+	 * @param value 值
+	 */
+	public void putValue(K key, V value) {
+		getCollection(key).add(value);
+	}
+
+	/**
+	 * 批量放入Value
+	 *
+	 * @param key 键
+	 * @param values 值
+	 */
+	public void putAll(K key, Collection<? extends V> values) {
+		getCollection(key).addAll(values);
+	}
+
+	/**
+	 * 移除键对应集合中的一个值
+	 *
+	 * @param key 键
+	 * @param value 值
+	 * @return 是否移除
+	 */
+	public boolean removeValue(K key, V value) {
+		final Collection<V> collection = get(key);
+		return null != collection && collection.remove(value);
+	}
+
+	/**
+	 * 创建线程安全的值集合
+	 *
+	 * @return 集合
+	 */
+	protected abstract Collection<V> createCollection();
+
+	/**
+	 * 将另一个Map的所有值加入目标Map，用于收集器合并结果
+	 *
+	 * @param <K> 键类型
+	 * @param <V> 值类型
+	 * @param <M> Map类型
+	 * @param target 目标Map
+	 * @param other 另一个Map
+	 * @return 目标Map
+	 */
+	static <K, V, M extends ConcurrentCollectionValueMap<K, V>> M merge(M target, M other) {
+		for (Entry<K, Collection<V>> entry : other.entrySet()) {
+			target.putAll(entry.getKey(), entry.getValue());
+		}
+		return target;
+	}
+
+	/**
+	 * 键对应的集合，不存在时原子地创建
+	 */
+	private Collection<V> getCollection(K key) {
+		final Collection<V> collection = get(key);
+		if (null != collection) {
+			return collection;
+		}
+		return getRaw().computeIfAbsent(key, k -> createCollection());
+	}
+}
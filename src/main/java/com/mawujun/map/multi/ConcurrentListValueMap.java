@@ -0,0 +1,74 @@
+package com.mawujun.map.multi;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+import java.util.stream.Collector;
+
+/**
+ * 线程安全的值作为列表的Map实现<br>
+ * 值集合为{@link ConcurrentLinkedQueue}，无锁追加，保留加入顺序，允许重复值。
+ *
+ * <pre>
+ * // 并行构建倒排索引
+ * ConcurrentListValueMap&lt;String, Doc&gt; index = docs.parallelStream().collect(ConcurrentListValueMap.groupingBy(Doc::getTag));
+ * </pre>
+ *
+ * @author mawujun
+ *
+ * @param <K> 键类型
+ * @param <V> 值类型
+ */
+public class ConcurrentListValueMap<K, V> extends ConcurrentCollectionValueMap<K, V> {
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * 分组收集器，并行流中所有线程直接写入同一个Map
+	 *
+	 * @param <T> 元素类型
+	 * @param <K> 键类型
+	 * @param classifier 分组函数
+	 * @return {@link Collector}
+	 */
+	public static <T, K> Collector<T, ?, ConcurrentListValueMap<K, T>> groupingBy(Function<? super T, ? extends K> classifier) {
+		return groupingBy(classifier, Function.identity());
+	}
+
+	/**
+	 * 分组收集器，并行流中所有线程直接写入同一个Map
+	 *
+	 * @param <T> 元素类型
+	 * @param <K> 键类型
+	 * @param <V> 值类型
+	 * @param classifier 分组函数
+	 * @param mapper 值转换函数
+	 * @return {@link Collector}
+	 */
+	public static <T, K, V> Collector<T, ?, ConcurrentListValueMap<K, V>> groupingBy(Function<? super T, ? extends K> classifier, Function<? super T, ? extends V> mapper) {
+		return Collector.of(ConcurrentListValueMap::new, //
+				(map, t) -> map.putValue(classifier.apply(t), mapper.apply(t)), //
+				ConcurrentCollectionValueMap::merge, //
+				Collector.Characteristics.CONCURRENT, Collector.Characteristics.UNORDERED, Collector.Characteristics.IDENTITY_FINISH);
+	}
+
+	/**
+	 * 构造
+	 */
+	public ConcurrentListValueMap() {
+		super();
+	}
+
+	/**
+	 * 构造
+	 *
+	 * @param initialCapacity 初始大小
+	 */
+	public ConcurrentListValueMap(int initialCapacity) {
+		super(initialCapacity);
+	}
+
+	@Override
+	protected Collection<V> createCollection() {
+		return new ConcurrentLinkedQueue<>();
+	}
+}
@@ -0,0 +1,219 @@
+package com.mawujun.map.multi;
+
+import java.io.Serializable;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
+
+import com.mawujun.collection.LongArrayList;
+
+/**
+ * 线程安全的值为long列表的Map实现，值保存在每个键独立的long[]中，不装箱<br>
+ * 键使用{@link ConcurrentHashMap}保存，写入时只锁定对应键的值列表（按键分段），不同键的写入互不阻塞。适合并行构建以ID为值的倒排索引。
+ *
+ * <pre>
+ * ConcurrentLongValueMap&lt;String&gt; index = docs.parallelStream().collect(ConcurrentLongValueMap.groupingBy(Doc::getTag, Doc::getId));
+ * long[] ids = index.get("java");
+ * </pre>
+ *
+ * @author mawujun
+ *
+ * @param <K> 键类型
+ */
+public class ConcurrentLongValueMap<K> implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private final ConcurrentHashMap<K, Bucket> buckets;
+
+	/**
+	 * 分组收集器，并行流中所有线程直接写入同一个Map
+	 *
+	 * @param <T> 元素类型
+	 * @param <K> 键类型
+	 * @param classifier 分组函数
+	 * @param mapper 值函数
+	 * @return {@link Collector}
+	 */
+	public static <T, K> Collector<T, ?, ConcurrentLongValueMap<K>> groupingBy(Function<? super T, ? extends K> classifier, ToLongFunction<? super T> mapper) {
+		return Collector.of(ConcurrentLongValueMap::new, //
+				(map, t) -> map.putValue(classifier.apply(t), mapper.applyAsLong(t)), //
+				(map, other) -> {
+					other.forEach(map::putAll);
+					return map;
+				}, //
+				Collector.Characteristics.CONCURRENT, Collector.Characteristics.UNORDERED, Collector.Characteristics.IDENTITY_FINISH);
+	}
+
+	/**
+	 * 构造
+	 */
+	public ConcurrentLongValueMap() {
+		this(16);
+	}
+
+	/**
+	 * 构造
+	 *
+	 * @param initialCapacity 初始大小
+	 */
+	public ConcurrentLongValueMap(int initialCapacity) {
+		this.buckets = new ConcurrentHashMap<>(initialCapacity);
+	}
+
+	/**
+	 * 加入值
+	 *
+	 * @param key 键
+	 * @param value 值
+	 */
+	public void putValue(K key, long value) {
+		getBucket(key).add(value);
+	}
+
+	/**
+	 * 批量加入值
+	 *
+	 * @param key 键
+	 * @param values 值
+	 */
+	public void putAll(K key, long... values) {
+		getBucket(key).addAll(values);
+	}
+
+	/**
+	 * 移除键对应列表中第一个等于value的值，移除最后一个值后保留空列表
+	 *
+	 * @param key 键
+	 * @param value 值
+	 * @return 是否移除
+	 */
+	public boolean removeValue(K key, long value) {
+		final Bucket bucket = buckets.get(key);
+		return null != bucket && bucket.remove(value);
+	}
+
+	/**
+	 * 获取键对应值列表的副本
+	 *
+	 * @param key 键
+	 * @return 值数组，键不存在返回null
+	 */
+	public long[] get(Object key) {
+		final Bucket bucket = buckets.get(key);
+		return (null == bucket) ? null : bucket.toArray();
+	}
+
+	/**
+	 * 键对应值的个数
+	 *
+	 * @param key 键
+	 * @return 值的个数，键不存在返回0
+	 */
+	public int valueCount(Object key) {
+		final Bucket bucket = buckets.get(key);
+		return (null == bucket) ? 0 : bucket.size();
+	}
+
+	/**
+	 * 移除键及其所有值
+	 *
+	 * @param key 键
+	 * @return 移除的值，键不存在返回null
+	 */
+	public long[] remove(Object key) {
+		final Bucket bucket = buckets.remove(key);
+		return (null == bucket) ? null : bucket.toArray();
+	}
+
+	public boolean containsKey(Object key) {
+		return buckets.containsKey(key);
+	}
+
+	/**
+	 * 键的个数
+	 *
+	 * @return 键的个数
+	 */
+	public int size() {
+		return buckets.size();
+	}
+
+	public boolean isEmpty() {
+		return buckets.isEmpty();
+	}
+
+	public Set<K> keySet() {
+		return buckets.keySet();
+	}
+
+	public void clear() {
+		buckets.clear();
+	}
+
+	/**
+	 * 遍历键及其值列表的副本
+	 *
+	 * @param action 操作
+	 */
+	public void forEach(BiConsumer<? super K, long[]> action) {
+		buckets.forEach((key, bucket) -> action.accept(key, bucket.toArray()));
+	}
+
+	@Override
+	public String toString() {
+		return buckets.toString();
+	}
+
+	/**
+	 * 键对应的值列表，不存在时原子地创建
+	 */
+	private Bucket getBucket(K key) {
+		final Bucket bucket = buckets.get(key);
+		if (null != bucket) {
+			return bucket;
+		}
+		return buckets.computeIfAbsent(key, k -> new Bucket());
+	}
+
+	/**
+	 * 单个键的值列表，写入时锁定自身
+	 */
+	private static final class Bucket implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		private final LongArrayList values = new LongArrayList(4);
+
+		synchronized void add(long value) {
+			values.add(value);
+		}
+
+		synchronized void addAll(long[] array) {
+			values.addAll(array);
+		}
+
+		synchronized boolean remove(long value) {
+			final int index = values.indexOf(value);
+			if (index < 0) {
+				return false;
+			}
+			values.removeAt(index);
+			return true;
+		}
+
+		synchronized int size() {
+			return values.size();
+		}
+
+		synchronized long[] toArray() {
+			return values.toArray();
+		}
+
+		@Override
+		public synchronized String toString() {
+			return values.toString();
+		}
+	}
+}
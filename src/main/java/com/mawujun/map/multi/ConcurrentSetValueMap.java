@@ -0,0 +1,74 @@
+package com.mawujun.map.multi;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collector;
+
+/**
+ * 线程安全的值作为Set的Map实现<br>
+ * 值集合为{@link ConcurrentHashMap#newKeySet()}，同一个键下的值不重复，不保证顺序。
+ *
+ * <pre>
+ * // 并行构建倒排索引
+ * ConcurrentSetValueMap&lt;String, Doc&gt; index = docs.parallelStream().collect(ConcurrentSetValueMap.groupingBy(Doc::getTag));
+ * </pre>
+ *
+ * @author mawujun
+ *
+ * @param <K> 键类型
+ * @param <V> 值类型
+ */
+public class ConcurrentSetValueMap<K, V> extends ConcurrentCollectionValueMap<K, V> {
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * 分组收集器，并行流中所有线程直接写入同一个Map
+	 *
+	 * @param <T> 元素类型
+	 * @param <K> 键类型
+	 * @param classifier 分组函数
+	 * @return {@link Collector}
+	 */
+	public static <T, K> Collector<T, ?, ConcurrentSetValueMap<K, T>> groupingBy(Function<? super T, ? extends K> classifier) {
+		return groupingBy(classifier, Function.identity());
+	}
+
+	/**
+	 * 分组收集器，并行流中所有线程直接写入同一个Map
+	 *
+	 * @param <T> 元素类型
+	 * @param <K> 键类型
+	 * @param <V> 值类型
+	 * @param classifier 分组函数
+	 * @param mapper 值转换函数
+	 * @return {@link Collector}
+	 */
+	public static <T, K, V> Collector<T, ?, ConcurrentSetValueMap<K, V>> groupingBy(Function<? super T, ? extends K> classifier, Function<? super T, ? extends V> mapper) {
+		return Collector.of(ConcurrentSetValueMap::new, //
+				(map, t) -> map.putValue(classifier.apply(t), mapper.apply(t)), //
+				ConcurrentCollectionValueMap::merge, //
+				Collector.Characteristics.CONCURRENT, Collector.Characteristics.UNORDERED, Collector.Characteristics.IDENTITY_FINISH);
+	}
+
+	/**
+	 * 构造
+	 */
+	public ConcurrentSetValueMap() {
+		super();
+	}
+
+	/**
+	 * 构造
+	 *
+	 * @param initialCapacity 初始大小
+	 */
+	public ConcurrentSetValueMap(int initialCapacity) {
+		super(initialCapacity);
+	}
+
+	@Override
+	protected Collection<V> createCollection() {
+		return ConcurrentHashMap.newKeySet();
+	}
+}
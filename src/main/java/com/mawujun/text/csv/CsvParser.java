@@ -12,6 +12,7 @@ import java.util.Objects;
 
 import com.mawujun.io.IORuntimeException;
 import com.mawujun.io.IoUtil;
+import com.mawujun.map.RowSchema;
 import com.mawujun.text.StrBuilder;
 import com.mawujun.util.CharUtil;
 import com.mawujun.util.ObjectUtil;
@@ -129,7 +130,12 @@ public final class CsvParser implements Closeable {
 				continue;
 			}
 
-			return new CsvRow(startingLineNo, null == header ? null : header.headerMap, currentFields);
+			final CsvRow row = new CsvRow(startingLineNo, null == header ? null : header.headerMap, currentFields);
+			if (null != header) {
+				row.headerSchema = header.headerSchema;
+				row.headerColumns = header.headerColumns;
+			}
+			return row;
 		}
 
 		return null;
@@ -150,6 +156,12 @@ public final class CsvParser implements Closeable {
 		}
 		
 		header = new CsvRow(this.lineNo, Collections.unmodifiableMap(localHeaderMap),  Collections.unmodifiableList(currentFields));
+		header.headerSchema = new RowSchema<>(localHeaderMap.keySet());
+		header.headerColumns = new int[localHeaderMap.size()];
+		int i = 0;
+		for (Integer column : localHeaderMap.values()) {
+			header.headerColumns[i++] = column;
+		}
 	}
 
 	/**
@@ -7,6 +7,8 @@ import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 
+import com.mawujun.map.RowSchema;
+
 /**
  * CSV中一行的表示
  *
@@ -19,6 +21,10 @@ public final class CsvRow implements List<String> {
 
 	final Map<String, Integer> headerMap;
 	final List<String> fields;
+	/** 标题的行结构，由解析器创建，所有行共享 */
+	RowSchema<String> headerSchema;
+	/** 行结构中每个标题对应的列 */
+	int[] headerColumns;
 
 	/**
 	 * 构造
@@ -82,6 +88,15 @@ public final class CsvRow implements List<String> {
 			throw new IllegalStateException("No header available");
 		}
 
+		if (null != headerSchema) {
+			// 所有行共享标题的行结构，每行只创建值数组
+			final String[] values = new String[headerColumns.length];
+			for (int i = 0; i < headerColumns.length; i++) {
+				values[i] = get(headerColumns[i]);
+			}
+			return headerSchema.newRow(values);
+		}
+
 		final Map<String, String> fieldMap = new LinkedHashMap<>(headerMap.size());
 		String key;
 		Integer col;
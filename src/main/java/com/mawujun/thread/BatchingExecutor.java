@@ -0,0 +1,154 @@
+package com.mawujun.thread;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.mawujun.lang.Assert;
+
+/**
+ * 批量执行小任务的执行器<br>
+ * 提交的任务先放入无锁队列，由少量“排空任务”在线程池中成批执行，每个排空任务连续执行最多{@link #setBatchSize(int)}个任务，
+ * 大量细小任务时可显著减少线程池的入队、唤醒等交接开销。
+ *
+ * <pre>
+ * BatchingExecutor executor = new BatchingExecutor(ThreadUtil.newExecutor(4), 4);
+ * for (Event event : events) {
+ *     executor.execute(() -&gt; handle(event));
+ * }
+ * </pre>
+ *
+ * 任务之间不保证顺序，需要按key保证顺序时使用{@link KeyedSerialExecutor}。
+ *
+ * @author mawujun
+ */
+public class BatchingExecutor implements Executor {
+
+	/** 执行任务的线程池，null表示使用{@link GlobalThreadPool} */
+	private final Executor executor;
+	/** 同时运行的排空任务数上限 */
+	private final int maxDrainers;
+	/** 待执行的任务 */
+	private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+	/** 运行中的排空任务数 */
+	private final AtomicInteger drainers = new AtomicInteger();
+	private final Drainer drainer = new Drainer();
+	/** 每个排空任务每次最多连续执行的任务数 */
+	private volatile int batchSize = 128;
+
+	/**
+	 * 构造，使用{@link GlobalThreadPool}执行，排空任务数为CPU核心数
+	 */
+	public BatchingExecutor() {
+		this(null, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * 构造
+	 *
+	 * @param executor 执行任务的线程池，null表示使用{@link GlobalThreadPool}
+	 * @param maxDrainers 同时运行的排空任务数上限，即最大并行度
+	 */
+	public BatchingExecutor(Executor executor, int maxDrainers) {
+		Assert.isTrue(maxDrainers > 0, "MaxDrainers must be > 0");
+		this.executor = executor;
+		this.maxDrainers = maxDrainers;
+	}
+
+	/**
+	 * 设置每个排空任务每次最多连续执行的任务数，达到后重新提交到线程池以让出线程，默认128
+	 *
+	 * @param batchSize 批量大小
+	 * @return this
+	 */
+	public BatchingExecutor setBatchSize(int batchSize) {
+		Assert.isTrue(batchSize > 0, "BatchSize must be > 0");
+		this.batchSize = batchSize;
+		return this;
+	}
+
+	/**
+	 * 提交任务<br>
+	 * 任务抛出的异常交给执行线程的{@link Thread.UncaughtExceptionHandler}处理，不影响其它任务；
+	 * 线程池拒绝时由提交任务的线程执行
+	 *
+	 * @param task 任务
+	 */
+	@Override
+	public void execute(Runnable task) {
+		Assert.notNull(task, "Task must be not null!");
+		tasks.offer(task);
+		if (tryAcquireDrainer()) {
+			try {
+				getExecutor().execute(drainer);
+			} catch (RejectedExecutionException e) {
+				drainer.run();
+			}
+		}
+	}
+
+	/**
+	 * 待执行的任务数
+	 *
+	 * @return 任务数
+	 */
+	public int getPendingTasks() {
+		return tasks.size();
+	}
+
+	// ------------------------------------------------------------------------------------------------------------------------------------- Private method start
+	private boolean tryAcquireDrainer() {
+		int current;
+		while ((current = drainers.get()) < maxDrainers) {
+			if (drainers.compareAndSet(current, current + 1)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private Executor getExecutor() {
+		return (null != executor) ? executor : GlobalThreadPool.getExecutor();
+	}
+	// ------------------------------------------------------------------------------------------------------------------------------------- Private method end
+
+	/**
+	 * 排空任务，成批执行队列中的任务，所有排空任务共用一个无状态实例
+	 */
+	private final class Drainer implements Runnable {
+		@Override
+		public void run() {
+			while (true) {
+				final int max = batchSize;
+				Runnable task;
+				int count = 0;
+				while (count < max && null != (task = tasks.poll())) {
+					count++;
+					try {
+						task.run();
+					} catch (Throwable e) {
+						final Thread thread = Thread.currentThread();
+						thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+					}
+				}
+				if (count < max) {
+					// 队列已空，退出前再次检查，避免与execute的竞争导致任务滞留
+					drainers.decrementAndGet();
+					if (tasks.isEmpty() || false == tryAcquireDrainer()) {
+						return;
+					}
+					continue;
+				}
+				// 让出线程，被拒绝时继续在当前线程执行
+				try {
+					getExecutor().execute(this);
+					return;
+				} catch (RejectedExecutionException e) {
+					// 继续执行
+				}
+			}
+		}
+	}
+}
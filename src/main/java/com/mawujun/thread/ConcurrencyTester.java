@@ -3,7 +3,8 @@ package com.mawujun.thread;
 import com.mawujun.date.TimeInterval;
 
 /**
- * 高并发测试工具类
+ * 高并发测试工具类<br>
+ * 只统计总执行时间，需要预热、固定速率、耗时百分位数及吞吐量时请使用{@link LoadTester}
  * 
  * <pre>
  * ps:
@@ -0,0 +1,91 @@
+package com.mawujun.thread;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 优先扩充线程的任务队列<br>
+ * {@link ThreadPoolExecutor}默认在队列满了之后才会创建超过corePoolSize的线程，此队列在没有空闲线程时拒绝入队，
+ * 迫使线程池先创建新线程，线程数达到上限后新建线程失败，由{@link #retryOffer(RejectedExecutionHandler)}放入队列<br>
+ * 空闲线程数在工作线程调用{@link #take()}、{@link #poll(long, TimeUnit)}等待任务时维护，入队时不调用需要获取线程池主锁的
+ * {@link ThreadPoolExecutor#getPoolSize()}、{@link ThreadPoolExecutor#getActiveCount()}；线程数是否达到上限由线程池在新建线程时无锁判断
+ *
+ * @author mawujun
+ * @see ExecutorBuilder#useEagerQueue(int)
+ */
+class EagerTaskQueue extends LinkedBlockingQueue<Runnable> {
+	private static final long serialVersionUID = 1L;
+
+	private transient volatile ThreadPoolExecutor executor;
+	/** 正在等待任务的工作线程数 */
+	private final AtomicInteger idleCount = new AtomicInteger();
+
+	/**
+	 * 构造
+	 *
+	 * @param capacity 队列容量
+	 */
+	EagerTaskQueue(int capacity) {
+		super(capacity);
+	}
+
+	/**
+	 * 绑定线程池
+	 *
+	 * @param executor {@link ThreadPoolExecutor}
+	 */
+	void setExecutor(ThreadPoolExecutor executor) {
+		this.executor = executor;
+	}
+
+	@Override
+	public boolean offer(Runnable runnable) {
+		// 未绑定线程池或有空闲线程时直接入队
+		if (null == this.executor || idleCount.get() > 0) {
+			return super.offer(runnable);
+		}
+		// 返回false使线程池新建线程
+		return false;
+	}
+
+	@Override
+	public Runnable take() throws InterruptedException {
+		idleCount.incrementAndGet();
+		try {
+			return super.take();
+		} finally {
+			idleCount.decrementAndGet();
+		}
+	}
+
+	@Override
+	public Runnable poll(long timeout, TimeUnit unit) throws InterruptedException {
+		idleCount.incrementAndGet();
+		try {
+			return super.poll(timeout, unit);
+		} finally {
+			idleCount.decrementAndGet();
+		}
+	}
+
+	/**
+	 * 新建线程失败后（线程数已到上限）强制入队，入队失败再交给原拒绝策略
+	 *
+	 * @param handler 原拒绝策略
+	 * @return {@link RejectedExecutionHandler}
+	 */
+	RejectedExecutionHandler retryOffer(final RejectedExecutionHandler handler) {
+		return (runnable, executor) -> {
+			if (executor.isShutdown()) {
+				throw new RejectedExecutionException("Executor has been shut down");
+			}
+			if (false == super.offer(runnable)) {
+				handler.rejectedExecution(runnable, executor);
+			}
+		};
+	}
+}
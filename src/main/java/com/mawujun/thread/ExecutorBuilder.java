@@ -1,7 +1,10 @@
 package com.mawujun.thread;
 
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionHandler;
 import java.util.concurrent.SynchronousQueue;
@@ -11,6 +14,7 @@ import java.util.concurrent.TimeUnit;
 
 import com.mawujun.builder.Builder;
 import com.mawujun.util.ObjectUtil;
+import com.mawujun.util.StrUtil;
 
 /**
  * {@link ThreadPoolExecutor} 建造者
@@ -20,6 +24,9 @@ import com.mawujun.util.ObjectUtil;
  */
 public class ExecutorBuilder implements Builder<ThreadPoolExecutor> {
 
+	/** 有界队列的默认容量 */
+	public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
 	/** 初始池大小 */
 	private int corePoolSize;
 	/** 最大池大小（允许同时执行的最大线程数） */
@@ -34,6 +41,10 @@ public class ExecutorBuilder implements Builder<ThreadPoolExecutor> {
 	private RejectedExecutionHandler handler;
 	/** 线程执行超时后是否回收线程 */
 	private Boolean allowCoreThreadTimeOut;
+	/** 是否统计运行指标 */
+	private boolean metricsEnabled;
+	/** 运行指标名称，为空时使用线程名前缀 */
+	private String metricsName;
 
 	/**
 	 * 设置初始池大小，默认0
@@ -120,6 +131,28 @@ public class ExecutorBuilder implements Builder<ThreadPoolExecutor> {
 		return setWorkQueue(new SynchronousQueue<Runnable>(fair));
 	}
 
+	/**
+	 * 使用{@link ArrayBlockingQueue} 做为等待队列<br>
+	 * 有界队列，队列满时，运行线程小于maxPoolSize时会创建新线程，否则触发异常策略，配合{@link RejectPolicy#CALLER_RUNS}可实现背压
+	 * 
+	 * @param capacity 队列容量
+	 * @return this
+	 */
+	public ExecutorBuilder useArrayBlockingQueue(int capacity) {
+		return setWorkQueue(new ArrayBlockingQueue<Runnable>(capacity));
+	}
+
+	/**
+	 * 使用优先扩充线程的有界队列做为等待队列<br>
+	 * 运行线程小于maxPoolSize且没有空闲线程时先创建新线程，线程数达到maxPoolSize后才排队，队列满时触发异常策略
+	 * 
+	 * @param capacity 队列容量
+	 * @return this
+	 */
+	public ExecutorBuilder useEagerQueue(int capacity) {
+		return setWorkQueue(new EagerTaskQueue(capacity));
+	}
+
 	/**
 	 * 设置线程工厂，用于自定义线程创建
 	 * 
@@ -157,6 +190,21 @@ public class ExecutorBuilder implements Builder<ThreadPoolExecutor> {
 		return this;
 	}
 
+	/**
+	 * 开启运行指标统计，构建的线程池为{@link InstrumentedThreadPoolExecutor}，统计任务排队及执行耗时、拒绝数等<br>
+	 * 指标注册在{@link ExecutorMetrics#get(String)}中，名称为空时使用{@link NamedThreadFactory}的线程名前缀，前缀已被其它线程池使用时追加"#序号"；
+	 * 指定的名称已被其它未终止的线程池使用时，构建时抛出{@link IllegalStateException}。线程池终止后指标自动注销
+	 * 
+	 * @param name 指标名称，可以为null
+	 * @return this
+	 * @see ExecutorMetrics
+	 */
+	public ExecutorBuilder setMetrics(String name) {
+		this.metricsEnabled = true;
+		this.metricsName = name;
+		return this;
+	}
+
 	/**
 	 * 创建ExecutorBuilder，开始构建
 	 * 
@@ -171,40 +219,135 @@ public class ExecutorBuilder implements Builder<ThreadPoolExecutor> {
 	 */
 	@Override
 	public ThreadPoolExecutor build() {
-		return build(this);
+		return build(this, this.corePoolSize, this.maxPoolSize, this.workQueue, this.handler);
+	}
+
+	/**
+	 * 按指定类型构建线程池，已设置的参数优先，未设置的参数使用此类型的默认值：
+	 * 
+	 * <pre>
+	 * 1. CACHED        SynchronousQueue，同{@link #useSynchronousQueue()}
+	 * 2. BOUNDED       有界队列（默认容量{@link #DEFAULT_QUEUE_CAPACITY}），线程数默认为CPU核心数，拒绝策略默认为CALLER_RUNS
+	 * 3. EAGER         优先扩充线程的有界队列，最大线程数默认为CPU核心数的两倍，拒绝策略默认为CALLER_RUNS
+	 * 4. WORK_STEALING {@link ForkJoinPool}，并行度取maxPoolSize，未设置时为CPU核心数，工作线程的名称、是否守护线程等取自设置的线程工厂
+	 * 5. VIRTUAL       每任务一个虚拟线程，运行时不支持时退化为CACHED
+	 * </pre>
+	 * 默认值只用于本次构建，不修改此Builder的参数，同一Builder可多次构建
+	 * 
+	 * @param profile 线程池类型
+	 * @return {@link ExecutorService}
+	 */
+	public ExecutorService build(ExecutorProfile profile) {
+		final int processors = Runtime.getRuntime().availableProcessors();
+		final RejectedExecutionHandler callerRunsIfUnset = ObjectUtil.defaultIfNull(this.handler, RejectPolicy.CALLER_RUNS.getValue());
+		switch (profile) {
+		case BOUNDED:
+			final int boundedMaxPoolSize = (Integer.MAX_VALUE == this.maxPoolSize) ? Math.max(this.corePoolSize, processors) : this.maxPoolSize;
+			return build(this, //
+					(this.corePoolSize <= 0) ? boundedMaxPoolSize : this.corePoolSize, //
+					boundedMaxPoolSize, //
+					(null != this.workQueue) ? this.workQueue : new ArrayBlockingQueue<Runnable>(DEFAULT_QUEUE_CAPACITY), //
+					callerRunsIfUnset);
+		case EAGER:
+			return build(this, //
+					this.corePoolSize, //
+					(Integer.MAX_VALUE == this.maxPoolSize) ? Math.max(this.corePoolSize, processors * 2) : this.maxPoolSize, //
+					(null != this.workQueue) ? this.workQueue : new EagerTaskQueue(DEFAULT_QUEUE_CAPACITY), //
+					callerRunsIfUnset);
+		case WORK_STEALING:
+			return instrument(ThreadUtil.newWorkStealingExecutor((Integer.MAX_VALUE == this.maxPoolSize) ? processors : this.maxPoolSize, this.threadFactory));
+		case VIRTUAL:
+			if (ThreadUtil.isVirtualThreadSupported()) {
+				return instrument(ThreadUtil.newVirtualThreadExecutor());
+			}
+			// 不支持虚拟线程时退化为CACHED
+		case CACHED:
+		default:
+			return build(this, this.corePoolSize, this.maxPoolSize, (null != this.workQueue) ? this.workQueue : new SynchronousQueue<Runnable>(false), this.handler);
+		}
 	}
 
 	/**
 	 * 构建ThreadPoolExecutor
 	 * 
 	 * @param builder {@link ExecutorBuilder}
+	 * @param corePoolSize 初始线程池大小
+	 * @param maxPoolSize 最大线程池大小
+	 * @param builderWorkQueue 队列，null表示按corePoolSize选择默认队列
+	 * @param builderHandler 拒绝策略，null表示使用AbortPolicy
 	 * @return {@link ThreadPoolExecutor}
 	 */
-	private static ThreadPoolExecutor build(ExecutorBuilder builder) {
-		final int corePoolSize = builder.corePoolSize;
-		final int maxPoolSize = builder.maxPoolSize;
+	private static ThreadPoolExecutor build(ExecutorBuilder builder, int corePoolSize, int maxPoolSize, BlockingQueue<Runnable> builderWorkQueue, RejectedExecutionHandler builderHandler) {
 		final long keepAliveTime = builder.keepAliveTime;
 		final BlockingQueue<Runnable> workQueue;
-		if (null != builder.workQueue) {
-			workQueue = builder.workQueue;
+		if (null != builderWorkQueue) {
+			workQueue = builderWorkQueue;
 		} else {
 			// corePoolSize为0则要使用SynchronousQueue避免无限阻塞
 			workQueue = (corePoolSize <= 0) ? new SynchronousQueue<Runnable>() : new LinkedBlockingQueue<Runnable>();
 		}
 		final ThreadFactory threadFactory = (null != builder.threadFactory) ? builder.threadFactory : Executors.defaultThreadFactory();
-		RejectedExecutionHandler handler = ObjectUtil.defaultIfNull(builder.handler, new ThreadPoolExecutor.AbortPolicy());
-
-		final ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(//
-				corePoolSize, //
-				maxPoolSize, //
-				keepAliveTime, TimeUnit.NANOSECONDS, //
-				workQueue, //
-				threadFactory, //
-				handler//
-		);
+		RejectedExecutionHandler handler = ObjectUtil.defaultIfNull(builderHandler, new ThreadPoolExecutor.AbortPolicy());
+		final ExecutorMetrics metrics = builder.metricsEnabled ? builder.getMetrics(threadFactory) : null;
+		if (null != metrics) {
+			handler = metrics.wrap(handler);
+		}
+		if (workQueue instanceof EagerTaskQueue) {
+			handler = ((EagerTaskQueue) workQueue).retryOffer(handler);
+		}
+
+		final ThreadPoolExecutor threadPoolExecutor;
+		if (null != metrics) {
+			try {
+				threadPoolExecutor = new InstrumentedThreadPoolExecutor(//
+						corePoolSize, //
+						maxPoolSize, //
+						keepAliveTime, TimeUnit.NANOSECONDS, //
+						workQueue, //
+						threadFactory, //
+						handler, //
+						metrics//
+				);
+			} catch (RuntimeException e) {
+				metrics.releaseClaim();
+				throw e;
+			}
+		} else {
+			threadPoolExecutor = new ThreadPoolExecutor(//
+					corePoolSize, //
+					maxPoolSize, //
+					keepAliveTime, TimeUnit.NANOSECONDS, //
+					workQueue, //
+					threadFactory, //
+					handler//
+			);
+		}
 		if (null != builder.allowCoreThreadTimeOut) {
 			threadPoolExecutor.allowCoreThreadTimeOut(builder.allowCoreThreadTimeOut);
 		}
+		if (workQueue instanceof EagerTaskQueue) {
+			((EagerTaskQueue) workQueue).setExecutor(threadPoolExecutor);
+		}
 		return threadPoolExecutor;
 	}
+
+	/**
+	 * 开启运行指标统计时包装线程池
+	 * 
+	 * @param executor 线程池
+	 * @return 包装后的线程池，未开启时返回原线程池
+	 */
+	private ExecutorService instrument(ExecutorService executor) {
+		return this.metricsEnabled ? getMetrics(this.threadFactory).instrument(executor) : executor;
+	}
+
+	/**
+	 * 获取运行指标，未指定名称时按线程工厂命名
+	 * 
+	 * @param threadFactory 线程工厂
+	 * @return {@link ExecutorMetrics}
+	 */
+	private ExecutorMetrics getMetrics(ThreadFactory threadFactory) {
+		return StrUtil.isBlank(this.metricsName) ? ExecutorMetrics.get(threadFactory) : ExecutorMetrics.get(this.metricsName);
+	}
 }
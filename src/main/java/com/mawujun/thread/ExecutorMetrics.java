@@ -0,0 +1,640 @@
+package com.mawujun.thread;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.mawujun.lang.Assert;
+import com.mawujun.lang.LatencyHistogram;
+import com.mawujun.util.StrUtil;
+
+/**
+ * 线程池的运行指标<br>
+ * 包括：
+ * <ul>
+ * <li>任务排队耗时（提交到开始执行）、执行耗时（开始到结束）的直方图，单位微秒</li>
+ * <li>提交数、执行中、排队中、完成数、异常数、拒绝数</li>
+ * <li>慢任务采样：执行超过一定时间的任务，记录其线程的调用栈</li>
+ * </ul>
+ * 每个任务只增加几次{@link System#nanoTime()}和计数器操作，可在生产环境常开；慢任务采样默认关闭，开启后由一个共享的守护线程定时检查。<br>
+ * 指标只弱引用注册的线程池，{@link InstrumentedThreadPoolExecutor}终止时自动注销；其它线程池终止或被回收后，其指标在下次查询注册表时移除。
+ * 一个指标只能注册一个未终止的线程池，{@link #get(ThreadFactory)}遇到同名指标已被占用时在名称后追加"#序号"。
+ *
+ * <pre>
+ * ThreadPoolExecutor executor = ExecutorBuilder.create()
+ *     .setCorePoolSize(8)
+ *     .setThreadFactory(new NamedThreadFactory("order-", false))
+ *     .setMetrics(null) // 使用线程名前缀"order-"作为指标名称
+ *     .build();
+ * ExecutorMetrics.get("order-").setSlowTaskThreshold(5000);
+ * ...
+ * String json = ExecutorMetrics.dumpAll();
+ * </pre>
+ *
+ * @author mawujun
+ */
+public class ExecutorMetrics {
+	private static final Logger logger = LoggerFactory.getLogger(ExecutorMetrics.class);
+
+	/** 所有已注册的指标 */
+	private static final Map<String, ExecutorMetrics> REGISTRY = new ConcurrentHashMap<>();
+	/** 未命名线程池的序号 */
+	private static final AtomicInteger POOL_NUMBER = new AtomicInteger(1);
+	/** 保留的慢任务采样数 */
+	private static final int MAX_SLOW_TASKS = 32;
+	/** 慢任务采样线程，所有指标共用 */
+	private static volatile ScheduledExecutorService sampler;
+
+	private final String name;
+	private final LatencyHistogram waitLatency = new LatencyHistogram();
+	private final LatencyHistogram runLatency = new LatencyHistogram();
+	private final LongAdder submitted = new LongAdder();
+	private final LongAdder pending = new LongAdder();
+	private final LongAdder active = new LongAdder();
+	private final LongAdder completed = new LongAdder();
+	private final LongAdder failed = new LongAdder();
+	private final LongAdder rejected = new LongAdder();
+
+	/** 被统计的线程池，用于读取线程数和队列长度，弱引用避免注册表持有已不再使用的线程池 */
+	private volatile WeakReference<ExecutorService> executor;
+	/** 已由{@link #get(ThreadFactory)}分配给即将创建的线程池，在{@link #register(ExecutorService)}前不再分配给其它线程池 */
+	private boolean claimed;
+	/** 执行中的任务，仅开启慢任务采样时记录 */
+	private final Set<TimedTask> running = ConcurrentHashMap.newKeySet();
+	/** 最近的慢任务 */
+	private final Deque<SlowTask> slowTasks = new ArrayDeque<>();
+	/** 执行超过此时间视为慢任务，毫秒，0表示不采样 */
+	private volatile long slowTaskThreshold;
+	private ScheduledFuture<?> sampleFuture;
+
+	/**
+	 * 获取指定名称的指标，不存在则创建
+	 *
+	 * @param name 名称
+	 * @return {@link ExecutorMetrics}
+	 */
+	public static ExecutorMetrics get(String name) {
+		return REGISTRY.computeIfAbsent(name, ExecutorMetrics::new);
+	}
+
+	/**
+	 * 获取线程工厂对应的指标，{@link NamedThreadFactory}使用线程名前缀作为名称，其它生成"executor-序号"
+	 *
+	 * @param threadFactory 线程工厂，可以为null
+	 * @return {@link ExecutorMetrics}
+	 */
+	public static ExecutorMetrics get(ThreadFactory threadFactory) {
+		synchronized (REGISTRY) {
+			purge();
+			if (false == threadFactory instanceof NamedThreadFactory) {
+				return claim("executor-" + POOL_NUMBER.getAndIncrement());
+			}
+			final String prefix = ((NamedThreadFactory) threadFactory).getPrefix();
+			String name = prefix;
+			for (int i = 2; isInUse(REGISTRY.get(name)); i++) {
+				// 同一前缀的多个线程池分别统计
+				name = prefix + "#" + i;
+			}
+			return claim(name);
+		}
+	}
+
+	/**
+	 * 所有已注册的指标，已终止或被回收的线程池的指标会先被移除
+	 *
+	 * @return 名称和指标的Map
+	 */
+	public static Map<String, ExecutorMetrics> getAll() {
+		synchronized (REGISTRY) {
+			purge();
+		}
+		return Collections.unmodifiableMap(REGISTRY);
+	}
+
+	/**
+	 * 将所有已注册的指标输出为JSON
+	 *
+	 * @return JSON字符串
+	 */
+	public static String dumpAll() {
+		synchronized (REGISTRY) {
+			purge();
+		}
+		final StringBuilder builder = new StringBuilder("{");
+		boolean first = true;
+		for (Entry<String, ExecutorMetrics> entry : REGISTRY.entrySet()) {
+			if (false == first) {
+				builder.append(',');
+			}
+			first = false;
+			builder.append(quote(entry.getKey())).append(':').append(entry.getValue().toJson());
+		}
+		return builder.append('}').toString();
+	}
+
+	/**
+	 * 构造，一般通过{@link #get(String)}获取
+	 *
+	 * @param name 名称
+	 */
+	public ExecutorMetrics(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * 包装任意线程池（如{@link ForkJoinPool}、虚拟线程池），返回的线程池提交的任务会被统计<br>
+	 * {@link ExecutorBuilder}构建的线程池请使用{@link ExecutorBuilder#setMetrics(String)}
+	 *
+	 * @param executor 被包装的线程池
+	 * @return 统计任务的{@link ExecutorService}
+	 */
+	public ExecutorService instrument(ExecutorService executor) {
+		register(executor);
+		return new InstrumentedExecutorService(executor, this);
+	}
+
+	/**
+	 * 注册线程池，用于读取线程数和队列长度
+	 *
+	 * @param executor 线程池
+	 * @return this
+	 * @throws IllegalStateException 此指标已注册了其它未终止的线程池
+	 */
+	public ExecutorMetrics register(ExecutorService executor) throws IllegalStateException {
+		synchronized (REGISTRY) {
+			final ExecutorService current = executor();
+			Assert.state(null == current || current == executor || current.isTerminated(), "Metrics [{}] is already registered by another executor", name);
+			this.executor = new WeakReference<>(executor);
+			this.claimed = false;
+			// 注销后重新注册
+			REGISTRY.putIfAbsent(name, this);
+		}
+		return this;
+	}
+
+	/**
+	 * 从注册表中移除此指标并停止慢任务采样，{@link InstrumentedThreadPoolExecutor}终止时自动调用
+	 */
+	public void unregister() {
+		synchronized (REGISTRY) {
+			REGISTRY.remove(name, this);
+			this.executor = null;
+			this.claimed = false;
+		}
+		synchronized (this) {
+			if (null != sampleFuture) {
+				sampleFuture.cancel(false);
+				sampleFuture = null;
+			}
+			running.clear();
+		}
+	}
+
+	/**
+	 * 线程池创建失败时释放{@link #get(ThreadFactory)}的分配，未注册线程池的指标从注册表中移除
+	 */
+	void releaseClaim() {
+		synchronized (REGISTRY) {
+			if (this.claimed) {
+				this.claimed = false;
+				if (null == this.executor) {
+					REGISTRY.remove(name, this);
+				}
+			}
+		}
+	}
+
+	// ------------------------------------------------------------------------------------------------------------------------------------- record start
+	/**
+	 * 包装提交的任务，记录提交时间，执行时记录排队及执行耗时
+	 *
+	 * @param task 任务
+	 * @return 包装后的任务
+	 */
+	public Runnable wrap(Runnable task) {
+		submitted.increment();
+		pending.increment();
+		return new TimedTask(task);
+	}
+
+	/**
+	 * 记录一次拒绝
+	 */
+	public void recordRejected() {
+		rejected.increment();
+		pending.decrement();
+	}
+
+	/**
+	 * 包装拒绝策略，被拒绝的任务计入拒绝数后再交给原拒绝策略
+	 *
+	 * @param handler 原拒绝策略
+	 * @return {@link RejectedExecutionHandler}
+	 */
+	public RejectedExecutionHandler wrap(final RejectedExecutionHandler handler) {
+		return (runnable, executor) -> {
+			recordRejected();
+			handler.rejectedExecution(runnable, executor);
+		};
+	}
+	// ------------------------------------------------------------------------------------------------------------------------------------- record end
+
+	/**
+	 * 排队中的任务数，{@link ThreadPoolExecutor}和{@link ForkJoinPool}读取其队列，其它按提交和开始执行的任务数计算
+	 *
+	 * @return 排队中的任务数
+	 */
+	public long getQueued() {
+		final ExecutorService executor = executor();
+		if (executor instanceof ThreadPoolExecutor) {
+			return ((ThreadPoolExecutor) executor).getQueue().size();
+		}
+		if (executor instanceof ForkJoinPool) {
+			final ForkJoinPool pool = (ForkJoinPool) executor;
+			return pool.getQueuedSubmissionCount() + pool.getQueuedTaskCount();
+		}
+		return Math.max(0, pending.sum());
+	}
+
+	/**
+	 * 线程池当前线程数，无法获取时返回-1
+	 *
+	 * @return 线程数
+	 */
+	public int getPoolSize() {
+		final ExecutorService executor = executor();
+		if (executor instanceof ThreadPoolExecutor) {
+			return ((ThreadPoolExecutor) executor).getPoolSize();
+		}
+		if (executor instanceof ForkJoinPool) {
+			return ((ForkJoinPool) executor).getPoolSize();
+		}
+		return -1;
+	}
+
+	/**
+	 * 线程池是否饱和：线程数已达上限且有任务在排队
+	 *
+	 * @return 是否饱和
+	 */
+	public boolean isSaturated() {
+		final ExecutorService executor = executor();
+		if (executor instanceof ThreadPoolExecutor) {
+			final ThreadPoolExecutor pool = (ThreadPoolExecutor) executor;
+			return pool.getPoolSize() >= pool.getMaximumPoolSize() && pool.getActiveCount() >= pool.getPoolSize() && false == pool.getQueue().isEmpty();
+		}
+		return getQueued() > 0 && getActive() >= getPoolSize();
+	}
+
+	/**
+	 * 最近的慢任务采样，最多{@value #MAX_SLOW_TASKS}条
+	 *
+	 * @return 慢任务
+	 */
+	public List<SlowTask> getSlowTasks() {
+		synchronized (slowTasks) {
+			return new ArrayList<>(slowTasks);
+		}
+	}
+
+	/**
+	 * 检查执行中的任务，执行超过{@link #setSlowTaskThreshold(long)}的任务记录其线程调用栈并打印警告日志，每个任务只记录一次<br>
+	 * 开启慢任务采样后会被定时调用
+	 *
+	 * @return 新发现的慢任务数
+	 */
+	public int sampleSlowTasks() {
+		final long threshold = TimeUnit.MILLISECONDS.toNanos(this.slowTaskThreshold);
+		if (threshold <= 0) {
+			return 0;
+		}
+		final long now = System.nanoTime();
+		int found = 0;
+		for (TimedTask task : running) {
+			final Thread thread = task.thread;
+			if (false == task.sampled && null != thread && now - task.startNanos >= threshold) {
+				task.sampled = true;
+				found++;
+				final SlowTask slowTask = new SlowTask(thread.getName(), TimeUnit.NANOSECONDS.toMillis(now - task.startNanos), thread.getStackTrace());
+				synchronized (slowTasks) {
+					if (slowTasks.size() >= MAX_SLOW_TASKS) {
+						slowTasks.removeFirst();
+					}
+					slowTasks.addLast(slowTask);
+				}
+				logger.warn("[{}] Task in thread [{}] has been running for {}ms:\n{}", name, slowTask.threadName, slowTask.elapsedMillis, slowTask.getStackTraceString());
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * 清空统计数据，不影响执行中的任务
+	 */
+	public void reset() {
+		waitLatency.reset();
+		runLatency.reset();
+		submitted.reset();
+		completed.reset();
+		failed.reset();
+		rejected.reset();
+		synchronized (slowTasks) {
+			slowTasks.clear();
+		}
+	}
+
+	/**
+	 * 输出为JSON，耗时单位为微秒
+	 *
+	 * @return JSON字符串
+	 */
+	public String toJson() {
+		return new StringBuilder()//
+				.append("{\"name\":").append(quote(name))//
+				.append(",\"poolSize\":").append(getPoolSize())//
+				.append(",\"active\":").append(getActive())//
+				.append(",\"queued\":").append(getQueued())//
+				.append(",\"saturated\":").append(isSaturated())//
+				.append(",\"submitted\":").append(getSubmitted())//
+				.append(",\"completed\":").append(getCompleted())//
+				.append(",\"failed\":").append(getFailed())//
+				.append(",\"rejected\":").append(getRejected())//
+				.append(",\"slowTasks\":").append(getSlowTasks().size())//
+				.append(",\"wait\":").append(waitLatency.toJson())//
+				.append(",\"run\":").append(runLatency.toJson())//
+				.append('}').toString();
+	}
+
+	@Override
+	public String toString() {
+		return toJson();
+	}
+
+	// ------------------------------------------------------------------------------------------------------------------------------------- Getters and Setters start
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * 排队耗时（提交到开始执行），单位微秒
+	 *
+	 * @return {@link LatencyHistogram}
+	 */
+	public LatencyHistogram getWaitLatency() {
+		return waitLatency;
+	}
+
+	/**
+	 * 执行耗时（开始到结束），单位微秒
+	 *
+	 * @return {@link LatencyHistogram}
+	 */
+	public LatencyHistogram getRunLatency() {
+		return runLatency;
+	}
+
+	public long getSubmitted() {
+		return submitted.sum();
+	}
+
+	public long getActive() {
+		return active.sum();
+	}
+
+	public long getCompleted() {
+		return completed.sum();
+	}
+
+	/**
+	 * 执行时抛出异常的任务数，通过submit提交的任务异常由{@link java.util.concurrent.Future}持有，不计入
+	 *
+	 * @return 异常的任务数
+	 */
+	public long getFailed() {
+		return failed.sum();
+	}
+
+	public long getRejected() {
+		return rejected.sum();
+	}
+
+	public long getSlowTaskThreshold() {
+		return slowTaskThreshold;
+	}
+
+	/**
+	 * 设置执行超过多长时间视为慢任务，大于0时开启定时采样，检查间隔为阈值的一半
+	 *
+	 * @param slowTaskThreshold 毫秒，0表示关闭采样
+	 * @return this
+	 */
+	public synchronized ExecutorMetrics setSlowTaskThreshold(long slowTaskThreshold) {
+		this.slowTaskThreshold = slowTaskThreshold;
+		if (null != sampleFuture) {
+			sampleFuture.cancel(false);
+			sampleFuture = null;
+		}
+		if (slowTaskThreshold > 0) {
+			final long period = Math.max(10, slowTaskThreshold / 2);
+			sampleFuture = getSampler().scheduleAtFixedRate(this::sampleSlowTasks, period, period, TimeUnit.MILLISECONDS);
+		} else {
+			running.clear();
+		}
+		return this;
+	}
+	// ------------------------------------------------------------------------------------------------------------------------------------- Getters and Setters end
+
+	// ------------------------------------------------------------------------------------------------------------------------------------- Private method start
+	/**
+	 * 注册的线程池，未注册或已被回收返回null
+	 */
+	private ExecutorService executor() {
+		final WeakReference<ExecutorService> executor = this.executor;
+		return (null == executor) ? null : executor.get();
+	}
+
+	/**
+	 * 注册过的线程池已终止或被回收
+	 */
+	private boolean isDead() {
+		if (null == this.executor) {
+			return false;
+		}
+		final ExecutorService executor = executor();
+		return null == executor || executor.isTerminated();
+	}
+
+	/**
+	 * 指标是否已被分配或注册了未终止的线程池，需持有REGISTRY锁
+	 */
+	private static boolean isInUse(ExecutorMetrics metrics) {
+		return null != metrics && (metrics.claimed || (null != metrics.executor && false == metrics.isDead()));
+	}
+
+	/**
+	 * 创建或获取指标并标记为已分配，需持有REGISTRY锁
+	 */
+	private static ExecutorMetrics claim(String name) {
+		final ExecutorMetrics metrics = get(name);
+		metrics.claimed = true;
+		return metrics;
+	}
+
+	/**
+	 * 移除线程池已终止或被回收的指标，需持有REGISTRY锁
+	 */
+	private static void purge() {
+		for (ExecutorMetrics metrics : REGISTRY.values()) {
+			if (false == metrics.claimed && metrics.isDead()) {
+				metrics.unregister();
+			}
+		}
+	}
+
+	private static ScheduledExecutorService getSampler() {
+		if (null == sampler) {
+			synchronized (ExecutorMetrics.class) {
+				if (null == sampler) {
+					sampler = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("executor-metrics-sampler-", true));
+				}
+			}
+		}
+		return sampler;
+	}
+
+	private static String quote(String str) {
+		return '"' + str.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+	}
+	// ------------------------------------------------------------------------------------------------------------------------------------- Private method end
+
+	/**
+	 * 记录排队及执行耗时的任务
+	 */
+	private final class TimedTask implements Runnable {
+		private final Runnable task;
+		private final long submitNanos = System.nanoTime();
+		private volatile Thread thread;
+		private volatile long startNanos;
+		private volatile boolean sampled;
+
+		TimedTask(Runnable task) {
+			this.task = task;
+		}
+
+		@Override
+		public void run() {
+			final long start = System.nanoTime();
+			waitLatency.recordNanos(start - submitNanos);
+			pending.decrement();
+			active.increment();
+			final boolean track = slowTaskThreshold > 0;
+			if (track) {
+				this.startNanos = start;
+				this.thread = Thread.currentThread();
+				running.add(this);
+			}
+			try {
+				task.run();
+				completed.increment();
+			} catch (RuntimeException | Error e) {
+				failed.increment();
+				throw e;
+			} finally {
+				active.decrement();
+				runLatency.recordNanos(System.nanoTime() - start);
+				if (track) {
+					running.remove(this);
+					this.thread = null;
+				}
+			}
+		}
+
+		@Override
+		public String toString() {
+			return task.toString();
+		}
+	}
+
+	/**
+	 * 慢任务采样
+	 *
+	 * @author mawujun
+	 */
+	public static final class SlowTask {
+		private final long sampledAt = System.currentTimeMillis();
+		private final String threadName;
+		private final long elapsedMillis;
+		private final StackTraceElement[] stackTrace;
+
+		SlowTask(String threadName, long elapsedMillis, StackTraceElement[] stackTrace) {
+			this.threadName = threadName;
+			this.elapsedMillis = elapsedMillis;
+			this.stackTrace = stackTrace;
+		}
+
+		public long getSampledAt() {
+			return sampledAt;
+		}
+
+		public String getThreadName() {
+			return threadName;
+		}
+
+		/**
+		 * 采样时任务已执行的时间，毫秒
+		 *
+		 * @return 毫秒
+		 */
+		public long getElapsedMillis() {
+			return elapsedMillis;
+		}
+
+		/**
+		 * 采样时执行任务线程的调用栈
+		 *
+		 * @return 调用栈
+		 */
+		public StackTraceElement[] getStackTrace() {
+			return stackTrace;
+		}
+
+		/**
+		 * 调用栈字符串，每行一个栈帧
+		 *
+		 * @return 调用栈字符串
+		 */
+		public String getStackTraceString() {
+			final StringBuilder builder = new StringBuilder();
+			for (StackTraceElement element : stackTrace) {
+				builder.append("\tat ").append(element).append('\n');
+			}
+			return builder.toString();
+		}
+
+		@Override
+		public String toString() {
+			return StrUtil.format("[{}] running {}ms", threadName, elapsedMillis);
+		}
+	}
+}
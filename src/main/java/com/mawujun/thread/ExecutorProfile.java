@@ -0,0 +1,20 @@
+package com.mawujun.thread;
+
+/**
+ * 线程池类型枚举，用于{@link ThreadUtil#newExecutor(ExecutorProfile)}和{@link GlobalThreadPool#init(ExecutorProfile)}
+ *
+ * @author mawujun
+ */
+public enum ExecutorProfile {
+
+	/** 无界线程池，使用SynchronousQueue，任务直接交给线程执行，突发流量下线程数不受限制 */
+	CACHED,
+	/** 有界队列线程池，线程和队列都满时由提交任务的线程执行（背压） */
+	BOUNDED,
+	/** 优先扩充线程的线程池，线程数达到上限后才排队，队列满时由提交任务的线程执行 */
+	EAGER,
+	/** 工作窃取线程池（{@link java.util.concurrent.ForkJoinPool}），适合大量短小任务 */
+	WORK_STEALING,
+	/** 每个任务一个虚拟线程，运行时不支持虚拟线程时退化为{@link #CACHED} */
+	VIRTUAL
+}
@@ -5,16 +5,17 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 
 import com.mawujun.exception.exceptions.UtilException;
+import com.mawujun.lang.Assert;
 
 /**
  * 全局公共线程池<br>
- * 此线程池是一个无限线程池，既加入的线程不等待任何线程，直接执行
+ * 默认是一个无限线程池，既加入的线程不等待任何线程，直接执行，可通过{@link #init(ExecutorProfile)}或{@link #init(ExecutorService)}替换为其它类型的线程池
  * 
  * @author Looly
  *
  */
 public class GlobalThreadPool {
-	private static ExecutorService executor;
+	private static volatile ExecutorService executor;
 
 	private GlobalThreadPool() {
 	}
@@ -27,10 +28,29 @@ public class GlobalThreadPool {
 	 * 初始化全局线程池
 	 */
 	synchronized public static void init() {
-		if (null != executor) {
+		init(ExecutorProfile.CACHED);
+	}
+
+	/**
+	 * 使用指定类型的线程池重新初始化全局线程池，原线程池立即关闭
+	 * 
+	 * @param profile 线程池类型
+	 */
+	synchronized public static void init(ExecutorProfile profile) {
+		init(ThreadUtil.newExecutor(profile));
+	}
+
+	/**
+	 * 使用指定的线程池重新初始化全局线程池，原线程池立即关闭
+	 * 
+	 * @param executorService {@link ExecutorService}
+	 */
+	synchronized public static void init(ExecutorService executorService) {
+		Assert.notNull(executorService, "ExecutorService must be not null!");
+		if (null != executor && executor != executorService) {
 			executor.shutdownNow();
 		}
-		executor = ExecutorBuilder.create().useSynchronousQueue().build();
+		executor = executorService;
 	}
 
 	/**
@@ -0,0 +1,68 @@
+package com.mawujun.thread;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 统计任务排队及执行耗时的线程池包装，submit、invokeAll等方法最终都经过{@link #execute(Runnable)}
+ *
+ * @author mawujun
+ * @see ExecutorMetrics#instrument(ExecutorService)
+ */
+class InstrumentedExecutorService extends AbstractExecutorService {
+
+	private final ExecutorService delegate;
+	private final ExecutorMetrics metrics;
+
+	InstrumentedExecutorService(ExecutorService delegate, ExecutorMetrics metrics) {
+		this.delegate = delegate;
+		this.metrics = metrics;
+	}
+
+	@Override
+	public void execute(Runnable command) {
+		if (null == command) {
+			throw new NullPointerException();
+		}
+		final Runnable task = metrics.wrap(command);
+		try {
+			delegate.execute(task);
+		} catch (RejectedExecutionException e) {
+			metrics.recordRejected();
+			throw e;
+		}
+	}
+
+	@Override
+	public void shutdown() {
+		delegate.shutdown();
+	}
+
+	@Override
+	public List<Runnable> shutdownNow() {
+		return delegate.shutdownNow();
+	}
+
+	@Override
+	public boolean isShutdown() {
+		return delegate.isShutdown();
+	}
+
+	@Override
+	public boolean isTerminated() {
+		return delegate.isTerminated();
+	}
+
+	@Override
+	public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+		return delegate.awaitTermination(timeout, unit);
+	}
+
+	@Override
+	public String toString() {
+		return delegate.toString();
+	}
+}
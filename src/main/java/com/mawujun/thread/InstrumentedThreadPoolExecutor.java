@@ -0,0 +1,51 @@
+package com.mawujun.thread;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 统计任务排队及执行耗时的{@link ThreadPoolExecutor}，由{@link ExecutorBuilder#setMetrics(String)}开启<br>
+ * 提交的任务会被包装，因此{@link #getQueue()}中的元素不是原任务，{@link #remove(Runnable)}对原任务无效
+ *
+ * @author mawujun
+ */
+public class InstrumentedThreadPoolExecutor extends ThreadPoolExecutor {
+
+	private final ExecutorMetrics metrics;
+
+	/**
+	 * 构造，拒绝策略需已经过{@link ExecutorMetrics#wrap(RejectedExecutionHandler)}包装
+	 */
+	InstrumentedThreadPoolExecutor(int corePoolSize, int maximumPoolSize, long keepAliveTime, TimeUnit unit, BlockingQueue<Runnable> workQueue, ThreadFactory threadFactory,
+			RejectedExecutionHandler handler, ExecutorMetrics metrics) {
+		super(corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue, threadFactory, handler);
+		this.metrics = metrics;
+		metrics.register(this);
+	}
+
+	@Override
+	public void execute(Runnable command) {
+		if (null == command) {
+			throw new NullPointerException();
+		}
+		super.execute(metrics.wrap(command));
+	}
+
+	@Override
+	protected void terminated() {
+		// 终止后不再占用指标名称，也不被注册表持有
+		metrics.unregister();
+	}
+
+	/**
+	 * 获取此线程池的运行指标
+	 *
+	 * @return {@link ExecutorMetrics}
+	 */
+	public ExecutorMetrics getMetrics() {
+		return metrics;
+	}
+}
@@ -0,0 +1,189 @@
+package com.mawujun.thread;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import com.mawujun.lang.Assert;
+
+/**
+ * 按key串行的执行器：相同key的任务按提交顺序逐个执行，不同key的任务在线程池中并行执行<br>
+ * 不为每个key创建线程，每个有待执行任务的key只占用线程池中的一个任务，key的任务执行完后自动移除，适合按账户、订单等保证顺序的场景。
+ *
+ * <pre>
+ * KeyedSerialExecutor&lt;Long&gt; executor = new KeyedSerialExecutor&lt;&gt;();
+ * executor.execute(accountId, () -&gt; account.deposit(100));
+ * executor.execute(accountId, () -&gt; account.withdraw(50)); // 在deposit之后执行
+ * </pre>
+ *
+ * 为避免某个key的大量任务长时间占用线程，每连续执行{@link #setMaxRunsPerKey(int)}个任务后将剩余任务重新提交到线程池。
+ *
+ * @author mawujun
+ * @param <K> key类型
+ */
+public class KeyedSerialExecutor<K> {
+
+	/** 执行任务的线程池，null表示使用{@link GlobalThreadPool} */
+	private final Executor executor;
+	/** 有待执行任务的key */
+	private final Map<K, SerialQueue> queues = new ConcurrentHashMap<>();
+	/** 每次占用线程时最多连续执行的任务数 */
+	private volatile int maxRunsPerKey = 64;
+
+	/**
+	 * 构造，使用{@link GlobalThreadPool}执行任务
+	 */
+	public KeyedSerialExecutor() {
+		this(null);
+	}
+
+	/**
+	 * 构造
+	 *
+	 * @param executor 执行任务的线程池，null表示使用{@link GlobalThreadPool}
+	 */
+	public KeyedSerialExecutor(Executor executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * 设置每次占用线程时最多连续执行的任务数，达到后剩余任务重新提交到线程池，默认64
+	 *
+	 * @param maxRunsPerKey 最多连续执行的任务数
+	 * @return this
+	 */
+	public KeyedSerialExecutor<K> setMaxRunsPerKey(int maxRunsPerKey) {
+		Assert.isTrue(maxRunsPerKey > 0, "MaxRunsPerKey must be > 0");
+		this.maxRunsPerKey = maxRunsPerKey;
+		return this;
+	}
+
+	/**
+	 * 提交任务，相同key的任务按提交顺序执行<br>
+	 * 任务抛出的异常交给执行线程的{@link Thread.UncaughtExceptionHandler}处理，不影响此key后续任务；
+	 * 线程池拒绝时由提交任务的线程执行此key的任务
+	 *
+	 * @param key key
+	 * @param task 任务
+	 */
+	public void execute(K key, Runnable task) {
+		Assert.notNull(key, "Key must be not null!");
+		Assert.notNull(task, "Task must be not null!");
+		final boolean[] created = new boolean[1];
+		final SerialQueue queue = queues.compute(key, (k, current) -> {
+			if (null == current) {
+				current = new SerialQueue(k);
+				created[0] = true;
+			}
+			current.tasks.add(task);
+			return current;
+		});
+		if (created[0]) {
+			// 新的key，提交到线程池；已有的key由正在运行的任务依次执行
+			schedule(queue);
+		}
+	}
+
+	/**
+	 * 提交有返回值的任务，相同key的任务按提交顺序执行
+	 *
+	 * @param <T> 结果类型
+	 * @param key key
+	 * @param task 任务
+	 * @return {@link CompletableFuture}，任务抛出异常时异常结束
+	 */
+	public <T> CompletableFuture<T> submit(K key, Callable<T> task) {
+		Assert.notNull(task, "Task must be not null!");
+		final CompletableFuture<T> future = new CompletableFuture<>();
+		execute(key, () -> {
+			try {
+				future.complete(task.call());
+			} catch (Throwable e) {
+				future.completeExceptionally(e);
+			}
+		});
+		return future;
+	}
+
+	/**
+	 * 有待执行任务的key数
+	 *
+	 * @return key数
+	 */
+	public int getPendingKeys() {
+		return queues.size();
+	}
+
+	// ------------------------------------------------------------------------------------------------------------------------------------- Private method start
+	private void schedule(SerialQueue queue) {
+		try {
+			getExecutor().execute(queue);
+		} catch (RejectedExecutionException e) {
+			queue.run();
+		}
+	}
+
+	private Executor getExecutor() {
+		return (null != executor) ? executor : GlobalThreadPool.getExecutor();
+	}
+
+	/**
+	 * 从key的队列中取下一个任务，队列为空时移除此key<br>
+	 * 入队和出队都在{@link ConcurrentHashMap#compute(Object, java.util.function.BiFunction)}中进行，因此不会有任务进入已移除的队列
+	 */
+	private Runnable poll(SerialQueue queue) {
+		final Runnable[] next = new Runnable[1];
+		queues.computeIfPresent(queue.key, (k, current) -> {
+			next[0] = current.tasks.poll();
+			return (null == next[0]) ? null : current;
+		});
+		return next[0];
+	}
+	// ------------------------------------------------------------------------------------------------------------------------------------- Private method end
+
+	/**
+	 * 一个key的任务队列，作为线程池中的任务逐个执行队列中的任务
+	 */
+	private final class SerialQueue implements Runnable {
+		private final K key;
+		/** 只在{@link ConcurrentHashMap#compute(Object, java.util.function.BiFunction)}中访问 */
+		private final Queue<Runnable> tasks = new ArrayDeque<>();
+
+		SerialQueue(K key) {
+			this.key = key;
+		}
+
+		@Override
+		public void run() {
+			while (true) {
+				final int maxRuns = maxRunsPerKey;
+				Runnable task;
+				for (int i = 0; i < maxRuns; i++) {
+					task = poll(this);
+					if (null == task) {
+						// 队列已空，key已移除
+						return;
+					}
+					try {
+						task.run();
+					} catch (Throwable e) {
+						final Thread thread = Thread.currentThread();
+						thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+					}
+				}
+				// 让出线程，剩余任务重新排队，被拒绝时继续在当前线程执行
+				try {
+					getExecutor().execute(this);
+					return;
+				} catch (RejectedExecutionException e) {
+					// 继续执行
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,200 @@
+package com.mawujun.thread;
+
+import java.io.StringWriter;
+
+import com.mawujun.lang.LatencyHistogram;
+import com.mawujun.text.csv.CsvWriter;
+import com.mawujun.util.StrUtil;
+
+/**
+ * {@link LoadTester}的压测结果，耗时单位为微秒
+ *
+ * @author mawujun
+ */
+public class LoadTestReport {
+
+	private final int concurrency;
+	private final double targetRate;
+	private final long elapsedMillis;
+	private final LatencyHistogram latency;
+	private final LatencyHistogram serviceTime;
+	private final long errors;
+	private final long missed;
+	private final long[] throughputSeries;
+	private final long[] errorSeries;
+
+	LoadTestReport(int concurrency, double targetRate, long elapsedMillis, LatencyHistogram latency, LatencyHistogram serviceTime, long errors, long missed,
+			long[] throughputSeries, long[] errorSeries) {
+		this.concurrency = concurrency;
+		this.targetRate = targetRate;
+		this.elapsedMillis = elapsedMillis;
+		this.latency = latency;
+		this.serviceTime = serviceTime;
+		this.errors = errors;
+		this.missed = missed;
+		this.throughputSeries = throughputSeries;
+		this.errorSeries = errorSeries;
+	}
+
+	/**
+	 * 是否为固定速率（开环模型）压测
+	 *
+	 * @return 是否固定速率
+	 */
+	public boolean isFixedRate() {
+		return targetRate > 0;
+	}
+
+	/**
+	 * 线程数
+	 *
+	 * @return 线程数
+	 */
+	public int getConcurrency() {
+		return concurrency;
+	}
+
+	/**
+	 * 目标每秒执行次数，固定并发模式为0
+	 *
+	 * @return 每秒执行次数
+	 */
+	public double getTargetRate() {
+		return targetRate;
+	}
+
+	/**
+	 * 测量阶段实际用时，毫秒
+	 *
+	 * @return 毫秒
+	 */
+	public long getElapsedMillis() {
+		return elapsedMillis;
+	}
+
+	/**
+	 * 测量阶段执行次数
+	 *
+	 * @return 执行次数
+	 */
+	public long getCount() {
+		return serviceTime.getCount();
+	}
+
+	/**
+	 * 测量阶段抛出异常的次数
+	 *
+	 * @return 异常次数
+	 */
+	public long getErrors() {
+		return errors;
+	}
+
+	/**
+	 * 固定速率模式下测量阶段计划了但到测量结束仍未开始、因此被跳过的次数，固定并发模式为0
+	 *
+	 * @return 错过次数
+	 */
+	public long getMissed() {
+		return missed;
+	}
+
+	/**
+	 * 平均每秒执行次数
+	 *
+	 * @return 每秒执行次数
+	 */
+	public double getThroughput() {
+		return (elapsedMillis > 0) ? getCount() * 1000d / elapsedMillis : 0;
+	}
+
+	/**
+	 * 修正协调遗漏后的耗时，固定速率模式从计划开始时间计算
+	 *
+	 * @return {@link LatencyHistogram}
+	 */
+	public LatencyHistogram getLatency() {
+		return latency;
+	}
+
+	/**
+	 * 被测逻辑实际执行的耗时，不含排队延后的时间
+	 *
+	 * @return {@link LatencyHistogram}
+	 */
+	public LatencyHistogram getServiceTime() {
+		return serviceTime;
+	}
+
+	/**
+	 * 测量阶段每秒完成的次数
+	 *
+	 * @return 每秒完成次数，下标为秒
+	 */
+	public long[] getThroughputSeries() {
+		return throughputSeries.clone();
+	}
+
+	/**
+	 * 测量阶段每秒的异常次数
+	 *
+	 * @return 每秒异常次数，下标为秒
+	 */
+	public long[] getErrorSeries() {
+		return errorSeries.clone();
+	}
+
+	/**
+	 * 将每秒吞吐量写出为CSV，列为：second,count,errors
+	 *
+	 * @param writer {@link CsvWriter}
+	 * @return writer
+	 */
+	public CsvWriter writeCsv(CsvWriter writer) {
+		writer.write(new String[] { "second", "count", "errors" });
+		for (int i = 0; i < throughputSeries.length; i++) {
+			writer.write(new String[] { String.valueOf(i), String.valueOf(throughputSeries[i]), String.valueOf(errorSeries[i]) });
+		}
+		writer.flush();
+		return writer;
+	}
+
+	/**
+	 * 每秒吞吐量的CSV字符串
+	 *
+	 * @return CSV字符串
+	 * @see #writeCsv(CsvWriter)
+	 */
+	public String toCsv() {
+		final StringWriter out = new StringWriter();
+		writeCsv(new CsvWriter(out));
+		return out.toString();
+	}
+
+	/**
+	 * 输出为JSON，耗时单位为微秒
+	 *
+	 * @return JSON字符串
+	 */
+	public String toJson() {
+		return StrUtil.format("{\"mode\":\"{}\",\"concurrency\":{},\"targetRate\":{},\"elapsedMillis\":{},\"count\":{},\"errors\":{},\"missed\":{},\"throughput\":{},\"latency\":{},\"serviceTime\":{},\"throughputSeries\":{},\"errorSeries\":{}}", //
+				isFixedRate() ? "fixedRate" : "fixedConcurrency", concurrency, targetRate, elapsedMillis, getCount(), errors, missed, Math.round(getThroughput() * 100) / 100d, //
+				latency.toJson(), serviceTime.toJson(), toJson(throughputSeries), toJson(errorSeries));
+	}
+
+	@Override
+	public String toString() {
+		return toJson();
+	}
+
+	private static String toJson(long[] series) {
+		final StringBuilder builder = new StringBuilder("[");
+		for (int i = 0; i < series.length; i++) {
+			if (i > 0) {
+				builder.append(',');
+			}
+			builder.append(series[i]);
+		}
+		return builder.append(']').toString();
+	}
+}
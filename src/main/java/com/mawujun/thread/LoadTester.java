@@ -0,0 +1,236 @@
+package com.mawujun.thread;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import com.mawujun.exception.exceptions.UtilException;
+import com.mawujun.lang.Assert;
+import com.mawujun.lang.LatencyHistogram;
+
+/**
+ * 压测工具，分为预热和测量两个阶段，支持两种模式：
+ *
+ * <pre>
+ * 1. 固定并发（闭环模型）：N个线程循环执行，一次执行结束后立即开始下一次，吞吐量由被测逻辑决定
+ * 2. 固定速率（开环模型）：按指定的每秒次数计划执行时间，线程不足或被测逻辑变慢时请求会延后，延后的时间计入耗时；
+ *    测量结束时仍未开始的计划执行不再执行，计为错过次数
+ * </pre>
+ *
+ * 耗时修正了协调遗漏（coordinated omission）：固定速率模式从计划开始时间而不是实际开始时间计算耗时；
+ * 固定并发模式可通过{@link #setExpectedInterval(long, TimeUnit)}按期望间隔补记被推迟的请求。
+ * 结果{@link LoadTestReport}包括耗时百分位数、每秒吞吐量，可输出为JSON或CSV。
+ *
+ * <pre>
+ * LoadTestReport report = LoadTester.fixedRate(2000, 64)
+ *     .setWarmup(5, TimeUnit.SECONDS)
+ *     .setDuration(30, TimeUnit.SECONDS)
+ *     .run(() -&gt; service.call());
+ * Console.log(report.toJson());
+ * </pre>
+ *
+ * @author mawujun
+ * @see ConcurrencyTester
+ */
+public class LoadTester {
+
+	private static final long SECOND_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+	/** 线程数 */
+	private final int concurrency;
+	/** 每秒执行次数，0表示固定并发模式 */
+	private final double rate;
+	/** 预热时间，纳秒 */
+	private long warmup;
+	/** 测量时间，纳秒 */
+	private long duration = TimeUnit.SECONDS.toNanos(10);
+	/** 固定并发模式下期望的请求间隔，纳秒，用于修正协调遗漏 */
+	private long expectedInterval;
+
+	/**
+	 * 固定并发（闭环模型）压测
+	 *
+	 * @param concurrency 并发线程数
+	 * @return {@link LoadTester}
+	 */
+	public static LoadTester fixedConcurrency(int concurrency) {
+		return new LoadTester(concurrency, 0);
+	}
+
+	/**
+	 * 固定速率（开环模型）压测
+	 *
+	 * @param ratePerSecond 每秒执行次数，大于0且不超过10亿（计划间隔至少1纳秒）
+	 * @param maxConcurrency 最大并发线程数，线程都忙时后续请求会延后
+	 * @return {@link LoadTester}
+	 */
+	public static LoadTester fixedRate(double ratePerSecond, int maxConcurrency) {
+		Assert.isTrue(ratePerSecond > 0 && ratePerSecond <= SECOND_NANOS, "Rate must be > 0 and <= {}", SECOND_NANOS);
+		return new LoadTester(maxConcurrency, ratePerSecond);
+	}
+
+	/**
+	 * 构造
+	 *
+	 * @param concurrency 线程数
+	 * @param rate 每秒执行次数，0表示固定并发模式
+	 */
+	private LoadTester(int concurrency, double rate) {
+		Assert.isTrue(concurrency > 0, "Concurrency must be > 0");
+		this.concurrency = concurrency;
+		this.rate = rate;
+	}
+
+	/**
+	 * 设置预热时间，预热阶段的执行不计入结果，默认0
+	 *
+	 * @param warmup 预热时间
+	 * @param unit 单位
+	 * @return this
+	 */
+	public LoadTester setWarmup(long warmup, TimeUnit unit) {
+		this.warmup = unit.toNanos(warmup);
+		return this;
+	}
+
+	/**
+	 * 设置测量时间，默认10秒
+	 *
+	 * @param duration 测量时间
+	 * @param unit 单位
+	 * @return this
+	 */
+	public LoadTester setDuration(long duration, TimeUnit unit) {
+		Assert.isTrue(duration > 0, "Duration must be > 0");
+		this.duration = unit.toNanos(duration);
+		return this;
+	}
+
+	/**
+	 * 设置固定并发模式下每个线程期望的请求间隔，耗时超过此间隔时补记被推迟的请求，用于修正协调遗漏<br>
+	 * 固定速率模式已从计划时间计算耗时，无需设置
+	 *
+	 * @param expectedInterval 期望的请求间隔，0表示不修正
+	 * @param unit 单位
+	 * @return this
+	 */
+	public LoadTester setExpectedInterval(long expectedInterval, TimeUnit unit) {
+		this.expectedInterval = unit.toNanos(expectedInterval);
+		return this;
+	}
+
+	/**
+	 * 执行压测，阻塞直到测量阶段结束及已开始的执行全部完成<br>
+	 * 被测逻辑抛出的异常计入错误数，不中断压测；固定速率模式下测量结束时仍未开始的计划执行计入{@link LoadTestReport#getMissed()}
+	 *
+	 * @param task 被测逻辑
+	 * @return {@link LoadTestReport}
+	 */
+	public LoadTestReport run(final Runnable task) {
+		Assert.notNull(task, "Task must be not null!");
+		final LatencyHistogram latency = new LatencyHistogram();
+		final LatencyHistogram serviceTime = new LatencyHistogram();
+		final LongAdder errors = new LongAdder();
+		final int seconds = (int) ((duration + SECOND_NANOS - 1) / SECOND_NANOS);
+		final AtomicLongArray throughput = new AtomicLongArray(seconds);
+		final AtomicLongArray errorSeries = new AtomicLongArray(seconds);
+		final AtomicLong sequence = new AtomicLong();
+
+		final long start = System.nanoTime();
+		final long measureStart = start + warmup;
+		final long end = measureStart + duration;
+		final long interval = (rate > 0) ? (long) (SECOND_NANOS / rate) : 0;
+
+		final CountDownLatch finished = new CountDownLatch(concurrency);
+		for (int i = 0; i < concurrency; i++) {
+			ThreadUtil.newThread(() -> {
+				try {
+					long intended = 0;
+					while (true) {
+						if (interval > 0) {
+							// 固定速率：领取下一个计划时间，未到则等待
+							intended = start + sequence.getAndIncrement() * interval;
+							if (intended >= end) {
+								break;
+							}
+							parkUntil(intended);
+						}
+						final long begin = System.nanoTime();
+						if (begin >= end) {
+							// 过载时不在测量结束后继续执行积压的计划，剩余的计为错过
+							break;
+						}
+						if (0 == interval) {
+							intended = begin;
+						}
+						boolean failed = false;
+						try {
+							task.run();
+						} catch (Throwable e) {
+							failed = true;
+						}
+						final long finish = System.nanoTime();
+						if (intended < measureStart) {
+							continue;
+						}
+						if (interval > 0) {
+							latency.recordNanos(finish - intended);
+						} else {
+							latency.record((finish - intended) / 1000, expectedInterval / 1000);
+						}
+						serviceTime.recordNanos(finish - begin);
+						final int second = (int) Math.min(seconds - 1, (finish - measureStart) / SECOND_NANOS);
+						throughput.incrementAndGet(second);
+						if (failed) {
+							errors.increment();
+							errorSeries.incrementAndGet(second);
+						}
+					}
+				} finally {
+					finished.countDown();
+				}
+			}, "load-tester-" + i, true).start();
+		}
+
+		try {
+			finished.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new UtilException(e);
+		}
+		final long elapsed = System.nanoTime() - measureStart;
+		long missed = 0;
+		if (interval > 0) {
+			// 测量阶段的计划次数减去实际执行的次数
+			missed = Math.max(0, ceilDiv(end - start, interval) - ceilDiv(measureStart - start, interval) - serviceTime.getCount());
+		}
+		return new LoadTestReport(concurrency, rate, TimeUnit.NANOSECONDS.toMillis(elapsed), latency, serviceTime, errors.sum(), missed, toArray(throughput), toArray(errorSeries));
+	}
+
+	// ------------------------------------------------------------------------------------------------------------------------------------- Private method start
+	/**
+	 * 等待到指定的{@link System#nanoTime()}
+	 */
+	private static void parkUntil(long deadline) {
+		long remaining;
+		while ((remaining = deadline - System.nanoTime()) > 0) {
+			LockSupport.parkNanos(remaining);
+		}
+	}
+
+	private static long ceilDiv(long x, long y) {
+		return (x + y - 1) / y;
+	}
+
+	private static long[] toArray(AtomicLongArray array) {
+		final long[] result = new long[array.length()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = array.get(i);
+		}
+		return result;
+	}
+	// ------------------------------------------------------------------------------------------------------------------------------------- Private method end
+}
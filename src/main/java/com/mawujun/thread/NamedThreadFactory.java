@@ -69,6 +69,15 @@ public class NamedThreadFactory implements ThreadFactory {
 		this.handler = handler;
 	}
 
+	/**
+	 * 获取线程名前缀
+	 * 
+	 * @return 线程名前缀
+	 */
+	public String getPrefix() {
+		return prefix;
+	}
+
 	@Override
 	public Thread newThread(Runnable r) {
 		final Thread t = new Thread(this.group, r, StrUtil.format("{}{}", prefix, threadNumber.getAndIncrement()));
@@ -0,0 +1,324 @@
+package com.mawujun.thread;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+import com.mawujun.exception.exceptions.UtilException;
+import com.mawujun.lang.Assert;
+
+/**
+ * 一组并行执行的任务，结构化地完成“分发-汇总”：
+ *
+ * <pre>
+ * 1. 按添加顺序返回结果
+ * 2. 限制同时执行的任务数（并行度）
+ * 3. 整组任务的截止时间，超时后取消未完成的任务
+ * 4. 任一任务失败时取消其余任务并抛出该异常（fail-fast），也可等待全部完成后再抛出
+ * </pre>
+ *
+ * 任务默认在{@link GlobalThreadPool}中执行，不会为每次调用创建线程池。与{@link SyncFinisher}相比，此类可获取结果、传播异常、超时及取消。
+ *
+ * <pre>
+ * List&lt;User&gt; users = ParallelTasks.&lt;User&gt;create()
+ *     .setParallelism(8)
+ *     .setTimeout(3, TimeUnit.SECONDS)
+ *     .addAll(ids, id -&gt; () -&gt; userService.get(id))
+ *     .invoke();
+ * </pre>
+ *
+ * @author mawujun
+ * @param <T> 任务结果类型
+ */
+public class ParallelTasks<T> {
+
+	private final ExecutorService executor;
+	private final List<Callable<? extends T>> tasks = new ArrayList<>();
+	/** 同时执行的最大任务数，0表示不限制 */
+	private int parallelism;
+	/** 整组任务的超时时间，纳秒，0表示不超时 */
+	private long timeout;
+	/** 任一任务失败时是否立即取消其余任务 */
+	private boolean failFast = true;
+
+	/**
+	 * 创建任务组，使用{@link GlobalThreadPool}执行
+	 *
+	 * @param <T> 任务结果类型
+	 * @return {@link ParallelTasks}
+	 */
+	public static <T> ParallelTasks<T> create() {
+		return new ParallelTasks<>(GlobalThreadPool.getExecutor());
+	}
+
+	/**
+	 * 创建任务组
+	 *
+	 * @param <T> 任务结果类型
+	 * @param executor 执行任务的线程池
+	 * @return {@link ParallelTasks}
+	 */
+	public static <T> ParallelTasks<T> create(ExecutorService executor) {
+		return new ParallelTasks<>(executor);
+	}
+
+	/**
+	 * 构造
+	 *
+	 * @param executor 执行任务的线程池
+	 */
+	public ParallelTasks(ExecutorService executor) {
+		Assert.notNull(executor, "ExecutorService must be not null!");
+		this.executor = executor;
+	}
+
+	/**
+	 * 设置同时执行的最大任务数，一个任务结束后才提交下一个任务
+	 *
+	 * @param parallelism 并行度，0表示不限制
+	 * @return this
+	 */
+	public ParallelTasks<T> setParallelism(int parallelism) {
+		Assert.isTrue(parallelism >= 0, "Parallelism must be >= 0");
+		this.parallelism = parallelism;
+		return this;
+	}
+
+	/**
+	 * 设置整组任务的超时时间，从{@link #invoke()}开始计算
+	 *
+	 * @param timeout 超时时间，0表示不超时
+	 * @param unit 单位
+	 * @return this
+	 */
+	public ParallelTasks<T> setTimeout(long timeout, TimeUnit unit) {
+		this.timeout = unit.toNanos(timeout);
+		return this;
+	}
+
+	/**
+	 * 设置任一任务失败时是否立即取消其余任务，默认true<br>
+	 * 为false时等待全部任务结束，再抛出第一个异常，其它异常作为suppressed附加
+	 *
+	 * @param failFast 是否立即取消
+	 * @return this
+	 */
+	public ParallelTasks<T> setFailFast(boolean failFast) {
+		this.failFast = failFast;
+		return this;
+	}
+
+	/**
+	 * 添加任务
+	 *
+	 * @param task 任务
+	 * @return this
+	 */
+	public ParallelTasks<T> add(Callable<? extends T> task) {
+		Assert.notNull(task, "Task must be not null!");
+		tasks.add(task);
+		return this;
+	}
+
+	/**
+	 * 添加多个任务
+	 *
+	 * @param tasks 任务
+	 * @return this
+	 */
+	public ParallelTasks<T> addAll(Collection<? extends Callable<? extends T>> tasks) {
+		for (Callable<? extends T> task : tasks) {
+			add(task);
+		}
+		return this;
+	}
+
+	/**
+	 * 为每个元素添加一个任务
+	 *
+	 * @param <E> 元素类型
+	 * @param elements 元素
+	 * @param taskFactory 根据元素创建任务
+	 * @return this
+	 */
+	public <E> ParallelTasks<T> addAll(Collection<E> elements, Function<? super E, ? extends Callable<? extends T>> taskFactory) {
+		for (E element : elements) {
+			add(taskFactory.apply(element));
+		}
+		return this;
+	}
+
+	/**
+	 * 任务数
+	 *
+	 * @return 任务数
+	 */
+	public int size() {
+		return tasks.size();
+	}
+
+	/**
+	 * 执行所有任务并阻塞等待，按添加顺序返回结果<br>
+	 * 任务失败、超时或当前线程被中断时，取消未完成的任务并抛出{@link UtilException}，其cause为任务抛出的异常、{@link TimeoutException}或{@link InterruptedException}
+	 *
+	 * @return 结果列表，与任务添加顺序一致
+	 * @throws UtilException 任务失败、超时或中断
+	 */
+	public List<T> invoke() throws UtilException {
+		final int size = tasks.size();
+		if (0 == size) {
+			return new ArrayList<>(0);
+		}
+		final long deadline = (timeout > 0) ? System.nanoTime() + timeout : 0;
+		final int window = (parallelism > 0) ? Math.min(parallelism, size) : size;
+
+		final CompletionService<T> completionService = new ExecutorCompletionService<>(executor);
+		final Map<Future<T>, Integer> futures = new IdentityHashMap<>(size);
+		final List<T> results = new ArrayList<>(Collections.nCopies(size, (T) null));
+		Throwable failure = null;
+		try {
+			for (int i = 0; i < window; i++) {
+				submit(completionService, futures, i);
+			}
+			int submitted = window;
+			for (int done = 0; done < size; done++) {
+				final Future<T> future = take(completionService, deadline);
+				try {
+					results.set(futures.get(future), future.get());
+				} catch (ExecutionException e) {
+					if (null == failure) {
+						failure = e.getCause();
+					} else {
+						failure.addSuppressed(e.getCause());
+					}
+					if (failFast) {
+						break;
+					}
+				}
+				if (submitted < size) {
+					submit(completionService, futures, submitted++);
+				}
+			}
+		} catch (TimeoutException | InterruptedException e) {
+			if (e instanceof InterruptedException) {
+				Thread.currentThread().interrupt();
+			}
+			if (null != failure) {
+				e.addSuppressed(failure);
+			}
+			failure = e;
+		} finally {
+			cancel(futures.keySet());
+		}
+
+		if (null != failure) {
+			throw new UtilException(failure, "Parallel tasks failed: {}", failure.getMessage());
+		}
+		return results;
+	}
+
+	// ------------------------------------------------------------------------------------------------------------------------------------- Static method start
+	/**
+	 * 在{@link GlobalThreadPool}中并行转换列表，列表按chunkSize分段，每段一个任务，结果与原列表顺序一致
+	 *
+	 * @param <E> 元素类型
+	 * @param <R> 结果类型
+	 * @param list 列表
+	 * @param mapper 转换函数
+	 * @param chunkSize 每段元素数
+	 * @return 转换后的列表
+	 * @throws UtilException 转换失败或中断
+	 */
+	public static <E, R> List<R> parallelMap(List<E> list, Function<? super E, ? extends R> mapper, int chunkSize) throws UtilException {
+		return parallelMap(GlobalThreadPool.getExecutor(), list, mapper, chunkSize, 0);
+	}
+
+	/**
+	 * 并行转换列表，列表按chunkSize分段，每段一个任务，结果与原列表顺序一致，任一元素转换失败时取消其余任务
+	 *
+	 * @param <E> 元素类型
+	 * @param <R> 结果类型
+	 * @param executor 执行任务的线程池
+	 * @param list 列表
+	 * @param mapper 转换函数
+	 * @param chunkSize 每段元素数
+	 * @param parallelism 同时执行的最大任务数，0表示不限制
+	 * @return 转换后的列表
+	 * @throws UtilException 转换失败或中断
+	 */
+	public static <E, R> List<R> parallelMap(ExecutorService executor, List<E> list, Function<? super E, ? extends R> mapper, int chunkSize, int parallelism) throws UtilException {
+		Assert.isTrue(chunkSize > 0, "Chunk size must be > 0");
+		final int size = list.size();
+		if (size <= chunkSize) {
+			// 只有一段时直接在当前线程执行
+			final List<R> result = new ArrayList<>(size);
+			for (E element : list) {
+				result.add(mapper.apply(element));
+			}
+			return result;
+		}
+
+		final ParallelTasks<List<R>> tasks = ParallelTasks.<List<R>> create(executor).setParallelism(parallelism);
+		for (int start = 0; start < size; start += chunkSize) {
+			final List<E> chunk = list.subList(start, Math.min(size, start + chunkSize));
+			tasks.add(() -> {
+				final List<R> result = new ArrayList<>(chunk.size());
+				for (E element : chunk) {
+					if (Thread.currentThread().isInterrupted()) {
+						throw new CancellationException();
+					}
+					result.add(mapper.apply(element));
+				}
+				return result;
+			});
+		}
+
+		final List<R> result = new ArrayList<>(size);
+		for (List<R> chunkResult : tasks.invoke()) {
+			result.addAll(chunkResult);
+		}
+		return result;
+	}
+	// ------------------------------------------------------------------------------------------------------------------------------------- Static method end
+
+	// ------------------------------------------------------------------------------------------------------------------------------------- Private method start
+	private void submit(CompletionService<T> completionService, Map<Future<T>, Integer> futures, int index) {
+		@SuppressWarnings("unchecked")
+		final Callable<T> task = (Callable<T>) tasks.get(index);
+		futures.put(completionService.submit(task), index);
+	}
+
+	private static <T> Future<T> take(CompletionService<T> completionService, long deadline) throws InterruptedException, TimeoutException {
+		if (0 == deadline) {
+			return completionService.take();
+		}
+		final long remaining = deadline - System.nanoTime();
+		final Future<T> future = (remaining > 0) ? completionService.poll(remaining, TimeUnit.NANOSECONDS) : completionService.poll();
+		if (null == future) {
+			throw new TimeoutException("Parallel tasks timeout");
+		}
+		return future;
+	}
+
+	private static void cancel(Collection<? extends Future<?>> futures) {
+		for (Future<?> future : futures) {
+			if (false == future.isDone()) {
+				future.cancel(true);
+			}
+		}
+	}
+	// ------------------------------------------------------------------------------------------------------------------------------------- Private method end
+}
@@ -10,7 +10,8 @@ import com.mawujun.exception.exceptions.UtilException;
 
 /**
  * 线程同步结束器<br>
- * 在完成一组正在其他线程中执行的操作之前，它允许一个或多个线程一直等待。
+ * 在完成一组正在其他线程中执行的操作之前，它允许一个或多个线程一直等待。<br>
+ * 需要获取结果、传播异常、超时或取消时请使用{@link ParallelTasks}
  * 
  * <pre>
  * ps:
@@ -1,17 +1,24 @@
 package com.mawujun.thread;
 
 import java.lang.Thread.UncaughtExceptionHandler;
+import java.lang.reflect.Method;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletionService;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.Future;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
+import com.mawujun.exception.exceptions.UtilException;
+import com.mawujun.system.SystemUtil;
+import com.mawujun.util.StrUtil;
+
 /**
  * 线程池工具
  * 
@@ -19,6 +26,11 @@ import java.util.concurrent.TimeUnit;
  */
 public class ThreadUtil {
 
+	/** 虚拟线程正式可用的Java版本 */
+	private static final int VIRTUAL_THREAD_JAVA_VERSION = 21;
+	/** Executors.newVirtualThreadPerTaskExecutor()，运行时不支持时为null */
+	private static final Method NEW_VIRTUAL_THREAD_EXECUTOR = findVirtualThreadExecutorMethod();
+
 	/**
 	 * 新建一个线程池
 	 * 
@@ -85,6 +97,122 @@ public class ThreadUtil {
 		return ExecutorBuilder.create().setCorePoolSize(poolSize).setMaxPoolSize(poolSize).setKeepAliveTime(0L).build();
 	}
 
+	/**
+	 * 按指定类型新建线程池，各类型的默认参数见{@link ExecutorBuilder#build(ExecutorProfile)}
+	 * 
+	 * @param profile 线程池类型
+	 * @return {@link ExecutorService}
+	 */
+	public static ExecutorService newExecutor(ExecutorProfile profile) {
+		return ExecutorBuilder.create().build(profile);
+	}
+
+	/**
+	 * 新建有界队列线程池，线程和队列都满时由提交任务的线程执行，以此限制提交速度
+	 * 
+	 * @param corePoolSize 初始线程池大小
+	 * @param maximumPoolSize 最大线程池大小
+	 * @param queueCapacity 队列容量
+	 * @return {@link ThreadPoolExecutor}
+	 */
+	public static ThreadPoolExecutor newBoundedExecutor(int corePoolSize, int maximumPoolSize, int queueCapacity) {
+		return ExecutorBuilder.create()//
+				.setCorePoolSize(corePoolSize)//
+				.setMaxPoolSize(maximumPoolSize)//
+				.useArrayBlockingQueue(queueCapacity)//
+				.setHandler(RejectPolicy.CALLER_RUNS.getValue())//
+				.build();
+	}
+
+	/**
+	 * 新建优先扩充线程的线程池，线程数达到maximumPoolSize后才排队，队列满时由提交任务的线程执行
+	 * 
+	 * @param corePoolSize 初始线程池大小
+	 * @param maximumPoolSize 最大线程池大小
+	 * @param queueCapacity 队列容量
+	 * @return {@link ThreadPoolExecutor}
+	 */
+	public static ThreadPoolExecutor newEagerExecutor(int corePoolSize, int maximumPoolSize, int queueCapacity) {
+		return ExecutorBuilder.create()//
+				.setCorePoolSize(corePoolSize)//
+				.setMaxPoolSize(maximumPoolSize)//
+				.useEagerQueue(queueCapacity)//
+				.setHandler(RejectPolicy.CALLER_RUNS.getValue())//
+				.build();
+	}
+
+	/**
+	 * 新建工作窃取线程池，并行度为CPU可用核心数
+	 * 
+	 * @return {@link ForkJoinPool}
+	 */
+	public static ForkJoinPool newWorkStealingExecutor() {
+		return newWorkStealingExecutor(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * 新建工作窃取线程池（FIFO模式，适合提交后不join的事件型任务）
+	 * 
+	 * @param parallelism 并行度
+	 * @return {@link ForkJoinPool}
+	 */
+	public static ForkJoinPool newWorkStealingExecutor(int parallelism) {
+		return newWorkStealingExecutor(parallelism, null);
+	}
+
+	/**
+	 * 新建工作窃取线程池（FIFO模式，适合提交后不join的事件型任务）<br>
+	 * {@link ForkJoinPool}的工作线程只能由其自身创建，因此每个工作线程创建时从线程工厂创建一个不启动的线程，复制其名称、是否守护线程、优先级和未捕获异常处理
+	 * 
+	 * @param parallelism 并行度
+	 * @param threadFactory 线程工厂，为null时线程名为"work-stealing-序号"
+	 * @return {@link ForkJoinPool}
+	 */
+	public static ForkJoinPool newWorkStealingExecutor(int parallelism, ThreadFactory threadFactory) {
+		return new ForkJoinPool(parallelism, (pool) -> {
+			final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+			if (null == threadFactory) {
+				thread.setName(StrUtil.format("work-stealing-{}", thread.getPoolIndex()));
+				return thread;
+			}
+			final Thread template = threadFactory.newThread(() -> {
+			});
+			thread.setName(template.getName());
+			thread.setDaemon(template.isDaemon());
+			thread.setPriority(template.getPriority());
+			if (null != template.getUncaughtExceptionHandler() && template.getUncaughtExceptionHandler() != template.getThreadGroup()) {
+				thread.setUncaughtExceptionHandler(template.getUncaughtExceptionHandler());
+			}
+			return thread;
+		}, null, true);
+	}
+
+	/**
+	 * 当前运行时是否支持虚拟线程（Java 21及以上）
+	 * 
+	 * @return 是否支持虚拟线程
+	 */
+	public static boolean isVirtualThreadSupported() {
+		return null != NEW_VIRTUAL_THREAD_EXECUTOR;
+	}
+
+	/**
+	 * 新建每个任务一个虚拟线程的线程池，运行时不支持虚拟线程时退化为{@link #newExecutor()}
+	 * 
+	 * @return {@link ExecutorService}
+	 * @see #isVirtualThreadSupported()
+	 */
+	public static ExecutorService newVirtualThreadExecutor() {
+		if (null == NEW_VIRTUAL_THREAD_EXECUTOR) {
+			return newExecutor();
+		}
+		try {
+			return (ExecutorService) NEW_VIRTUAL_THREAD_EXECUTOR.invoke(null);
+		} catch (Exception e) {
+			throw new UtilException(e);
+		}
+	}
+
 	/**
 	 * 直接在公共线程池中执行线程
 	 * 
@@ -454,4 +582,24 @@ public class ThreadUtil {
 	public static ConcurrencyTester concurrencyTest(int threadSize, Runnable runnable) {
 		return (new ConcurrencyTester(threadSize)).test(runnable);
 	}
+
+	/**
+	 * 查找Executors.newVirtualThreadPerTaskExecutor()，Java 21以下（含预览版）返回null
+	 * 
+	 * @return {@link Method}或null
+	 */
+	private static Method findVirtualThreadExecutorMethod() {
+		final String version = SystemUtil.get(SystemUtil.SPECIFICATION_VERSION, true);
+		if (StrUtil.isBlank(version) || version.startsWith("1.")) {
+			return null;
+		}
+		try {
+			if (Integer.parseInt(StrUtil.subBefore(version, ".", false)) < VIRTUAL_THREAD_JAVA_VERSION) {
+				return null;
+			}
+			return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+		} catch (NumberFormatException | NoSuchMethodException e) {
+			return null;
+		}
+	}
 }
@@ -0,0 +1,528 @@
+package com.mawujun.thread.http;
+
+import java.io.IOException;
+import java.net.URI;
+import java.security.KeyManagementException;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509TrustManager;
+
+import org.apache.http.Consts;
+import org.apache.http.HeaderElement;
+import org.apache.http.HeaderElementIterator;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.NameValuePair;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.entity.UrlEncodedFormEntity;
+import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.utils.URIUtils;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.ssl.NoopHostnameVerifier;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.CloseableHttpPipeliningClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.message.BasicHeaderElementIterator;
+import org.apache.http.message.BasicNameValuePair;
+import org.apache.http.nio.conn.NoopIOSessionStrategy;
+import org.apache.http.nio.conn.SchemeIOSessionStrategy;
+import org.apache.http.nio.conn.ssl.SSLIOSessionStrategy;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.http.protocol.HTTP;
+import org.apache.http.util.EntityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.mawujun.exception.exceptions.UtilException;
+import com.mawujun.http.HttpMetrics;
+import com.mawujun.util.StrUtil;
+
+/**
+ * 基于NIO的异步Http请求池<br>
+ * 与{@link HttpClientPoolUtil}不同，请求不占用线程：所有连接由少量I/O线程（默认CPU核数）驱动，
+ * 请求结果以{@link CompletableFuture}返回，回调仍然使用{@link IHttpClientPoolCallback}。<br>
+ * 整个池共用一个长期存活的客户端，每个地址（route）的并发数由连接池限制，超出的请求在连接池中排队，而不是阻塞线程。
+ *
+ * <pre>
+ * HttpAsyncClientPool pool = HttpAsyncClientPool.create(50, 200);
+ * pool.setMaxPerRoute("http://api.xxx.com", 100);
+ * CompletableFuture&lt;String&gt; future = pool.postJson(url, json, callback);
+ * </pre>
+ *
+ * 注意：回调默认在I/O线程中执行，耗时的回调应通过{@link #setCallbackExecutor(Executor)}指定执行的线程池。
+ *
+ * @author mawujun
+ */
+public class HttpAsyncClientPool {
+	private static final Logger logger = LoggerFactory.getLogger(HttpAsyncClientPool.class);
+
+	/**
+	 * 默认content 类型
+	 */
+	public static final String DEFAULT_CONTENT_TYPE = "application/json";
+
+	private final int defaultMaxPerRoute;
+	private final int maxTotal;
+	/**
+	 * 默认请求超时时间60s
+	 */
+	private int defaultTimeout = 60;
+	private int httpDefaultKeepTime = 60;
+
+	private final PoolingNHttpClientConnectionManager cm;
+	private final CloseableHttpAsyncClient httpClient;
+	/** 支持管线化的客户端，与httpClient共用连接池，首次使用时创建 */
+	private volatile CloseableHttpPipeliningClient pipeliningClient;
+	/** 执行回调的线程池，null表示在I/O线程中执行 */
+	private Executor callbackExecutor;
+	/** 请求及连接池的统计指标 */
+	private HttpMetrics metrics;
+
+	/**
+	 * 创建请求池，每个route默认50个连接，总共100个连接
+	 *
+	 * @return {@link HttpAsyncClientPool}
+	 */
+	public static HttpAsyncClientPool create() {
+		return create(50, 100);
+	}
+
+	/**
+	 * 创建请求池
+	 *
+	 * @param defaultMaxPerRoute 每个route默认的最大连接数（即最大并发数）
+	 * @param maxTotal 整个连接池的最大连接数
+	 * @return {@link HttpAsyncClientPool}
+	 */
+	public static HttpAsyncClientPool create(int defaultMaxPerRoute, int maxTotal) {
+		return new HttpAsyncClientPool(defaultMaxPerRoute, maxTotal, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * 构造，构造后客户端即启动
+	 *
+	 * @param defaultMaxPerRoute 每个route默认的最大连接数（即最大并发数）
+	 * @param maxTotal 整个连接池的最大连接数
+	 * @param ioThreadCount I/O线程数
+	 */
+	public HttpAsyncClientPool(int defaultMaxPerRoute, int maxTotal, int ioThreadCount) {
+		this.defaultMaxPerRoute = defaultMaxPerRoute;
+		this.maxTotal = maxTotal;
+
+		final IOReactorConfig ioReactorConfig = IOReactorConfig.custom()//
+				.setIoThreadCount(ioThreadCount)//
+				.setTcpNoDelay(true)//
+				.setSoKeepAlive(true)//
+				.build();
+		try {
+			this.cm = new PoolingNHttpClientConnectionManager(new DefaultConnectingIOReactor(ioReactorConfig), getRegistry());
+		} catch (IOReactorException e) {
+			throw new UtilException(e);
+		}
+		cm.setDefaultMaxPerRoute(defaultMaxPerRoute);
+		cm.setMaxTotal(maxTotal);
+
+		this.httpClient = HttpAsyncClients.custom()//
+				.setConnectionManager(cm)//
+				.setKeepAliveStrategy(keepAliveStrategy)//
+				.build();
+		this.httpClient.start();
+		setMetrics(HttpMetrics.get(HttpAsyncClientPool.class.getSimpleName()));
+	}
+
+	/**
+	 * 设置指定地址的最大连接数（即最大并发数）
+	 *
+	 * @param uri 地址，只使用其中的协议、主机和端口
+	 * @param max 最大连接数
+	 * @return this
+	 */
+	public HttpAsyncClientPool setMaxPerRoute(String uri, int max) {
+		final HttpHost host = URIUtils.extractHost(URI.create(uri));
+		cm.setMaxPerRoute(new HttpRoute(host), max);
+		return this;
+	}
+
+	/**
+	 * 设置执行回调的线程池，null表示在I/O线程中执行回调
+	 *
+	 * @param callbackExecutor 线程池
+	 * @return this
+	 */
+	public HttpAsyncClientPool setCallbackExecutor(Executor callbackExecutor) {
+		this.callbackExecutor = callbackExecutor;
+		return this;
+	}
+
+	/**
+	 * 设置统计指标，连接池会注册到统计指标中
+	 *
+	 * @param metrics 统计指标
+	 * @return this
+	 */
+	public HttpAsyncClientPool setMetrics(HttpMetrics metrics) {
+		if (null != this.metrics) {
+			this.metrics.unregisterPool(cm);
+		}
+		this.metrics = metrics.registerPool(cm);
+		return this;
+	}
+
+	/**
+	 * 设置默认超时时间
+	 *
+	 * @param defaultTimeout 超时时间 s
+	 * @return this
+	 */
+	public HttpAsyncClientPool setDefaultTimeout(int defaultTimeout) {
+		this.defaultTimeout = defaultTimeout;
+		return this;
+	}
+
+	/**
+	 * 以body的形式传递数据到后台
+	 *
+	 * @param <T> 回调结果类型
+	 * @param uri 请求地址
+	 * @param data json字符串
+	 * @param callback 回调
+	 * @return 回调结果{@link IHttpClientPoolCallback#getResult()}
+	 */
+	public <T> CompletableFuture<T> postJson(String uri, String data, IHttpClientPoolCallback<T> callback) {
+		final HttpEntityEnclosingRequestBase method = (HttpEntityEnclosingRequestBase) getRequest(uri, HttpPost.METHOD_NAME, DEFAULT_CONTENT_TYPE, 0);
+		method.setEntity(new StringEntity(data, Consts.UTF_8));
+		return execute(method, callback);
+	}
+
+	/**
+	 * 以表单的形式发送数据
+	 *
+	 * @param <T> 回调结果类型
+	 * @param uri 请求地址
+	 * @param params 表单参数
+	 * @param callback 回调
+	 * @return 回调结果{@link IHttpClientPoolCallback#getResult()}
+	 */
+	public <T> CompletableFuture<T> postForm(String uri, Map<String, Object> params, IHttpClientPoolCallback<T> callback) {
+		final HttpEntityEnclosingRequestBase method = (HttpEntityEnclosingRequestBase) getRequest(uri, HttpPost.METHOD_NAME, "application/x-www-form-urlencoded; charset=UTF-8", 0);
+		if (params != null && params.size() != 0) {
+			method.setEntity(new UrlEncodedFormEntity(toNameValuePairs(params), Consts.UTF_8));
+		}
+		return execute(method, callback);
+	}
+
+	/**
+	 * 执行GET 请求
+	 *
+	 * @param <T> 回调结果类型
+	 * @param uri 请求地址
+	 * @param params 参数，拼接在地址后
+	 * @param callback 回调
+	 * @return 回调结果{@link IHttpClientPoolCallback#getResult()}
+	 */
+	public <T> CompletableFuture<T> get(String uri, Map<String, Object> params, IHttpClientPoolCallback<T> callback) {
+		if (params != null && params.size() != 0) {
+			final String query;
+			try {
+				query = EntityUtils.toString(new UrlEncodedFormEntity(toNameValuePairs(params), Consts.UTF_8));
+			} catch (IOException e) {
+				throw new UtilException(e);
+			}
+			uri = uri + (uri.indexOf('?') != -1 ? "&" : "?") + query;
+		}
+		return execute(getRequest(uri, HttpGet.METHOD_NAME, DEFAULT_CONTENT_TYPE, 0), callback);
+	}
+
+	/**
+	 * 执行请求<br>
+	 * 状态码为200时调用{@link IHttpClientPoolCallback#success(HttpResponse)}，否则调用{@link IHttpClientPoolCallback#failure(HttpResponse)}，
+	 * 之后以{@link IHttpClientPoolCallback#getResult()}完成Future；发生异常时调用{@link IHttpClientPoolCallback#exception(Exception)}，Future以异常结束。
+	 *
+	 * @param <T> 回调结果类型
+	 * @param method 请求
+	 * @param callback 回调
+	 * @return 回调结果
+	 */
+	public <T> CompletableFuture<T> execute(final HttpRequestBase method, final IHttpClientPoolCallback<T> callback) {
+		callback.requestSetup(method);
+		final CompletableFuture<T> future = new CompletableFuture<>();
+		final long startTime = System.currentTimeMillis();
+		final long startNanos = System.nanoTime();
+		final HttpMetrics metrics = this.metrics;
+		httpClient.execute(method, new FutureCallback<HttpResponse>() {
+			@Override
+			public void completed(final HttpResponse response) {
+				metrics.recordResponse(startNanos, response.getStatusLine().getStatusCode());
+				dispatch(() -> {
+					try {
+						if (response.getStatusLine().getStatusCode() == 200) {
+							callback.success(response);
+						} else {
+							callback.failure(response);
+						}
+						future.complete(callback.getResult());
+					} catch (Exception e) {
+						callback.exception(e);
+						future.completeExceptionally(e);
+					} finally {
+						EntityUtils.consumeQuietly(response.getEntity());
+					}
+				}, callback, response, future);
+			}
+
+			@Override
+			public void failed(final Exception e) {
+				metrics.recordError(startNanos, e);
+				logger.error("执行请求发生异常, url:" + method.getURI() + ", exception:" + e.toString() + ", cost time(ms):" + (System.currentTimeMillis() - startTime));
+				dispatch(() -> {
+					try {
+						callback.exception(e);
+					} finally {
+						future.completeExceptionally(e);
+					}
+				}, callback, null, future);
+			}
+
+			@Override
+			public void cancelled() {
+				future.cancel(false);
+			}
+		});
+		return future;
+	}
+
+	/**
+	 * 在同一个连接上以管线化（pipelining）方式发送多个请求，服务端需支持HTTP/1.1管线化<br>
+	 * 响应按请求顺序返回，响应体已缓存在内存中
+	 *
+	 * @param uri 地址，只使用其中的协议、主机和端口
+	 * @param requests 请求列表
+	 * @return 响应列表
+	 */
+	public CompletableFuture<List<HttpResponse>> pipeline(String uri, List<HttpRequest> requests) {
+		final HttpHost host = URIUtils.extractHost(URI.create(uri));
+		final CompletableFuture<List<HttpResponse>> future = new CompletableFuture<>();
+		getPipeliningClient().execute(host, requests, new FutureCallback<List<HttpResponse>>() {
+			@Override
+			public void completed(List<HttpResponse> result) {
+				future.complete(result);
+			}
+
+			@Override
+			public void failed(Exception ex) {
+				future.completeExceptionally(ex);
+			}
+
+			@Override
+			public void cancelled() {
+				future.cancel(false);
+			}
+		});
+		return future;
+	}
+
+	/**
+	 * 创建请求
+	 *
+	 * @param uri 请求url
+	 * @param methodName 请求的方法类型
+	 * @param contentType contentType类型
+	 * @param timeout 超时时间 s，小于等于0表示使用默认超时时间
+	 * @return 请求
+	 */
+	public HttpRequestBase getRequest(String uri, String methodName, String contentType, int timeout) {
+		if (timeout <= 0) {
+			timeout = defaultTimeout;
+		}
+		final RequestConfig requestConfig = RequestConfig.custom().setSocketTimeout(timeout * 1000)//
+				.setConnectTimeout(timeout * 1000).setConnectionRequestTimeout(timeout * 1000)//
+				.setExpectContinueEnabled(false).build();
+
+		HttpRequestBase method;
+		if (HttpPut.METHOD_NAME.equalsIgnoreCase(methodName)) {
+			method = new HttpPut(uri);
+		} else if (HttpGet.METHOD_NAME.equalsIgnoreCase(methodName)) {
+			method = new HttpGet(uri);
+		} else {
+			method = new HttpPost(uri);
+		}
+		if (StrUtil.isBlank(contentType)) {
+			contentType = DEFAULT_CONTENT_TYPE;
+		}
+		method.addHeader("Content-Type", contentType);
+		method.addHeader("Accept", contentType);
+		method.setConfig(requestConfig);
+		return method;
+	}
+
+	/**
+	 * 关闭空闲超过指定时间的连接和过期连接
+	 *
+	 * @param idleTime 空闲时间
+	 * @param unit 时间单位
+	 */
+	public void closeIdleConnections(long idleTime, TimeUnit unit) {
+		cm.closeExpiredConnections();
+		cm.closeIdleConnections(idleTime, unit);
+	}
+
+	/**
+	 * 关闭客户端及连接池，未完成的请求将被取消
+	 */
+	public void close() {
+		metrics.unregisterPool(cm);
+		try {
+			if (null != pipeliningClient) {
+				pipeliningClient.close();
+			}
+			httpClient.close();
+		} catch (IOException e) {
+			throw new UtilException(e);
+		}
+	}
+
+	public PoolingNHttpClientConnectionManager getHttpConnectionManager() {
+		return cm;
+	}
+
+	public HttpMetrics getMetrics() {
+		return metrics;
+	}
+
+	public CloseableHttpAsyncClient getHttpClient() {
+		return httpClient;
+	}
+
+	public int getDefaultMaxPerRoute() {
+		return defaultMaxPerRoute;
+	}
+
+	public int getMaxTotal() {
+		return maxTotal;
+	}
+
+	// ------------------------------------------------------------------------------------------------------------------------------------- Private method start
+	/**
+	 * 在回调线程池中执行，无线程池时在当前线程执行<br>
+	 * 线程池拒绝时在当前线程以拒绝异常调用{@link IHttpClientPoolCallback#exception(Exception)}并结束Future，避免调用方一直等待
+	 *
+	 * @param task 回调任务
+	 * @param callback 回调
+	 * @param response 响应，拒绝时释放其内容，可为null
+	 * @param future 结果Future
+	 */
+	private void dispatch(Runnable task, IHttpClientPoolCallback<?> callback, HttpResponse response, CompletableFuture<?> future) {
+		if (null == callbackExecutor) {
+			task.run();
+			return;
+		}
+		try {
+			callbackExecutor.execute(task);
+		} catch (RejectedExecutionException e) {
+			try {
+				callback.exception(e);
+			} finally {
+				if (null != response) {
+					EntityUtils.consumeQuietly(response.getEntity());
+				}
+				future.completeExceptionally(e);
+			}
+		}
+	}
+
+	private CloseableHttpPipeliningClient getPipeliningClient() {
+		CloseableHttpPipeliningClient client = this.pipeliningClient;
+		if (null == client) {
+			synchronized (this) {
+				client = this.pipeliningClient;
+				if (null == client) {
+					// 共用连接池，关闭时不关闭连接池
+					client = HttpAsyncClients.createPipelining(cm, true);
+					client.start();
+					this.pipeliningClient = client;
+				}
+			}
+		}
+		return client;
+	}
+
+	private static List<NameValuePair> toNameValuePairs(Map<String, Object> params) {
+		final List<NameValuePair> nvps = new ArrayList<NameValuePair>(params.size());
+		for (Entry<String, Object> entry : params.entrySet()) {
+			nvps.add(new BasicNameValuePair(entry.getKey(), entry.getValue().toString()));
+		}
+		return nvps;
+	}
+
+	/**
+	 * Http connection keepAlive 设置
+	 */
+	private final ConnectionKeepAliveStrategy keepAliveStrategy = (response, context) -> {
+		final HeaderElementIterator it = new BasicHeaderElementIterator(response.headerIterator(HTTP.CONN_KEEP_ALIVE));
+		while (it.hasNext()) {
+			final HeaderElement he = it.nextElement();
+			if (he.getValue() != null && he.getName().equalsIgnoreCase("timeout")) {
+				try {
+					return Long.parseLong(he.getValue()) * 1000;
+				} catch (NumberFormatException e) {
+					logger.error("格式化 KeepAlive 过期时间异常:" + e.toString());
+				}
+			}
+		}
+		return httpDefaultKeepTime * 1000L;
+	};
+
+	private static Registry<SchemeIOSessionStrategy> getRegistry() {
+		SSLContext sslcontext;
+		try {
+			sslcontext = SSLContext.getInstance("TLS");
+			sslcontext.init(null, new TrustManager[] { new TrustAnyTrustManager() }, new SecureRandom());
+		} catch (NoSuchAlgorithmException | KeyManagementException e) {
+			throw new UtilException(e);
+		}
+		return RegistryBuilder.<SchemeIOSessionStrategy>create()//
+				.register("http", NoopIOSessionStrategy.INSTANCE)//
+				.register("https", new SSLIOSessionStrategy(sslcontext, NoopHostnameVerifier.INSTANCE))//
+				.build();
+	}
+
+	private static class TrustAnyTrustManager implements X509TrustManager {
+
+		public void checkClientTrusted(X509Certificate[] chain, String authType) throws CertificateException {
+		}
+
+		public void checkServerTrusted(X509Certificate[] chain, String authType) throws CertificateException {
+		}
+
+		public X509Certificate[] getAcceptedIssuers() {
+			return new X509Certificate[] {};
+		}
+	}
+	// ------------------------------------------------------------------------------------------------------------------------------------- Private method end
+}
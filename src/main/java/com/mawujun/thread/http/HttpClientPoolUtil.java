@@ -52,6 +52,8 @@ import org.apache.http.protocol.HttpContext;
 import org.apache.http.util.EntityUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+
+import com.mawujun.http.HttpMetrics;
 /**
  * 一个地址一个http请求池，绑定在一起了，所以defaultMaxPerRoute和maxTotal设置成一样，
  * 因为这是根据业务情况决定的，高并发请求的时候，基本就是那么几个地址，而这几个地址的个数是有限的，所以做这个决定
@@ -63,7 +65,14 @@ public class HttpClientPoolUtil {
 
 	protected PoolingHttpClientConnectionManager cm = null;
 
-	//protected CloseableHttpClient httpClient = null;
+	/**
+	 * 整个池共用的客户端，首次请求时创建
+	 */
+	protected volatile CloseableHttpClient httpClient = null;
+	/**
+	 * 请求及连接池的统计指标，默认所有池共用名称为HttpClientPoolUtil的指标
+	 */
+	protected HttpMetrics metrics = HttpMetrics.get(HttpClientPoolUtil.class.getSimpleName());
 
 	/**
 	 * 默认content 类型
@@ -134,6 +143,7 @@ public class HttpClientPoolUtil {
 			bool= this.fixedThreadPool.awaitTermination(1, TimeUnit.HOURS);
 			
 		}  finally {
+			this.metrics.unregisterPool(this.cm);
 			this.cm.close();
 //			try {
 //				//httpClient.close();
@@ -261,14 +271,44 @@ public class HttpClientPoolUtil {
 		}
 	};
 
-//	public  CloseableHttpClient getHttpClient() {
-//		return httpClient;
-//	}
+	/**
+	 * 获取池共用的客户端，客户端绑定连接池，只创建一次
+	 * @return CloseableHttpClient
+	 */
+	public CloseableHttpClient getHttpClient() {
+		CloseableHttpClient client = httpClient;
+		if (client == null) {
+			synchronized (this) {
+				client = httpClient;
+				if (client == null) {
+					client = metrics.instrument(HttpClients.custom().setKeepAliveStrategy(this.defaultStrategy), cm).build();
+					httpClient = client;
+				}
+			}
+		}
+		return client;
+	}
 
 	public PoolingHttpClientConnectionManager getHttpConnectionManager() {
 		return cm;
 	}
 
+	/**
+	 * 获取请求及连接池的统计指标
+	 * @return HttpMetrics
+	 */
+	public HttpMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * 设置统计指标，需在第一次请求前设置
+	 * @param metrics 统计指标
+	 */
+	public void setMetrics(HttpMetrics metrics) {
+		this.metrics = metrics;
+	}
+
 	/**
 	 * 以body的形式传递数据导后台
 	 * @param uri
@@ -294,6 +334,7 @@ public class HttpClientPoolUtil {
 	 */
 	protected int postJsonNoThread(String uri, String data,IHttpClientPoolCallback<?> callback) {
 		long startTime = System.currentTimeMillis();
+		long startNanos = System.nanoTime();
 		//HttpEntity httpEntity = null;
 		HttpEntityEnclosingRequestBase method = null;
 		CloseableHttpResponse httpResponse =null;
@@ -308,9 +349,9 @@ public class HttpClientPoolUtil {
 			
 			method.setEntity(new StringEntity(data));
 			HttpContext context = HttpClientContext.create();
-			CloseableHttpClient httpClient = HttpClients.custom().setKeepAliveStrategy(this.defaultStrategy).setConnectionManager(cm).build();
 			
-			httpResponse = httpClient.execute(method, context);
+			httpResponse = getHttpClient().execute(method, context);
+			metrics.recordResponse(startNanos, httpResponse.getStatusLine().getStatusCode());
 			if(httpResponse.getStatusLine().getStatusCode()==200) {
 //				httpEntity = httpResponse.getEntity();
 //				if (httpEntity != null) {
@@ -326,6 +367,9 @@ public class HttpClientPoolUtil {
 			if (method != null) {
 				method.abort();
 			}
+			if (httpResponse == null) {
+				metrics.recordError(startNanos, e);
+			}
 			e.printStackTrace();
 			logger.error("请求发生异常, url:" + uri + ", exception:" + e.toString()
 					+ ", cost time(ms):" + (System.currentTimeMillis() - startTime));
@@ -376,6 +420,7 @@ public class HttpClientPoolUtil {
 	protected int postFormNoThread(String uri, Map<String, Object> params,IHttpClientPoolCallback<?> callback) {
 
 		long startTime = System.currentTimeMillis();
+		long startNanos = System.nanoTime();
 		//HttpEntity httpEntity = null;
 		CloseableHttpResponse httpResponse =null;
 		HttpEntityEnclosingRequestBase method = null;
@@ -397,9 +442,9 @@ public class HttpClientPoolUtil {
 			}
 
 			HttpContext context = HttpClientContext.create();
-			CloseableHttpClient httpClient = HttpClients.custom().setKeepAliveStrategy(this.defaultStrategy).setConnectionManager(cm).build();
 			
-			httpResponse = httpClient.execute(method, context);
+			httpResponse = getHttpClient().execute(method, context);
+			metrics.recordResponse(startNanos, httpResponse.getStatusLine().getStatusCode());
 //			httpEntity = httpResponse.getEntity();
 //			if (httpEntity != null) {
 //				responseBody = EntityUtils.toString(httpEntity, "UTF-8");
@@ -416,6 +461,9 @@ public class HttpClientPoolUtil {
 			if (method != null) {
 				method.abort();
 			}
+			if (httpResponse == null) {
+				metrics.recordError(startNanos, e);
+			}
 			e.printStackTrace();
 			logger.error("关闭响应发生异常, url:" + uri + ", exception:" + e.toString()
 					+ ", cost time(ms):" + (System.currentTimeMillis() - startTime));
@@ -453,6 +501,7 @@ public class HttpClientPoolUtil {
 	 */
 	protected int getNoThread(String uri, Map<String, Object> param,IHttpClientPoolCallback<?> callback) {
 		long startTime = System.currentTimeMillis();
+		long startNanos = System.nanoTime();
 		//HttpEntity httpEntity = null;
 		CloseableHttpResponse httpResponse=null;
 		HttpRequestBase method = null;
@@ -478,8 +527,8 @@ public class HttpClientPoolUtil {
 			callback.requestSetup(method);
 
 			HttpContext context = HttpClientContext.create();
-			CloseableHttpClient httpClient = HttpClients.custom().setKeepAliveStrategy(this.defaultStrategy).setConnectionManager(cm).build();
-			httpResponse = httpClient.execute(method, context);
+			httpResponse = getHttpClient().execute(method, context);
+			metrics.recordResponse(startNanos, httpResponse.getStatusLine().getStatusCode());
 //			httpEntity = httpResponse.getEntity();
 //			if (httpEntity != null) {
 //				responseBody = EntityUtils.toString(httpEntity, "UTF-8");
@@ -496,6 +545,9 @@ public class HttpClientPoolUtil {
 			if (method != null) {
 				method.abort();
 			}
+			if (httpResponse == null) {
+				metrics.recordError(startNanos, e);
+			}
 			e.printStackTrace();
 			logger.error("执行请求发生异常, url:" + uri + ", exception:" + e.toString() + ", cost time(ms):"
 					+ (System.currentTimeMillis() - startTime));
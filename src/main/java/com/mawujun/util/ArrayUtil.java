@@ -12,9 +12,13 @@ import java.util.Map;
 import org.apache.commons.lang3.ObjectUtils;
 
 import com.mawujun.collection.CollectionUtil;
+import com.mawujun.collection.IntArrayList;
 import com.mawujun.collection.IterUtil;
+import com.mawujun.collection.LongArrayList;
+import com.mawujun.collection.LongHashSet;
 import com.mawujun.convert.Convert;
 import com.mawujun.exception.exceptions.UtilException;
+import com.mawujun.lang.Assert;
 import com.mawujun.lang.Editor;
 import com.mawujun.lang.Filter;
 
@@ -3812,4 +3816,204 @@ public class ArrayUtil {
 		Array.set(array, index2, tmp);
 		return array;
 	}
+
+	// ------------------------------------------------------------------------------------------------------------ primitive distinct, union, intersection and topK
+	/**
+	 * 去重，保留第一次出现的顺序，过程中不装箱
+	 * 
+	 * @param array 数组
+	 * @return 去重后的新数组
+	 */
+	public static int[] distinct(int[] array) {
+		final LongHashSet seen = new LongHashSet(array.length);
+		final IntArrayList result = new IntArrayList(array.length);
+		for (int value : array) {
+			if (seen.add(value)) {
+				result.add(value);
+			}
+		}
+		return result.toArray();
+	}
+
+	/**
+	 * 去重，保留第一次出现的顺序，过程中不装箱
+	 * 
+	 * @param array 数组
+	 * @return 去重后的新数组
+	 */
+	public static long[] distinct(long[] array) {
+		final LongHashSet seen = new LongHashSet(array.length);
+		final LongArrayList result = new LongArrayList(array.length);
+		for (long value : array) {
+			if (seen.add(value)) {
+				result.add(value);
+			}
+		}
+		return result.toArray();
+	}
+
+	/**
+	 * 并集，去重后按出现顺序排列，过程中不装箱
+	 * 
+	 * @param array1 数组1
+	 * @param array2 数组2
+	 * @return 并集
+	 */
+	public static int[] union(int[] array1, int[] array2) {
+		final LongHashSet seen = new LongHashSet(array1.length + array2.length);
+		final IntArrayList result = new IntArrayList(array1.length + array2.length);
+		for (int[] array : new int[][] { array1, array2 }) {
+			for (int value : array) {
+				if (seen.add(value)) {
+					result.add(value);
+				}
+			}
+		}
+		return result.toArray();
+	}
+
+	/**
+	 * 并集，去重后按出现顺序排列，过程中不装箱
+	 * 
+	 * @param array1 数组1
+	 * @param array2 数组2
+	 * @return 并集
+	 */
+	public static long[] union(long[] array1, long[] array2) {
+		final LongHashSet seen = new LongHashSet(array1.length + array2.length);
+		final LongArrayList result = new LongArrayList(array1.length + array2.length);
+		for (long[] array : new long[][] { array1, array2 }) {
+			for (long value : array) {
+				if (seen.add(value)) {
+					result.add(value);
+				}
+			}
+		}
+		return result.toArray();
+	}
+
+	/**
+	 * 交集，结果去重并按在array1中出现的顺序排列，过程中不装箱
+	 * 
+	 * @param array1 数组1
+	 * @param array2 数组2
+	 * @return 交集
+	 */
+	public static int[] intersection(int[] array1, int[] array2) {
+		final LongHashSet other = new LongHashSet(array2.length);
+		for (int value : array2) {
+			other.add(value);
+		}
+		final IntArrayList result = new IntArrayList();
+		for (int value : array1) {
+			// 加入结果后从集合中移除，保证结果不重复
+			if (other.remove(value)) {
+				result.add(value);
+			}
+		}
+		return result.toArray();
+	}
+
+	/**
+	 * 交集，结果去重并按在array1中出现的顺序排列，过程中不装箱
+	 * 
+	 * @param array1 数组1
+	 * @param array2 数组2
+	 * @return 交集
+	 */
+	public static long[] intersection(long[] array1, long[] array2) {
+		final LongHashSet other = new LongHashSet(array2.length).addAll(array2);
+		final LongArrayList result = new LongArrayList();
+		for (long value : array1) {
+			// 加入结果后从集合中移除，保证结果不重复
+			if (other.remove(value)) {
+				result.add(value);
+			}
+		}
+		return result.toArray();
+	}
+
+	/**
+	 * 取最大的k个值，使用大小为k的最小堆，时间复杂度O(n log k)，过程中不装箱
+	 * 
+	 * @param array 数组
+	 * @param k 个数
+	 * @return 最大的k个值，降序排列，数组长度不足k时返回全部
+	 */
+	public static int[] topK(int[] array, int k) {
+		Assert.isTrue(k >= 0, "K must not be negative but {}", k);
+		final int[] heap = new int[Math.min(k, array.length)];
+		int size = 0;
+		int i;
+		int child;
+		for (int value : array) {
+			if (size < heap.length) {
+				// 上浮
+				i = size++;
+				while (i > 0 && heap[(i - 1) >>> 1] > value) {
+					heap[i] = heap[(i - 1) >>> 1];
+					i = (i - 1) >>> 1;
+				}
+				heap[i] = value;
+			} else if (size > 0 && value > heap[0]) {
+				// 替换堆顶后下沉
+				i = 0;
+				while ((child = 2 * i + 1) < size) {
+					if (child + 1 < size && heap[child + 1] < heap[child]) {
+						child++;
+					}
+					if (heap[child] >= value) {
+						break;
+					}
+					heap[i] = heap[child];
+					i = child;
+				}
+				heap[i] = value;
+			}
+		}
+		Arrays.sort(heap);
+		return reverse(heap);
+	}
+
+	/**
+	 * 取最大的k个值，使用大小为k的最小堆，时间复杂度O(n log k)，过程中不装箱
+	 * 
+	 * @param array 数组
+	 * @param k 个数
+	 * @return 最大的k个值，降序排列，数组长度不足k时返回全部
+	 */
+	public static long[] topK(long[] array, int k) {
+		Assert.isTrue(k >= 0, "K must not be negative but {}", k);
+		final long[] heap = new long[Math.min(k, array.length)];
+		int size = 0;
+		int i;
+		int child;
+		for (long value : array) {
+			if (size < heap.length) {
+				// 上浮
+				i = size++;
+				while (i > 0 && heap[(i - 1) >>> 1] > value) {
+					heap[i] = heap[(i - 1) >>> 1];
+					i = (i - 1) >>> 1;
+				}
+				heap[i] = value;
+			} else if (size > 0 && value > heap[0]) {
+				// 替换堆顶后下沉
+				i = 0;
+				while ((child = 2 * i + 1) < size) {
+					if (child + 1 < size && heap[child + 1] < heap[child]) {
+						child++;
+					}
+					if (heap[child] >= value) {
+						break;
+					}
+					heap[i] = heap[child];
+					i = child;
+				}
+				heap[i] = value;
+			}
+		}
+		Arrays.sort(heap);
+		return reverse(heap);
+	}
 }
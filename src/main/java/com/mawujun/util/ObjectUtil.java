@@ -10,12 +10,15 @@ import java.util.Enumeration;
 import java.util.Iterator;
 import java.util.Map;
 
+import com.mawujun.clone.CloneRuntimeException;
+import com.mawujun.clone.DeepCloner;
 import com.mawujun.collection.IterUtil;
 import com.mawujun.comparator.CompareUtil;
 import com.mawujun.convert.Convert;
 import com.mawujun.exception.exceptions.UtilException;
 import com.mawujun.io.FastByteArrayOutputStream;
 import com.mawujun.io.IoUtil;
+import com.mawujun.io.serialize.BinarySerializer;
 import com.mawujun.map.MapUtil;
 
 /**
@@ -314,6 +317,19 @@ public class ObjectUtil {
 		return clone == null ? obj : clone;
 	}
 
+	/**
+	 * 深度克隆，复制对象的所有字段，不要求对象实现Serializable接口<br>
+	 * 不可变对象直接引用，支持循环引用，比{@link #cloneByStream(Object)}快，详见{@link DeepCloner}
+	 * 
+	 * @param <T> 对象类型
+	 * @param obj 被克隆对象
+	 * @return 克隆后的对象
+	 * @throws CloneRuntimeException 对象中包含无法克隆的类型
+	 */
+	public static <T> T deepClone(T obj) throws CloneRuntimeException {
+		return DeepCloner.deepClone(obj);
+	}
+
 	/**
 	 * 序列化后拷贝流的方式克隆<br>
 	 * 对象必须实现Serializable接口
@@ -390,6 +406,31 @@ public class ObjectUtil {
 		}
 	}
 
+	/**
+	 * 二进制序列化<br>
+	 * 对象不要求实现Serializable接口，格式比{@link #serialize(Object)}更紧凑，使用{@link #unserializeBinary(byte[])}反序列化
+	 * 
+	 * @param <T> 对象类型
+	 * @param obj 要被序列化的对象
+	 * @return 序列化后的字节码
+	 * @see BinarySerializer
+	 */
+	public static <T> byte[] serializeBinary(T obj) {
+		return BinarySerializer.serialize(obj);
+	}
+
+	/**
+	 * 二进制反序列化，读取{@link #serializeBinary(Object)}序列化的字节码
+	 * 
+	 * @param <T> 对象类型
+	 * @param bytes 反序列化的字节码
+	 * @return 反序列化后的对象
+	 * @see BinarySerializer
+	 */
+	public static <T> T unserializeBinary(byte[] bytes) {
+		return BinarySerializer.deserialize(bytes);
+	}
+
 	/**
 	 * 是否为基本类型，包括包装类型和非包装类型
 	 * 
@@ -2,7 +2,6 @@ package com.mawujun.util;
 
 import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -21,7 +20,8 @@ import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
 
 import com.mawujun.exception.exceptions.UtilException;
-import com.mawujun.io.FastByteArrayOutputStream;
+import com.mawujun.io.BufferPool;
+import com.mawujun.io.ChunkedByteBuffer;
 import com.mawujun.io.FileUtil;
 import com.mawujun.io.IORuntimeException;
 import com.mawujun.io.IoUtil;
@@ -608,18 +608,21 @@ public class ZipUtil {
 	 * @since 4.1.18
 	 */
 	public static byte[] gzip(InputStream in, int length) throws UtilException {
-		final ByteArrayOutputStream bos = new ByteArrayOutputStream(length);
+		final ChunkedByteBuffer bos = new ChunkedByteBuffer(BufferPool.getDefault(), length);
 		GZIPOutputStream gos = null;
 		try {
-			gos = new GZIPOutputStream(bos);
+			gos = new GZIPOutputStream(bos.asOutputStream());
 			IoUtil.copy(in, gos);
+			// 返回必须在关闭gos后进行，因为关闭时会自动执行finish()方法，保证数据全部写出
+			gos.close();
+			gos = null;
+			return bos.toByteArray();
 		} catch (IOException e) {
 			throw new UtilException(e);
 		} finally {
 			IoUtil.close(gos);
+			bos.release();
 		}
-		// 返回必须在关闭gos后进行，因为关闭时会自动执行finish()方法，保证数据全部写出
-		return bos.toByteArray();
 	}
 
 	/**
@@ -667,18 +670,17 @@ public class ZipUtil {
 	 */
 	public static byte[] unGzip(InputStream in, int length) throws UtilException {
 		GZIPInputStream gzi = null;
-		FastByteArrayOutputStream bos = null;
+		final ChunkedByteBuffer bos = new ChunkedByteBuffer(BufferPool.getDefault(), length);
 		try {
 			gzi = (in instanceof GZIPInputStream) ? (GZIPInputStream) in : new GZIPInputStream(in);
-			bos = new FastByteArrayOutputStream(length);
-			IoUtil.copy(gzi, bos);
+			bos.readFrom(gzi);
+			return bos.toByteArray();
 		} catch (IOException e) {
 			throw new UtilException(e);
 		} finally {
 			IoUtil.close(gzi);
+			bos.release();
 		}
-		// 返回必须在关闭gos后进行，因为关闭时会自动执行finish()方法，保证数据全部写出
-		return bos.toByteArray();
 	}
 
 	// ----------------------------------------------------------------------------- Zlib
@@ -748,9 +750,10 @@ public class ZipUtil {
 	 * @since 4.1.19
 	 */
 	public static byte[] zlib(InputStream in, int level, int length) {
-		final ByteArrayOutputStream out = new ByteArrayOutputStream(length);
-		deflater(in, out, level);
-		return out.toByteArray();
+		try (ChunkedByteBuffer out = new ChunkedByteBuffer(BufferPool.getDefault(), length)) {
+			deflater(in, out.asOutputStream(), level);
+			return out.toByteArray();
+		}
 	}
 
 	/**
@@ -796,9 +799,10 @@ public class ZipUtil {
 	 * @since 4.1.19
 	 */
 	public static byte[] unZlib(InputStream in, int length) {
-		final ByteArrayOutputStream out = new ByteArrayOutputStream(length);
-		inflater(in, out);
-		return out.toByteArray();
+		try (ChunkedByteBuffer out = new ChunkedByteBuffer(BufferPool.getDefault(), length)) {
+			inflater(in, out.asOutputStream());
+			return out.toByteArray();
+		}
 	}
 
 	// ---------------------------------------------------------------------------------------------- Private method start
@@ -1014,4 +1018,4 @@ public class ZipUtil {
 	}
 	// ---------------------------------------------------------------------------------------------- Private method end
 
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -10,6 +10,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import com.mawujun.bean.BeanPath;
+import com.mawujun.bean.CompiledBeanPath;
 
 import test.mawujun.lang.test.bean.ExamInfoDict;
 import test.mawujun.lang.test.bean.UserInfoDict;
@@ -102,4 +103,23 @@ public class BeanPathTest {
 		Object result = pattern.get(tempMap);
 		Assert.assertEquals(2, result);
 	}
+
+	@Test
+	public void compileTest() {
+		CompiledBeanPath path = BeanPath.compile("userInfo.examInfoDict[2].examType");
+		Assert.assertTrue(path.isCompiled());
+		Assert.assertSame(path, BeanPath.compile("userInfo.examInfoDict[2].examType"));
+		Assert.assertEquals(1, path.get(tempMap));
+
+		// 类型转换及不存在的中间对象
+		path.set(tempMap, "5");
+		Assert.assertEquals(5, path.get(tempMap));
+		BeanPath.compile("other.name").set(tempMap, "test");
+		Assert.assertEquals("test", BeanPath.create("other.name").get(tempMap));
+
+		// 切片表达式按原有方式求值
+		CompiledBeanPath slice = BeanPath.compile("userInfo.examInfoDict[0:2]");
+		Assert.assertFalse(slice.isCompiled());
+		Assert.assertEquals(2, ((List<?>) slice.get(tempMap)).size());
+	}
 }
@@ -3,6 +3,7 @@ package test.mawujun.bean;
 import org.junit.Assert;
 import org.junit.Test;
 
+import com.mawujun.bean.BeanException;
 import com.mawujun.bean.DynaBean;
 
 /**
@@ -34,6 +35,66 @@ public class DynaBeanTest {
 		Assert.assertEquals("test for 李华", invoke);
 	}
 	
+	@Test
+	public void accessorTest(){
+		ChainUser user = new ChainUser();
+		DynaBean bean = DynaBean.create(user);
+		for (int i = 0; i < 3; i++) {
+			bean.set("age", i);
+			Assert.assertEquals(Integer.valueOf(i), bean.get("age"));
+		}
+		bean.set("name", "李华");
+		Assert.assertEquals("李华", user.name);
+		
+		// 非public类使用MethodHandle访问
+		HiddenUser hidden = new HiddenUser();
+		DynaBean hiddenBean = DynaBean.create(hidden);
+		hiddenBean.set("name", "张三");
+		Assert.assertEquals("张三", hiddenBean.get("name"));
+		
+		Assert.assertNull(bean.safeGet("notExist"));
+		
+		// 方法查找结果缓存
+		DynaBean userBean = DynaBean.create(new User());
+		userBean.set("name", "李华");
+		Assert.assertEquals("test for 李华", userBean.invoke("testMethod"));
+		Assert.assertEquals("test for 李华", userBean.invoke("testMethod"));
+	}
+	
+	@Test(expected = BeanException.class)
+	public void setWrongTypeTest(){
+		DynaBean.create(new ChainUser()).set("age", "12");
+	}
+	
+	public static class ChainUser{
+		private String name;
+		private int age;
+		public String getName() {
+			return name;
+		}
+		public ChainUser setName(String name) {
+			this.name = name;
+			return this;
+		}
+		public int getAge() {
+			return age;
+		}
+		public ChainUser setAge(int age) {
+			this.age = age;
+			return this;
+		}
+	}
+	
+	static class HiddenUser{
+		private String name;
+		public String getName() {
+			return name;
+		}
+		public void setName(String name) {
+			this.name = name;
+		}
+	}
+	
 	public static class User{
 		private String name;
 		private int age;
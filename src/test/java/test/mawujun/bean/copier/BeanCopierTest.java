@@ -0,0 +1,94 @@
+package test.mawujun.bean.copier;
+
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.mawujun.bean.copier.BeanCopier;
+import com.mawujun.bean.copier.CopyOptions;
+import com.mawujun.lang.ParameterizedTypeImpl;
+import com.mawujun.lang.TypeReference;
+
+/**
+ * BeanCopier单元测试，主要验证拷贝计划缓存后的结果与拷贝选项一致
+ *
+ * @author mawujun
+ */
+public class BeanCopierTest {
+
+	@Test
+	public void genericTypeTest() {
+		final Map<String, Object> map = new HashMap<>();
+		map.put("value", "12");
+		map.put("list", Arrays.asList("1", "2"));
+
+		final Type type = new TypeReference<Holder<Integer>>() {}.getType();
+		for (int i = 0; i < 2; i++) {
+			final Holder<Integer> holder = BeanCopier.create(map, new Holder<Integer>(), type, CopyOptions.create()).copy();
+			Assert.assertEquals(Integer.valueOf(12), holder.getValue());
+			Assert.assertEquals(Integer.valueOf(2), holder.getList().get(1));
+		}
+	}
+
+	@Test
+	public void optionsChangedTest() {
+		final Map<String, Object> map = new HashMap<>();
+		map.put("value", "a");
+		map.put("other", "b");
+
+		final CopyOptions options = CopyOptions.create();
+		Holder<String> holder = BeanCopier.create(map, new Holder<String>(), options).copy();
+		Assert.assertEquals("a", holder.getValue());
+
+		// 修改同一个拷贝选项后，不能使用之前缓存的计划
+		options.setIgnoreProperties("value");
+		holder = BeanCopier.create(map, new Holder<String>(), options).copy();
+		Assert.assertNull(holder.getValue());
+
+		final Map<String, String> mapping = new HashMap<>();
+		mapping.put("other", "value");
+		options.setIgnoreProperties().setFieldMapping(mapping);
+		holder = BeanCopier.create(map, new Holder<String>(), options).copy();
+		Assert.assertEquals("b", holder.getValue());
+
+		mapping.clear();
+		holder = BeanCopier.create(map, new Holder<String>(), options).copy();
+		Assert.assertEquals("a", holder.getValue());
+	}
+
+	@Test
+	public void parameterizedTypeEqualsTest() {
+		final Type type = new TypeReference<Holder<Integer>>() {}.getType();
+		final ParameterizedTypeImpl impl = new ParameterizedTypeImpl(new Type[] { Integer.class }, null, Holder.class);
+		Assert.assertEquals(impl, new ParameterizedTypeImpl(new Type[] { Integer.class }, null, Holder.class));
+		Assert.assertEquals(impl.hashCode(), new ParameterizedTypeImpl(new Type[] { Integer.class }, null, Holder.class).hashCode());
+		Assert.assertNotEquals(impl, new ParameterizedTypeImpl(new Type[] { Long.class }, null, Holder.class));
+		Assert.assertEquals(type.equals(impl), impl.equals(type));
+	}
+
+	public static class Holder<T> {
+		private T value;
+		private List<T> list;
+
+		public T getValue() {
+			return value;
+		}
+
+		public void setValue(T value) {
+			this.value = value;
+		}
+
+		public List<T> getList() {
+			return list;
+		}
+
+		public void setList(List<T> list) {
+			this.list = list;
+		}
+	}
+}
@@ -0,0 +1,101 @@
+package test.mawujun.builder;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.mawujun.builder.CompareToBuilder;
+import com.mawujun.builder.EqualsBuilder;
+import com.mawujun.builder.HashCodeBuilder;
+
+/**
+ * 反射方式构建equals、hashCode、compareTo测试
+ */
+public class ReflectionBuilderTest {
+
+	@Test
+	public void reflectionEqualsTest() {
+		Bean a = new Bean(1, "a", new int[] { 1, 2 });
+		Bean b = new Bean(1, "a", new int[] { 1, 2 });
+		Assert.assertTrue(EqualsBuilder.reflectionEquals(a, b));
+
+		b.scores[1] = 3;
+		Assert.assertFalse(EqualsBuilder.reflectionEquals(a, b));
+		Assert.assertTrue(EqualsBuilder.reflectionEquals(a, b, "scores"));
+
+		// 子类有额外字段，与父类不相等
+		SubBean sub = new SubBean(1, "a", new int[] { 1, 2 });
+		Assert.assertFalse(EqualsBuilder.reflectionEquals(a, sub));
+	}
+
+	@Test
+	public void reflectionHashCodeTest() {
+		Bean a = new Bean(1, "a", new int[] { 1, 2 });
+		Bean b = new Bean(1, "a", new int[] { 1, 2 });
+		Assert.assertEquals(HashCodeBuilder.reflectionHashCode(a), HashCodeBuilder.reflectionHashCode(b));
+
+		// 与装箱后逐字段计算的结果一致
+		int expected = new HashCodeBuilder().append((Object) Integer.valueOf(1)).append("a").append(new int[] { 1, 2 })
+				.append((Object) Boolean.TRUE).toHashCode();
+		Assert.assertEquals(expected, HashCodeBuilder.reflectionHashCode(a));
+	}
+
+	@Test
+	public void reflectionCompareTest() {
+		Bean a = new Bean(1, "a", new int[] { 1, 2 });
+		Bean b = new Bean(2, "a", new int[] { 1, 2 });
+		Assert.assertTrue(CompareToBuilder.reflectionCompare(a, b) < 0);
+		Assert.assertTrue(CompareToBuilder.reflectionCompare(b, a) > 0);
+		Assert.assertEquals(0, CompareToBuilder.reflectionCompare(a, b, "id"));
+	}
+
+	@Test
+	public void cycleTest() {
+		Node a = new Node("a");
+		Node b = new Node("a");
+		a.next = a;
+		b.next = b;
+		Assert.assertTrue(a.equals(b));
+		Assert.assertEquals(a.hashCode(), b.hashCode());
+	}
+
+	static class Bean {
+		private int id;
+		private String name;
+		private int[] scores;
+		private boolean enabled = true;
+		private transient String cache = "cache";
+
+		Bean(int id, String name, int[] scores) {
+			this.id = id;
+			this.name = name;
+			this.scores = scores;
+		}
+	}
+
+	static class SubBean extends Bean {
+		private long extra = 1L;
+
+		SubBean(int id, String name, int[] scores) {
+			super(id, name, scores);
+		}
+	}
+
+	static class Node {
+		private String name;
+		private Node next;
+
+		Node(String name) {
+			this.name = name;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return EqualsBuilder.reflectionEquals(this, obj);
+		}
+
+		@Override
+		public int hashCode() {
+			return HashCodeBuilder.reflectionHashCode(this);
+		}
+	}
+}
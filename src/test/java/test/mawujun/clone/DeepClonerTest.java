@@ -0,0 +1,254 @@
+package test.mawujun.clone;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.Assert;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import com.mawujun.clone.DeepCloner;
+import com.mawujun.date.DateUtil;
+import com.mawujun.date.TimeInterval;
+import com.mawujun.lang.Console;
+import com.mawujun.lang.Dict;
+import com.mawujun.util.ObjectUtil;
+
+/**
+ * {@link DeepCloner}单元测试
+ *
+ * @author mawujun
+ */
+public class DeepClonerTest {
+
+	@Test
+	public void deepCloneTest() {
+		final Order order = Order.create(3);
+		final Order copy = DeepCloner.deepClone(order);
+
+		Assert.assertNotSame(order, copy);
+		Assert.assertEquals(order.id, copy.id);
+		Assert.assertEquals(order.rate, copy.rate, 0);
+		// 不可变对象直接引用
+		Assert.assertSame(order.name, copy.name);
+		Assert.assertSame(order.amount, copy.amount);
+		Assert.assertSame(order.createTime, copy.createTime);
+		Assert.assertSame(order.status, copy.status);
+		// 可变对象被复制
+		Assert.assertNotSame(order.date, copy.date);
+		Assert.assertEquals(order.date, copy.date);
+		Assert.assertNotSame(order.codes, copy.codes);
+		Assert.assertArrayEquals(order.codes, copy.codes);
+		Assert.assertNotSame(order.items, copy.items);
+		Assert.assertEquals(order.items.size(), copy.items.size());
+		Assert.assertNotSame(order.items.get(0), copy.items.get(0));
+		Assert.assertEquals(order.items.get(0).sku, copy.items.get(0).sku);
+		Assert.assertNotSame(order.attrs, copy.attrs);
+		Assert.assertEquals("none", copy.attrs.get("remark"));
+		Assert.assertNotSame(order.attrs.get("weights"), copy.attrs.get("weights"));
+		Assert.assertArrayEquals((double[]) order.attrs.get("weights"), (double[]) copy.attrs.get("weights"), 0);
+		Assert.assertEquals(order.tags, copy.tags);
+
+		copy.items.get(0).sku = "changed";
+		copy.codes[0] = -1;
+		Assert.assertEquals("sku0", order.items.get(0).sku);
+		Assert.assertEquals(0, order.codes[0]);
+	}
+
+	@Test
+	public void cycleTest() {
+		final Order order = Order.create(2);
+		final Order copy = DeepCloner.deepClone(order);
+		// 循环引用和共享引用在克隆结果中保持
+		Assert.assertSame(copy, copy.items.get(0).order);
+		Assert.assertSame(copy.items.get(1), copy.lastItem);
+		Assert.assertSame(copy.items, copy.array[0]);
+	}
+
+	@Test
+	public void immutableTest() {
+		Assert.assertNull(DeepCloner.deepClone(null));
+		Assert.assertSame("abc", DeepCloner.deepClone("abc"));
+		Assert.assertTrue(DeepCloner.isImmutable(LocalDateTime.class));
+		Assert.assertFalse(DeepCloner.isImmutable(Item.class));
+
+		final Money money = new Money();
+		Assert.assertNotSame(money, DeepCloner.deepClone(money));
+		DeepCloner.registerImmutable(Money.class);
+		Assert.assertSame(money, DeepCloner.deepClone(money));
+	}
+
+	@Test
+	public void jdkTypeTest() {
+		// 继承自LinkedHashMap
+		final Dict dict = Dict.create().set("a", 1).set("b", new ArrayList<>(Arrays.asList(1, 2)));
+		final Dict dictCopy = ObjectUtil.deepClone(dict);
+		Assert.assertNotSame(dict, dictCopy);
+		Assert.assertEquals(dict, dictCopy);
+
+		final List<String> list = Collections.unmodifiableList(new ArrayList<>(Arrays.asList("a", "b")));
+		Assert.assertEquals(list, DeepCloner.deepClone(list));
+	}
+
+	@Test
+	public void wrapperTest() {
+		// 元素未实现Serializable，不能使用序列化复制
+		final Key a = new Key("a");
+		final List<Key> unmodifiable = Collections.unmodifiableList(new ArrayList<>(Arrays.asList(a, a)));
+		final List<Key> unmodifiableCopy = DeepCloner.deepClone(unmodifiable);
+		Assert.assertEquals(unmodifiable.getClass(), unmodifiableCopy.getClass());
+		Assert.assertNotSame(a, unmodifiableCopy.get(0));
+		Assert.assertEquals("a", unmodifiableCopy.get(0).name);
+		Assert.assertSame(unmodifiableCopy.get(0), unmodifiableCopy.get(1));
+
+		final List<Key> asList = Arrays.asList(a, new Key("b"));
+		final List<Key> asListCopy = DeepCloner.deepClone(asList);
+		Assert.assertEquals(asList.getClass(), asListCopy.getClass());
+		Assert.assertEquals("b", asListCopy.get(1).name);
+		Assert.assertNotSame(asList.get(1), asListCopy.get(1));
+
+		final Map<String, Key> synchronizedMap = Collections.synchronizedMap(new HashMap<>());
+		synchronizedMap.put("a", a);
+		final Map<String, Key> synchronizedCopy = DeepCloner.deepClone(synchronizedMap);
+		Assert.assertEquals(synchronizedMap.getClass(), synchronizedCopy.getClass());
+		Assert.assertEquals("a", synchronizedCopy.get("a").name);
+		Assert.assertNotSame(a, synchronizedCopy.get("a"));
+
+		final Set<Key> singleton = Collections.singleton(a);
+		Assert.assertEquals("a", DeepCloner.deepClone(singleton).iterator().next().name);
+	}
+
+	@Test
+	public void hashContainerTest() {
+		final Holder holder = new Holder();
+		holder.key = new Key("k");
+		holder.ids = new IdentityHashMap<>();
+		holder.ids.put(holder.key, "id");
+		holder.table = new Hashtable<>();
+		holder.table.put(holder.key, "table");
+		holder.statuses = EnumSet.of(Status.PAID);
+		holder.counts = new EnumMap<>(Status.class);
+		holder.counts.put(Status.NEW, new Key("new"));
+
+		final Holder copy = DeepCloner.deepClone(holder);
+		Assert.assertNotSame(holder.key, copy.key);
+		Assert.assertEquals(IdentityHashMap.class, copy.ids.getClass());
+		// 键被克隆后仍能查找
+		Assert.assertEquals("id", copy.ids.get(copy.key));
+		Assert.assertEquals("table", copy.table.get(copy.key));
+		Assert.assertNull(copy.ids.get(holder.key));
+		Assert.assertEquals(EnumSet.of(Status.PAID), copy.statuses);
+		Assert.assertNotSame(holder.statuses, copy.statuses);
+		Assert.assertEquals("new", copy.counts.get(Status.NEW).name);
+		Assert.assertNotSame(holder.counts.get(Status.NEW), copy.counts.get(Status.NEW));
+	}
+
+	@Test
+	@Ignore
+	public void benchTest() {
+		final Order order = Order.create(20);
+		final int count = 20000;
+		for (int round = 0; round < 3; round++) {
+			final TimeInterval timer = DateUtil.timer();
+			for (int i = 0; i < count; i++) {
+				ObjectUtil.cloneByStream(order);
+			}
+			final long stream = timer.intervalRestart();
+			for (int i = 0; i < count; i++) {
+				DeepCloner.deepClone(order);
+			}
+			Console.log("cloneByStream: {} ms, deepClone: {} ms", stream, timer.interval());
+		}
+	}
+
+	static final class Key {
+		private String name;
+
+		Key(String name) {
+			this.name = name;
+		}
+	}
+
+	static class Holder {
+		private Key key;
+		private IdentityHashMap<Key, String> ids;
+		private Hashtable<Key, String> table;
+		private EnumSet<Status> statuses;
+		private EnumMap<Status, Key> counts;
+	}
+
+	static final class Money {
+		private final long cent = 100;
+	}
+
+	enum Status {
+		NEW, PAID
+	}
+
+	static class Order implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		private long id;
+		private double rate;
+		private String name;
+		private BigDecimal amount;
+		private LocalDateTime createTime;
+		private Date date;
+		private Status status;
+		private int[] codes;
+		private List<Item> items;
+		private Item lastItem;
+		private Map<String, Object> attrs;
+		private TreeSet<String> tags;
+		private Object[] array;
+
+		static Order create(int itemCount) {
+			final Order order = new Order();
+			order.id = 100;
+			order.rate = 0.5;
+			order.name = "order";
+			order.amount = new BigDecimal("12.50");
+			order.createTime = LocalDateTime.now();
+			order.date = new Date();
+			order.status = Status.PAID;
+			order.codes = new int[] { 0, 1, 2 };
+			order.items = new ArrayList<>();
+			for (int i = 0; i < itemCount; i++) {
+				order.items.add(new Item("sku" + i, order));
+			}
+			order.lastItem = order.items.get(itemCount - 1);
+			order.attrs = new HashMap<>();
+			order.attrs.put("remark", "none");
+			order.attrs.put("weights", new double[] { 1.5, 2.5 });
+			order.tags = new TreeSet<>(Arrays.asList("b", "a"));
+			order.array = new Object[] { order.items, "x" };
+			return order;
+		}
+	}
+
+	static class Item implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		private String sku;
+		private final Order order;
+
+		Item(String sku, Order order) {
+			this.sku = sku;
+			this.order = order;
+		}
+	}
+}
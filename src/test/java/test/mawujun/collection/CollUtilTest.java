@@ -548,4 +548,49 @@ public class CollUtilTest {
 		
 		Assert.assertEquals(CollUtil.newArrayList(4,3,2,1), sortPageAll);
 	}
+
+	@Test
+	public void sortPageAllTieTest() {
+		// 只比较首字符，5a和5b相等，分页结果应与稳定排序一致
+		final Comparator<String> comparator = Comparator.comparing(str -> str.charAt(0));
+		final List<String> list = CollUtil.newArrayList("5a", "1", "5b", "0");
+		final List<String> pages = new ArrayList<>();
+		for (int pageNo = 1; pageNo <= 4; pageNo++) {
+			pages.addAll(CollUtil.sortPageAll(pageNo, 1, comparator, list));
+		}
+		Assert.assertEquals(CollUtil.newArrayList("0", "1", "5a", "5b"), pages);
+	}
+
+	@Test
+	public void mergeSortedPageTest() {
+		List<Integer> list1 = CollUtil.newArrayList(1, 4, 7, 10);
+		List<Integer> list2 = CollUtil.newArrayList(2, 5, 8);
+		List<Integer> list3 = CollUtil.newArrayList(3, 6, 9);
+		Comparator<Integer> comparator = new Comparator<Integer>() {
+			@Override
+			public int compare(Integer o1, Integer o2) {
+				return o1.compareTo(o2);
+			}
+		};
+
+		Assert.assertEquals(CollUtil.newArrayList(1, 2, 3, 4), CollUtil.mergeSortedPage(1, 4, comparator, list1, list2, list3));
+		Assert.assertEquals(CollUtil.newArrayList(5, 6, 7, 8), CollUtil.mergeSortedPage(2, 4, comparator, list1, list2, list3));
+		Assert.assertEquals(CollUtil.newArrayList(9, 10), CollUtil.mergeSortedPage(3, 4, comparator, list1, list2, list3));
+		Assert.assertTrue(CollUtil.mergeSortedPage(4, 4, comparator, list1, list2, list3).isEmpty());
+	}
+
+	@Test
+	public void setAlgebraParallelTest() {
+		List<Integer> list1 = new ArrayList<>();
+		List<Integer> list2 = new ArrayList<>();
+		for (int i = 0; i < 20000; i++) {
+			list1.add(i % 700);
+			list2.add(i % 900);
+		}
+		list1.add(null);
+
+		Assert.assertEquals(CollUtil.countMap(CollUtil.intersection(list1, list2)), CollUtil.countMap(CollUtil.intersectionParallel(list1, list2)));
+		Assert.assertEquals(CollUtil.countMap(CollUtil.union(list1, list2)), CollUtil.countMap(CollUtil.unionParallel(list1, list2)));
+		Assert.assertEquals(CollUtil.countMap(CollUtil.disjunction(list1, list2)), CollUtil.countMap(CollUtil.disjunctionParallel(list1, list2)));
+	}
 }
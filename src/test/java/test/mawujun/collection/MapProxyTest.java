@@ -9,6 +9,7 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import com.mawujun.map.MapProxy;
+import com.mawujun.map.MapUtil;
 
 public class MapProxyTest {
 	
@@ -28,4 +29,50 @@ public class MapProxyTest {
 		Set<Entry<Object,Object>> entrys = mapProxy.entrySet();
 		Assert.assertFalse(entrys.isEmpty());
 	}
+	
+	@Test
+	public void toProxyBeanTest() {
+		Map<String, Object> map = MapUtil.newHashMap();
+		map.put("name", "李华");
+		map.put("age", "12");
+		map.put("admin", true);
+		map.put("class_name", "三班");
+		
+		Student student = MapProxy.create(map).toProxyBean(Student.class);
+		Assert.assertEquals("李华", student.getName());
+		Assert.assertEquals(12, student.getAge());
+		Assert.assertTrue(student.isAdmin());
+		// 驼峰不存在转下划线
+		Assert.assertEquals("三班", student.getClassName());
+		
+		Assert.assertSame(student, student.setName("张三"));
+		Assert.assertEquals("张三", map.get("name"));
+		student.setAge(13);
+		Assert.assertEquals(13, student.getAge());
+		
+		// 再次创建代理使用缓存的方法解析结果
+		Student student2 = MapProxy.create(map).toProxyBean(Student.class);
+		Assert.assertEquals("张三", student2.getName());
+	}
+	
+	@Test(expected = UnsupportedOperationException.class)
+	public void unsupportedMethodTest() {
+		MapProxy.create(MapUtil.newHashMap()).toProxyBean(Student.class).study("math");
+	}
+	
+	interface Student {
+		String getName();
+		
+		Student setName(String name);
+		
+		int getAge();
+		
+		void setAge(int age);
+		
+		boolean isAdmin();
+		
+		String getClassName();
+		
+		String study(String subject);
+	}
 }
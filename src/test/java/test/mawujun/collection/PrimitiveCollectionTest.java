@@ -0,0 +1,128 @@
+package test.mawujun.collection;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.mawujun.collection.CollUtil;
+import com.mawujun.collection.IntArrayList;
+import com.mawujun.collection.Long2ObjectHashMap;
+import com.mawujun.collection.LongArrayList;
+import com.mawujun.collection.LongHashSet;
+import com.mawujun.collection.Object2IntHashMap;
+import com.mawujun.util.ArrayUtil;
+
+/**
+ * 基本类型集合单元测试
+ *
+ * @author mawujun
+ */
+public class PrimitiveCollectionTest {
+
+	@Test
+	public void arrayListTest() {
+		final IntArrayList list = IntArrayList.of(3, 1, 2);
+		list.add(5).addAll(4, 0);
+		Assert.assertEquals(6, list.size());
+		Assert.assertEquals(2, list.removeAt(2));
+		Assert.assertEquals("[0, 1, 3, 4, 5]", list.sort().toString());
+		Assert.assertEquals(13, list.stream().sum());
+		Assert.assertEquals(IntArrayList.of(0, 1, 3, 4, 5), list);
+
+		final LongArrayList longs = new LongArrayList();
+		for (long i = 0; i < 100; i++) {
+			longs.add(i * Integer.MAX_VALUE);
+		}
+		Assert.assertEquals(99L * Integer.MAX_VALUE, longs.get(99));
+		Assert.assertTrue(longs.contains(0));
+	}
+
+	@Test
+	public void longHashSetTest() {
+		final Random random = new Random(3);
+		final Set<Long> expected = new HashSet<>();
+		final LongHashSet set = new LongHashSet(2);
+		for (int i = 0; i < 50000; i++) {
+			final long value = random.nextInt(2000) - 1000;
+			if (random.nextBoolean()) {
+				Assert.assertEquals(expected.add(value), set.add(value));
+			} else {
+				Assert.assertEquals(expected.remove(value), set.remove(value));
+			}
+			Assert.assertEquals(expected.size(), set.size());
+		}
+		for (long value = -1000; value < 1000; value++) {
+			Assert.assertEquals(expected.contains(value), set.contains(value));
+		}
+	}
+
+	@Test
+	public void object2IntHashMapTest() {
+		final Random random = new Random(5);
+		final Map<String, Integer> expected = new HashMap<>();
+		final Object2IntHashMap<String> map = new Object2IntHashMap<>(2, -1);
+		for (int i = 0; i < 50000; i++) {
+			final String key = (0 == i % 97) ? null : "k" + random.nextInt(1000);
+			switch (random.nextInt(3)) {
+			case 0:
+				Assert.assertEquals(expected.containsKey(key) ? expected.remove(key) : -1, map.removeInt(key));
+				break;
+			case 1:
+				// 不存在时以missingValue为初始值
+				final int added = expected.getOrDefault(key, -1) + 1;
+				expected.put(key, added);
+				Assert.assertEquals(added, map.addTo(key, 1));
+				break;
+			default:
+				final Integer old = expected.put(key, i);
+				Assert.assertEquals(null == old ? -1 : old, map.put(key, i));
+			}
+			Assert.assertEquals(expected.size(), map.size());
+		}
+		Assert.assertEquals(expected, map.toMap());
+		Assert.assertEquals(-1, map.getInt("none"));
+	}
+
+	@Test
+	public void long2ObjectHashMapTest() {
+		final Long2ObjectHashMap<String> map = new Long2ObjectHashMap<>(2);
+		for (long i = -100; i <= 100; i++) {
+			map.put(i, String.valueOf(i));
+		}
+		Assert.assertEquals(201, map.size());
+		Assert.assertEquals("0", map.get(0));
+		Assert.assertEquals("-100", map.remove(-100));
+		Assert.assertNull(map.get(-100));
+		Assert.assertEquals("x", map.computeIfAbsent(1000, key -> "x"));
+		Assert.assertEquals("5", map.computeIfAbsent(5, key -> "y"));
+		Assert.assertEquals(201, map.keys().length);
+	}
+
+	@Test
+	public void arrayOperationTest() {
+		Assert.assertArrayEquals(new int[] { 3, 1, 2 }, ArrayUtil.distinct(new int[] { 3, 1, 3, 2, 1 }));
+		Assert.assertArrayEquals(new long[] { 3, 1, 2, 5 }, ArrayUtil.union(new long[] { 3, 1, 3 }, new long[] { 2, 1, 5 }));
+		Assert.assertArrayEquals(new int[] { 1, 2 }, ArrayUtil.intersection(new int[] { 1, 4, 2, 1 }, new int[] { 2, 1, 3 }));
+		Assert.assertArrayEquals(new long[] { 9, 8, 8 }, ArrayUtil.topK(new long[] { 1, 8, 3, 9, 8, 2 }, 3));
+		Assert.assertArrayEquals(new int[] { 2, 1 }, ArrayUtil.topK(new int[] { 1, 2 }, 5));
+
+		final int[] random = new Random(1).ints(1000).toArray();
+		final int[] sorted = random.clone();
+		Arrays.sort(sorted);
+		Assert.assertArrayEquals(ArrayUtil.reverse(Arrays.copyOfRange(sorted, 990, 1000)), ArrayUtil.topK(random, 10));
+	}
+
+	@Test
+	public void countIntMapTest() {
+		final Object2IntHashMap<String> counts = CollUtil.countIntMap(Arrays.asList("a", "b", "c", "c", "c"));
+		Assert.assertEquals(3, counts.getInt("c"));
+		Assert.assertEquals(0, counts.getInt("d"));
+		Assert.assertEquals(CollUtil.countMap(Arrays.asList("a", "b", "c", "c", "c")), counts.toMap());
+	}
+}
@@ -0,0 +1,64 @@
+package test.mawujun.collection;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.mawujun.collection.CollUtil;
+import com.mawujun.collection.ConcurrentBoundedPriorityQueue;
+import com.mawujun.collection.LongTopK;
+import com.mawujun.collection.TopKUtil;
+
+/**
+ * Top-K相关单元测试
+ */
+public class TopKTest {
+
+	@Test
+	public void longTopKTest() {
+		LongTopK<String> topK = new LongTopK<>(3);
+		long[] scores = { 5, 1, 9, 7, 3, 8 };
+		for (long score : scores) {
+			topK.offer(score, "s" + score);
+		}
+		Assert.assertArrayEquals(new long[] { 9, 8, 7 }, topK.scores());
+		Assert.assertEquals(CollUtil.newArrayList("s9", "s8", "s7"), topK.toList());
+		Assert.assertEquals(7, topK.minScore());
+	}
+
+	@Test
+	public void collectorTest() {
+		List<Long> top = LongStream.range(0, 100000).boxed().parallel().collect(TopKUtil.byLongScore(5, v -> v));
+		Assert.assertEquals(CollUtil.newArrayList(99999L, 99998L, 99997L, 99996L, 99995L), top);
+
+		List<Integer> smallest = IntStream.range(0, 100000).boxed().parallel().collect(TopKUtil.smallest(3, Comparator.<Integer>naturalOrder()));
+		Assert.assertEquals(CollUtil.newArrayList(0, 1, 2), smallest);
+
+		List<Double> largest = IntStream.range(0, 1000).mapToObj(i -> i / 10d).collect(TopKUtil.byDoubleScore(2, v -> v));
+		Assert.assertEquals(CollUtil.newArrayList(99.9d, 99.8d), largest);
+	}
+
+	@Test
+	public void concurrentTest() throws InterruptedException {
+		final ConcurrentBoundedPriorityQueue<Integer> queue = new ConcurrentBoundedPriorityQueue<>(10);
+		final int threads = 4;
+		final CountDownLatch latch = new CountDownLatch(threads);
+		for (int t = 0; t < threads; t++) {
+			final int offset = t;
+			new Thread(() -> {
+				for (int i = offset; i < 40000; i += threads) {
+					queue.offer(i);
+				}
+				latch.countDown();
+			}).start();
+		}
+		latch.await();
+		Assert.assertEquals(IntStream.range(0, 10).boxed().collect(Collectors.toList()), queue.toList());
+	}
+}
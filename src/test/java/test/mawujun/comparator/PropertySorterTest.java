@@ -0,0 +1,83 @@
+package test.mawujun.comparator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.mawujun.collection.CollUtil;
+import com.mawujun.comparator.PropertyComparator;
+import com.mawujun.comparator.PropertySorter;
+
+/**
+ * {@link PropertySorter}单元测试
+ */
+public class PropertySorterTest {
+
+	@Test
+	public void multiKeySortTest() {
+		List<User> list = CollUtil.newArrayList(//
+				new User("b", 20, new Dept("dev")), //
+				new User("a", 30, new Dept("dev")), //
+				new User("c", 25, new Dept("ops")), //
+				new User("d", 20, null));
+
+		PropertySorter.<User>create().asc("dept.name").desc("age").sort(list);
+		Assert.assertEquals("a", list.get(0).name);
+		Assert.assertEquals("b", list.get(1).name);
+		Assert.assertEquals("c", list.get(2).name);
+		// null排在最后
+		Assert.assertEquals("d", list.get(3).name);
+	}
+
+	@Test
+	public void comparatorChainTest() {
+		List<User> list = CollUtil.newArrayList(//
+				new User("b", 20, new Dept("dev")), //
+				new User("a", 30, new Dept("dev")), //
+				new User("c", 25, new Dept("ops")));
+
+		CollUtil.sort(list, PropertySorter.<User>create().asc("dept.name").desc("age").toComparator());
+		Assert.assertEquals("a", list.get(0).name);
+		Assert.assertEquals("b", list.get(1).name);
+		Assert.assertEquals("c", list.get(2).name);
+	}
+
+	@Test
+	public void parallelSortTest() {
+		final Random random = new Random(1);
+		final List<User> list = new ArrayList<>();
+		for (int i = 0; i < 50000; i++) {
+			list.add(new User(String.valueOf(i), random.nextInt(1000), new Dept("d" + random.nextInt(10))));
+		}
+		final List<User> expected = new ArrayList<>(list);
+		CollUtil.sort(expected, new PropertyComparator<User>("age"));
+
+		PropertySorter.<User>of("age").setParallelThreshold(1000).sort(list);
+		for (int i = 0; i < list.size(); i++) {
+			Assert.assertEquals(expected.get(i).age, list.get(i).age);
+		}
+	}
+
+	static class User {
+		private String name;
+		private int age;
+		private Dept dept;
+
+		User(String name, int age, Dept dept) {
+			this.name = name;
+			this.age = age;
+			this.dept = dept;
+		}
+	}
+
+	static class Dept {
+		private String name;
+
+		Dept(String name) {
+			this.name = name;
+		}
+	}
+}
@@ -0,0 +1,103 @@
+package test.mawujun.http;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.bootstrap.HttpServer;
+import org.apache.http.impl.bootstrap.ServerBootstrap;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.util.EntityUtils;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.mawujun.http.HttpMetrics;
+import com.mawujun.thread.ThreadUtil;
+
+/**
+ * {@link HttpMetrics} 单元测试
+ */
+public class HttpMetricsTest {
+
+	private static HttpServer server;
+	private static String baseUrl;
+
+	@BeforeClass
+	public static void startServer() throws IOException {
+		server = ServerBootstrap.bootstrap()//
+				.setLocalAddress(InetAddress.getLoopbackAddress())//
+				.registerHandler("/ok", (request, response, context) -> response.setEntity(new StringEntity("ok")))//
+				.registerHandler("/slow", (request, response, context) -> {
+					ThreadUtil.sleep(500);
+					response.setEntity(new StringEntity("slow"));
+				})//
+				.create();
+		server.start();
+		baseUrl = "http://127.0.0.1:" + server.getLocalPort();
+	}
+
+	@AfterClass
+	public static void stopServer() {
+		server.shutdown(0, TimeUnit.SECONDS);
+	}
+
+	@Test
+	public void metricsTest() throws IOException {
+		final HttpMetrics metrics = new HttpMetrics("test");
+		final PoolingHttpClientConnectionManager cm = new PoolingHttpClientConnectionManager();
+		final CloseableHttpClient client = metrics.instrument(HttpClients.custom(), cm).build();
+		try {
+			for (int i = 0; i < 3; i++) {
+				final long start = System.nanoTime();
+				try (CloseableHttpResponse response = client.execute(new HttpGet(baseUrl + "/ok"))) {
+					metrics.recordResponse(start, response.getStatusLine().getStatusCode());
+					Assert.assertEquals("ok", EntityUtils.toString(response.getEntity()));
+				}
+			}
+			Assert.assertEquals(3, metrics.getRequests());
+			Assert.assertEquals(3, metrics.getTtfbLatency().getCount());
+			Assert.assertEquals(1, metrics.getConnectLatency().getCount());
+			Assert.assertEquals(0, metrics.getRouteStats().get(baseUrl).getLeased());
+			Assert.assertEquals(1, metrics.getRouteStats().get(baseUrl).getAvailable());
+
+			// 响应体未读取，连接未归还
+			final CloseableHttpResponse leaked = client.execute(new HttpGet(baseUrl + "/ok"));
+			Assert.assertEquals(1, metrics.getTotalStats().getLeased());
+			Assert.assertEquals(1, metrics.getLeakSuspects(0).size());
+			metrics.setLeakThreshold(0);
+			Assert.assertEquals(1, metrics.checkLeaks());
+			Assert.assertEquals(0, metrics.checkLeaks());
+			Assert.assertEquals(1, metrics.getLeaks());
+			EntityUtils.consume(leaked.getEntity());
+			Assert.assertEquals(0, metrics.getLeakSuspects(0).size());
+
+			// 超时
+			final HttpGet slow = new HttpGet(baseUrl + "/slow");
+			slow.setConfig(RequestConfig.custom().setSocketTimeout(50).build());
+			final long start = System.nanoTime();
+			try {
+				client.execute(slow);
+				Assert.fail();
+			} catch (SocketTimeoutException e) {
+				metrics.recordError(start, e);
+			}
+			Assert.assertEquals(1, metrics.getTimeouts());
+			Assert.assertEquals(1, metrics.getErrors());
+
+			final String json = metrics.toJson();
+			Assert.assertTrue(json, json.startsWith("{\"name\":\"test\",\"requests\":4,"));
+			Assert.assertTrue(json, json.contains("\"routes\":{\"" + baseUrl + "\":{\"leased\":0,"));
+		} finally {
+			client.close();
+		}
+	}
+}
@@ -0,0 +1,123 @@
+package test.mawujun.http;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.http.Header;
+import org.apache.http.HttpStatus;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.impl.bootstrap.HttpServer;
+import org.apache.http.impl.bootstrap.ServerBootstrap;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.mawujun.http.HttpRespons;
+import com.mawujun.http.HttpUtil;
+import com.mawujun.io.IoUtil;
+
+/**
+ * {@link HttpUtil} 流式读取、压缩及分段下载单元测试
+ */
+public class HttpUtilTest {
+
+	private static final byte[] PAYLOAD = new byte[3 * 1024 * 1024 + 17];
+	private static final AtomicInteger rangeRequests = new AtomicInteger();
+	private static final AtomicInteger gzipResponses = new AtomicInteger();
+
+	private static HttpServer server;
+	private static String baseUrl;
+
+	@BeforeClass
+	public static void startServer() throws IOException {
+		new Random(1).nextBytes(PAYLOAD);
+		server = ServerBootstrap.bootstrap()//
+				.setLocalAddress(InetAddress.getLoopbackAddress())//
+				.registerHandler("/file", (request, response, context) -> {
+					response.setHeader("Accept-Ranges", "bytes");
+					final Header range = request.getFirstHeader("Range");
+					final Header acceptEncoding = request.getFirstHeader("Accept-Encoding");
+					if (null != range) {
+						rangeRequests.incrementAndGet();
+						final String[] parts = range.getValue().substring("bytes=".length()).split("-");
+						final int start = Integer.parseInt(parts[0]);
+						final int end = Integer.parseInt(parts[1]);
+						response.setStatusCode(HttpStatus.SC_PARTIAL_CONTENT);
+						response.setHeader("Content-Range", "bytes " + start + "-" + end + "/" + PAYLOAD.length);
+						response.setEntity(new ByteArrayEntity(PAYLOAD, start, end - start + 1));
+					} else if (null != acceptEncoding && acceptEncoding.getValue().contains("gzip")) {
+						gzipResponses.incrementAndGet();
+						response.setHeader("Content-Encoding", "gzip");
+						response.setEntity(new ByteArrayEntity(gzip(PAYLOAD)));
+					} else {
+						response.setEntity(new ByteArrayEntity(PAYLOAD));
+					}
+				})//
+				.registerHandler("/text", (request, response, context) -> {
+					response.setHeader("Content-Encoding", "gzip");
+					response.setEntity(new ByteArrayEntity(gzip("hello".getBytes())));
+				})//
+				.create();
+		server.start();
+		baseUrl = "http://127.0.0.1:" + server.getLocalPort();
+	}
+
+	@AfterClass
+	public static void stopServer() {
+		server.shutdown(0, TimeUnit.SECONDS);
+	}
+
+	@Test
+	public void getStreamTest() throws IOException {
+		final int before = gzipResponses.get();
+		try (InputStream in = HttpUtil.getStream(baseUrl + "/file", null)) {
+			Assert.assertArrayEquals(PAYLOAD, IoUtil.readBytes(in));
+		}
+		Assert.assertEquals(before + 1, gzipResponses.get());
+
+		final HttpRespons respons = HttpUtil.sendGet(baseUrl + "/text");
+		Assert.assertEquals("hello\r\n", respons.getContent());
+	}
+
+	@Test
+	public void downloadTest() throws IOException {
+		final Path target = Files.createTempFile("download", ".bin");
+		try {
+			Assert.assertEquals(PAYLOAD.length, HttpUtil.download(baseUrl + "/file", target));
+			Assert.assertArrayEquals(PAYLOAD, Files.readAllBytes(target));
+		} finally {
+			Files.delete(target);
+		}
+	}
+
+	@Test
+	public void downloadParallelTest() throws IOException {
+		final Path target = Files.createTempFile("download", ".bin");
+		try {
+			final int before = rangeRequests.get();
+			Assert.assertEquals(PAYLOAD.length, HttpUtil.downloadParallel(baseUrl + "/file", null, target, 4, 256 * 1024));
+			Assert.assertArrayEquals(PAYLOAD, Files.readAllBytes(target));
+			// 3MB按256KB分段
+			Assert.assertEquals(before + 13, rangeRequests.get());
+		} finally {
+			Files.delete(target);
+		}
+	}
+
+	private static byte[] gzip(byte[] data) throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+			gzip.write(data);
+		}
+		return out.toByteArray();
+	}
+}
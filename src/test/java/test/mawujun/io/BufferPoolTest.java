@@ -0,0 +1,260 @@
+package test.mawujun.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.mawujun.io.BufferPool;
+import com.mawujun.io.ChunkedByteBuffer;
+import com.mawujun.io.FastByteArrayOutputStream;
+import com.mawujun.io.IoUtil;
+import com.mawujun.util.ZipUtil;
+
+/**
+ * BufferPool及ChunkedByteBuffer单元测试
+ *
+ * @author mawujun
+ */
+public class BufferPoolTest {
+
+	@Test
+	public void acquireTest() {
+		final BufferPool pool = new BufferPool(64 * 1024);
+		final byte[] buffer = pool.acquire(1000);
+		Assert.assertEquals(1024, buffer.length);
+		Assert.assertEquals(512, pool.acquire(1).length);
+
+		pool.release(buffer);
+		Assert.assertSame(buffer, pool.acquire(1024));
+		Assert.assertEquals(1, pool.getHits());
+
+		// 超过最大级别直接分配，归还后不复用
+		final byte[] large = pool.acquire(100 * 1024);
+		Assert.assertEquals(100 * 1024, large.length);
+		pool.release(large);
+		Assert.assertNotSame(large, pool.acquire(100 * 1024));
+	}
+
+	@Test
+	public void releaseAcrossThreadTest() throws InterruptedException {
+		final BufferPool pool = new BufferPool(64 * 1024);
+		final byte[] buffer = pool.acquire(32 * 1024);
+		// 超过线程本地缓存的级别，归还到共享队列，其它线程可取到
+		final Thread thread = new Thread(() -> pool.release(buffer));
+		thread.start();
+		thread.join();
+		Assert.assertSame(buffer, pool.acquire(32 * 1024));
+	}
+
+	@Test
+	public void releaseForeignTest() {
+		final BufferPool pool = new BufferPool(64 * 1024);
+		// 长度不是级别大小或超过最大级别的不回收
+		pool.release(new byte[1000]);
+		pool.release(new byte[256]);
+		pool.release(new byte[128 * 1024]);
+		Assert.assertEquals(0, pool.getCachedBytes());
+	}
+
+	@Test
+	public void maxCachedBytesTest() {
+		final BufferPool pool = new BufferPool(64 * 1024, 8192);
+		final byte[] a = pool.acquire(4096);
+		final byte[] b = pool.acquire(4096);
+		final byte[] c = pool.acquire(4096);
+		pool.release(a);
+		pool.release(b);
+		// 超过总量上限，丢弃
+		pool.release(c);
+		Assert.assertEquals(8192, pool.getCachedBytes());
+		Assert.assertSame(b, pool.acquire(4096));
+		Assert.assertSame(a, pool.acquire(4096));
+		Assert.assertEquals(0, pool.getCachedBytes());
+
+		final ByteBuffer direct = pool.acquireDirect(8192);
+		pool.release(a);
+		// 直接内存同样计入总量
+		pool.releaseDirect(direct);
+		Assert.assertNotSame(direct, pool.acquireDirect(8192));
+		pool.clear();
+		Assert.assertEquals(0, pool.getCachedBytes());
+	}
+
+	@Test
+	public void deadThreadCacheTest() throws InterruptedException {
+		final BufferPool pool = new BufferPool(64 * 1024, 8192);
+		final byte[] a = pool.acquire(4096);
+		final byte[] b = pool.acquire(4096);
+		// 归还到已结束线程的本地缓存
+		final Thread thread = new Thread(() -> {
+			pool.release(a);
+			pool.release(b);
+		});
+		thread.start();
+		thread.join();
+		Assert.assertEquals(8192, pool.getCachedBytes());
+
+		// 达到上限时清理已结束线程的本地缓存
+		final byte[] c = pool.acquire(4096);
+		pool.release(c);
+		Assert.assertEquals(4096, pool.getCachedBytes());
+		Assert.assertSame(c, pool.acquire(4096));
+	}
+
+	@Test
+	public void directTest() {
+		final BufferPool pool = new BufferPool(64 * 1024);
+		final ByteBuffer buffer = pool.acquireDirect(3000);
+		Assert.assertTrue(buffer.isDirect());
+		Assert.assertEquals(4096, buffer.capacity());
+		buffer.put((byte) 1);
+		pool.releaseDirect(buffer);
+
+		final ByteBuffer reused = pool.acquireDirect(4096);
+		Assert.assertSame(buffer, reused);
+		Assert.assertEquals(0, reused.position());
+		Assert.assertEquals(4096, reused.limit());
+
+		// 堆内存不放入直接内存池
+		pool.releaseDirect(ByteBuffer.allocate(4096));
+		Assert.assertNotSame(buffer, pool.acquireDirect(4096));
+	}
+
+	@Test
+	public void chunkedTest() {
+		final byte[] data = new byte[10000];
+		for (int i = 0; i < data.length; i++) {
+			data[i] = (byte) i;
+		}
+		final ChunkedByteBuffer buffer = new ChunkedByteBuffer(new BufferPool(64 * 1024), 1024);
+		buffer.readFrom(new ByteArrayInputStream(data));
+		buffer.append((byte) 7);
+
+		Assert.assertEquals(10001, buffer.size());
+		Assert.assertEquals((byte) 5000, buffer.get(5000));
+		Assert.assertEquals(7, buffer.get(10000));
+		final byte[] result = buffer.toByteArray();
+		Assert.assertArrayEquals(data, Arrays.copyOf(result, 10000));
+
+		// 1024 + 2048 + 4096 + 8192
+		final ByteBuffer[] buffers = buffer.nioBuffers();
+		Assert.assertEquals(4, buffers.length);
+		Assert.assertEquals(1024, buffers[0].remaining());
+		Assert.assertEquals(10001 - 1024 - 2048 - 4096, buffers[3].remaining());
+		buffer.release();
+	}
+
+	@Test
+	public void gatheringWriteTest() {
+		final ChunkedByteBuffer buffer = new ChunkedByteBuffer(BufferPool.getDefault(), 512);
+		for (int i = 0; i < 300; i++) {
+			buffer.append(("line" + i + "\n").getBytes());
+		}
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final long written = buffer.writeTo(new GatheringChannel(out));
+		Assert.assertEquals(buffer.size(), written);
+		Assert.assertArrayEquals(buffer.toByteArray(), out.toByteArray());
+		buffer.close();
+	}
+
+	@Test
+	public void refCntTest() {
+		final ChunkedByteBuffer buffer = new ChunkedByteBuffer();
+		buffer.append(new byte[] { 1, 2, 3 });
+		buffer.retain();
+		Assert.assertFalse(buffer.release());
+		Assert.assertEquals(3, buffer.size());
+		Assert.assertTrue(buffer.release());
+		Assert.assertEquals(0, buffer.refCnt());
+		try {
+			buffer.toByteArray();
+			Assert.fail();
+		} catch (IllegalStateException e) {
+			// 已释放
+		}
+		try {
+			buffer.release();
+			Assert.fail();
+		} catch (IllegalStateException e) {
+			// 已释放
+		}
+		// close在已释放时无效果
+		buffer.close();
+	}
+
+	@Test
+	public void fastByteBuffersTest() {
+		final FastByteArrayOutputStream out = new FastByteArrayOutputStream(4);
+		Assert.assertEquals(0, out.toByteBuffers().length);
+		out.writeTo(new ByteArrayOutputStream());
+
+		out.write(new byte[] { 1, 2, 3, 4, 5, 6 }, 0, 6);
+		int total = 0;
+		for (ByteBuffer buffer : out.toByteBuffers()) {
+			total += buffer.remaining();
+		}
+		Assert.assertEquals(6, total);
+	}
+
+	@Test
+	public void pooledUtilTest() {
+		final byte[] data = new byte[100 * 1024];
+		Arrays.fill(data, (byte) 'a');
+		Assert.assertArrayEquals(data, IoUtil.readBytes(new ByteArrayInputStream(data)));
+		Assert.assertArrayEquals(data, ZipUtil.unGzip(ZipUtil.gzip(data)));
+		Assert.assertArrayEquals(data, ZipUtil.unZlib(ZipUtil.zlib(data, 6)));
+
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		IoUtil.copy(Channels.newChannel(new ByteArrayInputStream(data)), Channels.newChannel(out));
+		Assert.assertArrayEquals(data, out.toByteArray());
+	}
+
+	/**
+	 * 每次最多写出100字节的通道，模拟部分写出
+	 */
+	private static class GatheringChannel implements java.nio.channels.GatheringByteChannel {
+		private final ByteArrayOutputStream out;
+
+		GatheringChannel(ByteArrayOutputStream out) {
+			this.out = out;
+		}
+
+		@Override
+		public long write(ByteBuffer[] srcs, int offset, int length) {
+			int limit = 100;
+			long written = 0;
+			for (int i = offset; i < offset + length && limit > 0; i++) {
+				while (srcs[i].hasRemaining() && limit > 0) {
+					out.write(srcs[i].get());
+					limit--;
+					written++;
+				}
+			}
+			return written;
+		}
+
+		@Override
+		public long write(ByteBuffer[] srcs) {
+			return write(srcs, 0, srcs.length);
+		}
+
+		@Override
+		public int write(ByteBuffer src) {
+			return (int) write(new ByteBuffer[] { src });
+		}
+
+		@Override
+		public boolean isOpen() {
+			return true;
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+}
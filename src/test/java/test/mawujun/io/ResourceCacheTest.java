@@ -0,0 +1,118 @@
+package test.mawujun.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.mawujun.io.FileUtil;
+import com.mawujun.io.resource.BufferResource;
+import com.mawujun.io.resource.BytesResource;
+import com.mawujun.io.resource.ConcatResource;
+import com.mawujun.io.resource.FileResource;
+import com.mawujun.io.resource.MappedFileResource;
+import com.mawujun.io.resource.Resource;
+import com.mawujun.io.resource.ResourceCache;
+import com.mawujun.util.StrUtil;
+
+/**
+ * MappedFileResource、ConcatResource及ResourceCache单元测试
+ *
+ * @author mawujun
+ */
+public class ResourceCacheTest {
+
+	private File dir;
+
+	@Before
+	public void setUp() throws IOException {
+		dir = Files.createTempDirectory("resource-cache").toFile();
+	}
+
+	@After
+	public void tearDown() {
+		FileUtil.del(dir);
+	}
+
+	@Test
+	public void mappedTest() {
+		final File file = write("a.txt", "hello mapped");
+		final MappedFileResource resource = new MappedFileResource(file);
+		Assert.assertEquals("a.txt", resource.getName());
+		Assert.assertEquals(12, resource.size());
+		Assert.assertEquals("hello mapped", resource.readUtf8Str());
+		Assert.assertTrue(resource.getBuffer().isReadOnly());
+
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		Assert.assertEquals(12, resource.writeTo(Channels.newChannel(out)));
+		Assert.assertEquals("hello mapped", StrUtil.utf8Str(out.toByteArray()));
+	}
+
+	@Test
+	public void concatTest() {
+		final ConcatResource resource = new ConcatResource("all.txt", //
+				new MappedFileResource(write("a.txt", "aaa")), //
+				new FileResource(write("b.txt", "bbb")), //
+				new BytesResource(StrUtil.utf8Bytes("ccc")), //
+				new BufferResource(ByteBuffer.wrap(StrUtil.utf8Bytes("ddd"))));
+		Assert.assertEquals("aaabbbcccddd", resource.readUtf8Str());
+
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		Assert.assertEquals(12, resource.writeTo(Channels.newChannel(out)));
+		Assert.assertEquals("aaabbbcccddd", StrUtil.utf8Str(out.toByteArray()));
+	}
+
+	@Test
+	public void cacheTest() {
+		final ResourceCache cache = new ResourceCache(100).setMaxEntrySize(50);
+		final File a = write("a.txt", StrUtil.repeat('a', 40));
+		final File b = write("b.txt", StrUtil.repeat('b', 40));
+		final File c = write("c.txt", StrUtil.repeat('c', 40));
+
+		final BufferResource resource = (BufferResource) cache.get(a);
+		Assert.assertTrue(resource.getBuffer().isDirect());
+		Assert.assertSame(resource, cache.get(a));
+		Assert.assertEquals(1, cache.getHits());
+
+		cache.get(b);
+		cache.get(a);
+		// 超出100字节，淘汰最久未访问的b
+		cache.get(c);
+		Assert.assertEquals(2, cache.size());
+		Assert.assertEquals(80, cache.getUsedBytes());
+		Assert.assertEquals(1, cache.getEvictions());
+		Assert.assertSame(resource, cache.get(a));
+
+		// 超过单个文件上限，不缓存也不映射，通过transferTo写出
+		final File large = write("large.txt", StrUtil.repeat('l', 60));
+		final Resource largeResource = cache.get(large);
+		Assert.assertTrue(largeResource instanceof FileResource);
+		Assert.assertEquals(2, cache.size());
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		Assert.assertEquals(60, largeResource.writeTo(Channels.newChannel(out)));
+		Assert.assertEquals(StrUtil.repeat('l', 60), StrUtil.utf8Str(out.toByteArray()));
+	}
+
+	@Test
+	public void invalidateByModifiedTest() {
+		final ResourceCache cache = new ResourceCache(1024);
+		final File file = write("a.txt", "old");
+		Assert.assertEquals("old", cache.get(file).readUtf8Str());
+
+		FileUtil.writeUtf8String("new content", file);
+		file.setLastModified(file.lastModified() + 2000);
+		Assert.assertEquals("new content", cache.get(file).readUtf8Str());
+		Assert.assertEquals(11, cache.getUsedBytes());
+	}
+
+	private File write(String name, String content) {
+		return FileUtil.writeUtf8String(content, new File(dir, name));
+	}
+}
@@ -0,0 +1,480 @@
+package test.mawujun.io.serialize;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.junit.Assert;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import com.mawujun.date.DateUtil;
+import com.mawujun.date.TimeInterval;
+import com.mawujun.exception.exceptions.UtilException;
+import com.mawujun.io.IORuntimeException;
+import com.mawujun.io.IoUtil;
+import com.mawujun.io.serialize.BinaryInput;
+import com.mawujun.io.serialize.BinaryOutput;
+import com.mawujun.io.serialize.BinarySerializer;
+import com.mawujun.lang.Console;
+import com.mawujun.util.ObjectUtil;
+
+/**
+ * {@link BinarySerializer}单元测试
+ *
+ * @author mawujun
+ */
+public class BinarySerializerTest {
+
+	@Test
+	public void beanTest() {
+		final Order order = Order.create(3);
+		final Order copy = BinarySerializer.deserialize(BinarySerializer.serialize(order));
+
+		Assert.assertNotSame(order, copy);
+		Assert.assertEquals(order.getId(), copy.getId());
+		Assert.assertEquals(order.getRate(), copy.getRate(), 0);
+		Assert.assertEquals("订单-order", copy.getName());
+		Assert.assertEquals(order.getAmount(), copy.getAmount());
+		Assert.assertEquals(order.getDate(), copy.getDate());
+		Assert.assertEquals(Status.PAID, copy.getStatus());
+		Assert.assertArrayEquals(order.getCodes(), copy.getCodes());
+		Assert.assertEquals(3, copy.getItems().size());
+		Assert.assertEquals("sku2", copy.getItems().get(2).getSku());
+		Assert.assertEquals(-2, copy.getItems().get(2).getCount());
+		Assert.assertEquals(order.getTags(), copy.getTags());
+		Assert.assertEquals("none", copy.getAttrs().get("remark"));
+		Assert.assertArrayEquals((double[]) order.getAttrs().get("weights"), (double[]) copy.getAttrs().get("weights"), 0);
+		Assert.assertEquals(Long.MIN_VALUE, copy.getAttrs().get("min"));
+	}
+
+	@Test
+	public void referenceTest() {
+		final Order order = Order.create(2);
+		final Order copy = ObjectUtil.unserializeBinary(ObjectUtil.serializeBinary(order));
+		// 循环引用和共享引用保持
+		Assert.assertSame(copy, copy.getItems().get(0).getOrder());
+		Assert.assertSame(copy.getItems().get(1), copy.getLastItem());
+	}
+
+	@Test
+	public void jdkTypeTest() {
+		final List<String> list = Collections.unmodifiableList(new ArrayList<>(Arrays.asList("a", "b")));
+		Assert.assertEquals(list, BinarySerializer.deserialize(BinarySerializer.serialize(list)));
+
+		final Map<String, Object> map = new LinkedHashMap<>();
+		map.put("null", null);
+		map.put("char", 'c');
+		map.put("float", 1.5F);
+		map.put("bool", true);
+		map.put("array", new String[] { "x", null });
+		final Map<String, Object> mapCopy = BinarySerializer.deserialize(BinarySerializer.serialize(map));
+		Assert.assertEquals(new ArrayList<>(map.keySet()), new ArrayList<>(mapCopy.keySet()));
+		Assert.assertEquals('c', mapCopy.get("char"));
+		Assert.assertEquals(1.5F, mapCopy.get("float"));
+		Assert.assertArrayEquals((String[]) map.get("array"), (String[]) mapCopy.get("array"));
+	}
+
+	@Test
+	public void dateTimeTest() {
+		final Date dateTime = DateUtil.date(1000000L);
+		final Date copy = ObjectUtil.unserializeBinary(ObjectUtil.serializeBinary(dateTime));
+		Assert.assertEquals(dateTime.getClass(), copy.getClass());
+		Assert.assertEquals(1000000L, copy.getTime());
+
+		final Timestamp timestamp = new Timestamp(1000000L);
+		timestamp.setNanos(123456789);
+		Assert.assertEquals(timestamp, BinarySerializer.deserialize(BinarySerializer.serialize(timestamp)));
+	}
+
+	@Test
+	public void incompleteBeanTest() {
+		// secret没有Getter和Setter，按Bean写出会丢失，使用Java序列化
+		final Secret secret = new Secret("s");
+		secret.setName("n");
+		final Secret copy = BinarySerializer.deserialize(BinarySerializer.serialize(secret));
+		Assert.assertEquals("n", copy.getName());
+		Assert.assertEquals("s", copy.secret);
+	}
+
+	@Test
+	public void enumContainerTest() {
+		final EnumHolder holder = new EnumHolder();
+		holder.setStatuses(EnumSet.of(Status.PAID));
+		holder.setCounts(new EnumMap<>(Status.class));
+		holder.getCounts().put(Status.NEW, 1);
+		holder.getCounts().put(Status.PAID, 2);
+		holder.setEmpty(EnumSet.noneOf(Status.class));
+		final EnumHolder copy = ObjectUtil.unserializeBinary(ObjectUtil.serializeBinary(holder));
+		Assert.assertEquals(holder.getStatuses(), copy.getStatuses());
+		Assert.assertEquals(holder.getCounts(), copy.getCounts());
+		Assert.assertEquals(EnumMap.class, copy.getCounts().getClass());
+		Assert.assertTrue(copy.getEmpty().isEmpty());
+		Assert.assertEquals(EnumSet.allOf(Status.class), EnumSet.complementOf(copy.getEmpty()));
+	}
+
+	@Test
+	public void comparatorTest() {
+		final TreeMap<String, Integer> map = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+		map.put("ABC", 1);
+		final TreeMap<String, Integer> mapCopy = ObjectUtil.unserializeBinary(ObjectUtil.serializeBinary(map));
+		Assert.assertSame(String.CASE_INSENSITIVE_ORDER, mapCopy.comparator());
+		Assert.assertEquals(Integer.valueOf(1), mapCopy.get("abc"));
+
+		// Item未实现Comparable
+		final TreeSet<Item> items = new TreeSet<>(new SkuComparator());
+		items.add(new Item("b", 1));
+		items.add(new Item("a", 2));
+		final TreeSet<Item> itemsCopy = BinarySerializer.deserialize(BinarySerializer.serialize(items));
+		Assert.assertEquals("a", itemsCopy.first().getSku());
+		Assert.assertTrue(itemsCopy.comparator() instanceof SkuComparator);
+
+		final PriorityQueue<Integer> queue = new PriorityQueue<>(Comparator.reverseOrder());
+		queue.addAll(Arrays.asList(1, 3, 2));
+		final PriorityQueue<Integer> queueCopy = BinarySerializer.deserialize(BinarySerializer.serialize(queue));
+		Assert.assertEquals(Integer.valueOf(3), queueCopy.poll());
+		Assert.assertEquals(Integer.valueOf(2), queueCopy.poll());
+
+		// 没有比较器构造，使用Java序列化
+		final SortedSet<String> unmodifiable = Collections.unmodifiableSortedSet(new TreeSet<>(String.CASE_INSENSITIVE_ORDER));
+		final SortedSet<String> unmodifiableCopy = BinarySerializer.deserialize(BinarySerializer.serialize(unmodifiable));
+		Assert.assertSame(String.CASE_INSENSITIVE_ORDER, unmodifiableCopy.comparator());
+	}
+
+	@Test
+	public void corruptLengthTest() {
+		final byte[] bytes = BinarySerializer.serialize(new int[] { 1, 2, 3 });
+		// 标记之后的长度改为0x0FFFFFFF
+		final byte[] corrupt = Arrays.copyOf(bytes, 3 + 4);
+		corrupt[3] = (byte) 0xFF;
+		corrupt[4] = (byte) 0xFF;
+		corrupt[5] = (byte) 0xFF;
+		corrupt[6] = (byte) 0x7F;
+		try {
+			BinarySerializer.deserialize(corrupt);
+			Assert.fail();
+		} catch (UtilException e) {
+			// 剩余数据不足
+		}
+		try {
+			new BinaryInput(new ByteArrayInputStream(corrupt)).readObject();
+			Assert.fail();
+		} catch (IORuntimeException e) {
+			// 流提前结束，不预先分配数组
+		}
+	}
+
+	@Test
+	public void stringDedupTest() {
+		final List<Item> items = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			// 内容相同的不同字符串对象
+			items.add(new Item("sku-" + (i % 2), i));
+		}
+		final byte[] bytes = BinarySerializer.serialize(items);
+		// 重复的字符串、类名和属性名只写一次，每个Item只占标记、编号和属性值
+		Assert.assertTrue(bytes.length < 100 * 10);
+		Assert.assertTrue(bytes.length < ObjectUtil.serialize(items).length / 2);
+	}
+
+	@Test
+	public void streamTest() {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		IoUtil.writeBinaryObjects(out, true, "a", null, Order.create(1), 10);
+		final List<Object> objects = IoUtil.readBinaryObjects(new ByteArrayInputStream(out.toByteArray()));
+		Assert.assertEquals(4, objects.size());
+		Assert.assertEquals("a", objects.get(0));
+		Assert.assertNull(objects.get(1));
+		Assert.assertEquals("sku0", ((Order) objects.get(2)).getItems().get(0).getSku());
+		Assert.assertEquals(10, objects.get(3));
+	}
+
+	@Test
+	public void byteBufferTest() {
+		final ByteBuffer buffer = ByteBuffer.allocate(4096);
+		final BinaryOutput output = new BinaryOutput(buffer);
+		output.writeObject(Order.create(2)).writeObject("end");
+		final int written = buffer.position();
+		buffer.flip();
+
+		final BinaryInput input = new BinaryInput(buffer);
+		final Order order = input.readObject();
+		Assert.assertEquals(2, order.getItems().size());
+		Assert.assertEquals("end", input.readObject());
+		Assert.assertFalse(input.hasMore());
+		Assert.assertEquals(written, buffer.position());
+	}
+
+	@Test(expected = UtilException.class)
+	public void unsupportedTest() {
+		BinarySerializer.serialize(new Object());
+	}
+
+	@Test
+	@Ignore
+	public void benchTest() {
+		final Order order = Order.create(20);
+		Console.log("size, java: {} bytes, binary: {} bytes", ObjectUtil.serialize(order).length, BinarySerializer.serialize(order).length);
+		final int count = 20000;
+		for (int round = 0; round < 3; round++) {
+			final TimeInterval timer = DateUtil.timer();
+			for (int i = 0; i < count; i++) {
+				ObjectUtil.unserialize(ObjectUtil.serialize(order));
+			}
+			final long java = timer.intervalRestart();
+			for (int i = 0; i < count; i++) {
+				BinarySerializer.deserialize(BinarySerializer.serialize(order));
+			}
+			Console.log("round trip, java: {} ms, binary: {} ms", java, timer.interval());
+		}
+	}
+
+	public enum Status {
+		NEW, PAID
+	}
+
+	public static class Order implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		private long id;
+		private double rate;
+		private String name;
+		private BigDecimal amount;
+		private Date date;
+		private Status status;
+		private int[] codes;
+		private List<Item> items;
+		private Item lastItem;
+		private Map<String, Object> attrs;
+		private TreeSet<String> tags;
+
+		static Order create(int itemCount) {
+			final Order order = new Order();
+			order.id = 100;
+			order.rate = 0.5;
+			order.name = "订单-order";
+			order.amount = new BigDecimal("12.50");
+			order.date = new Date();
+			order.status = Status.PAID;
+			order.codes = new int[] { 0, -1, Integer.MAX_VALUE };
+			order.items = new ArrayList<>();
+			for (int i = 0; i < itemCount; i++) {
+				final Item item = new Item("sku" + i, -i);
+				item.setOrder(order);
+				order.items.add(item);
+			}
+			order.lastItem = order.items.get(itemCount - 1);
+			order.attrs = new HashMap<>();
+			order.attrs.put("remark", "none");
+			order.attrs.put("weights", new double[] { 1.5, 2.5 });
+			order.attrs.put("min", Long.MIN_VALUE);
+			order.tags = new TreeSet<>(Arrays.asList("b", "a"));
+			return order;
+		}
+
+		public long getId() {
+			return id;
+		}
+
+		public void setId(long id) {
+			this.id = id;
+		}
+
+		public double getRate() {
+			return rate;
+		}
+
+		public void setRate(double rate) {
+			this.rate = rate;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public BigDecimal getAmount() {
+			return amount;
+		}
+
+		public void setAmount(BigDecimal amount) {
+			this.amount = amount;
+		}
+
+		public Date getDate() {
+			return date;
+		}
+
+		public void setDate(Date date) {
+			this.date = date;
+		}
+
+		public Status getStatus() {
+			return status;
+		}
+
+		public void setStatus(Status status) {
+			this.status = status;
+		}
+
+		public int[] getCodes() {
+			return codes;
+		}
+
+		public void setCodes(int[] codes) {
+			this.codes = codes;
+		}
+
+		public List<Item> getItems() {
+			return items;
+		}
+
+		public void setItems(List<Item> items) {
+			this.items = items;
+		}
+
+		public Item getLastItem() {
+			return lastItem;
+		}
+
+		public void setLastItem(Item lastItem) {
+			this.lastItem = lastItem;
+		}
+
+		public Map<String, Object> getAttrs() {
+			return attrs;
+		}
+
+		public void setAttrs(Map<String, Object> attrs) {
+			this.attrs = attrs;
+		}
+
+		public TreeSet<String> getTags() {
+			return tags;
+		}
+
+		public void setTags(TreeSet<String> tags) {
+			this.tags = tags;
+		}
+	}
+
+	public static class EnumHolder {
+		private EnumSet<Status> statuses;
+		private EnumMap<Status, Integer> counts;
+		private EnumSet<Status> empty;
+
+		public EnumSet<Status> getStatuses() {
+			return statuses;
+		}
+
+		public void setStatuses(EnumSet<Status> statuses) {
+			this.statuses = statuses;
+		}
+
+		public EnumMap<Status, Integer> getCounts() {
+			return counts;
+		}
+
+		public void setCounts(EnumMap<Status, Integer> counts) {
+			this.counts = counts;
+		}
+
+		public EnumSet<Status> getEmpty() {
+			return empty;
+		}
+
+		public void setEmpty(EnumSet<Status> empty) {
+			this.empty = empty;
+		}
+	}
+
+	public static class SkuComparator implements Comparator<Item>, Serializable {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public int compare(Item o1, Item o2) {
+			return o1.getSku().compareTo(o2.getSku());
+		}
+	}
+
+	public static class Secret implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		private final String secret;
+		private String name;
+
+		Secret(String secret) {
+			this.secret = secret;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+	}
+
+	public static class Item implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		private String sku;
+		private int count;
+		private Order order;
+
+		public Item() {
+		}
+
+		Item(String sku, int count) {
+			this.sku = sku;
+			this.count = count;
+		}
+
+		public String getSku() {
+			return sku;
+		}
+
+		public void setSku(String sku) {
+			this.sku = sku;
+		}
+
+		public int getCount() {
+			return count;
+		}
+
+		public void setCount(int count) {
+			this.count = count;
+		}
+
+		public Order getOrder() {
+			return order;
+		}
+
+		public Item setOrder(Order order) {
+			this.order = order;
+			return this;
+		}
+	}
+}
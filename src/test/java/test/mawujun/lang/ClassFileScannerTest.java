@@ -0,0 +1,93 @@
+package test.mawujun.lang;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.mawujun.collection.CollUtil;
+import com.mawujun.io.FileUtil;
+import com.mawujun.lang.ClassFileInfo;
+import com.mawujun.lang.ClassFileScanner;
+import com.mawujun.lang.ClassIndex;
+import com.mawujun.util.CharsetUtil;
+
+import test.mawujun.lang.scan.ScanFixtures;
+import test.mawujun.lang.scan.ScanFixtures.ExternalList;
+import test.mawujun.lang.scan.ScanFixtures.ScanMarker;
+import test.mawujun.lang.scan.ScanFixtures.ScanService;
+import test.mawujun.lang.scan.ScanFixtures.ServiceA;
+import test.mawujun.lang.scan.ScanFixtures.ServiceB;
+
+/**
+ * ClassFileScanner单元测试
+ *
+ * @author mawujun
+ */
+public class ClassFileScannerTest {
+
+	private static final String PACKAGE = "test.mawujun.lang.scan";
+
+	@Test
+	public void parseTest() {
+		final ClassFileInfo info = ClassFileInfo.parse(FileUtil.readBytes(FileUtil.file(ServiceA.class.getResource("ScanFixtures$ServiceA.class"))));
+		Assert.assertEquals(ServiceA.class.getName(), info.getClassName());
+		Assert.assertNull(info.getSuperClassName());
+		Assert.assertEquals(CollUtil.newArrayList(ScanService.class.getName()), info.getInterfaceNames());
+		Assert.assertEquals(CollUtil.newArrayList(ScanMarker.class.getName()), info.getAnnotationNames());
+		Assert.assertTrue(info.isConcrete());
+
+		final ClassFileInfo marker = ClassFileInfo.parse(FileUtil.readBytes(FileUtil.file(ServiceA.class.getResource("ScanFixtures$ScanMarker.class"))));
+		Assert.assertTrue(marker.isAnnotation());
+		Assert.assertTrue(marker.isInterface());
+	}
+
+	@Test
+	public void scanTest() {
+		Assert.assertEquals(CollUtil.newHashSet(ServiceA.class, ServiceB.class), ClassFileScanner.scanPackageBySuper(PACKAGE, ScanService.class));
+		// ScanMarker标注了@Inherited，子类也匹配
+		Assert.assertEquals(CollUtil.newHashSet(ServiceA.class, ServiceB.class), ClassFileScanner.scanPackageByAnnotation(PACKAGE, ScanMarker.class));
+		// 父类不在扫描范围内
+		Assert.assertEquals(CollUtil.newHashSet(ExternalList.class), ClassFileScanner.scanPackageBySuper(PACKAGE, AbstractList.class));
+
+		final ClassIndex index = new ClassFileScanner(PACKAGE).scan();
+		Assert.assertEquals(6, index.size());
+		Assert.assertNotNull(index.get(ScanFixtures.class.getName()));
+	}
+
+	@Test
+	public void indexFileTest() throws IOException {
+		final File file = Files.createTempFile("class-index", ".txt").toFile();
+		try {
+			FileUtil.del(file);
+			final ClassIndex index = new ClassFileScanner(PACKAGE).setIndexFile(file).scan();
+			Assert.assertTrue(file.isFile());
+			Assert.assertNotNull(index.getFingerprint());
+
+			final ClassIndex read = ClassIndex.read(file);
+			Assert.assertEquals(index.getFingerprint(), read.getFingerprint());
+			Assert.assertEquals(index.size(), read.size());
+			Assert.assertEquals(index.get(ServiceA.class.getName()).getAnnotationNames(), read.get(ServiceA.class.getName()).getAnnotationNames());
+
+			// 损坏的索引被重新生成
+			final List<String> lines = FileUtil.readLines(file, CharsetUtil.CHARSET_UTF_8);
+			final String line = lines.get(2);
+			FileUtil.writeLines(CollUtil.newArrayList(lines.get(0), lines.get(1), line.substring(0, line.lastIndexOf('|') + 1) + "x"), file, CharsetUtil.CHARSET_UTF_8);
+			Assert.assertEquals(index.size(), new ClassFileScanner(PACKAGE).setIndexFile(file).scan().size());
+
+			// 指纹一致时直接使用索引：只保留头部后再次扫描，得到空索引
+			FileUtil.writeLines(lines.subList(0, 2), file, CharsetUtil.CHARSET_UTF_8);
+			Assert.assertEquals(0, new ClassFileScanner(PACKAGE).setIndexFile(file).scan().size());
+
+			final Set<Class<?>> classes = read.loadSubTypesOf(ServiceA.class);
+			Assert.assertEquals(CollUtil.newHashSet(ServiceB.class), classes);
+		} finally {
+			FileUtil.del(file);
+		}
+	}
+}
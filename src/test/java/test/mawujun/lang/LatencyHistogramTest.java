@@ -0,0 +1,63 @@
+package test.mawujun.lang;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.mawujun.lang.LatencyHistogram;
+
+/**
+ * {@link LatencyHistogram} 单元测试
+ */
+public class LatencyHistogramTest {
+
+	@Test
+	public void percentileTest() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 1; i <= 10000; i++) {
+			histogram.record(i);
+		}
+		Assert.assertEquals(10000, histogram.getCount());
+		Assert.assertEquals(1, histogram.getMin());
+		Assert.assertEquals(10000, histogram.getMax());
+		Assert.assertEquals(5000.5, histogram.getMean(), 0.001);
+		// 相对误差不超过1/32
+		assertClose(5000, histogram.getPercentile(50));
+		assertClose(9900, histogram.getPercentile(99));
+		Assert.assertEquals(10000, histogram.getPercentile(100));
+		Assert.assertEquals(1, histogram.getPercentile(0));
+	}
+
+	@Test
+	public void mergeTest() {
+		LatencyHistogram a = new LatencyHistogram();
+		LatencyHistogram b = new LatencyHistogram();
+		a.record(10);
+		b.record(Long.MAX_VALUE);
+		a.merge(b);
+		Assert.assertEquals(2, a.getCount());
+		Assert.assertEquals(Long.MAX_VALUE, a.getMax());
+		Assert.assertEquals(Long.MAX_VALUE, a.getPercentile(100));
+
+		a.reset();
+		Assert.assertEquals(0, a.getCount());
+		Assert.assertEquals(0, a.getPercentile(99));
+	}
+
+	@Test
+	public void expectedIntervalTest() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(50, 10);
+		// 补记40、30、20、10
+		Assert.assertEquals(5, histogram.getCount());
+		Assert.assertEquals(10, histogram.getMin());
+		Assert.assertEquals(30, histogram.getPercentile(50));
+
+		histogram.reset();
+		histogram.record(50, 0);
+		Assert.assertEquals(1, histogram.getCount());
+	}
+
+	private static void assertClose(long expected, long actual) {
+		Assert.assertTrue(expected + " vs " + actual, Math.abs(expected - actual) <= expected / 32);
+	}
+}
@@ -0,0 +1,37 @@
+package test.mawujun.lang.scan;
+
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.AbstractList;
+
+/**
+ * ClassFileScanner测试使用的类
+ *
+ * @author mawujun
+ */
+public class ScanFixtures {
+
+	@Inherited
+	@Retention(RetentionPolicy.RUNTIME)
+	public @interface ScanMarker {
+		String value() default "";
+
+		int[] order() default { 1, 2 };
+	}
+
+	public interface ScanService {
+	}
+
+	@ScanMarker(value = "a", order = { 3 })
+	public static class ServiceA implements ScanService {
+		public static final long ID = 1L;
+		public static final double RATE = 0.5;
+	}
+
+	public static class ServiceB extends ServiceA {
+	}
+
+	public abstract static class ExternalList extends AbstractList<String> {
+	}
+}
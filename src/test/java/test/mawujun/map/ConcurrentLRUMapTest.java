@@ -0,0 +1,147 @@
+package test.mawujun.map;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import com.mawujun.date.DateUtil;
+import com.mawujun.date.TimeInterval;
+import com.mawujun.lang.Console;
+import com.mawujun.map.ConcurrentLRUMap;
+import com.mawujun.map.FixedLinkedHashMap;
+
+/**
+ * {@link ConcurrentLRUMap}单元测试
+ *
+ * @author mawujun
+ */
+public class ConcurrentLRUMapTest {
+
+	@Test
+	public void evictTest() {
+		final List<String> evicted = Collections.synchronizedList(new ArrayList<>());
+		final ConcurrentLRUMap<String, Integer> map = new ConcurrentLRUMap<String, Integer>(3)
+				.setEvictionListener((key, value) -> evicted.add(key + "=" + value));
+		map.put("a", 1);
+		map.put("b", 2);
+		map.put("c", 3);
+		// a被访问，淘汰时获得二次机会
+		Assert.assertEquals(Integer.valueOf(1), map.get("a"));
+		map.put("d", 4);
+
+		Assert.assertEquals(3, map.size());
+		Assert.assertEquals(3, map.getWeight());
+		Assert.assertFalse(map.containsKey("b"));
+		Assert.assertTrue(map.containsKey("a"));
+		Assert.assertEquals(Collections.singletonList("b=2"), evicted);
+		Assert.assertEquals(1, map.getEvictions());
+
+		// 替换和删除不计入淘汰
+		Assert.assertEquals(Integer.valueOf(3), map.put("c", 30));
+		Assert.assertEquals(Integer.valueOf(4), map.remove("d"));
+		Assert.assertEquals(2, map.size());
+		Assert.assertEquals(2, map.getWeight());
+		Assert.assertEquals(1, map.getEvictions());
+	}
+
+	@Test
+	public void weightTest() {
+		final ConcurrentLRUMap<String, String> map = new ConcurrentLRUMap<>(10, (key, value) -> value.length());
+		map.put("a", "12345");
+		map.put("b", "1234");
+		Assert.assertEquals(9, map.getWeight());
+		map.put("c", "123");
+		Assert.assertFalse(map.containsKey("a"));
+		Assert.assertEquals(7, map.getWeight());
+		Assert.assertEquals(2, map.size());
+	}
+
+	@Test
+	public void concurrentMapTest() {
+		final ConcurrentLRUMap<String, Integer> map = new ConcurrentLRUMap<>(10);
+		Assert.assertNull(map.putIfAbsent("a", 1));
+		Assert.assertEquals(Integer.valueOf(1), map.putIfAbsent("a", 2));
+		Assert.assertFalse(map.replace("a", 2, 3));
+		Assert.assertTrue(map.replace("a", 1, 3));
+		Assert.assertNull(map.replace("b", 1));
+		Assert.assertFalse(map.remove("a", 1));
+		Assert.assertTrue(map.remove("a", 3));
+		Assert.assertTrue(map.isEmpty());
+		Assert.assertEquals(0, map.getWeight());
+
+		map.put("x", 1);
+		map.put("y", 2);
+		map.entrySet().removeIf(entry -> entry.getValue() == 1);
+		Assert.assertEquals("{y=2}", map.toString());
+		Assert.assertEquals(Integer.valueOf(5), map.computeIfAbsent("z", key -> 5));
+		Assert.assertEquals(2, map.size());
+	}
+
+	@Test
+	public void concurrentPutTest() throws InterruptedException {
+		final int capacity = 1000;
+		final ConcurrentLRUMap<Integer, Integer> map = new ConcurrentLRUMap<>(capacity);
+		final int threads = 8;
+		final int perThread = 20000;
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		final CountDownLatch latch = new CountDownLatch(threads);
+		for (int t = 0; t < threads; t++) {
+			final int offset = t * perThread;
+			executor.execute(() -> {
+				for (int i = 0; i < perThread; i++) {
+					map.put(offset + i, i);
+					map.get(offset + i / 2);
+				}
+				latch.countDown();
+			});
+		}
+		Assert.assertTrue(latch.await(30, TimeUnit.SECONDS));
+		executor.shutdown();
+
+		Assert.assertTrue(map.size() <= capacity);
+		Assert.assertEquals(map.size(), map.getWeight());
+		Assert.assertEquals(threads * perThread - map.size(), map.getEvictions());
+	}
+
+	@Test
+	@Ignore
+	public void benchTest() throws InterruptedException {
+		final int threads = 8;
+		final int perThread = 2_000_000;
+		final ConcurrentLRUMap<Integer, Integer> lru = new ConcurrentLRUMap<>(1024);
+		final java.util.Map<Integer, Integer> fixed = Collections.synchronizedMap(new FixedLinkedHashMap<>(1024));
+		for (int i = 0; i < 1024; i++) {
+			lru.put(i, i);
+			fixed.put(i, i);
+		}
+		for (java.util.Map<Integer, Integer> map : new java.util.Map[] { fixed, lru }) {
+			final ExecutorService executor = Executors.newFixedThreadPool(threads);
+			final CountDownLatch latch = new CountDownLatch(threads);
+			final TimeInterval timer = DateUtil.timer();
+			for (int t = 0; t < threads; t++) {
+				executor.execute(() -> {
+					for (int i = 0; i < perThread; i++) {
+						// 约90%命中
+						final int key = ThreadLocalRandom.current().nextInt(1138);
+						if (null == map.get(key)) {
+							map.put(key, key);
+						}
+					}
+					latch.countDown();
+				});
+			}
+			latch.await();
+			executor.shutdown();
+			Console.log("{}: {} ms", map.getClass().getSimpleName(), timer.interval());
+		}
+	}
+}
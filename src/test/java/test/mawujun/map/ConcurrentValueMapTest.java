@@ -0,0 +1,86 @@
+package test.mawujun.map;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.mawujun.map.multi.ConcurrentListValueMap;
+import com.mawujun.map.multi.ConcurrentLongValueMap;
+import com.mawujun.map.multi.ConcurrentSetValueMap;
+
+/**
+ * 线程安全的多值Map单元测试
+ *
+ * @author mawujun
+ */
+public class ConcurrentValueMapTest {
+
+	@Test
+	public void concurrentPutTest() throws InterruptedException {
+		final ConcurrentListValueMap<Integer, Integer> list = new ConcurrentListValueMap<>();
+		final ConcurrentLongValueMap<Integer> longs = new ConcurrentLongValueMap<>();
+		final int threads = 8;
+		final int perThread = 10000;
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		final CountDownLatch start = new CountDownLatch(1);
+		for (int t = 0; t < threads; t++) {
+			final int base = t * perThread;
+			executor.execute(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException e) {
+					return;
+				}
+				for (int i = 0; i < perThread; i++) {
+					list.putValue(i % 10, base + i);
+					longs.putValue(i % 10, base + i);
+				}
+			});
+		}
+		start.countDown();
+		executor.shutdown();
+		Assert.assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+		Assert.assertEquals(10, list.size());
+		Assert.assertEquals(threads * perThread / 10, list.get(3).size());
+		Assert.assertEquals(threads * perThread / 10, longs.valueCount(3));
+		Assert.assertEquals(threads * perThread, list.values().stream().mapToInt(c -> c.size()).sum());
+	}
+
+	@Test
+	public void groupingByTest() {
+		final ConcurrentSetValueMap<Integer, Integer> set = IntStream.range(0, 100000).boxed().parallel()//
+				.collect(ConcurrentSetValueMap.groupingBy(i -> i % 7, i -> i % 100));
+		Assert.assertEquals(7, set.size());
+		Assert.assertTrue(set.get(0).contains(98));
+		Assert.assertEquals(100, set.get(1).size());
+
+		final ConcurrentLongValueMap<Boolean> longs = IntStream.range(0, 1000).boxed().parallel()//
+				.collect(ConcurrentLongValueMap.groupingBy(i -> i % 2 == 0, i -> i * 10L));
+		final long[] even = longs.get(true);
+		Arrays.sort(even);
+		Assert.assertEquals(500, even.length);
+		Assert.assertEquals(9980L, even[499]);
+	}
+
+	@Test
+	public void removeValueTest() {
+		final ConcurrentListValueMap<String, String> map = new ConcurrentListValueMap<>();
+		map.putAll("a", Arrays.asList("1", "2", "1"));
+		Assert.assertTrue(map.removeValue("a", "1"));
+		Assert.assertEquals("[2, 1]", map.get("a").toString());
+		Assert.assertFalse(map.removeValue("b", "1"));
+
+		final ConcurrentLongValueMap<String> longs = new ConcurrentLongValueMap<>();
+		longs.putAll("a", 1, 2, 3);
+		Assert.assertTrue(longs.removeValue("a", 2));
+		Assert.assertArrayEquals(new long[] { 1, 3 }, longs.get("a"));
+		Assert.assertNull(longs.get("b"));
+	}
+}
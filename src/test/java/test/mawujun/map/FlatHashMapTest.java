@@ -0,0 +1,175 @@
+package test.mawujun.map;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import com.mawujun.date.DateUtil;
+import com.mawujun.date.TimeInterval;
+import com.mawujun.lang.Console;
+import com.mawujun.map.FlatHashMap;
+import com.mawujun.map.RowMap;
+import com.mawujun.map.RowSchema;
+import com.mawujun.map.TableMap;
+
+/**
+ * FlatHashMap及RowMap单元测试
+ *
+ * @author mawujun
+ */
+public class FlatHashMapTest {
+
+	@Test
+	public void sameAsHashMapTest() {
+		final Random random = new Random(7);
+		final Map<Integer, Integer> expected = new HashMap<>();
+		final FlatHashMap<Integer, Integer> map = new FlatHashMap<>(2);
+		for (int i = 0; i < 20000; i++) {
+			final Integer key = random.nextInt(500);
+			switch (random.nextInt(3)) {
+			case 0:
+				Assert.assertEquals(expected.remove(key), map.remove(key));
+				break;
+			default:
+				Assert.assertEquals(expected.put(key, i), map.put(key, i));
+			}
+			Assert.assertEquals(expected.size(), map.size());
+		}
+		Assert.assertEquals(expected, map);
+		Assert.assertEquals(expected.hashCode(), map.hashCode());
+	}
+
+	@Test
+	public void nullAndIteratorTest() {
+		final FlatHashMap<String, String> map = new FlatHashMap<>();
+		map.put(null, "a");
+		map.put("b", null);
+		map.put("c", "c");
+		Assert.assertEquals("a", map.get(null));
+		Assert.assertTrue(map.containsKey("b"));
+		Assert.assertTrue(map.containsValue(null));
+
+		for (Iterator<Map.Entry<String, String>> it = map.entrySet().iterator(); it.hasNext();) {
+			final Map.Entry<String, String> entry = it.next();
+			if (null == entry.getKey()) {
+				it.remove();
+			} else {
+				entry.setValue("x");
+			}
+		}
+		Assert.assertEquals(2, map.size());
+		Assert.assertFalse(map.containsKey(null));
+		Assert.assertEquals("x", map.get("b"));
+	}
+
+	@Test
+	public void rowMapTest() throws IOException, ClassNotFoundException {
+		final RowSchema<String> schema = RowSchema.of("id", "name", "age");
+		final RowMap<String, Object> row = schema.newRow(new Object[] { 1, "张三", null });
+		Assert.assertEquals(3, row.size());
+		Assert.assertEquals("张三", row.get("name"));
+		Assert.assertTrue(row.containsKey("age"));
+		Assert.assertNull(row.get("other"));
+
+		row.remove("id");
+		row.put("other", "o");
+		Assert.assertEquals(3, row.size());
+		Assert.assertEquals(new ArrayList<>(row.keySet()).toString(), "[name, age, other]");
+
+		final Map<String, Object> expected = new HashMap<>(row);
+		Assert.assertEquals(expected, row);
+		Assert.assertEquals(expected, serialize(row));
+
+		final RowMap<String, Object> empty = schema.newRow();
+		Assert.assertTrue(empty.isEmpty());
+		empty.put("age", 18);
+		Assert.assertEquals("{age=18}", empty.toString());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void duplicateKeyTest() {
+		RowSchema.of("a", "b", "a");
+	}
+
+	/**
+	 * 10万个30列的行，比较内存占用及查找耗时
+	 */
+	@Test
+	@Ignore
+	public void benchTest() {
+		final int rows = 100000;
+		final int columns = 30;
+		final List<String> keys = new ArrayList<>();
+		for (int i = 0; i < columns; i++) {
+			keys.add("column_" + i);
+		}
+		final RowSchema<String> schema = new RowSchema<>(keys);
+
+		for (int type = 0; type < 4; type++) {
+			System.gc();
+			final long before = usedMemory();
+			final List<Map<String, Object>> list = new ArrayList<>(rows);
+			for (int r = 0; r < rows; r++) {
+				final Map<String, Object> map = newMap(type, schema, columns);
+				for (int c = 0; c < columns; c++) {
+					map.put(keys.get(c), c);
+				}
+				list.add(map);
+			}
+			System.gc();
+			final long memory = usedMemory() - before;
+
+			final TimeInterval timer = DateUtil.timer();
+			long sum = 0;
+			for (int n = 0; n < 5; n++) {
+				for (Map<String, Object> map : list) {
+					for (int c = 0; c < columns; c++) {
+						sum += (Integer) map.get(keys.get(c));
+					}
+				}
+			}
+			Console.log("{}: {} bytes/row, lookup {} ms ({})", list.get(0).getClass().getSimpleName(), memory / rows, timer.interval(), sum);
+		}
+	}
+
+	private static Map<String, Object> newMap(int type, RowSchema<String> schema, int columns) {
+		switch (type) {
+		case 0:
+			return new HashMap<>(columns * 4 / 3 + 1);
+		case 1:
+			return new TableMap<>(columns);
+		case 2:
+			return new FlatHashMap<>(columns);
+		default:
+			return schema.newRow();
+		}
+	}
+
+	private static long usedMemory() {
+		final Runtime runtime = Runtime.getRuntime();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> T serialize(T obj) throws IOException, ClassNotFoundException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (ObjectOutputStream oos = new ObjectOutputStream(out)) {
+			oos.writeObject(obj);
+		}
+		try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+			return (T) ois.readObject();
+		}
+	}
+}
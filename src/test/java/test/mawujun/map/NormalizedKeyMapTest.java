@@ -0,0 +1,89 @@
+package test.mawujun.map;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.mawujun.bean.BeanDesc;
+import com.mawujun.bean.BeanUtil;
+import com.mawujun.bean.copier.CopyOptions;
+import com.mawujun.map.NormalizedKeyMap;
+import com.mawujun.util.StrUtil;
+
+import test.mawujun.bean.BeanUtilTest.SubPerson;
+
+/**
+ * NormalizedKeyMap单元测试
+ *
+ * @author mawujun
+ */
+public class NormalizedKeyMapTest {
+
+	@Test
+	public void ignoreCaseTest() {
+		final Map<Object, String> source = new LinkedHashMap<>();
+		source.put("customKey", "a");
+		source.put("CUSTOMKEY", "b");
+		source.put(1, "c");
+		final NormalizedKeyMap<String> map = new NormalizedKeyMap<>(source, true, false);
+
+		// 规范化后相同的Key，后加入的覆盖先加入的；非字符串Key被忽略
+		Assert.assertEquals(1, map.size());
+		Assert.assertEquals("b", map.get("customkey"));
+		Assert.assertEquals("b", map.get(new StringBuilder("CustomKey")));
+		Assert.assertNull(map.get("custom_key"));
+		Assert.assertNull(map.get(1));
+		Assert.assertEquals("CUSTOMKEY", map.keySet().iterator().next());
+	}
+
+	@Test
+	public void camelCaseTest() {
+		final Map<String, String> source = new LinkedHashMap<>();
+		source.put("user_name", "a");
+		source.put("age", "b");
+		final NormalizedKeyMap<String> map = new NormalizedKeyMap<>(source, false, true);
+
+		Assert.assertEquals("a", map.get("userName"));
+		Assert.assertEquals("a", map.get("USER_NAME"));
+		Assert.assertNull(map.get("username"));
+		Assert.assertTrue(map.containsKey("age"));
+		Assert.assertFalse(map.containsKey("Age"));
+
+		final NormalizedKeyMap<String> both = new NormalizedKeyMap<>(source, true, true);
+		Assert.assertEquals("a", both.get("username"));
+		Assert.assertEquals("b", both.get("AGE"));
+	}
+
+	@Test
+	public void manyKeysTest() {
+		final Map<String, Integer> source = new LinkedHashMap<>();
+		for (int i = 0; i < 1000; i++) {
+			source.put("key_" + i, i);
+		}
+		final NormalizedKeyMap<Integer> map = new NormalizedKeyMap<>(source, true, true);
+		Assert.assertEquals(1000, map.size());
+		for (int i = 0; i < 1000; i++) {
+			Assert.assertEquals(Integer.valueOf(i), map.get(StrUtil.toCamelCase("key_" + i)));
+		}
+	}
+
+	@Test
+	public void beanDescPropMapTest() {
+		final BeanDesc desc = new BeanDesc(SubPerson.class);
+		Assert.assertSame(desc.getPropMap(true), desc.getPropMap(true));
+		Assert.assertEquals("subName", desc.getProp("SUBNAME", true).getFieldName());
+		Assert.assertEquals("subName", desc.getCamelCasePropMap().get("sub_name").getFieldName());
+	}
+
+	@Test
+	public void fillBeanWithMapTest() {
+		final Map<String, Object> map = new LinkedHashMap<>();
+		map.put("sub_name", "sub");
+		map.put("AGE", 12);
+		final SubPerson person = BeanUtil.fillBeanWithMap(map, new SubPerson(), true, CopyOptions.create().ignoreCase());
+		Assert.assertEquals("sub", person.getSubName());
+		Assert.assertEquals(12, person.getAge());
+	}
+}
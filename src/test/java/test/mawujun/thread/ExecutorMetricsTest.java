@@ -0,0 +1,142 @@
+package test.mawujun.thread;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.mawujun.thread.ExecutorBuilder;
+import com.mawujun.thread.ExecutorMetrics;
+import com.mawujun.thread.ExecutorProfile;
+import com.mawujun.thread.InstrumentedThreadPoolExecutor;
+import com.mawujun.thread.NamedThreadFactory;
+import com.mawujun.thread.RejectPolicy;
+import com.mawujun.thread.ThreadUtil;
+
+/**
+ * {@link ExecutorMetrics} 单元测试
+ */
+public class ExecutorMetricsTest {
+
+	@Test
+	public void builderTest() throws InterruptedException {
+		final ThreadPoolExecutor executor = ExecutorBuilder.create()//
+				.setCorePoolSize(1)//
+				.setMaxPoolSize(1)//
+				.useArrayBlockingQueue(1)//
+				.setThreadFactory(new NamedThreadFactory("metrics-test-", true))//
+				.setHandler(RejectPolicy.ABORT.getValue())//
+				.setMetrics(null)//
+				.build();
+		Assert.assertTrue(executor instanceof InstrumentedThreadPoolExecutor);
+		final ExecutorMetrics metrics = ExecutorMetrics.get("metrics-test-");
+		Assert.assertSame(metrics, ((InstrumentedThreadPoolExecutor) executor).getMetrics());
+
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		executor.execute(() -> {
+			started.countDown();
+			await(release);
+		});
+		executor.execute(() -> {
+		});
+		started.await();
+		try {
+			executor.execute(() -> {
+			});
+			Assert.fail("task should be rejected");
+		} catch (RejectedExecutionException e) {
+			// 线程和队列都已满
+		}
+		Assert.assertEquals(1, metrics.getActive());
+		Assert.assertEquals(1, metrics.getQueued());
+		Assert.assertEquals(1, metrics.getRejected());
+		Assert.assertTrue(metrics.isSaturated());
+		Assert.assertTrue(ExecutorMetrics.dumpAll().contains("\"metrics-test-\":{\"name\":\"metrics-test-\""));
+
+		release.countDown();
+		executor.shutdown();
+		Assert.assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+		Assert.assertEquals(3, metrics.getSubmitted());
+		Assert.assertEquals(2, metrics.getCompleted());
+		Assert.assertEquals(0, metrics.getActive());
+		Assert.assertEquals(2, metrics.getRunLatency().getCount());
+		Assert.assertEquals(2, metrics.getWaitLatency().getCount());
+		// 终止后自动注销
+		Assert.assertFalse(ExecutorMetrics.getAll().containsKey("metrics-test-"));
+	}
+
+	@Test
+	public void duplicateNameTest() throws InterruptedException {
+		final NamedThreadFactory threadFactory = new NamedThreadFactory("metrics-dup-", true);
+		final ThreadPoolExecutor first = ExecutorBuilder.create().setCorePoolSize(1).setThreadFactory(threadFactory).setMetrics(null).build();
+		final ThreadPoolExecutor second = ExecutorBuilder.create().setCorePoolSize(1).setThreadFactory(threadFactory).setMetrics(null).build();
+		try {
+			// 同一前缀的线程池分别统计
+			final ExecutorMetrics firstMetrics = ((InstrumentedThreadPoolExecutor) first).getMetrics();
+			final ExecutorMetrics secondMetrics = ((InstrumentedThreadPoolExecutor) second).getMetrics();
+			Assert.assertEquals("metrics-dup-", firstMetrics.getName());
+			Assert.assertEquals("metrics-dup-#2", secondMetrics.getName());
+
+			// 指定的名称已被占用
+			try {
+				ExecutorBuilder.create().setCorePoolSize(1).setMetrics("metrics-dup-").build();
+				Assert.fail("duplicate metrics name should be refused");
+			} catch (IllegalStateException e) {
+				// 名称已被first使用
+			}
+		} finally {
+			first.shutdown();
+			second.shutdown();
+		}
+		Assert.assertTrue(first.awaitTermination(5, TimeUnit.SECONDS));
+		Assert.assertTrue(second.awaitTermination(5, TimeUnit.SECONDS));
+		Assert.assertFalse(ExecutorMetrics.getAll().containsKey("metrics-dup-"));
+		Assert.assertFalse(ExecutorMetrics.getAll().containsKey("metrics-dup-#2"));
+
+		// 终止后名称可以再次使用
+		final ThreadPoolExecutor third = ExecutorBuilder.create().setCorePoolSize(1).setThreadFactory(threadFactory).setMetrics(null).build();
+		Assert.assertEquals("metrics-dup-", ((InstrumentedThreadPoolExecutor) third).getMetrics().getName());
+		third.shutdown();
+	}
+
+	@Test
+	public void unnamedPoolTest() throws InterruptedException {
+		// 非NamedThreadFactory的线程池终止后不再留在注册表中
+		final ExecutorService executor = ExecutorBuilder.create().setCorePoolSize(1).setMetrics(null).build();
+		final String name = ((InstrumentedThreadPoolExecutor) executor).getMetrics().getName();
+		Assert.assertTrue(ExecutorMetrics.getAll().containsKey(name));
+		executor.shutdown();
+		Assert.assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+		Assert.assertFalse(ExecutorMetrics.getAll().containsKey(name));
+	}
+
+	@Test
+	public void slowTaskTest() throws Exception {
+		final ExecutorMetrics metrics = ExecutorMetrics.get("slow-task-test").setSlowTaskThreshold(50);
+		final ExecutorService executor = metrics.instrument(ThreadUtil.newExecutor(ExecutorProfile.WORK_STEALING));
+		try {
+			executor.submit(() -> ThreadUtil.sleep(300)).get(5, TimeUnit.SECONDS);
+		} finally {
+			metrics.setSlowTaskThreshold(0);
+			executor.shutdown();
+		}
+		Assert.assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+		Assert.assertEquals(1, metrics.getSlowTasks().size());
+		Assert.assertTrue(metrics.getSlowTasks().get(0).getStackTraceString().contains("ThreadUtil.sleep"));
+		Assert.assertEquals(1, metrics.getCompleted());
+		Assert.assertTrue(metrics.getRunLatency().getMax() >= 300 * 1000);
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,99 @@
+package test.mawujun.thread;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.mawujun.thread.BatchingExecutor;
+import com.mawujun.thread.KeyedSerialExecutor;
+import com.mawujun.thread.ThreadUtil;
+
+/**
+ * {@link KeyedSerialExecutor}、{@link BatchingExecutor} 单元测试
+ */
+public class KeyedSerialExecutorTest {
+
+	@Test
+	public void serialPerKeyTest() throws Exception {
+		final ExecutorService pool = ThreadUtil.newExecutor(8);
+		try {
+			final KeyedSerialExecutor<Integer> executor = new KeyedSerialExecutor<Integer>(pool).setMaxRunsPerKey(7);
+			final List<List<Integer>> orders = new ArrayList<>();
+			final AtomicInteger[] running = new AtomicInteger[4];
+			for (int key = 0; key < 4; key++) {
+				orders.add(Collections.synchronizedList(new ArrayList<>()));
+				running[key] = new AtomicInteger();
+			}
+			final AtomicInteger overlap = new AtomicInteger();
+			CompletableFuture<Integer> last = null;
+			for (int i = 0; i < 400; i++) {
+				final int key = i % 4;
+				final int value = i;
+				last = executor.submit(key, () -> {
+					if (running[key].incrementAndGet() > 1) {
+						overlap.incrementAndGet();
+					}
+					orders.get(key).add(value);
+					running[key].decrementAndGet();
+					return value;
+				});
+			}
+			Assert.assertEquals(Integer.valueOf(399), last.get(5, TimeUnit.SECONDS));
+			// 等待其它key执行完
+			for (int i = 0; i < 100 && executor.getPendingKeys() > 0; i++) {
+				ThreadUtil.sleep(10);
+			}
+			Assert.assertEquals(0, executor.getPendingKeys());
+			Assert.assertEquals(0, overlap.get());
+			for (int key = 0; key < 4; key++) {
+				final List<Integer> order = orders.get(key);
+				Assert.assertEquals(100, order.size());
+				for (int i = 0; i < 100; i++) {
+					Assert.assertEquals(Integer.valueOf(i * 4 + key), order.get(i));
+				}
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void exceptionTest() throws Exception {
+		final KeyedSerialExecutor<String> executor = new KeyedSerialExecutor<>();
+		final CompletableFuture<Object> failed = executor.submit("a", () -> {
+			throw new IllegalStateException("boom");
+		});
+		Assert.assertEquals("ok", executor.submit("a", () -> "ok").get(5, TimeUnit.SECONDS));
+		Assert.assertTrue(failed.isCompletedExceptionally());
+	}
+
+	@Test
+	public void batchingTest() throws InterruptedException {
+		final ExecutorService pool = ThreadUtil.newExecutor(4);
+		try {
+			final BatchingExecutor executor = new BatchingExecutor(pool, 2).setBatchSize(16);
+			final CountDownLatch latch = new CountDownLatch(10000);
+			final AtomicInteger sum = new AtomicInteger();
+			for (int i = 0; i < 10000; i++) {
+				final int value = i;
+				executor.execute(() -> {
+					sum.addAndGet(value);
+					latch.countDown();
+				});
+			}
+			Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+			Assert.assertEquals(10000 * 9999 / 2, sum.get());
+			Assert.assertEquals(0, executor.getPendingTasks());
+		} finally {
+			pool.shutdown();
+		}
+	}
+}
@@ -0,0 +1,72 @@
+package test.mawujun.thread;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.mawujun.thread.LoadTestReport;
+import com.mawujun.thread.LoadTester;
+import com.mawujun.thread.ThreadUtil;
+
+/**
+ * {@link LoadTester} 单元测试
+ */
+public class LoadTesterTest {
+
+	@Test
+	public void fixedConcurrencyTest() {
+		final AtomicInteger calls = new AtomicInteger();
+		final LoadTestReport report = LoadTester.fixedConcurrency(4)//
+				.setWarmup(100, TimeUnit.MILLISECONDS)//
+				.setDuration(1, TimeUnit.SECONDS)//
+				.run(() -> {
+					if (calls.incrementAndGet() % 10 == 0) {
+						throw new IllegalStateException();
+					}
+					ThreadUtil.sleep(5);
+				});
+		Assert.assertFalse(report.isFixedRate());
+		Assert.assertTrue(report.getCount() > 100);
+		Assert.assertTrue(report.getErrors() > 0);
+		Assert.assertTrue(report.getServiceTime().getPercentile(99) >= 5000);
+		Assert.assertEquals(1, report.getThroughputSeries().length);
+		Assert.assertEquals(report.getCount(), report.getThroughputSeries()[0]);
+		Assert.assertTrue(report.toCsv().startsWith("second,count,errors"));
+	}
+
+	@Test
+	public void fixedRateTest() {
+		// 每秒100次，单线程执行20ms的逻辑，实际每秒只能完成约50次，排队延后的时间应计入耗时
+		final LoadTestReport report = LoadTester.fixedRate(100, 1)//
+				.setDuration(500, TimeUnit.MILLISECONDS)//
+				.run(() -> ThreadUtil.sleep(20));
+		Assert.assertTrue(report.isFixedRate());
+		// 测量结束后不再执行积压的计划，剩余的计为错过
+		Assert.assertTrue(report.getCount() <= 26);
+		Assert.assertTrue(report.getMissed() > 0);
+		Assert.assertEquals(50, report.getCount() + report.getMissed());
+		Assert.assertTrue(report.getElapsedMillis() < 600);
+		Assert.assertTrue(report.getServiceTime().getPercentile(50) < 100 * 1000);
+		Assert.assertTrue(report.getLatency().getPercentile(99) > 200 * 1000);
+		Assert.assertTrue(report.toJson().startsWith("{\"mode\":\"fixedRate\""));
+	}
+
+	@Test
+	public void rateTest() {
+		// 超过每秒10亿次时计划间隔为0，不能退化为固定并发模式
+		try {
+			LoadTester.fixedRate(2e9, 1);
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+			// 速率超出范围
+		}
+		try {
+			LoadTester.fixedRate(Double.NaN, 1);
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+			// 速率无效
+		}
+	}
+}
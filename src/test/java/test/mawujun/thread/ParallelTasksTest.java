@@ -0,0 +1,116 @@
+package test.mawujun.thread;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.mawujun.exception.exceptions.UtilException;
+import com.mawujun.thread.ParallelTasks;
+import com.mawujun.thread.ThreadUtil;
+
+/**
+ * {@link ParallelTasks} 单元测试
+ */
+public class ParallelTasksTest {
+
+	@Test
+	public void invokeTest() {
+		final AtomicInteger running = new AtomicInteger();
+		final AtomicInteger maxRunning = new AtomicInteger();
+		final ParallelTasks<Integer> tasks = ParallelTasks.create();
+		for (int i = 0; i < 20; i++) {
+			final int value = i;
+			tasks.add(() -> {
+				maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+				// 越早添加的任务执行越久，验证结果仍按添加顺序返回
+				ThreadUtil.sleep(20 - value);
+				running.decrementAndGet();
+				return value * value;
+			});
+		}
+		final List<Integer> results = tasks.setParallelism(3).invoke();
+		Assert.assertEquals(20, results.size());
+		for (int i = 0; i < 20; i++) {
+			Assert.assertEquals(Integer.valueOf(i * i), results.get(i));
+		}
+		Assert.assertTrue(maxRunning.get() <= 3);
+	}
+
+	@Test
+	public void failFastTest() {
+		final AtomicInteger interrupted = new AtomicInteger();
+		final CountDownLatch started = new CountDownLatch(3);
+		final ParallelTasks<String> tasks = ParallelTasks.<String> create()//
+				.add(() -> {
+					started.await();
+					throw new IOException("boom");
+				});
+		for (int i = 0; i < 3; i++) {
+			tasks.add(() -> {
+				started.countDown();
+				try {
+					Thread.sleep(5000);
+				} catch (InterruptedException e) {
+					interrupted.incrementAndGet();
+				}
+				return "slow";
+			});
+		}
+		final long start = System.currentTimeMillis();
+		try {
+			tasks.invoke();
+			Assert.fail("should fail");
+		} catch (UtilException e) {
+			Assert.assertTrue(e.getCause() instanceof IOException);
+		}
+		Assert.assertTrue(System.currentTimeMillis() - start < 2000);
+		// 其余任务被取消（中断）
+		ThreadUtil.sleep(200);
+		Assert.assertEquals(3, interrupted.get());
+	}
+
+	@Test
+	public void timeoutTest() {
+		try {
+			ParallelTasks.<String> create()//
+					.add(() -> "fast")//
+					.add(() -> {
+						Thread.sleep(5000);
+						return "slow";
+					})//
+					.setTimeout(100, TimeUnit.MILLISECONDS)//
+					.invoke();
+			Assert.fail("should timeout");
+		} catch (UtilException e) {
+			Assert.assertTrue(e.getCause() instanceof TimeoutException);
+		}
+	}
+
+	@Test
+	public void parallelMapTest() {
+		final List<Integer> list = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			list.add(i);
+		}
+		final List<String> result = ParallelTasks.parallelMap(list, String::valueOf, 64);
+		Assert.assertEquals(1000, result.size());
+		for (int i = 0; i < 1000; i++) {
+			Assert.assertEquals(String.valueOf(i), result.get(i));
+		}
+
+		final ExecutorService executor = ThreadUtil.newExecutor(2);
+		try {
+			Assert.assertEquals(result, ParallelTasks.parallelMap(executor, list, String::valueOf, 100, 2));
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
@@ -1,8 +1,23 @@
 package test.mawujun.thread;
 
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.Assert;
 import org.junit.Test;
 
+import com.mawujun.thread.ExecutorBuilder;
+import com.mawujun.thread.ExecutorProfile;
+import com.mawujun.thread.GlobalThreadPool;
+import com.mawujun.thread.NamedThreadFactory;
 import com.mawujun.thread.ThreadUtil;
 
 public class ThreadUtilTest {
@@ -20,4 +35,142 @@ public class ThreadUtilTest {
 		});
 		
 	}
+
+	@Test
+	public void eagerExecutorTest() throws InterruptedException {
+		final ThreadPoolExecutor executor = ThreadUtil.newEagerExecutor(1, 4, 10);
+		final CountDownLatch release = new CountDownLatch(1);
+		try {
+			for (int i = 0; i < 4; i++) {
+				executor.execute(() -> await(release));
+			}
+			// 线程数未到上限前先扩充线程而不是排队
+			Assert.assertEquals(4, executor.getPoolSize());
+			Assert.assertEquals(0, executor.getQueue().size());
+
+			executor.execute(() -> await(release));
+			Assert.assertEquals(4, executor.getPoolSize());
+			Assert.assertEquals(1, executor.getQueue().size());
+		} finally {
+			release.countDown();
+			executor.shutdown();
+		}
+		Assert.assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void eagerExecutorReuseTest() throws InterruptedException {
+		final List<Thread> workers = new CopyOnWriteArrayList<>();
+		final ThreadPoolExecutor executor = ExecutorBuilder.create()//
+				.setCorePoolSize(1)//
+				.setMaxPoolSize(4)//
+				.useEagerQueue(10)//
+				.setThreadFactory(r -> {
+					final Thread thread = new Thread(r);
+					workers.add(thread);
+					return thread;
+				}).build();
+		final CountDownLatch release = new CountDownLatch(1);
+		try {
+			executor.execute(() -> {
+			});
+			while (executor.getCompletedTaskCount() < 1 || Thread.State.WAITING != workers.get(0).getState()) {
+				Thread.sleep(1);
+			}
+			// 线程执行完任务后在队列上等待，空闲的线程被复用
+			executor.execute(() -> await(release));
+			Assert.assertEquals(1, executor.getPoolSize());
+		} finally {
+			release.countDown();
+			executor.shutdown();
+		}
+		Assert.assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void boundedExecutorTest() throws InterruptedException {
+		final ThreadPoolExecutor executor = ThreadUtil.newBoundedExecutor(1, 1, 1);
+		final CountDownLatch release = new CountDownLatch(1);
+		final AtomicInteger callerRuns = new AtomicInteger();
+		final Thread caller = Thread.currentThread();
+		try {
+			executor.execute(() -> await(release));
+			executor.execute(() -> await(release));
+			// 线程和队列都满时由提交任务的线程执行
+			executor.execute(() -> {
+				if (Thread.currentThread() == caller) {
+					callerRuns.incrementAndGet();
+				}
+			});
+			Assert.assertEquals(1, callerRuns.get());
+		} finally {
+			release.countDown();
+			executor.shutdown();
+		}
+		Assert.assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void profileTest() throws Exception {
+		for (ExecutorProfile profile : ExecutorProfile.values()) {
+			final ExecutorService executor = ThreadUtil.newExecutor(profile);
+			try {
+				Assert.assertEquals(profile.name(), executor.submit(() -> profile.name()).get(5, TimeUnit.SECONDS));
+			} finally {
+				executor.shutdown();
+			}
+		}
+		final ExecutorService workStealing = ThreadUtil.newExecutor(ExecutorProfile.WORK_STEALING);
+		try {
+			Assert.assertTrue(workStealing instanceof ForkJoinPool);
+		} finally {
+			workStealing.shutdown();
+		}
+		if (false == ThreadUtil.isVirtualThreadSupported()) {
+			Assert.assertTrue(ThreadUtil.newVirtualThreadExecutor() instanceof ThreadPoolExecutor);
+		}
+	}
+
+	@Test
+	public void builderProfileTest() throws Exception {
+		final ExecutorBuilder builder = ExecutorBuilder.create().setThreadFactory(new NamedThreadFactory("profile-ws-", true));
+		final ExecutorService workStealing = builder.build(ExecutorProfile.WORK_STEALING);
+		try {
+			Assert.assertTrue(workStealing.submit(() -> Thread.currentThread().getName()).get(5, TimeUnit.SECONDS).startsWith("profile-ws-"));
+			Assert.assertTrue(workStealing.submit(() -> Thread.currentThread().isDaemon()).get(5, TimeUnit.SECONDS));
+		} finally {
+			workStealing.shutdown();
+		}
+
+		// 按类型构建的默认值不能影响之后的构建
+		final ExecutorService bounded = builder.build(ExecutorProfile.BOUNDED);
+		final ThreadPoolExecutor plain = builder.build();
+		try {
+			Assert.assertTrue(((ThreadPoolExecutor) bounded).getQueue() instanceof ArrayBlockingQueue);
+			Assert.assertTrue(plain.getQueue() instanceof SynchronousQueue);
+			Assert.assertTrue(plain.getRejectedExecutionHandler() instanceof ThreadPoolExecutor.AbortPolicy);
+		} finally {
+			bounded.shutdown();
+			plain.shutdown();
+		}
+	}
+
+	@Test
+	public void globalThreadPoolTest() throws Exception {
+		try {
+			GlobalThreadPool.init(ExecutorProfile.BOUNDED);
+			Assert.assertTrue(GlobalThreadPool.getExecutor() instanceof ThreadPoolExecutor);
+			Assert.assertEquals("ok", ThreadUtil.execAsync(() -> "ok").get(5, TimeUnit.SECONDS));
+		} finally {
+			GlobalThreadPool.init();
+		}
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
 }
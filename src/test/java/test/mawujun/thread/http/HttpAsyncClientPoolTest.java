@@ -0,0 +1,232 @@
+package test.mawujun.thread.http;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.bootstrap.HttpServer;
+import org.apache.http.impl.bootstrap.ServerBootstrap;
+import org.apache.http.message.BasicHttpRequest;
+import org.apache.http.util.EntityUtils;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import com.mawujun.lang.Console;
+import com.mawujun.thread.ThreadUtil;
+import com.mawujun.thread.http.HttpAsyncClientPool;
+import com.mawujun.thread.http.HttpClientPoolUtil;
+import com.mawujun.thread.http.IHttpClientPoolCallback;
+import com.mawujun.util.StrUtil;
+
+/**
+ * {@link HttpAsyncClientPool} 单元测试，使用HttpCore内置的HttpServer作为服务端
+ */
+public class HttpAsyncClientPoolTest {
+
+	private static HttpServer server;
+	private static String baseUrl;
+
+	@BeforeClass
+	public static void startServer() throws IOException {
+		server = ServerBootstrap.bootstrap()//
+				.setLocalAddress(InetAddress.getLoopbackAddress())//
+				// 返回请求参数及请求体
+				.registerHandler("/echo", (request, response, context) -> {
+					String result = StrUtil.nullToEmpty(URI.create(request.getRequestLine().getUri()).getRawQuery());
+					if (request instanceof HttpEntityEnclosingRequest) {
+						result += EntityUtils.toString(((HttpEntityEnclosingRequest) request).getEntity());
+					}
+					response.setEntity(new StringEntity(result, StandardCharsets.UTF_8));
+				})//
+				// 模拟耗时20ms的接口
+				.registerHandler("/slow", (request, response, context) -> {
+					ThreadUtil.sleep(20);
+					response.setEntity(new StringEntity("ok", StandardCharsets.UTF_8));
+				})//
+				.registerHandler("/error", (request, response, context) -> response.setStatusCode(500))//
+				.create();
+		server.start();
+		baseUrl = "http://127.0.0.1:" + server.getLocalPort();
+	}
+
+	@AfterClass
+	public static void stopServer() {
+		server.shutdown(0, TimeUnit.SECONDS);
+	}
+
+	@Test
+	public void requestTest() throws Exception {
+		final HttpAsyncClientPool pool = HttpAsyncClientPool.create(10, 20);
+		try {
+			Map<String, Object> params = new HashMap<>();
+			params.put("name", "test");
+			Assert.assertEquals("name=test", pool.get(baseUrl + "/echo", params, new StringCallback()).get());
+			Assert.assertEquals("{\"a\":1}", pool.postJson(baseUrl + "/echo", "{\"a\":1}", new StringCallback()).get());
+			Assert.assertEquals("name=test", pool.postForm(baseUrl + "/echo", params, new StringCallback()).get());
+			Assert.assertEquals("failure:500", pool.get(baseUrl + "/error", null, new StringCallback()).get());
+
+			List<CompletableFuture<String>> futures = new ArrayList<>();
+			for (int i = 0; i < 100; i++) {
+				futures.add(pool.get(baseUrl + "/echo?i=" + i, null, new StringCallback()));
+			}
+			for (int i = 0; i < 100; i++) {
+				Assert.assertEquals("i=" + i, futures.get(i).get());
+			}
+			// 连接池限制了并发数
+			Assert.assertTrue(pool.getHttpConnectionManager().getTotalStats().getAvailable() <= 10);
+		} finally {
+			pool.close();
+		}
+	}
+
+	@Test
+	public void pipelineTest() throws Exception {
+		final HttpAsyncClientPool pool = HttpAsyncClientPool.create();
+		try {
+			List<HttpRequest> requests = new ArrayList<>();
+			for (int i = 0; i < 3; i++) {
+				requests.add(new BasicHttpRequest("GET", "/echo?i=" + i));
+			}
+			List<HttpResponse> responses = pool.pipeline(baseUrl, requests).get();
+			Assert.assertEquals(3, responses.size());
+			for (int i = 0; i < 3; i++) {
+				Assert.assertEquals("i=" + i, EntityUtils.toString(responses.get(i).getEntity()));
+			}
+		} finally {
+			pool.close();
+		}
+	}
+
+	@Test
+	public void exceptionTest() throws Exception {
+		final HttpAsyncClientPool pool = HttpAsyncClientPool.create();
+		try {
+			final StringCallback callback = new StringCallback();
+			// 无服务监听的端口
+			final CompletableFuture<String> future = pool.get("http://127.0.0.1:1/echo", null, callback);
+			try {
+				future.get();
+				Assert.fail();
+			} catch (Exception e) {
+				Assert.assertNotNull(callback.exception);
+			}
+		} finally {
+			pool.close();
+		}
+	}
+
+	@Test
+	public void rejectedCallbackTest() throws Exception {
+		final HttpAsyncClientPool pool = HttpAsyncClientPool.create();
+		final ExecutorService callbackExecutor = Executors.newSingleThreadExecutor();
+		callbackExecutor.shutdown();
+		try {
+			// 回调线程池拒绝时回调和Future都以拒绝异常结束
+			pool.setCallbackExecutor(callbackExecutor);
+			final StringCallback callback = new StringCallback();
+			final CompletableFuture<String> future = pool.get(baseUrl + "/echo", null, callback);
+			try {
+				future.get(5, TimeUnit.SECONDS);
+				Assert.fail();
+			} catch (ExecutionException e) {
+				Assert.assertTrue(e.getCause() instanceof RejectedExecutionException);
+				Assert.assertSame(e.getCause(), callback.exception);
+			}
+		} finally {
+			pool.close();
+		}
+	}
+
+	/**
+	 * 对比同步线程池模式与异步模式的吞吐量
+	 */
+	@Test
+	@Ignore
+	public void benchmarkTest() throws Exception {
+		final int total = 5000;
+		final String url = baseUrl + "/slow";
+
+		// 同步模式：50个线程，每个请求阻塞一个线程
+		final HttpClientPoolUtil syncPool = HttpClientPoolUtil.initPools(50, 100, 50);
+		final CountDownLatch latch = new CountDownLatch(total);
+		long start = System.nanoTime();
+		for (int i = 0; i < total; i++) {
+			syncPool.get(url, null, new StringCallback() {
+				@Override
+				public int success(HttpResponse httpResponse) throws IOException {
+					latch.countDown();
+					return super.success(httpResponse);
+				}
+			});
+		}
+		latch.await();
+		long syncCost = System.nanoTime() - start;
+		syncPool.shutdownLatch();
+
+		// 异步模式：少量I/O线程，500个并发连接
+		final HttpAsyncClientPool asyncPool = HttpAsyncClientPool.create(500, 500);
+		start = System.nanoTime();
+		final List<CompletableFuture<String>> futures = new ArrayList<>(total);
+		for (int i = 0; i < total; i++) {
+			futures.add(asyncPool.get(url, null, new StringCallback()));
+		}
+		CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get();
+		long asyncCost = System.nanoTime() - start;
+		asyncPool.close();
+
+		Console.log("sync : {} req/s", total * 1000_000_000L / syncCost);
+		Console.log("async: {} req/s", total * 1000_000_000L / asyncCost);
+	}
+
+	private static class StringCallback implements IHttpClientPoolCallback<String> {
+		private String result;
+		private Exception exception;
+
+		@Override
+		public int success(HttpResponse httpResponse) throws IOException {
+			result = EntityUtils.toString(httpResponse.getEntity());
+			return 0;
+		}
+
+		@Override
+		public int failure(HttpResponse httpResponse) throws IOException {
+			result = "failure:" + httpResponse.getStatusLine().getStatusCode();
+			return -1;
+		}
+
+		@Override
+		public int exception(Exception e) {
+			this.exception = e;
+			return -1;
+		}
+
+		@Override
+		public String getResult() {
+			return result;
+		}
+
+		@Override
+		public void requestSetup(HttpRequestBase request) {
+		}
+	}
+}